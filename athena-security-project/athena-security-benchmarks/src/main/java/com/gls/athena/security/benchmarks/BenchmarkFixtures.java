@@ -0,0 +1,151 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationServerConstants;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 基准测试数据构造工具
+ * <p>
+ * 构造的客户端和授权信息与授权服务器密码模式签发的结构一致：包含访问令牌、刷新令牌、ID令牌及其声明，
+ * 以及用户认证主体属性，使编解码和存储的开销与生产数据相当。
+ * </p>
+ *
+ * @author george
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * 基准测试客户端ID
+     */
+    public static final String CLIENT_ID = "benchmark-client";
+
+    /**
+     * 基准测试签发者
+     */
+    public static final String ISSUER = "https://auth.benchmark.local";
+
+    /**
+     * 基准测试请求的作用域
+     */
+    public static final Set<String> SCOPES = Set.of(OidcScopes.OPENID, OidcScopes.PROFILE, "message.read", "message.write");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 构造支持密码模式和刷新令牌、签发JWT访问令牌的注册客户端
+     *
+     * @return 注册客户端
+     */
+    public static RegisteredClient registeredClient() {
+        return RegisteredClient.withId(UUID.nameUUIDFromBytes(CLIENT_ID.getBytes()).toString())
+                .clientId(CLIENT_ID)
+                .clientSecret("{noop}secret")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationServerConstants.PASSWORD)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .scopes(scopes -> scopes.addAll(SCOPES))
+                .tokenSettings(TokenSettings.builder()
+                        .accessTokenFormat(OAuth2TokenFormat.SELF_CONTAINED)
+                        .accessTokenTimeToLive(Duration.ofHours(1))
+                        .refreshTokenTimeToLive(Duration.ofDays(7))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 构造授权信息，令牌值和授权ID均随机生成
+     *
+     * @param registeredClient 注册客户端
+     * @param principalName    主体名称
+     * @return 授权信息
+     */
+    public static OAuth2Authorization authorization(RegisteredClient registeredClient, String principalName) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(Duration.ofHours(1));
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                UUID.randomUUID().toString(), issuedAt, expiresAt, SCOPES);
+        OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(UUID.randomUUID().toString(), issuedAt,
+                issuedAt.plus(Duration.ofDays(7)));
+        Map<String, Object> claims = Map.of(
+                "iss", ISSUER,
+                "sub", principalName,
+                "aud", CLIENT_ID,
+                "sid", UUID.randomUUID().toString(),
+                "iat", issuedAt,
+                "exp", expiresAt);
+        OidcIdToken idToken = new OidcIdToken(UUID.randomUUID().toString(), issuedAt, expiresAt, claims);
+        UsernamePasswordAuthenticationToken principal = new UsernamePasswordAuthenticationToken(
+                User.withUsername(principalName).password("").authorities("ROLE_USER").build(), null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(UUID.randomUUID().toString())
+                .principalName(principalName)
+                .authorizationGrantType(AuthorizationServerConstants.PASSWORD)
+                .authorizedScopes(SCOPES)
+                .attribute(Principal.class.getName(), principal)
+                .token(accessToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims))
+                .refreshToken(refreshToken)
+                .token(idToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()))
+                .build();
+    }
+
+    /**
+     * 构造包含单个RSA密钥的JWK源
+     *
+     * @return JWK源
+     */
+    public static JWKSource<SecurityContext> jwkSource() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID(UUID.randomUUID().toString())
+                    .build();
+            return new ImmutableJWKSet<>(new JWKSet(rsaKey));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持RSA算法", e);
+        }
+    }
+
+    /**
+     * 构造授权服务器设置
+     *
+     * @return 授权服务器设置
+     */
+    public static AuthorizationServerSettings authorizationServerSettings() {
+        return AuthorizationServerSettings.builder().issuer(ISSUER).build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.gls.athena.security.benchmarks;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 基准测试Redis环境
+ * <p>
+ * 默认在本机随机端口启动嵌入式Redis进程，不依赖Docker；指定系统属性benchmark.redis.host时改用外部Redis，
+ * 端口由benchmark.redis.port指定，默认6379。
+ * </p>
+ * <p>
+ * Redis连接和RedisUtil等基础设施由Spring Boot自动配置提供，与生产环境一致；
+ * 本项目各安全模块的自动配置被排除，被测组件由各基准测试使用生产构造函数显式创建。
+ * </p>
+ *
+ * @author george
+ */
+public class BenchmarkRedisEnvironment implements AutoCloseable {
+
+    private final RedisServer redisServer;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkRedisEnvironment(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    /**
+     * 启动Redis环境并清空数据
+     *
+     * @return Redis环境
+     */
+    public static BenchmarkRedisEnvironment start() {
+        String host = System.getProperty("benchmark.redis.host");
+        int port = Integer.getInteger("benchmark.redis.port", 6379);
+        RedisServer redisServer = null;
+        try {
+            if (host == null || host.isEmpty()) {
+                host = "127.0.0.1";
+                port = getFreePort();
+                redisServer = new RedisServer(port);
+                redisServer.start();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("启动嵌入式Redis失败", e);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("spring.data.redis.host=" + host, "spring.data.redis.port=" + port)
+                .run();
+        BenchmarkRedisEnvironment environment = new BenchmarkRedisEnvironment(redisServer, context);
+        environment.flush();
+        return environment;
+    }
+
+    /**
+     * 获取字符串Redis模板
+     *
+     * @return 字符串Redis模板
+     */
+    public StringRedisTemplate getRedisTemplate() {
+        return context.getBean(StringRedisTemplate.class);
+    }
+
+    /**
+     * 获取响应式字符串Redis模板
+     *
+     * @return 响应式字符串Redis模板
+     */
+    public ReactiveStringRedisTemplate getReactiveRedisTemplate() {
+        return context.getBean(ReactiveStringRedisTemplate.class);
+    }
+
+    /**
+     * 清空当前数据库
+     */
+    public void flush() {
+        getRedisTemplate().execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    /**
+     * 关闭Spring上下文并停止嵌入式Redis
+     */
+    @Override
+    public void close() {
+        context.close();
+        if (redisServer != null) {
+            try {
+                redisServer.stop();
+            } catch (IOException e) {
+                throw new UncheckedIOException("停止嵌入式Redis失败", e);
+            }
+        }
+    }
+
+    /**
+     * 获取本机空闲端口
+     *
+     * @return 端口号
+     * @throws IOException 无法分配端口时抛出
+     */
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 基准测试应用配置，仅保留基础设施自动配置
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = {
+            "com.gls.athena.security.common.SecurityCommonAutoConfig",
+            "com.gls.athena.security.captcha.CaptchaAutoConfig",
+            "com.gls.athena.security.rest.RestAutoConfig",
+            "com.gls.athena.security.web.SecurityWebAutoConfig",
+            "com.gls.athena.security.oauth2.client.Oauth2ClientAutoConfig",
+            "com.gls.athena.security.oauth2.client.feishu.Oauth2FeishuAutoConfig",
+            "com.gls.athena.security.oauth2.client.wechat.Oauth2WechatAutoConfig",
+            "com.gls.athena.security.oauth2.authorization.server.AuthorizationServerAutoConfig"
+    })
+    static class BenchmarkApplication {
+    }
+}
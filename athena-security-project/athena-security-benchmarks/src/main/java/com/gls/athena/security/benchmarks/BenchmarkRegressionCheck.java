@@ -0,0 +1,98 @@
+package com.gls.athena.security.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基准测试回归检查
+ * <p>
+ * 比较两份JMH JSON结果中名称和参数相同的基准测试：吞吐量模式下得分越高越好，其他模式下得分越低越好。
+ * 只在基线中存在的基准测试不参与比较，新增的基准测试不视为回退。
+ * </p>
+ *
+ * @author george
+ */
+public final class BenchmarkRegressionCheck {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BenchmarkRegressionCheck() {
+    }
+
+    /**
+     * 以命令行方式比较两份结果
+     *
+     * @param args 基线结果文件、当前结果文件和可选的允许下降比例
+     * @throws IOException 读取结果文件失败时抛出
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchmarkRegressionCheck <基线结果> <当前结果> [允许下降比例]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        List<String> regressions = check(Path.of(args[0]), Path.of(args[1]), tolerance);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 比较两份结果
+     *
+     * @param baseline  基线结果文件
+     * @param current   当前结果文件
+     * @param tolerance 允许的下降比例，例如0.10表示10%
+     * @return 回退描述，没有回退时为空列表
+     * @throws IOException 读取结果文件失败时抛出
+     */
+    public static List<String> check(Path baseline, Path current, double tolerance) throws IOException {
+        Map<String, JsonNode> baselineResults = read(baseline);
+        List<String> regressions = new ArrayList<>();
+        read(current).forEach((key, result) -> {
+            JsonNode previous = baselineResults.get(key);
+            if (previous == null) {
+                return;
+            }
+            double previousScore = previous.path("primaryMetric").path("score").asDouble();
+            double score = result.path("primaryMetric").path("score").asDouble();
+            if (previousScore <= 0) {
+                return;
+            }
+            // 吞吐量越高越好，平均时间、采样时间和单次执行时间越低越好
+            boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            double change = higherIsBetter ? (previousScore - score) / previousScore : (score - previousScore) / previousScore;
+            if (change > tolerance) {
+                String unit = result.path("primaryMetric").path("scoreUnit").asText();
+                regressions.add(String.format("%s: %.3f -> %.3f %s (下降 %.1f%%)", key, previousScore, score, unit, change * 100));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * 读取结果文件，以基准测试名称、模式和参数为键
+     *
+     * @param path 结果文件
+     * @return 基准测试结果
+     * @throws IOException 读取结果文件失败时抛出
+     */
+    private static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : OBJECT_MAPPER.readTree(path.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").properties().forEach(entry -> params.put(entry.getKey(), entry.getValue().asText()));
+            results.put(result.path("benchmark").asText() + " [" + result.path("mode").asText() + "] " + params, result);
+        }
+        return results;
+    }
+}
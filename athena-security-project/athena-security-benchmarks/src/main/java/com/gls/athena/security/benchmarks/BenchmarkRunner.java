@@ -0,0 +1,60 @@
+package com.gls.athena.security.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 接受JMH的全部命令行参数，未指定结果格式和结果文件时以JSON格式写入系统属性benchmark.result指定的文件，
+ * 默认为target/jmh-result.json。指定系统属性benchmark.baseline时，运行结束后与基线结果比较，
+ * 任一基准测试的下降比例超过benchmark.tolerance（默认0.10）时以非零状态退出，供发布流水线拦截性能回退。
+ * </p>
+ *
+ * @author george
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * 运行基准测试
+     *
+     * @param args JMH命令行参数
+     * @throws CommandLineOptionException 命令行参数无效时抛出
+     * @throws RunnerException            基准测试运行失败时抛出
+     * @throws IOException                读取结果文件失败时抛出
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Path result = Path.of(commandLineOptions.getResult().orElse(System.getProperty("benchmark.result", "target/jmh-result.json")));
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .result(result.toString());
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(builder.build()).run();
+
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline == null || baseline.isBlank()) {
+            return;
+        }
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.10"));
+        List<String> regressions = BenchmarkRegressionCheck.check(Path.of(baseline), result, tolerance);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+}
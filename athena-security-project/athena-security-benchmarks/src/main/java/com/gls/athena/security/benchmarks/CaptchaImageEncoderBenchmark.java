@@ -0,0 +1,63 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.captcha.config.ImageCaptchaProperties;
+import com.gls.athena.security.captcha.support.CaptchaPngEncoder;
+import com.gls.athena.security.captcha.support.ImageCaptchaRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图形验证码编码基准测试
+ * <p>
+ * 比较ImageIO默认PNG编码器与{@link CaptchaPngEncoder}编码同一张默认尺寸验证码图片的耗时，
+ * 图片与图片验证码提供者绘制的一致。配合-prof gc可比较每次编码的内存分配。
+ * </p>
+ *
+ * @author george
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CaptchaImageEncoderBenchmark {
+
+    private BufferedImage image;
+
+    /**
+     * 绘制验证码图片
+     */
+    @Setup
+    public void setup() {
+        image = new ImageCaptchaRenderer(new ImageCaptchaProperties()).render().getImage();
+    }
+
+    /**
+     * 使用ImageIO编码，与原图片验证码提供者的写出方式一致
+     *
+     * @return PNG编码
+     * @throws IOException 编码失败
+     */
+    @Benchmark
+    public byte[] imageIo() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 使用验证码PNG编码器编码
+     *
+     * @return PNG编码
+     */
+    @Benchmark
+    public byte[] captchaPngEncoder() {
+        return CaptchaPngEncoder.encode(image);
+    }
+}
@@ -0,0 +1,144 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.token.CachingJwtEncoder;
+import com.gls.athena.security.oauth2.authorization.server.token.JwkGenerator;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT编码器基准测试
+ * <p>
+ * 比较Spring Security默认的{@link NimbusJwtEncoder}与{@link CachingJwtEncoder}签发访问令牌的耗时，
+ * 声明与授权服务器签发的访问令牌一致。默认编码器依赖Tink才能使用Ed25519，因此只比较RSA和EC。
+ * </p>
+ *
+ * @author george
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtEncoderBenchmark {
+
+    /**
+     * 使用默认编码器签发令牌
+     *
+     * @param state 默认编码器
+     * @return 已签名的JWT
+     */
+    @Benchmark
+    public Jwt nimbus(NimbusEncoderState state) {
+        return state.encoder.encode(state.parameters());
+    }
+
+    /**
+     * 使用缓存签名器的编码器签发令牌
+     *
+     * @param state 缓存签名器的编码器
+     * @return 已签名的JWT
+     */
+    @Benchmark
+    public Jwt caching(CachingEncoderState state) {
+        return state.encoder.encode(state.parameters());
+    }
+
+    /**
+     * 构造编码参数
+     *
+     * @param algorithm 签名算法名称
+     * @return 编码参数
+     */
+    private static JwtEncoderParameters parameters(String algorithm) {
+        Instant issuedAt = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(BenchmarkFixtures.ISSUER)
+                .subject("user")
+                .audience(List.of(BenchmarkFixtures.CLIENT_ID))
+                .issuedAt(issuedAt)
+                .notBefore(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+                .id(UUID.randomUUID().toString())
+                .claim("scope", BenchmarkFixtures.SCOPES)
+                .build();
+        return JwtEncoderParameters.from(JwsHeader.with(JwkGenerator.resolveAlgorithm(algorithm)).build(), claims);
+    }
+
+    /**
+     * 构造包含单个签名密钥的JWK源
+     *
+     * @param algorithm 签名算法名称
+     * @return JWK源
+     */
+    private static JWKSource<SecurityContext> jwkSource(String algorithm) {
+        return new ImmutableJWKSet<>(new JWKSet(JwkGenerator.generate(algorithm, null)));
+    }
+
+    /**
+     * 默认编码器
+     */
+    @State(Scope.Benchmark)
+    public static class NimbusEncoderState {
+
+        @Param({"RS256", "ES256"})
+        private String algorithm;
+
+        private JwtEncoder encoder;
+
+        /**
+         * 生成密钥并创建编码器
+         */
+        @Setup
+        public void setup() {
+            encoder = new NimbusJwtEncoder(jwkSource(algorithm));
+        }
+
+        /**
+         * 构造编码参数
+         *
+         * @return 编码参数
+         */
+        JwtEncoderParameters parameters() {
+            return JwtEncoderBenchmark.parameters(algorithm);
+        }
+    }
+
+    /**
+     * 缓存签名器的编码器
+     */
+    @State(Scope.Benchmark)
+    public static class CachingEncoderState {
+
+        @Param({"RS256", "ES256", "EdDSA"})
+        private String algorithm;
+
+        private JwtEncoder encoder;
+
+        /**
+         * 生成密钥并创建编码器
+         */
+        @Setup
+        public void setup() {
+            encoder = new CachingJwtEncoder(jwkSource(algorithm), 0);
+        }
+
+        /**
+         * 构造编码参数
+         *
+         * @return 编码参数
+         */
+        JwtEncoderParameters parameters() {
+            return JwtEncoderBenchmark.parameters(algorithm);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth2授权信息转换器基准测试
+ * <p>
+ * 测量保存和查找授权信息时在Spring Authorization Server对象与持久化实体之间的双向转换。
+ * </p>
+ *
+ * @author george
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Oauth2AuthorizationConverterBenchmark {
+
+    private Oauth2AuthorizationConverter converter;
+
+    private RegisteredClient registeredClient;
+
+    private OAuth2Authorization authorization;
+
+    private Oauth2Authorization domain;
+
+    /**
+     * 构造转换器和授权信息
+     */
+    @Setup
+    public void setup() {
+        converter = Mappers.getMapper(Oauth2AuthorizationConverter.class);
+        registeredClient = BenchmarkFixtures.registeredClient();
+        authorization = BenchmarkFixtures.authorization(registeredClient, "user");
+        domain = converter.convertToDomain(authorization);
+    }
+
+    /**
+     * 转换为持久化实体
+     *
+     * @return 持久化实体
+     */
+    @Benchmark
+    public Oauth2Authorization convertToDomain() {
+        return converter.convertToDomain(authorization);
+    }
+
+    /**
+     * 从持久化实体还原授权信息
+     *
+     * @return 授权信息
+     */
+    @Benchmark
+    public OAuth2Authorization reverseToAuthorization() {
+        return converter.reverseToAuthorization(registeredClient, domain);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.support.Oauth2EndpointUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth2端点工具基准测试
+ * <p>
+ * 测量令牌端点每个请求都会执行的表单参数提取和作用域解析，请求参数与密码模式令牌请求一致。
+ * </p>
+ *
+ * @author george
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Oauth2EndpointUtilBenchmark {
+
+    private MockHttpServletRequest request;
+
+    private String scope;
+
+    /**
+     * 构造令牌请求
+     */
+    @Setup
+    public void setup() {
+        scope = String.join(" ", BenchmarkFixtures.SCOPES);
+        request = new MockHttpServletRequest(HttpMethod.POST.name(), "/oauth2/token");
+        request.setQueryString("tenant=benchmark");
+        request.addParameter("tenant", "benchmark");
+        request.addParameter(OAuth2ParameterNames.GRANT_TYPE, "password");
+        request.addParameter(OAuth2ParameterNames.USERNAME, "user");
+        request.addParameter(OAuth2ParameterNames.PASSWORD, "password");
+        request.addParameter(OAuth2ParameterNames.SCOPE, scope);
+        request.addParameter(OAuth2ParameterNames.CLIENT_ID, BenchmarkFixtures.CLIENT_ID);
+    }
+
+    /**
+     * 提取表单参数
+     *
+     * @return 表单参数
+     */
+    @Benchmark
+    public MultiValueMap<String, String> getFormParameters() {
+        return Oauth2EndpointUtil.getFormParameters(request);
+    }
+
+    /**
+     * 解析作用域
+     *
+     * @return 作用域集合
+     */
+    @Benchmark
+    public Set<String> parseScopes() {
+        return Oauth2EndpointUtil.parseScopes(scope);
+    }
+}
@@ -0,0 +1,157 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.ReactiveRedisOauth2AuthorizationStore;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisOauth2AuthorizationServiceImpl;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis授权服务基准测试
+ * <p>
+ * 预先写入指定数量的授权信息，每个用户一条，随后测量保存和按访问令牌查找的耗时。
+ * 保存时循环写入预先构造的授权信息，每次保存替换同一用户的旧授权信息，存储规模保持不变；
+ * 查找时随机选取已写入的访问令牌。
+ * </p>
+ * <p>
+ * 分别测量同步实现和{@link ReactiveRedisOauth2AuthorizationStore}异步存储，异步存储由同步实现阻塞等待结果，
+ * 与生产环境的使用方式一致。保存同时以采样模式运行，结果中的p0.50和p0.99即保存耗时的中位数和99分位数。
+ * </p>
+ *
+ * @author george
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RedisOauth2AuthorizationServiceBenchmark {
+
+    /**
+     * 保存时循环写入的授权信息数量
+     */
+    private static final int SAVE_POOL_SIZE = 4096;
+
+    /**
+     * 保存时使用的用户数量
+     */
+    private static final int SAVE_PRINCIPALS = 1024;
+
+    /**
+     * 预先写入的授权信息数量
+     */
+    @Param({"1000", "10000", "100000"})
+    private int storeSize;
+
+    /**
+     * 授权信息哈希表分片数，0表示不分片
+     */
+    @Param({"0", "16"})
+    private int shardCount;
+
+    /**
+     * 授权存储实现，sync为同步实现，async为异步存储
+     */
+    @Param({"sync", "async"})
+    private String store;
+
+    private BenchmarkRedisEnvironment environment;
+
+    private RedisOauth2AuthorizationServiceImpl authorizationService;
+
+    private final List<OAuth2Authorization> savePool = new ArrayList<>(SAVE_POOL_SIZE);
+
+    private final AtomicInteger saveCursor = new AtomicInteger();
+
+    private String[] accessTokens;
+
+    /**
+     * 启动Redis，创建授权服务并写入授权信息
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        environment = BenchmarkRedisEnvironment.start();
+        RegisteredClient registeredClient = BenchmarkFixtures.registeredClient();
+        AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+        properties.setShardCount(shardCount);
+        Oauth2AuthorizationConverter converter = Mappers.getMapper(Oauth2AuthorizationConverter.class);
+        InMemoryRegisteredClientRepository registeredClientRepository = new InMemoryRegisteredClientRepository(registeredClient);
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(properties.getCompressionThreshold());
+        Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(shardCount);
+        ReactiveRedisOauth2AuthorizationStore asyncStore = "async".equals(store)
+                ? new ReactiveRedisOauth2AuthorizationStore(converter, registeredClientRepository,
+                environment.getReactiveRedisTemplate(), properties, codec, keys, null)
+                : null;
+        authorizationService = new RedisOauth2AuthorizationServiceImpl(
+                converter,
+                registeredClientRepository,
+                environment.getRedisTemplate(),
+                properties,
+                codec,
+                keys,
+                null,
+                asyncStore,
+                null);
+        authorizationService.afterPropertiesSet();
+
+        accessTokens = new String[storeSize];
+        List<OAuth2Authorization> batch = new ArrayList<>();
+        for (int i = 0; i < storeSize; i++) {
+            OAuth2Authorization authorization = BenchmarkFixtures.authorization(registeredClient, "user-" + i);
+            accessTokens[i] = authorization.getAccessToken().getToken().getTokenValue();
+            batch.add(authorization);
+            if (batch.size() == 1000) {
+                authorizationService.saveAll(batch);
+                batch.clear();
+            }
+        }
+        authorizationService.saveAll(batch);
+
+        for (int i = 0; i < SAVE_POOL_SIZE; i++) {
+            savePool.add(BenchmarkFixtures.authorization(registeredClient, "login-" + i % SAVE_PRINCIPALS));
+        }
+    }
+
+    /**
+     * 关闭授权服务和Redis
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        authorizationService.destroy();
+        environment.close();
+    }
+
+    /**
+     * 保存授权信息，替换同一用户的旧授权信息
+     */
+    @Benchmark
+    @BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+    public void save() {
+        authorizationService.save(savePool.get(Math.floorMod(saveCursor.getAndIncrement(), SAVE_POOL_SIZE)));
+    }
+
+    /**
+     * 按访问令牌查找授权信息
+     *
+     * @return 授权信息
+     */
+    @Benchmark
+    public OAuth2Authorization findByToken() {
+        String token = accessTokens[ThreadLocalRandom.current().nextInt(accessTokens.length)];
+        return authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
+    }
+}
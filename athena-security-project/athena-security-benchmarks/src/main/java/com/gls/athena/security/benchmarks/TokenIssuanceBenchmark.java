@@ -0,0 +1,184 @@
+package com.gls.athena.security.benchmarks;
+
+import com.gls.athena.security.oauth2.authorization.server.authentication.PasswordAuthenticationProvider;
+import com.gls.athena.security.oauth2.authorization.server.authentication.PasswordAuthenticationToken;
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisOauth2AuthorizationServiceImpl;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.authorization.token.DelegatingOAuth2TokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.JwtGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2AccessTokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2RefreshTokenGenerator;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌签发端到端基准测试
+ * <p>
+ * 以密码模式调用{@link PasswordAuthenticationProvider#authenticate(Authentication)}，
+ * 包含用户校验、JWT访问令牌和ID令牌签名、刷新令牌生成以及授权信息保存，令牌生成器与TokenConfig的组装方式一致。
+ * 用户密码以{noop}形式存储，避免密码哈希的开销掩盖令牌签发本身的变化。
+ * 授权信息分别保存到内存和Redis中，两者之差即为存储开销；
+ * 并分别测量ID令牌与访问令牌并行签名和依次签名的耗时。
+ * </p>
+ *
+ * @author george
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+    /**
+     * 授权信息存储类型
+     */
+    @Param({"memory", "redis"})
+    private String authorizationStore;
+
+    /**
+     * 是否并行生成令牌
+     */
+    @Param({"true", "false"})
+    private boolean parallelTokenGeneration;
+
+    private BenchmarkRedisEnvironment environment;
+
+    private RedisOauth2AuthorizationServiceImpl redisAuthorizationService;
+
+    private PasswordAuthenticationProvider authenticationProvider;
+
+    private PasswordAuthenticationToken authenticationRequest;
+
+    /**
+     * 组装认证提供者和令牌请求
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        RegisteredClient registeredClient = BenchmarkFixtures.registeredClient();
+        OAuth2AuthorizationService authorizationService = createAuthorizationService(registeredClient);
+
+        JwtGenerator jwtGenerator = new JwtGenerator(new NimbusJwtEncoder(BenchmarkFixtures.jwkSource()));
+        DelegatingOAuth2TokenGenerator tokenGenerator = new DelegatingOAuth2TokenGenerator(jwtGenerator,
+                new OAuth2AccessTokenGenerator(), new OAuth2RefreshTokenGenerator());
+        InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager(
+                User.withUsername("user").password("{noop}password").roles("USER").build());
+        authenticationProvider = new PasswordAuthenticationProvider(authorizationService, tokenGenerator,
+                new SessionRegistryImpl(), userDetailsService, PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        authenticationProvider.setParallelTokenGeneration(parallelTokenGeneration);
+
+        OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(registeredClient,
+                ClientAuthenticationMethod.CLIENT_SECRET_BASIC, null);
+        authenticationRequest = new PasswordAuthenticationToken(clientPrincipal, "user", "password",
+                BenchmarkFixtures.SCOPES, Map.of());
+    }
+
+    /**
+     * 关闭Redis
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redisAuthorizationService != null) {
+            redisAuthorizationService.destroy();
+        }
+        if (environment != null) {
+            environment.close();
+        }
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param context 授权服务器上下文
+     * @return 访问令牌认证结果
+     */
+    @Benchmark
+    public Authentication authenticate(IssuerContext context) {
+        return authenticationProvider.authenticate(authenticationRequest);
+    }
+
+    /**
+     * 创建授权服务
+     *
+     * @param registeredClient 注册客户端
+     * @return 授权服务
+     */
+    private OAuth2AuthorizationService createAuthorizationService(RegisteredClient registeredClient) {
+        if (!"redis".equals(authorizationStore)) {
+            return new InMemoryOAuth2AuthorizationService();
+        }
+        environment = BenchmarkRedisEnvironment.start();
+        AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+        redisAuthorizationService = new RedisOauth2AuthorizationServiceImpl(
+                Mappers.getMapper(Oauth2AuthorizationConverter.class),
+                new InMemoryRegisteredClientRepository(registeredClient),
+                environment.getRedisTemplate(),
+                properties,
+                new BinaryOauth2AuthorizationCodec(properties.getCompressionThreshold()),
+                new Oauth2AuthorizationKeys(properties.getShardCount()),
+                null,
+                null,
+                null);
+        redisAuthorizationService.afterPropertiesSet();
+        return redisAuthorizationService;
+    }
+
+    /**
+     * 授权服务器上下文
+     * <p>
+     * 上下文保存在线程变量中，由每个基准测试线程各自设置，与请求经过授权服务器过滤器后的状态一致。
+     * </p>
+     */
+    @State(Scope.Thread)
+    public static class IssuerContext {
+
+        /**
+         * 设置当前线程的授权服务器上下文
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            AuthorizationServerSettings settings = BenchmarkFixtures.authorizationServerSettings();
+            AuthorizationServerContextHolder.setContext(new AuthorizationServerContext() {
+                @Override
+                public String getIssuer() {
+                    return settings.getIssuer();
+                }
+
+                @Override
+                public AuthorizationServerSettings getAuthorizationServerSettings() {
+                    return settings;
+                }
+            });
+        }
+
+        /**
+         * 清除当前线程的授权服务器上下文
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            AuthorizationServerContextHolder.resetContext();
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.gls.athena.security.captcha.config;
 
+import com.gls.athena.common.core.constant.IConstants;
+import com.gls.athena.security.captcha.dispatch.CaptchaDispatcher;
 import com.gls.athena.security.captcha.provider.impl.EmailCaptchaProvider;
 import com.gls.athena.security.captcha.provider.impl.ImageCaptchaProvider;
 import com.gls.athena.security.captcha.provider.impl.SmsCaptchaProvider;
 import com.gls.athena.security.captcha.repository.CaptchaRepository;
+import com.gls.athena.security.captcha.repository.InMemoryCaptchaRepository;
 import com.gls.athena.security.captcha.repository.RedisCaptchaRepository;
+import com.gls.athena.security.captcha.support.ImageCaptchaPool;
+import com.gls.athena.security.captcha.support.ImageCaptchaRenderer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 /**
  * 验证码配置类
@@ -20,14 +28,69 @@ public class CaptchaConfig {
 
     /**
      * 配置验证码仓库Bean
-     * 如果容器中没有其他CaptchaRepository类型的Bean，则创建一个RedisCaptchaRepository实例
+     * 如果容器中没有其他CaptchaRepository类型的Bean，并且repository.type为redis或未配置，则创建一个RedisCaptchaRepository实例
      *
+     * @param redisTemplate Redis操作模板
      * @return 返回一个CaptchaRepository接口的实现对象
      */
     @Bean
     @ConditionalOnMissingBean(CaptchaRepository.class)
-    public CaptchaRepository captchaRepository() {
-        return new RedisCaptchaRepository();
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.captcha.repository",
+            name = "type", havingValue = "redis", matchIfMissing = true)
+    public CaptchaRepository captchaRepository(StringRedisTemplate redisTemplate) {
+        return new RedisCaptchaRepository(redisTemplate);
+    }
+
+    /**
+     * 配置内存验证码仓库Bean
+     * 如果容器中没有其他CaptchaRepository类型的Bean，并且repository.type为memory，则创建一个InMemoryCaptchaRepository实例
+     *
+     * @param properties 验证码配置属性
+     * @return 返回一个CaptchaRepository接口的实现对象
+     */
+    @Bean
+    @ConditionalOnMissingBean(CaptchaRepository.class)
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.captcha.repository",
+            name = "type", havingValue = "memory")
+    public CaptchaRepository inMemoryCaptchaRepository(CaptchaProperties properties) {
+        return new InMemoryCaptchaRepository(properties.getRepository());
+    }
+
+    /**
+     * 配置验证码异步发送器Bean
+     * 短信和邮件验证码保存后放入发送队列即返回，由后台线程限流发送，可通过dispatch.enabled关闭
+     * 使用Redis验证码仓库时接收人限流记录同样保存在Redis中，多个节点共享发送间隔
+     *
+     * @param properties        验证码配置属性
+     * @param captchaRepository 验证码仓库
+     * @param redisTemplate     Redis操作模板
+     * @return 返回一个CaptchaDispatcher实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.captcha.dispatch",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CaptchaDispatcher captchaDispatcher(CaptchaProperties properties, CaptchaRepository captchaRepository,
+                                               ObjectProvider<StringRedisTemplate> redisTemplate) {
+        if (captchaRepository instanceof RedisCaptchaRepository) {
+            return new CaptchaDispatcher(properties.getDispatch(), redisTemplate.getObject());
+        }
+        return new CaptchaDispatcher(properties.getDispatch());
+    }
+
+    /**
+     * 配置图形验证码预生成池Bean
+     * 后台预先绘制并编码验证码图片，可通过image.pool.enabled关闭
+     *
+     * @param properties 验证码配置属性
+     * @return 返回一个ImageCaptchaPool实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.captcha.image.pool",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ImageCaptchaPool imageCaptchaPool(CaptchaProperties properties) {
+        return new ImageCaptchaPool(new ImageCaptchaRenderer(properties.getImage()), properties.getImage().getPool());
     }
 
     /**
@@ -36,12 +99,14 @@ public class CaptchaConfig {
      *
      * @param properties        验证码配置属性
      * @param captchaRepository 验证码仓库
+     * @param pool              图形验证码预生成池，未配置时每次请求绘制
      * @return 返回一个ImageCaptchaProvider实例
      */
     @Bean
     @ConditionalOnMissingBean(name = "imageCaptchaProvider")
-    public ImageCaptchaProvider imageCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository) {
-        return new ImageCaptchaProvider(properties, captchaRepository);
+    public ImageCaptchaProvider imageCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository,
+                                                     ObjectProvider<ImageCaptchaPool> pool) {
+        return new ImageCaptchaProvider(properties, captchaRepository, pool.getIfAvailable());
     }
 
     /**
@@ -50,12 +115,14 @@ public class CaptchaConfig {
      *
      * @param properties        验证码配置属性
      * @param captchaRepository 验证码仓库
+     * @param dispatcher        验证码异步发送器，未配置时同步发送
      * @return 返回一个SmsCaptchaProvider实例
      */
     @Bean
     @ConditionalOnMissingBean(name = "smsCaptchaProvider")
-    public SmsCaptchaProvider smsCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository) {
-        return new SmsCaptchaProvider(properties, captchaRepository);
+    public SmsCaptchaProvider smsCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository,
+                                                 ObjectProvider<CaptchaDispatcher> dispatcher) {
+        return new SmsCaptchaProvider(properties, captchaRepository, dispatcher.getIfAvailable());
     }
 
     /**
@@ -64,11 +131,13 @@ public class CaptchaConfig {
      *
      * @param properties        验证码配置属性
      * @param captchaRepository 验证码仓库
+     * @param dispatcher        验证码异步发送器，未配置时同步发送
      * @return 返回一个EmailCaptchaProvider实例
      */
     @Bean
     @ConditionalOnMissingBean(name = "emailCaptchaProvider")
-    public EmailCaptchaProvider emailCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository) {
-        return new EmailCaptchaProvider(properties, captchaRepository);
+    public EmailCaptchaProvider emailCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository,
+                                                     ObjectProvider<CaptchaDispatcher> dispatcher) {
+        return new EmailCaptchaProvider(properties, captchaRepository, dispatcher.getIfAvailable());
     }
 }
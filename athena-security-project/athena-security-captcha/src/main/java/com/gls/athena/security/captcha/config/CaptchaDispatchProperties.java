@@ -0,0 +1,50 @@
+package com.gls.athena.security.captcha.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 验证码异步发送配置
+ * 用于配置短信和邮件验证码的发送队列、并发数、全局限流和失败重试
+ *
+ * @author george
+ */
+@Data
+public class CaptchaDispatchProperties implements Serializable {
+    /**
+     * 是否启用异步发送
+     * 关闭后短信和邮件验证码在请求线程中同步发送
+     */
+    private boolean enabled = true;
+    /**
+     * 发送队列容量
+     * 队列已满时拒绝新的发送请求
+     */
+    private int queueCapacity = 10000;
+    /**
+     * 发送线程数
+     * 同时调用短信和邮件网关的虚拟线程数量
+     */
+    private int workers = 16;
+    /**
+     * 全局发送速率
+     * 每秒最多调用网关的次数，小于等于0时不限制
+     */
+    private int globalRate = 100;
+    /**
+     * 最大发送次数
+     * 包含首次发送，发送失败后按退避时间重试，达到次数后放弃
+     */
+    private int maxAttempts = 3;
+    /**
+     * 首次重试的退避时间
+     * 之后每次重试翻倍，单位为毫秒
+     */
+    private long initialBackoff = 1000;
+    /**
+     * 最大退避时间
+     * 单位为毫秒
+     */
+    private long maxBackoff = 30000;
+}
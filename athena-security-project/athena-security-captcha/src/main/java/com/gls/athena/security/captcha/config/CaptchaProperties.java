@@ -32,6 +32,11 @@ public class CaptchaProperties extends BaseProperties {
      * 指定OAuth2获取token的接口URL路径
      */
     private String oauth2TokenUrl = "/oauth2/token";
+    /**
+     * 最大校验失败次数
+     * 同一验证码校验失败达到该次数后失效，需要重新获取，小于等于0时不限制
+     */
+    private int maxAttempts = 5;
     /**
      * 邮件验证码配置
      * 包含邮件验证码相关的配置属性
@@ -50,5 +55,17 @@ public class CaptchaProperties extends BaseProperties {
      */
     @NestedConfigurationProperty
     private ImageCaptchaProperties image = new ImageCaptchaProperties();
+    /**
+     * 验证码异步发送配置
+     * 包含短信和邮件验证码发送队列相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private CaptchaDispatchProperties dispatch = new CaptchaDispatchProperties();
+    /**
+     * 验证码仓库配置
+     * 包含验证码存储方式和本地内存存储相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private CaptchaRepositoryProperties repository = new CaptchaRepositoryProperties();
 }
 
@@ -0,0 +1,35 @@
+package com.gls.athena.security.captcha.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 验证码仓库配置
+ * 用于选择验证码的存储方式，以及配置本地内存存储的容量和过期检查精度
+ *
+ * @author george
+ */
+@Data
+public class CaptchaRepositoryProperties implements Serializable {
+    /**
+     * 存储类型
+     * redis表示存储在Redis中，多节点共享；memory表示存储在本节点内存中，适用于单节点部署和测试
+     */
+    private String type = "redis";
+    /**
+     * 内存存储的最大验证码数量
+     * 超过后淘汰最早过期的验证码
+     */
+    private int maximumSize = 100000;
+    /**
+     * 内存存储的过期检查间隔
+     * 时间轮每格的时长，验证码最多在过期后一个间隔内被清理，单位为毫秒
+     */
+    private long tickDuration = 1000;
+    /**
+     * 内存存储的时间轮分段数
+     * 验证码按键的哈希分布到各段，各段独立加锁
+     */
+    private int stripes = 16;
+}
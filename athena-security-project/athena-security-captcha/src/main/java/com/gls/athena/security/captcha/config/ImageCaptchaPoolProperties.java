@@ -0,0 +1,40 @@
+package com.gls.athena.security.captcha.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 图形验证码预生成池配置
+ * 用于配置预先绘制并编码的图形验证码池的容量和补充线程数
+ *
+ * @author george
+ */
+@Data
+public class ImageCaptchaPoolProperties implements Serializable {
+    /**
+     * 是否启用预生成池
+     * 关闭后每次请求时绘制并编码验证码图片
+     */
+    private boolean enabled = true;
+    /**
+     * 池容量
+     * 预先生成的验证码图片数量上限，默认256个
+     */
+    private int size = 256;
+    /**
+     * 补充线程数
+     * 后台绘制验证码图片的线程数量，默认1个
+     */
+    private int refillThreads = 1;
+    /**
+     * 池为空时的等待时间
+     * 请求线程等待补充线程的最长时间，单位毫秒，默认20毫秒
+     */
+    private long waitTimeout = 20;
+    /**
+     * 最大同时自行绘制数
+     * 池为空且等待超时后请求线程同时自行绘制的数量上限，超过时拒绝请求，默认等于处理器数量
+     */
+    private int maxInlineRenders = Runtime.getRuntime().availableProcessors();
+}
@@ -1,6 +1,7 @@
 package com.gls.athena.security.captcha.config;
 
 import lombok.Data;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -69,6 +70,12 @@ public class ImageCaptchaProperties implements Serializable {
      * 需要进行验证码校验的URL列表
      */
     private List<String> captchaCheckUrls = new ArrayList<>();
+    /**
+     * 预生成池配置
+     * 后台预先绘制并编码验证码图片，请求时直接取用
+     */
+    @NestedConfigurationProperty
+    private ImageCaptchaPoolProperties pool = new ImageCaptchaPoolProperties();
 
 }
 
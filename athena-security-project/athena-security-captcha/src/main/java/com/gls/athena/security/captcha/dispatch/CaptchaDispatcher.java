@@ -0,0 +1,323 @@
+package com.gls.athena.security.captcha.dispatch;
+
+import com.gls.athena.security.captcha.config.CaptchaDispatchProperties;
+import com.gls.athena.security.captcha.filter.CaptchaException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 验证码异步发送器
+ * <p>
+ * 短信和邮件验证码保存后只需放入有界队列即可响应请求，由固定数量的虚拟线程从队列中取出任务调用网关，
+ * 网关的耗时不再占用Servlet线程。发送器提供两级限流：
+ * </p>
+ * <ul>
+ *     <li>接收人限流：同一接收人在发送间隔内只能提交一次，在生成验证码之前检查，被拒绝时不会覆盖已发送的验证码</li>
+ *     <li>全局限流：发送线程按配置的每秒次数匀速调用网关，突发请求在队列中排队</li>
+ * </ul>
+ * <p>
+ * 发送失败时按指数退避重新入队，达到最大发送次数后放弃。使用Redis验证码仓库时接收人限流记录以SET NX PX保存在Redis中，
+ * 所有节点共享同一个发送间隔；使用内存仓库时保存在本节点内存中，多节点部署时每个节点独立计算。
+ * 队列长度和从入队到发送成功的延迟通过Micrometer发布。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class CaptchaDispatcher implements InitializingBean, DisposableBean {
+
+    /**
+     * 清理过期接收人限流记录的间隔毫秒数
+     */
+    private static final long CLEANUP_INTERVAL = 60000;
+
+    /**
+     * Redis中接收人限流记录的前缀
+     */
+    private static final String PERMIT_PREFIX = "captcha-permit:";
+
+    private final CaptchaDispatchProperties properties;
+
+    private final BlockingQueue<DispatchTask> queue;
+
+    /**
+     * 保存接收人限流记录的Redis模板，为null时保存在本节点内存中
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 接收人到下次允许提交时间毫秒数的映射，仅在不使用Redis时使用
+     */
+    private final Map<String, Long> recipientPermits = new ConcurrentHashMap<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer lagTimer = Metrics.timer("athena.captcha.dispatch.lag");
+
+    /**
+     * 全局限流中两次调用网关的最小间隔纳秒数，为0时不限制
+     */
+    private final long permitInterval;
+
+    /**
+     * 全局限流中下次允许调用网关的时间纳秒数
+     */
+    private long nextPermitAt = System.nanoTime();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    /**
+     * 构造验证码异步发送器，接收人限流记录保存在本节点内存中
+     *
+     * @param properties 异步发送配置
+     */
+    public CaptchaDispatcher(CaptchaDispatchProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * 构造验证码异步发送器
+     *
+     * @param properties    异步发送配置
+     * @param redisTemplate 保存接收人限流记录的Redis模板，为null时保存在本节点内存中
+     */
+    public CaptchaDispatcher(CaptchaDispatchProperties properties, StringRedisTemplate redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.permitInterval = properties.getGlobalRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / properties.getGlobalRate() : 0;
+        Metrics.gauge("athena.captcha.dispatch.queue", queue, BlockingQueue::size);
+    }
+
+    /**
+     * 启动发送线程和重试调度器
+     */
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("captcha-dispatch-scheduler")
+                .daemon(true)
+                .factory());
+        scheduler.scheduleWithFixedDelay(this::cleanupPermits, CLEANUP_INTERVAL, CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+        ThreadFactory factory = Thread.ofVirtual().name("captcha-dispatch-", 0).factory();
+        for (int i = 0; i < Math.max(1, properties.getWorkers()); i++) {
+            Thread worker = factory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * 停止发送线程和重试调度器，队列中未发送的任务被丢弃
+     */
+    @Override
+    public void destroy() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("验证码发送器已停止，丢弃{}个未发送的任务", queue.size());
+        }
+    }
+
+    /**
+     * 获取接收人的发送许可
+     * <p>
+     * 应在生成和保存验证码之前调用。同一接收人在发送间隔内重复提交，或发送队列已满时拒绝。
+     * </p>
+     *
+     * @param type      验证码类型，如sms、email
+     * @param recipient 接收人
+     * @param interval  同一接收人的最小发送间隔毫秒数，小于等于0时不限制
+     * @throws CaptchaException 发送过于频繁或发送队列已满
+     */
+    public void acquire(String type, String recipient, long interval) {
+        if (queue.remainingCapacity() == 0) {
+            Metrics.counter("athena.captcha.dispatch.rejected", "type", type, "reason", "queue").increment();
+            throw new CaptchaException("验证码发送繁忙，请稍后重试");
+        }
+        if (interval <= 0) {
+            return;
+        }
+        if (!tryAcquirePermit(type + ":" + recipient, interval)) {
+            Metrics.counter("athena.captcha.dispatch.rejected", "type", type, "reason", "recipient").increment();
+            throw new CaptchaException("验证码发送过于频繁，请稍后重试");
+        }
+    }
+
+    /**
+     * 提交发送任务
+     *
+     * @param type      验证码类型，如sms、email
+     * @param recipient 接收人
+     * @param sender    调用网关发送验证码的操作
+     * @throws CaptchaException 发送队列已满
+     */
+    public void dispatch(String type, String recipient, Runnable sender) {
+        DispatchTask task = new DispatchTask(type, recipient, sender, System.nanoTime(), 1);
+        if (!queue.offer(task)) {
+            // 入队失败时释放接收人许可，允许客户端稍后重试
+            releasePermit(type + ":" + recipient);
+            Metrics.counter("athena.captcha.dispatch.rejected", "type", type, "reason", "queue").increment();
+            throw new CaptchaException("验证码发送繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 获取接收人许可，发送间隔内已被获取时返回false
+     * <p>
+     * 使用Redis时以SET NX PX写入限流记录，记录在发送间隔后由Redis删除；否则在本节点内存中比较并更新下次允许提交的时间。
+     * </p>
+     *
+     * @param key      接收人限流记录的键
+     * @param interval 发送间隔毫秒数
+     * @return 获取成功返回true
+     */
+    private boolean tryAcquirePermit(String key, long interval) {
+        if (redisTemplate != null) {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(PERMIT_PREFIX + key, "1", Duration.ofMillis(interval)));
+        }
+        long now = System.currentTimeMillis();
+        boolean[] granted = new boolean[1];
+        recipientPermits.compute(key, (k, next) -> {
+            if (next != null && next > now) {
+                return next;
+            }
+            granted[0] = true;
+            return now + interval;
+        });
+        return granted[0];
+    }
+
+    /**
+     * 释放接收人许可
+     *
+     * @param key 接收人限流记录的键
+     */
+    private void releasePermit(String key) {
+        if (redisTemplate != null) {
+            redisTemplate.delete(PERMIT_PREFIX + key);
+        } else {
+            recipientPermits.remove(key);
+        }
+    }
+
+    /**
+     * 发送线程循环：取出任务，获取全局许可后调用网关
+     */
+    private void work() {
+        while (running) {
+            DispatchTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            acquireGlobalPermit();
+            send(task);
+        }
+    }
+
+    /**
+     * 执行发送任务，失败时安排重试
+     *
+     * @param task 发送任务
+     */
+    private void send(DispatchTask task) {
+        try {
+            task.sender().run();
+            lagTimer.record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+            Metrics.counter("athena.captcha.dispatch.sent", "type", task.type()).increment();
+            log.debug("向[{}]发送{}验证码成功，第{}次发送", task.recipient(), task.type(), task.attempt());
+        } catch (Exception e) {
+            if (task.attempt() >= properties.getMaxAttempts() || !running) {
+                Metrics.counter("athena.captcha.dispatch.failed", "type", task.type()).increment();
+                log.error("向[{}]发送{}验证码失败，已发送{}次，放弃发送", task.recipient(), task.type(), task.attempt(), e);
+                return;
+            }
+            long backoff = Math.min(properties.getInitialBackoff() << (task.attempt() - 1), properties.getMaxBackoff());
+            log.warn("向[{}]发送{}验证码失败，{}毫秒后重试: {}", task.recipient(), task.type(), backoff, e.getMessage());
+            Metrics.counter("athena.captcha.dispatch.retries", "type", task.type()).increment();
+            DispatchTask retry = task.nextAttempt();
+            scheduler.schedule(() -> requeue(retry), backoff, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 将重试任务放回队列，队列已满时放弃
+     *
+     * @param task 重试任务
+     */
+    private void requeue(DispatchTask task) {
+        if (!queue.offer(task)) {
+            Metrics.counter("athena.captcha.dispatch.failed", "type", task.type()).increment();
+            log.error("发送队列已满，放弃向[{}]重试发送{}验证码", task.recipient(), task.type());
+        }
+    }
+
+    /**
+     * 获取全局许可，按配置的速率匀速放行，必要时阻塞当前虚拟线程
+     */
+    private void acquireGlobalPermit() {
+        if (permitInterval == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(nextPermitAt, now);
+            nextPermitAt = permitAt + permitInterval;
+            wait = permitAt - now;
+        }
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * 清理已过发送间隔的接收人限流记录
+     */
+    private void cleanupPermits() {
+        long now = System.currentTimeMillis();
+        recipientPermits.values().removeIf(next -> next <= now);
+    }
+
+    /**
+     * 发送任务
+     *
+     * @param type       验证码类型
+     * @param recipient  接收人
+     * @param sender     调用网关发送验证码的操作
+     * @param enqueuedAt 首次入队时间纳秒数，用于计算发送延迟
+     * @param attempt    本次是第几次发送
+     */
+    private record DispatchTask(String type, String recipient, Runnable sender, long enqueuedAt, int attempt) {
+
+        /**
+         * 创建下一次重试的任务
+         *
+         * @return 重试任务
+         */
+        DispatchTask nextAttempt() {
+            return new DispatchTask(type, recipient, sender, enqueuedAt, attempt + 1);
+        }
+    }
+}
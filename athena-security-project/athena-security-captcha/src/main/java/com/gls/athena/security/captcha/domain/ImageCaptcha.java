@@ -23,5 +23,12 @@ public class ImageCaptcha extends Captcha {
      */
     @JsonIgnore
     private BufferedImage image;
+    /**
+     * 验证码图片的PNG编码
+     * 由预生成池提前编码，存在时直接写入响应而不再编码图片
+     * 标记@JsonIgnore表示在JSON序列化时忽略此字段
+     */
+    @JsonIgnore
+    private byte[] content;
 }
 
@@ -8,7 +8,6 @@ import com.gls.athena.security.captcha.domain.Captcha;
 import com.gls.athena.security.captcha.filter.CaptchaException;
 import com.gls.athena.security.captcha.provider.CaptchaProvider;
 import com.gls.athena.security.captcha.repository.CaptchaRepository;
-import com.gls.athena.security.captcha.support.CaptchaUtil;
 import com.gls.athena.starter.web.util.WebUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -86,6 +85,8 @@ public abstract class BaseCaptchaProvider<C extends Captcha> implements CaptchaP
         if (StrUtil.isBlank(key)) {
             throw new CaptchaException("验证码参数不完整");
         }
+        // 发送前检查，被拒绝时不生成新验证码，避免覆盖已发送的验证码
+        checkSendCaptcha(key);
         // 生成验证码
         C captcha = generateCaptcha();
         // 将手机号码和对应的验证码保存到验证码仓库中
@@ -94,6 +95,15 @@ public abstract class BaseCaptchaProvider<C extends Captcha> implements CaptchaP
         doSendCaptcha(key, captcha, response);
     }
 
+    /**
+     * 发送验证码前的检查，例如发送频率限制，默认不做检查
+     *
+     * @param key 验证码的键，如手机号
+     * @throws CaptchaException 不允许发送时抛出
+     */
+    protected void checkSendCaptcha(String key) {
+    }
+
     /**
      * 执行发送验证码的操作
      *
@@ -174,15 +184,10 @@ public abstract class BaseCaptchaProvider<C extends Captcha> implements CaptchaP
             throw new CaptchaException("验证码参数不完整");
         }
 
-        // 从验证码仓库中获取对应的验证码对象
-        Captcha captcha = repository.getCaptcha(key);
-        // 如果验证码对象为空，说明验证码不存在或已过期，抛出异常
-        if (CaptchaUtil.validateCaptcha(captcha, captchaCode)) {
+        // 校验并消费验证码：通过时删除避免重复使用，失败次数达到上限后验证码失效
+        if (!repository.consumeCaptcha(key, captchaCode, properties.getMaxAttempts())) {
             throw new CaptchaException("验证码错误");
         }
-
-        // 验证码验证通过后，从验证码仓库中移除该验证码，避免重复使用
-        repository.removeCaptcha(key);
     }
 
     /**
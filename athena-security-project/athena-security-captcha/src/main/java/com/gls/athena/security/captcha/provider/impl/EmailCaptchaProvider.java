@@ -5,6 +5,7 @@ import com.gls.athena.sdk.message.support.MessageUtil;
 import com.gls.athena.security.captcha.config.CaptchaEnums;
 import com.gls.athena.security.captcha.config.CaptchaProperties;
 import com.gls.athena.security.captcha.config.EmailCaptchaProperties;
+import com.gls.athena.security.captcha.dispatch.CaptchaDispatcher;
 import com.gls.athena.security.captcha.domain.Captcha;
 import com.gls.athena.security.captcha.filter.CaptchaException;
 import com.gls.athena.security.captcha.repository.CaptchaRepository;
@@ -29,6 +30,11 @@ public class EmailCaptchaProvider extends BaseCaptchaProvider<Captcha> {
      */
     private final EmailCaptchaProperties properties;
 
+    /**
+     * 验证码异步发送器，为 null 时在请求线程中同步发送
+     */
+    private final CaptchaDispatcher dispatcher;
+
     /**
      * 构造方法，初始化邮箱验证码提供者。
      *
@@ -36,8 +42,20 @@ public class EmailCaptchaProvider extends BaseCaptchaProvider<Captcha> {
      * @param repository 验证码持久化仓库，用于存储和查询验证码信息
      */
     public EmailCaptchaProvider(CaptchaProperties properties, CaptchaRepository repository) {
+        this(properties, repository, null);
+    }
+
+    /**
+     * 构造方法，初始化使用异步发送器的邮箱验证码提供者。
+     *
+     * @param properties 验证码全局配置对象，包含邮箱验证码的子配置
+     * @param repository 验证码持久化仓库，用于存储和查询验证码信息
+     * @param dispatcher 验证码异步发送器，为 null 时同步发送
+     */
+    public EmailCaptchaProvider(CaptchaProperties properties, CaptchaRepository repository, CaptchaDispatcher dispatcher) {
         super(properties, repository);
         this.properties = properties.getEmail();
+        this.dispatcher = dispatcher;
     }
 
     /**
@@ -61,8 +79,23 @@ public class EmailCaptchaProvider extends BaseCaptchaProvider<Captcha> {
         return properties.getCaptchaUrl();
     }
 
+    /**
+     * 检查同一邮箱的发送间隔和发送队列容量。
+     *
+     * @param email 接收验证码的邮箱地址
+     */
+    @Override
+    protected void checkSendCaptcha(String email) {
+        if (dispatcher != null) {
+            dispatcher.acquire(CaptchaEnums.EMAIL.getCode(), email, properties.getCaptchaInterval());
+        }
+    }
+
     /**
      * 执行发送邮箱验证码逻辑。
+     * <p>
+     * 配置了异步发送器时只将发送任务放入队列，由发送线程调用邮件服务，否则在请求线程中同步发送。
+     * </p>
      *
      * @param email    接收验证码的邮箱地址
      * @param captcha  验证码对象，包含验证码内容和过期时间等信息
@@ -84,8 +117,14 @@ public class EmailCaptchaProvider extends BaseCaptchaProvider<Captcha> {
                 "email", email
         );
 
-        MessageUtil.sendEmail(email, "", "", properties.getCaptchaTemplateId(), params);
-        log.info("向手机[{}]发送验证码[{}]成功", email, captcha.getCode());
+        Runnable sender = () -> MessageUtil.sendEmail(email, "", "", properties.getCaptchaTemplateId(), params);
+        if (dispatcher != null) {
+            dispatcher.dispatch(CaptchaEnums.EMAIL.getCode(), email, sender);
+            log.info("向邮箱[{}]发送验证码已提交", email);
+        } else {
+            sender.run();
+            log.info("向邮箱[{}]发送验证码成功", email);
+        }
 
         // 写入成功响应
         CaptchaUtil.writeSuccessResponse(response);
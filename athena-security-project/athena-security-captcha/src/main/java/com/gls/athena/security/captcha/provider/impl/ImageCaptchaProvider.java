@@ -1,7 +1,5 @@
 package com.gls.athena.security.captcha.provider.impl;
 
-import cn.hutool.captcha.CaptchaUtil;
-import cn.hutool.captcha.LineCaptcha;
 import cn.hutool.core.date.DateUtil;
 import com.gls.athena.security.captcha.config.CaptchaEnums;
 import com.gls.athena.security.captcha.config.CaptchaProperties;
@@ -9,12 +7,13 @@ import com.gls.athena.security.captcha.config.ImageCaptchaProperties;
 import com.gls.athena.security.captcha.domain.ImageCaptcha;
 import com.gls.athena.security.captcha.filter.CaptchaException;
 import com.gls.athena.security.captcha.repository.CaptchaRepository;
+import com.gls.athena.security.captcha.support.ImageCaptchaPool;
+import com.gls.athena.security.captcha.support.ImageCaptchaRenderer;
 import com.gls.athena.starter.web.enums.FileEnums;
 import com.gls.athena.starter.web.util.WebUtil;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.imageio.ImageIO;
 import java.io.OutputStream;
 import java.util.List;
 
@@ -29,6 +28,16 @@ public class ImageCaptchaProvider extends BaseCaptchaProvider<ImageCaptcha> {
 
     private final ImageCaptchaProperties properties;
 
+    /**
+     * 图形验证码绘制器
+     */
+    private final ImageCaptchaRenderer renderer;
+
+    /**
+     * 图形验证码预生成池，为null时每次请求绘制
+     */
+    private final ImageCaptchaPool pool;
+
     /**
      * 构造方法注入必要的属性
      *
@@ -36,8 +45,21 @@ public class ImageCaptchaProvider extends BaseCaptchaProvider<ImageCaptcha> {
      * @param captchaRepository 验证码仓库
      */
     public ImageCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository) {
+        this(properties, captchaRepository, null);
+    }
+
+    /**
+     * 构造方法注入必要的属性和预生成池
+     *
+     * @param properties        验证码属性配置
+     * @param captchaRepository 验证码仓库
+     * @param pool              图形验证码预生成池，为null时每次请求绘制
+     */
+    public ImageCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository, ImageCaptchaPool pool) {
         super(properties, captchaRepository);
         this.properties = properties.getImage();
+        this.renderer = new ImageCaptchaRenderer(this.properties);
+        this.pool = pool;
     }
 
     /**
@@ -63,6 +85,10 @@ public class ImageCaptchaProvider extends BaseCaptchaProvider<ImageCaptcha> {
 
     /**
      * 执行发送验证码逻辑
+     * <p>
+     * 预生成池中的验证码已编码，直接写出；否则使用{@link ImageCaptchaRenderer#encode}编码。
+     * 编码完成后再写出，因此可以设置响应长度
+     * </p>
      *
      * @param key      验证码键
      * @param captcha  图片验证码对象
@@ -70,9 +96,11 @@ public class ImageCaptchaProvider extends BaseCaptchaProvider<ImageCaptcha> {
      */
     @Override
     protected void doSendCaptcha(String key, ImageCaptcha captcha, HttpServletResponse response) {
+        byte[] content = captcha.getContent() != null ? captcha.getContent() : renderer.encode(captcha.getImage());
         try (OutputStream out = WebUtil.createOutputStream(response, key, FileEnums.PNG)) {
-            // 将验证码图片以PNG格式写入输出流
-            ImageIO.write(captcha.getImage(), "PNG", out);
+            // 设置响应长度后写出PNG编码
+            response.setContentLength(content.length);
+            out.write(content);
         } catch (Exception e) {
             // 记录验证码发送失败的日志
             log.error("发送验证码失败", e);
@@ -83,22 +111,18 @@ public class ImageCaptchaProvider extends BaseCaptchaProvider<ImageCaptcha> {
 
     /**
      * 生成图片验证码对象
+     * <p>
+     * 配置了预生成池时从池中取出已编码的验证码，否则当场绘制
+     * </p>
      *
      * @return 生成的图片验证码对象
      */
     @Override
     protected ImageCaptcha generateCaptcha() {
-        // 创建一个线条验证码对象，参数分别为宽度、高度、字符数量、线条数量和字体大小
-        LineCaptcha lineCaptcha = CaptchaUtil.createLineCaptcha(properties.getWidth(),
-                properties.getHeight(), properties.getCodeCount(), properties.getLineCount(), properties.getSize());
+        // 从预生成池取出或当场绘制验证码图片
+        ImageCaptcha imageCaptcha = pool != null ? pool.take() : renderer.render();
         // 记录生成的验证码内容以便于调试或后续验证
-        log.debug("生成验证码：{}", lineCaptcha.getCode());
-        // 创建一个图片验证码对象来存储验证码信息
-        ImageCaptcha imageCaptcha = new ImageCaptcha();
-        // 设置图片验证码的代码
-        imageCaptcha.setCode(lineCaptcha.getCode());
-        // 设置图片验证码的图片
-        imageCaptcha.setImage(lineCaptcha.getImage());
+        log.debug("生成验证码：{}", imageCaptcha.getCode());
         // 设置图片验证码的过期时间，偏移秒数从当前时间开始计算
         imageCaptcha.setExpireTime(DateUtil.offsetSecond(DateUtil.date(), properties.getCaptchaExpire()).toJdkDate());
         // 返回生成的图片验证码对象
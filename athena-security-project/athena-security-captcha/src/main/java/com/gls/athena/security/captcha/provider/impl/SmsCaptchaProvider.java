@@ -5,6 +5,7 @@ import com.gls.athena.sdk.message.support.MessageUtil;
 import com.gls.athena.security.captcha.config.CaptchaEnums;
 import com.gls.athena.security.captcha.config.CaptchaProperties;
 import com.gls.athena.security.captcha.config.SmsCaptchaProperties;
+import com.gls.athena.security.captcha.dispatch.CaptchaDispatcher;
 import com.gls.athena.security.captcha.domain.Captcha;
 import com.gls.athena.security.captcha.filter.CaptchaException;
 import com.gls.athena.security.captcha.repository.CaptchaRepository;
@@ -27,6 +28,11 @@ public class SmsCaptchaProvider extends BaseCaptchaProvider<Captcha> {
 
     private final SmsCaptchaProperties properties;
 
+    /**
+     * 验证码异步发送器，为null时在请求线程中同步发送
+     */
+    private final CaptchaDispatcher dispatcher;
+
     /**
      * 构造方法注入必要的属性
      *
@@ -34,8 +40,20 @@ public class SmsCaptchaProvider extends BaseCaptchaProvider<Captcha> {
      * @param captchaRepository 验证码仓库
      */
     public SmsCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository) {
+        this(properties, captchaRepository, null);
+    }
+
+    /**
+     * 构造方法注入必要的属性和异步发送器
+     *
+     * @param properties        验证码属性配置
+     * @param captchaRepository 验证码仓库
+     * @param dispatcher        验证码异步发送器，为null时同步发送
+     */
+    public SmsCaptchaProvider(CaptchaProperties properties, CaptchaRepository captchaRepository, CaptchaDispatcher dispatcher) {
         super(properties, captchaRepository);
         this.properties = properties.getSms();
+        this.dispatcher = dispatcher;
     }
 
     /**
@@ -59,8 +77,23 @@ public class SmsCaptchaProvider extends BaseCaptchaProvider<Captcha> {
         return properties.getCaptchaSendUrl();
     }
 
+    /**
+     * 检查同一手机号的发送间隔和发送队列容量
+     *
+     * @param mobile 手机号
+     */
+    @Override
+    protected void checkSendCaptcha(String mobile) {
+        if (dispatcher != null) {
+            dispatcher.acquire(CaptchaEnums.SMS.getCode(), mobile, properties.getCaptchaInterval());
+        }
+    }
+
     /**
      * 执行发送短信验证码逻辑
+     * <p>
+     * 配置了异步发送器时只将发送任务放入队列，由发送线程调用短信网关，否则在请求线程中同步发送
+     * </p>
      *
      * @param mobile   手机号
      * @param captcha  验证码对象
@@ -82,8 +115,14 @@ public class SmsCaptchaProvider extends BaseCaptchaProvider<Captcha> {
                 "mobile", mobile
         );
 
-        MessageUtil.sendSms(mobile, properties.getCaptchaTemplateId(), params);
-        log.info("向手机[{}]发送验证码[{}]成功", mobile, captcha.getCode());
+        Runnable sender = () -> MessageUtil.sendSms(mobile, properties.getCaptchaTemplateId(), params);
+        if (dispatcher != null) {
+            dispatcher.dispatch(CaptchaEnums.SMS.getCode(), mobile, sender);
+            log.info("向手机[{}]发送验证码已提交", mobile);
+        } else {
+            sender.run();
+            log.info("向手机[{}]发送验证码成功", mobile);
+        }
 
         // 写入成功响应
         CaptchaUtil.writeSuccessResponse(response);
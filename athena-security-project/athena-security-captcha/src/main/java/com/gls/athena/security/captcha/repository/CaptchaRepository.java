@@ -6,6 +6,8 @@ package com.gls.athena.security.captcha.repository;
 
 import com.gls.athena.security.captcha.domain.Captcha;
 
+import java.util.Date;
+
 /**
  * CaptchaRepository接口定义了验证码的存储和检索方法
  * 它提供了保存、获取和移除验证码的功能
@@ -37,4 +39,27 @@ public interface CaptchaRepository {
      *            指定的键对应的验证码对象将会从存储中删除
      */
     void removeCaptcha(String key);
+
+    /**
+     * 校验并消费验证码
+     * <p>
+     * 忽略大小写比较验证码，校验通过时删除验证码，保证同一验证码只能使用一次；校验失败时累计失败次数，
+     * 达到最大失败次数后删除验证码。默认实现由读取、比较、删除三步组成，不是原子操作，也不累计失败次数，
+     * 实现类应覆盖为原子操作。
+     * </p>
+     *
+     * @param key         验证码的键
+     * @param code        用户输入的验证码
+     * @param maxAttempts 最大失败次数，小于等于0时不限制
+     * @return 校验通过返回true，验证码不存在、已过期或不匹配时返回false
+     */
+    default boolean consumeCaptcha(String key, String code, int maxAttempts) {
+        Captcha captcha = getCaptcha(key);
+        if (captcha == null || code == null || captcha.getExpireTime() == null
+                || !captcha.getExpireTime().after(new Date()) || !code.equalsIgnoreCase(captcha.getCode())) {
+            return false;
+        }
+        removeCaptcha(key);
+        return true;
+    }
 }
@@ -0,0 +1,528 @@
+package com.gls.athena.security.captcha.repository;
+
+import com.gls.athena.security.captcha.config.CaptchaRepositoryProperties;
+import com.gls.athena.security.captcha.domain.Captcha;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用本节点内存作为存储的验证码仓库实现类
+ * <p>
+ * 验证码保存在并发哈希表中，读写不经过网络，适用于单节点部署、测试和基准测试。
+ * 过期清理使用分层时间轮，不为每个验证码创建定时器：
+ * </p>
+ * <ul>
+ *     <li>每层64格，第0层每格一个检查间隔，上层每格是下层一整圈，三层共覆盖64³个间隔</li>
+ *     <li>定时任务每个间隔推进一格，上层的格到期时把其中的验证码重新放入下层，第0层的格到期时删除其中已过期的验证码</li>
+ *     <li>时间轮按键的哈希分为多段，各段独立加锁，同一个键的哈希表写入和时间轮增删在其所在分段的锁内完成</li>
+ *     <li>每格是以条目自身为节点的双向链表，验证码被覆盖、移除或校验通过时立即从所在格中摘除，
+ *     时间轮中的条目与哈希表中的条目一一对应，内存占用受最大数量限制</li>
+ * </ul>
+ * <p>
+ * 读取时检查过期时间，因此过期后、清理前的验证码不会被读取到。验证码数量超过上限时淘汰最早过期的验证码。
+ * 只保存验证码和过期时间，与Redis仓库读取到的内容一致，不保留图片。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class InMemoryCaptchaRepository implements CaptchaRepository, InitializingBean, DisposableBean {
+
+    /**
+     * 每层格数的位数
+     */
+    private static final int WHEEL_BITS = 6;
+
+    /**
+     * 每层格数
+     */
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * 时间轮层数
+     */
+    private static final int LEVELS = 3;
+
+    /**
+     * 时间轮覆盖的最大间隔数，更远的验证码先放在最上层，到期时重新放置
+     */
+    private static final long MAX_DELAY = 1L << (WHEEL_BITS * LEVELS);
+
+    private final CaptchaRepositoryProperties properties;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Stripe[] stripes;
+
+    private final long tickDuration;
+
+    private final Counter evictionCounter = Metrics.counter("athena.captcha.repository.evictions");
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造内存验证码仓库
+     *
+     * @param properties 验证码仓库配置
+     */
+    public InMemoryCaptchaRepository(CaptchaRepositoryProperties properties) {
+        this.properties = properties;
+        this.tickDuration = Math.max(1, properties.getTickDuration());
+        long currentTick = System.currentTimeMillis() / tickDuration;
+        this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(currentTick);
+        }
+        Metrics.gauge("athena.captcha.repository.size", size, AtomicInteger::get);
+    }
+
+    /**
+     * 启动时间轮推进任务
+     */
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("captcha-repository-wheel")
+                .daemon(true)
+                .factory());
+        executor.scheduleAtFixedRate(this::advance, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止时间轮推进任务
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 保存验证码到内存
+     *
+     * @param key     验证码的键，通常与用户或会话相关联
+     * @param captcha 验证码对象，包含验证码信息和过期时间
+     */
+    @Override
+    public void saveCaptcha(String key, Captcha captcha) {
+        long expireAt = captcha.getExpireTime().getTime();
+        if (expireAt <= System.currentTimeMillis()) {
+            removeCaptcha(key);
+            return;
+        }
+        Captcha stored = new Captcha();
+        stored.setCode(captcha.getCode());
+        stored.setExpireTime(new Date(expireAt));
+        // 淘汰在分段锁外进行，避免两个分段互相等待
+        if (stripe(key).put(new Entry(key, stored, expireAt)) == null
+                && size.incrementAndGet() > properties.getMaximumSize()) {
+            evict(key);
+        }
+    }
+
+    /**
+     * 从内存获取验证码
+     *
+     * @param key 验证码的键，用于检索对应的验证码信息
+     * @return 返回找到的验证码对象，如果不存在或已过期则返回null
+     */
+    @Override
+    public Captcha getCaptcha(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expireAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.captcha();
+    }
+
+    /**
+     * 从内存移除验证码
+     *
+     * @param key 验证码的键，用于定位并删除对应的验证码信息
+     */
+    @Override
+    public void removeCaptcha(String key) {
+        if (stripe(key).remove(key)) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * 校验并消费验证码
+     * <p>
+     * 校验通过时以比较并删除移除条目，并发请求中只有一个能删除成功；失败次数保存在条目中，
+     * 验证码被覆盖时随新条目重新计数。
+     * </p>
+     *
+     * @param key         验证码的键
+     * @param code        用户输入的验证码
+     * @param maxAttempts 最大失败次数，小于等于0时不限制
+     * @return 校验通过返回true
+     */
+    @Override
+    public boolean consumeCaptcha(String key, String code, int maxAttempts) {
+        Entry entry = entries.get(key);
+        if (entry == null || code == null || entry.expireAt() <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (code.equalsIgnoreCase(entry.captcha().getCode())) {
+            return expire(entry);
+        }
+        if (maxAttempts > 0 && entry.attempts().incrementAndGet() >= maxAttempts) {
+            expire(entry);
+        }
+        return false;
+    }
+
+    /**
+     * 获取当前保存的验证码数量，包含已过期但尚未清理的验证码
+     *
+     * @return 验证码数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 获取时间轮中的条目数量
+     *
+     * @return 各分段时间轮中的条目数量之和
+     */
+    int scheduledSize() {
+        int scheduled = 0;
+        for (Stripe stripe : stripes) {
+            scheduled += stripe.scheduledSize();
+        }
+        return scheduled;
+    }
+
+    /**
+     * 推进所有分段的时间轮到当前时间
+     */
+    private void advance() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Stripe stripe : stripes) {
+                stripe.advance(now / tickDuration, now);
+            }
+        } catch (Exception e) {
+            log.warn("清理过期验证码失败", e);
+        }
+    }
+
+    /**
+     * 超过容量上限时淘汰最早过期的验证码，优先从新验证码所在的分段中淘汰
+     *
+     * @param key 新保存的验证码的键
+     */
+    private void evict(String key) {
+        int start = Math.floorMod(key.hashCode(), stripes.length);
+        for (int i = 0; i < stripes.length && size.get() > properties.getMaximumSize(); i++) {
+            if (stripes[(start + i) % stripes.length].evictOne()) {
+                evictionCounter.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 获取键所在的分段
+     *
+     * @param key 验证码的键
+     * @return 分段
+     */
+    private Stripe stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    /**
+     * 删除仍在哈希表中的条目
+     *
+     * @param entry 条目
+     * @return 删除成功返回true，条目已被覆盖或移除时返回false
+     */
+    private boolean expire(Entry entry) {
+        if (stripe(entry.key()).expire(entry)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 验证码条目，同时是时间轮格中双向链表的节点
+     */
+    private static final class Entry {
+
+        private final String key;
+
+        private final Captcha captcha;
+
+        private final long expireAt;
+
+        /**
+         * 校验失败次数
+         */
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        /**
+         * 所在格中的前后节点，不在时间轮中时为null，由所在分段的锁保护
+         */
+        private Entry prev;
+
+        private Entry next;
+
+        /**
+         * 构造条目
+         *
+         * @param key      验证码的键，格的头节点为null
+         * @param captcha  验证码
+         * @param expireAt 过期时间毫秒数
+         */
+        Entry(String key, Captcha captcha, long expireAt) {
+            this.key = key;
+            this.captcha = captcha;
+            this.expireAt = expireAt;
+        }
+
+        String key() {
+            return key;
+        }
+
+        Captcha captcha() {
+            return captcha;
+        }
+
+        long expireAt() {
+            return expireAt;
+        }
+
+        AtomicInteger attempts() {
+            return attempts;
+        }
+    }
+
+    /**
+     * 时间轮分段
+     */
+    private final class Stripe {
+
+        /**
+         * 各层各格的头节点，按层依次排列，每层{@link #WHEEL_SIZE}格
+         */
+        private final Entry[] slots = new Entry[LEVELS * WHEEL_SIZE];
+
+        /**
+         * 时间轮中的条目数量
+         */
+        private int scheduled;
+
+        /**
+         * 已处理到的间隔序号
+         */
+        private long currentTick;
+
+        /**
+         * 构造时间轮分段
+         *
+         * @param currentTick 当前间隔序号
+         */
+        Stripe(long currentTick) {
+            this.currentTick = currentTick;
+            for (int i = 0; i < slots.length; i++) {
+                Entry head = new Entry(null, null, 0);
+                head.prev = head;
+                head.next = head;
+                slots[i] = head;
+            }
+        }
+
+        /**
+         * 保存条目并放入时间轮，被覆盖的条目从时间轮中摘除
+         *
+         * @param entry 条目
+         * @return 被覆盖的条目，不存在时返回null
+         */
+        synchronized Entry put(Entry entry) {
+            Entry old = entries.put(entry.key(), entry);
+            if (old != null) {
+                unlink(old);
+            }
+            place(entry);
+            return old;
+        }
+
+        /**
+         * 删除键对应的条目并从时间轮中摘除
+         *
+         * @param key 验证码的键
+         * @return 删除成功返回true
+         */
+        synchronized boolean remove(String key) {
+            Entry entry = entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            unlink(entry);
+            return true;
+        }
+
+        /**
+         * 删除仍在哈希表中的条目并从时间轮中摘除
+         *
+         * @param entry 条目
+         * @return 删除成功返回true
+         */
+        synchronized boolean expire(Entry entry) {
+            if (!entries.remove(entry.key(), entry)) {
+                return false;
+            }
+            unlink(entry);
+            return true;
+        }
+
+        /**
+         * 获取时间轮中的条目数量
+         *
+         * @return 条目数量
+         */
+        synchronized int scheduledSize() {
+            return scheduled;
+        }
+
+        /**
+         * 推进到指定间隔，依次处理经过的每一格
+         *
+         * @param tick 目标间隔序号
+         * @param now  当前时间毫秒数
+         */
+        synchronized void advance(long tick, long now) {
+            while (currentTick < tick) {
+                currentTick++;
+                // 从上层到下层，把到期的上层格重新放入下层
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                        for (Entry entry : take(level, currentTick >>> (WHEEL_BITS * level))) {
+                            place(entry);
+                        }
+                    }
+                }
+                for (Entry entry : take(0, currentTick)) {
+                    if (entry.expireAt() > now) {
+                        place(entry);
+                    } else if (entries.remove(entry.key(), entry)) {
+                        size.decrementAndGet();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 按过期顺序淘汰第一个条目
+         * <p>
+         * 从第0层的下一格开始逐层查找，每层的当前格最后查找，其中的条目要到下一圈才到期
+         * </p>
+         *
+         * @return 淘汰成功返回true
+         */
+        synchronized boolean evictOne() {
+            for (int level = 0; level < LEVELS; level++) {
+                long base = currentTick >>> (WHEEL_BITS * level);
+                for (int offset = 1; offset <= WHEEL_SIZE; offset++) {
+                    Entry head = slot(level, base + offset);
+                    if (head.next != head && InMemoryCaptchaRepository.this.expire(head.next)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 按距离过期的间隔数把条目放入对应的层和格
+         *
+         * @param entry 条目
+         */
+        private void place(Entry entry) {
+            long expireTick = Math.ceilDiv(entry.expireAt(), tickDuration);
+            long delay = Math.clamp(expireTick - currentTick, 1, MAX_DELAY - 1);
+            expireTick = currentTick + delay;
+            int level = 0;
+            while (delay >= (1L << (WHEEL_BITS * (level + 1)))) {
+                level++;
+            }
+            Entry head = slot(level, expireTick >>> (WHEEL_BITS * level));
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+            scheduled++;
+        }
+
+        /**
+         * 从所在格中摘除条目，条目不在时间轮中时不做处理
+         *
+         * @param entry 条目
+         */
+        private void unlink(Entry entry) {
+            if (entry.prev == null) {
+                return;
+            }
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            scheduled--;
+        }
+
+        /**
+         * 取出并清空指定格
+         *
+         * @param level 层
+         * @param index 该层的间隔序号
+         * @return 格中的条目
+         */
+        private List<Entry> take(int level, long index) {
+            Entry head = slot(level, index);
+            if (head.next == head) {
+                return List.of();
+            }
+            List<Entry> taken = new ArrayList<>();
+            while (head.next != head) {
+                Entry entry = head.next;
+                unlink(entry);
+                taken.add(entry);
+            }
+            return taken;
+        }
+
+        /**
+         * 获取指定格的头节点
+         *
+         * @param level 层
+         * @param index 该层的间隔序号
+         * @return 头节点
+         */
+        private Entry slot(int level, long index) {
+            return slots[level * WHEEL_SIZE + (int) (index & WHEEL_MASK)];
+        }
+    }
+}
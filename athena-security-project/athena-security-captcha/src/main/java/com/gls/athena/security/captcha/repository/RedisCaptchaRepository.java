@@ -1,16 +1,23 @@
 package com.gls.athena.security.captcha.repository;
 
-import cn.hutool.core.date.DateUtil;
 import com.gls.athena.security.captcha.domain.Captcha;
-import com.gls.athena.starter.data.redis.support.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Date;
+import java.util.List;
 
 /**
  * 使用Redis作为存储的验证码仓库实现类
+ * <p>
+ * 每个验证码以哈希保存验证码、过期时间和失败次数，Redis键的过期时间与验证码一致。
+ * 保存和校验各自只有一次往返，校验在Lua脚本中忽略大小写比较并删除，并发请求不会重复使用同一验证码。
+ * </p>
  *
  * @author george
  */
+@RequiredArgsConstructor
 public class RedisCaptchaRepository implements CaptchaRepository {
 
     /**
@@ -21,6 +28,42 @@ public class RedisCaptchaRepository implements CaptchaRepository {
      */
     private static final String CAPTCHA_PREFIX = "captcha:";
 
+    private static final String CODE_FIELD = "code";
+
+    private static final String EXPIRE_TIME_FIELD = "expireTime";
+
+    /**
+     * 保存脚本：覆盖验证码并重置失败次数，设置键的过期时间
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'expireTime', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * 校验脚本：忽略大小写比较，一致时删除并返回1；不一致时累计失败次数并返回0，达到最大失败次数后删除；不存在时返回-1
+     */
+    private static final RedisScript<Long> CONSUME_SCRIPT = RedisScript.of("""
+            local code = redis.call('HGET', KEYS[1], 'code')
+            if not code then
+                return -1
+            end
+            if string.upper(code) == string.upper(ARGV[1]) then
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            local maxAttempts = tonumber(ARGV[2])
+            if maxAttempts > 0 and attempts >= maxAttempts then
+                redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
     /**
      * 保存验证码到Redis
      *
@@ -29,8 +72,15 @@ public class RedisCaptchaRepository implements CaptchaRepository {
      */
     @Override
     public void saveCaptcha(String key, Captcha captcha) {
-        // 计算验证码的剩余存活时间，并将验证码信息保存到Redis中
-        RedisUtil.setCacheValue(CAPTCHA_PREFIX + key, captcha, DateUtil.betweenMs(DateUtil.date(), captcha.getExpireTime()), TimeUnit.MILLISECONDS);
+        // 计算验证码的剩余存活时间，已过期时只删除旧验证码
+        long expireAt = captcha.getExpireTime().getTime();
+        long ttl = expireAt - System.currentTimeMillis();
+        if (ttl <= 0) {
+            removeCaptcha(key);
+            return;
+        }
+        redisTemplate.execute(SAVE_SCRIPT, List.of(CAPTCHA_PREFIX + key),
+                captcha.getCode(), String.valueOf(expireAt), String.valueOf(ttl));
     }
 
     /**
@@ -41,8 +91,15 @@ public class RedisCaptchaRepository implements CaptchaRepository {
      */
     @Override
     public Captcha getCaptcha(String key) {
-        // 根据键从Redis中获取验证码信息，并转换为Captcha对象返回
-        return RedisUtil.getCacheValue(CAPTCHA_PREFIX + key, Captcha.class);
+        List<Object> values = redisTemplate.opsForHash()
+                .multiGet(CAPTCHA_PREFIX + key, List.of(CODE_FIELD, EXPIRE_TIME_FIELD));
+        if (values.get(0) == null) {
+            return null;
+        }
+        Captcha captcha = new Captcha();
+        captcha.setCode((String) values.get(0));
+        captcha.setExpireTime(values.get(1) != null ? new Date(Long.parseLong((String) values.get(1))) : null);
+        return captcha;
     }
 
     /**
@@ -53,6 +110,23 @@ public class RedisCaptchaRepository implements CaptchaRepository {
     @Override
     public void removeCaptcha(String key) {
         // 删除Redis中与指定键关联的验证码信息
-        RedisUtil.deleteCacheValue(CAPTCHA_PREFIX + key);
+        redisTemplate.delete(CAPTCHA_PREFIX + key);
+    }
+
+    /**
+     * 在一次Redis脚本调用中校验并消费验证码
+     *
+     * @param key         验证码的键
+     * @param code        用户输入的验证码
+     * @param maxAttempts 最大失败次数，小于等于0时不限制
+     * @return 校验通过返回true
+     */
+    @Override
+    public boolean consumeCaptcha(String key, String code, int maxAttempts) {
+        if (code == null) {
+            return false;
+        }
+        Long result = redisTemplate.execute(CONSUME_SCRIPT, List.of(CAPTCHA_PREFIX + key), code, String.valueOf(maxAttempts));
+        return result != null && result == 1;
     }
 }
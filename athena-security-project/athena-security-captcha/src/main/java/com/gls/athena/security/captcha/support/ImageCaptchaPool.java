@@ -0,0 +1,160 @@
+package com.gls.athena.security.captcha.support;
+
+import com.gls.athena.security.captcha.config.ImageCaptchaPoolProperties;
+import com.gls.athena.security.captcha.domain.ImageCaptcha;
+import com.gls.athena.security.captcha.filter.CaptchaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 图形验证码预生成池
+ * <p>
+ * 绘制验证码和PNG编码都是CPU密集操作，并且每次都会分配较大的图片对象。预生成池由后台线程提前绘制并编码，
+ * 只保留验证码和PNG字节，请求线程取出后保存验证码并直接写出字节。池满时补充线程阻塞等待，
+ * 取出一个即补充一个。每个验证码只会被取出一次。
+ * </p>
+ * <p>
+ * 池被取空时请求线程先等待补充线程最多{@link ImageCaptchaPoolProperties#getWaitTimeout()}毫秒，仍未取到时自行绘制；
+ * 同时自行绘制的请求数不超过{@link ImageCaptchaPoolProperties#getMaxInlineRenders()}，超过时拒绝请求，
+ * 突发流量不会让所有请求线程同时进行CPU密集的绘制。
+ * </p>
+ * <p>
+ * 补充线程使用平台线程，避免长时间的绘制占用虚拟线程的载体线程。池中剩余数量、取出次数、未命中次数和拒绝次数通过Micrometer发布，
+ * 未命中次数与取出次数之比即未命中率，持续偏高时应增大池容量或补充线程数。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class ImageCaptchaPool implements InitializingBean, DisposableBean {
+
+    private final ImageCaptchaRenderer renderer;
+
+    private final ImageCaptchaPoolProperties properties;
+
+    private final BlockingQueue<ImageCaptcha> pool;
+
+    private final List<Thread> refillers = new ArrayList<>();
+
+    private final Counter requestCounter = Metrics.counter("athena.captcha.image.pool.requests");
+
+    private final Counter missCounter = Metrics.counter("athena.captcha.image.pool.misses");
+
+    private final Counter rejectedCounter = Metrics.counter("athena.captcha.image.pool.rejected");
+
+    /**
+     * 池为空时请求线程自行绘制的许可
+     */
+    private final Semaphore inlineRenders;
+
+    private volatile boolean running;
+
+    /**
+     * 构造图形验证码预生成池
+     *
+     * @param renderer   图形验证码绘制器
+     * @param properties 预生成池配置
+     */
+    public ImageCaptchaPool(ImageCaptchaRenderer renderer, ImageCaptchaPoolProperties properties) {
+        this.renderer = renderer;
+        this.properties = properties;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, properties.getSize()));
+        this.inlineRenders = new Semaphore(Math.max(1, properties.getMaxInlineRenders()));
+        Metrics.gauge("athena.captcha.image.pool.size", pool, BlockingQueue::size);
+    }
+
+    /**
+     * 启动补充线程
+     */
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        for (int i = 0; i < Math.max(1, properties.getRefillThreads()); i++) {
+            Thread refiller = Thread.ofPlatform()
+                    .name("captcha-image-pool-" + i)
+                    .daemon(true)
+                    .start(this::refill);
+            refillers.add(refiller);
+        }
+    }
+
+    /**
+     * 停止补充线程并清空池
+     */
+    @Override
+    public void destroy() {
+        running = false;
+        refillers.forEach(Thread::interrupt);
+        pool.clear();
+    }
+
+    /**
+     * 取出一个已编码的验证码，池为空时短暂等待补充，仍为空时在许可范围内自行绘制
+     *
+     * @return 包含验证码和PNG编码的图形验证码对象，未设置过期时间
+     * @throws CaptchaException 池为空且自行绘制的请求数已达上限
+     */
+    public ImageCaptcha take() {
+        requestCounter.increment();
+        ImageCaptcha captcha = pool.poll();
+        if (captcha != null) {
+            return captcha;
+        }
+        missCounter.increment();
+        try {
+            captcha = pool.poll(Math.max(0, properties.getWaitTimeout()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (captcha != null) {
+            return captcha;
+        }
+        if (!inlineRenders.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new CaptchaException("验证码生成繁忙，请稍后重试");
+        }
+        try {
+            return renderer.renderEncoded();
+        } finally {
+            inlineRenders.release();
+        }
+    }
+
+    /**
+     * 获取池中剩余的验证码数量
+     *
+     * @return 剩余数量
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * 补充线程循环：绘制并编码验证码，池满时阻塞等待
+     */
+    private void refill() {
+        while (running) {
+            try {
+                pool.put(renderer.renderEncoded());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("预生成图形验证码失败", e);
+                // 持续失败时避免空转
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.gls.athena.security.captcha.support;
+
+import cn.hutool.captcha.CaptchaUtil;
+import cn.hutool.captcha.LineCaptcha;
+import com.gls.athena.security.captcha.config.ImageCaptchaProperties;
+import com.gls.athena.security.captcha.domain.ImageCaptcha;
+import lombok.RequiredArgsConstructor;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * 图形验证码绘制器
+ * 按图形验证码配置绘制线条验证码并编码为PNG，供图片验证码提供者和预生成池共用
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class ImageCaptchaRenderer {
+
+    private final ImageCaptchaProperties properties;
+
+    /**
+     * 绘制验证码图片
+     *
+     * @return 包含验证码和图片的图形验证码对象，未设置过期时间
+     */
+    public ImageCaptcha render() {
+        // 创建一个线条验证码对象，参数分别为宽度、高度、字符数量、线条数量和字体大小
+        LineCaptcha lineCaptcha = CaptchaUtil.createLineCaptcha(properties.getWidth(),
+                properties.getHeight(), properties.getCodeCount(), properties.getLineCount(), properties.getSize());
+        ImageCaptcha imageCaptcha = new ImageCaptcha();
+        imageCaptcha.setCode(lineCaptcha.getCode());
+        imageCaptcha.setImage(lineCaptcha.getImage());
+        return imageCaptcha;
+    }
+
+    /**
+     * 绘制验证码图片并编码为PNG，编码后不再保留图片对象
+     *
+     * @return 包含验证码和PNG编码的图形验证码对象，未设置过期时间
+     */
+    public ImageCaptcha renderEncoded() {
+        ImageCaptcha imageCaptcha = render();
+        imageCaptcha.setContent(encode(imageCaptcha.getImage()));
+        imageCaptcha.setImage(null);
+        return imageCaptcha;
+    }
+
+    /**
+     * 将验证码图片编码为PNG
+     *
+     * @param image 验证码图片
+     * @return PNG编码
+     * @see CaptchaPngEncoder
+     */
+    public byte[] encode(BufferedImage image) {
+        return CaptchaPngEncoder.encode(image);
+    }
+}
@@ -0,0 +1,206 @@
+package com.gls.athena.security.captcha.repository;
+
+import com.gls.athena.security.captcha.config.CaptchaRepositoryProperties;
+import com.gls.athena.security.captcha.domain.Captcha;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存验证码仓库测试
+ *
+ * @author george
+ */
+@DisplayName("内存验证码仓库测试")
+class InMemoryCaptchaRepositoryTest {
+
+    private InMemoryCaptchaRepository repository;
+
+    @AfterEach
+    void destroy() {
+        if (repository != null) {
+            repository.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("时间轮在验证码过期后删除验证码")
+    void expiredCaptchaRemoved() throws InterruptedException {
+        repository = start(100, 10, 4);
+
+        repository.saveCaptcha("key", captcha("AbCd", 50));
+        assertEquals(1, repository.size());
+
+        assertTrue(await(() -> repository.size() == 0), "过期验证码未被清理");
+        assertNull(repository.getCaptcha("key"));
+    }
+
+    @Test
+    @DisplayName("超过第0层范围的验证码由上层重新放入下层，到期前不删除")
+    void upperLevelCascades() throws InterruptedException {
+        repository = start(100, 1, 4);
+
+        // 每格1毫秒，第0层覆盖64毫秒，300毫秒后过期的验证码先放入第1层
+        repository.saveCaptcha("key", captcha("AbCd", 300));
+        Thread.sleep(150);
+        assertEquals(1, repository.size());
+        assertNotNull(repository.getCaptcha("key"));
+
+        assertTrue(await(() -> repository.size() == 0), "过期验证码未被清理");
+    }
+
+    @Test
+    @DisplayName("覆盖后旧条目到期时不删除新验证码")
+    void overwriteKeepsNewCaptcha() throws InterruptedException {
+        repository = start(100, 10, 4);
+
+        repository.saveCaptcha("key", captcha("AbCd", 50));
+        repository.saveCaptcha("key", captcha("EfGh", 60_000));
+        assertEquals(1, repository.size());
+
+        Thread.sleep(200);
+        Captcha captcha = repository.getCaptcha("key");
+        assertNotNull(captcha);
+        assertEquals("EfGh", captcha.getCode());
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    @DisplayName("覆盖、移除和校验通过的条目立即从时间轮中摘除")
+    void replacedEntriesUnlinked() {
+        repository = new InMemoryCaptchaRepository(properties(100, 1000, 4));
+
+        for (int i = 0; i < 1000; i++) {
+            repository.saveCaptcha("key", captcha("AbCd", 60_000 + i));
+        }
+        assertEquals(1, repository.size());
+        assertEquals(1, repository.scheduledSize());
+
+        repository.removeCaptcha("key");
+        assertEquals(0, repository.scheduledSize());
+
+        repository.saveCaptcha("key", captcha("AbCd", 60_000));
+        assertTrue(repository.consumeCaptcha("key", "AbCd", 3));
+        assertEquals(0, repository.size());
+        assertEquals(0, repository.scheduledSize());
+    }
+
+    @Test
+    @DisplayName("过期后、清理前的验证码不能读取和校验")
+    void expiredBeforeSweep() throws InterruptedException {
+        // 不启动时间轮推进任务
+        repository = new InMemoryCaptchaRepository(properties(100, 60_000, 1));
+
+        repository.saveCaptcha("key", captcha("AbCd", 20));
+        Thread.sleep(50);
+
+        assertNull(repository.getCaptcha("key"));
+        assertFalse(repository.consumeCaptcha("key", "AbCd", 3));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    @DisplayName("验证码数量超过上限时淘汰最早过期的验证码")
+    void evictEarliestExpiry() {
+        repository = new InMemoryCaptchaRepository(properties(2, 1000, 1));
+
+        repository.saveCaptcha("late", captcha("AAAA", 60_000));
+        repository.saveCaptcha("early", captcha("BBBB", 10_000));
+        repository.saveCaptcha("middle", captcha("CCCC", 30_000));
+
+        assertEquals(2, repository.size());
+        assertNull(repository.getCaptcha("early"));
+        assertNotNull(repository.getCaptcha("late"));
+        assertNotNull(repository.getCaptcha("middle"));
+    }
+
+    @Test
+    @DisplayName("忽略大小写校验通过后删除验证码，达到最大失败次数后删除验证码")
+    void consume() {
+        repository = new InMemoryCaptchaRepository(properties(100, 1000, 4));
+
+        repository.saveCaptcha("pass", captcha("AbCd", 60_000));
+        assertTrue(repository.consumeCaptcha("pass", "abcd", 3));
+        assertFalse(repository.consumeCaptcha("pass", "abcd", 3));
+
+        repository.saveCaptcha("fail", captcha("AbCd", 60_000));
+        assertFalse(repository.consumeCaptcha("fail", "wrong", 2));
+        assertNotNull(repository.getCaptcha("fail"));
+        assertFalse(repository.consumeCaptcha("fail", "wrong", 2));
+        assertNull(repository.getCaptcha("fail"));
+        assertFalse(repository.consumeCaptcha("fail", "AbCd", 2));
+
+        repository.saveCaptcha("fail", captcha("AbCd", 60_000));
+        assertFalse(repository.consumeCaptcha("fail", "wrong", 2));
+        assertTrue(repository.consumeCaptcha("fail", "AbCd", 2));
+        assertEquals(0, repository.size());
+    }
+
+    /**
+     * 创建并启动内存验证码仓库
+     *
+     * @param maximumSize  最大验证码数量
+     * @param tickDuration 时间轮每格毫秒数
+     * @param stripes      时间轮分段数
+     * @return 内存验证码仓库
+     */
+    private static InMemoryCaptchaRepository start(int maximumSize, long tickDuration, int stripes) {
+        InMemoryCaptchaRepository repository = new InMemoryCaptchaRepository(properties(maximumSize, tickDuration, stripes));
+        repository.afterPropertiesSet();
+        return repository;
+    }
+
+    /**
+     * 构造验证码仓库配置
+     *
+     * @param maximumSize  最大验证码数量
+     * @param tickDuration 时间轮每格毫秒数
+     * @param stripes      时间轮分段数
+     * @return 验证码仓库配置
+     */
+    private static CaptchaRepositoryProperties properties(int maximumSize, long tickDuration, int stripes) {
+        CaptchaRepositoryProperties properties = new CaptchaRepositoryProperties();
+        properties.setType("memory");
+        properties.setMaximumSize(maximumSize);
+        properties.setTickDuration(tickDuration);
+        properties.setStripes(stripes);
+        return properties;
+    }
+
+    /**
+     * 构造验证码
+     *
+     * @param code   验证码
+     * @param millis 剩余有效毫秒数
+     * @return 验证码
+     */
+    private static Captcha captcha(String code, long millis) {
+        Captcha captcha = new Captcha();
+        captcha.setCode(code);
+        captcha.setExpireTime(new Date(System.currentTimeMillis() + millis));
+        return captcha;
+    }
+
+    /**
+     * 在2秒内等待条件成立
+     *
+     * @param condition 条件
+     * @return 条件成立返回true
+     * @throws InterruptedException 等待被中断时抛出
+     */
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,161 @@
+package com.gls.athena.security.captcha.repository;
+
+import com.gls.athena.security.captcha.domain.Captcha;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis验证码仓库测试，在嵌入式Redis中执行保存和校验脚本
+ *
+ * @author george
+ */
+@DisplayName("Redis验证码仓库测试")
+class RedisCaptchaRepositoryTest {
+
+    private static final String KEY = "13800000000";
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    private final RedisCaptchaRepository repository = new RedisCaptchaRepository(redisTemplate);
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("保存验证码，键的存活时间与验证码过期时间一致")
+    void save() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+
+        Captcha captcha = repository.getCaptcha(KEY);
+        assertNotNull(captcha);
+        assertEquals("AbCd", captcha.getCode());
+        Long timeToLive = redisTemplate.getExpire("captcha:" + KEY, TimeUnit.MILLISECONDS);
+        assertNotNull(timeToLive);
+        assertTrue(timeToLive > 55_000 && timeToLive <= 60_000, "验证码存活时间: " + timeToLive);
+    }
+
+    @Test
+    @DisplayName("保存已过期的验证码时只删除旧验证码")
+    void saveExpired() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+
+        repository.saveCaptcha(KEY, captcha("EfGh", -1));
+
+        assertNull(repository.getCaptcha(KEY));
+    }
+
+    @Test
+    @DisplayName("忽略大小写校验通过后删除验证码，不能重复使用")
+    void consumeOnce() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+
+        assertTrue(repository.consumeCaptcha(KEY, "abcd", 3));
+        assertFalse(repository.consumeCaptcha(KEY, "abcd", 3));
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey("captcha:" + KEY));
+    }
+
+    @Test
+    @DisplayName("校验失败累计失败次数，达到最大失败次数后删除验证码")
+    void maxAttempts() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+
+        assertFalse(repository.consumeCaptcha(KEY, "wrong", 2));
+        assertEquals("1", redisTemplate.opsForHash().get("captcha:" + KEY, "attempts"));
+        assertFalse(repository.consumeCaptcha(KEY, "wrong", 2));
+
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey("captcha:" + KEY));
+        assertFalse(repository.consumeCaptcha(KEY, "AbCd", 2));
+    }
+
+    @Test
+    @DisplayName("重新保存验证码时重置失败次数")
+    void saveResetsAttempts() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+        assertFalse(repository.consumeCaptcha(KEY, "wrong", 2));
+
+        repository.saveCaptcha(KEY, captcha("EfGh", 60));
+
+        assertNull(redisTemplate.opsForHash().get("captcha:" + KEY, "attempts"));
+        assertFalse(repository.consumeCaptcha(KEY, "wrong", 2));
+        assertTrue(repository.consumeCaptcha(KEY, "efgh", 2));
+    }
+
+    @Test
+    @DisplayName("最大失败次数小于等于0时不限制失败次数")
+    void unlimitedAttempts() {
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(repository.consumeCaptcha(KEY, "wrong", 0));
+        }
+
+        assertTrue(repository.consumeCaptcha(KEY, "AbCd", 0));
+    }
+
+    @Test
+    @DisplayName("验证码不存在或输入为空时校验失败")
+    void missing() {
+        assertFalse(repository.consumeCaptcha(KEY, "AbCd", 3));
+
+        repository.saveCaptcha(KEY, captcha("AbCd", 60));
+        assertFalse(repository.consumeCaptcha(KEY, null, 3));
+        assertNotNull(repository.getCaptcha(KEY));
+    }
+
+    /**
+     * 构造验证码
+     *
+     * @param code    验证码
+     * @param seconds 剩余有效秒数，为负数时已过期
+     * @return 验证码
+     */
+    private static Captcha captcha(String code, long seconds) {
+        Captcha captcha = new Captcha();
+        captcha.setCode(code);
+        captcha.setExpireTime(new Date(System.currentTimeMillis() + seconds * 1000));
+        return captcha;
+    }
+}
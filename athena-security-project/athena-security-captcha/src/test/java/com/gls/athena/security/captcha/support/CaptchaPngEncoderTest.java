@@ -0,0 +1,119 @@
+package com.gls.athena.security.captcha.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验证码图片PNG编码器测试，编码结果由ImageIO解码后逐像素比较
+ *
+ * @author george
+ */
+@DisplayName("验证码图片PNG编码器测试")
+class CaptchaPngEncoderTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    @DisplayName("整型RGB像素编码后可由ImageIO解码且像素一致")
+    void intRgb() throws IOException {
+        BufferedImage image = randomImage(120, 40, BufferedImage.TYPE_INT_RGB);
+
+        assertSamePixels(image, decode(CaptchaPngEncoder.encode(image)));
+    }
+
+    @Test
+    @DisplayName("带透明度的像素忽略透明度")
+    void intArgb() throws IOException {
+        BufferedImage image = randomImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage decoded = decode(CaptchaPngEncoder.encode(image));
+
+        assertFalse(decoded.getColorModel().hasAlpha());
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    @DisplayName("非整型像素通过颜色模型转换后编码")
+    void byteBgr() throws IOException {
+        BufferedImage image = randomImage(50, 20, BufferedImage.TYPE_3BYTE_BGR);
+
+        assertSamePixels(image, decode(CaptchaPngEncoder.encode(image)));
+    }
+
+    @Test
+    @DisplayName("裁剪后的子图只编码子图范围内的像素")
+    void subimage() throws IOException {
+        BufferedImage image = randomImage(100, 50, BufferedImage.TYPE_INT_RGB).getSubimage(10, 5, 60, 30);
+
+        BufferedImage decoded = decode(CaptchaPngEncoder.encode(image));
+
+        assertEquals(60, decoded.getWidth());
+        assertEquals(30, decoded.getHeight());
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    @DisplayName("复用缓冲区依次编码不同尺寸的图片")
+    void reuseBuffers() throws IOException {
+        for (int size : new int[]{200, 16, 130, 1}) {
+            BufferedImage image = randomImage(size, size / 2 + 1, BufferedImage.TYPE_INT_RGB);
+            assertSamePixels(image, decode(CaptchaPngEncoder.encode(image)));
+        }
+    }
+
+    /**
+     * 构造随机像素图片
+     *
+     * @param width  宽度
+     * @param height 高度
+     * @param type   图片类型
+     * @return 图片
+     */
+    private BufferedImage randomImage(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * 使用ImageIO解码PNG
+     *
+     * @param png PNG编码
+     * @return 解码后的图片
+     * @throws IOException 解码失败时抛出
+     */
+    private static BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(image, "ImageIO无法识别编码结果");
+        return image;
+    }
+
+    /**
+     * 逐像素比较RGB分量
+     *
+     * @param expected 原始图片
+     * @param actual   解码后的图片
+     */
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y) & 0xFFFFFF, actual.getRGB(x, y) & 0xFFFFFF,
+                        "像素不一致: (" + x + ", " + y + ")");
+            }
+        }
+    }
+}
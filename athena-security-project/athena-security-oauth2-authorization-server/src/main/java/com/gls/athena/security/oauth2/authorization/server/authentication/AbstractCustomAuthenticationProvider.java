@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.session.SessionInformation;
@@ -24,17 +25,24 @@ import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
 import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
 import org.springframework.security.oauth2.server.authorization.token.DefaultOAuth2TokenContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * 抽象自定义认证提供者基类，为不同认证模式提供通用的认证处理逻辑。
@@ -43,6 +51,15 @@ import java.util.*;
  * 包括DPoP验证、令牌生成、OpenID Connect支持等。
  * 子类只需要实现具体的用户认证逻辑和授权类型检查。
  * </p>
+ * <p>
+ * 请求包含openid范围时，ID令牌在虚拟线程中生成，与当前线程生成访问令牌和刷新令牌同时进行，
+ * 两次JWT签名不再串行；授权信息在所有令牌生成后只构建一次。
+ * 虚拟线程中可以读取请求线程的安全上下文、请求属性和授权服务器上下文，令牌定制器的行为与在请求线程中一致。
+ * </p>
+ * <p>
+ * ID令牌上下文中的授权信息在生成任何令牌之前构建，包含主体、授权类型、授权范围和属性，
+ * 但不包含本次生成的访问令牌和刷新令牌；需要读取访问令牌的ID令牌定制器应关闭并行生成。
+ * </p>
  *
  * @author george
  */
@@ -53,6 +70,14 @@ public abstract class AbstractCustomAuthenticationProvider implements Authentica
     protected static final String ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
     protected static final OAuth2TokenType ID_TOKEN_TOKEN_TYPE = new OAuth2TokenType(OidcParameterNames.ID_TOKEN);
 
+    /**
+     * 并行生成令牌的执行器，每个任务使用一个虚拟线程，提交任务时的安全上下文传递到虚拟线程
+     */
+    private static final Executor TOKEN_EXECUTOR = new DelegatingSecurityContextExecutor(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                    .name("oauth2-token-", 0)
+                    .factory()));
+
     /**
      * OAuth2授权服务，用于保存生成的授权信息。
      */
@@ -73,6 +98,20 @@ public abstract class AbstractCustomAuthenticationProvider implements Authentica
      */
     protected final UserDetailsService userDetailsService;
 
+    /**
+     * 是否并行生成令牌，默认启用
+     */
+    private boolean parallelTokenGeneration = true;
+
+    /**
+     * 设置是否并行生成令牌
+     *
+     * @param parallelTokenGeneration 是否并行生成令牌，禁用时在当前线程依次生成
+     */
+    public void setParallelTokenGeneration(boolean parallelTokenGeneration) {
+        this.parallelTokenGeneration = parallelTokenGeneration;
+    }
+
     /**
      * 通用的认证处理流程模板方法。
      *
@@ -111,14 +150,23 @@ public abstract class AbstractCustomAuthenticationProvider implements Authentica
         OAuth2Authorization.Builder authorizationBuilder = buildAuthorizationBuilder(
                 registeredClient, principal, customAuthentication);
 
+        // 在当前线程构建各令牌的上下文，之后的生成互不依赖
+        OAuth2TokenContext accessTokenContext = tokenContextBuilder.tokenType(OAuth2TokenType.ACCESS_TOKEN).build();
+        OAuth2TokenContext refreshTokenContext = buildRefreshTokenContext(registeredClient, tokenContextBuilder);
+        OAuth2TokenContext idTokenContext = buildIdTokenContext(customAuthentication, principal, tokenContextBuilder,
+                authorizationBuilder);
+
+        // 生成ID令牌（OpenID Connect），与访问令牌的签名同时进行
+        CompletableFuture<OAuth2Token> idTokenFuture = idTokenContext != null ? generateAsync(idTokenContext) : null;
+
         // 生成访问令牌
-        OAuth2AccessToken accessToken = getAccessToken(tokenContextBuilder, authorizationBuilder);
+        OAuth2AccessToken accessToken = getAccessToken(accessTokenContext, authorizationBuilder);
 
         // 生成刷新令牌（仅限支持刷新令牌的客户端）
-        OAuth2RefreshToken refreshToken = getRefreshToken(registeredClient, tokenContextBuilder, authorizationBuilder);
+        OAuth2RefreshToken refreshToken = getRefreshToken(refreshTokenContext, authorizationBuilder);
 
-        // 生成ID令牌（OpenID Connect）
-        OidcIdToken idToken = getOidcIdToken(customAuthentication, principal, tokenContextBuilder, authorizationBuilder);
+        // 等待ID令牌生成完成
+        OidcIdToken idToken = getOidcIdToken(idTokenFuture, authorizationBuilder);
 
         // 保存授权信息
         OAuth2Authorization authorization = authorizationBuilder.build();
@@ -191,106 +239,172 @@ public abstract class AbstractCustomAuthenticationProvider implements Authentica
     }
 
     /**
-     * 生成OIDC ID令牌。
+     * 构建刷新令牌上下文。
+     *
+     * @param registeredClient    已注册的客户端
+     * @param tokenContextBuilder 令牌上下文构建器
+     * @return 刷新令牌上下文，若客户端不支持刷新令牌则返回null
+     */
+    private OAuth2TokenContext buildRefreshTokenContext(
+            RegisteredClient registeredClient,
+            DefaultOAuth2TokenContext.Builder tokenContextBuilder) {
+
+        if (registeredClient.getAuthorizationGrantTypes().contains(AuthorizationGrantType.REFRESH_TOKEN)) {
+            return tokenContextBuilder.tokenType(OAuth2TokenType.REFRESH_TOKEN).build();
+        }
+        return null;
+    }
+
+    /**
+     * 构建OIDC ID令牌上下文。
+     * <p>
+     * ID令牌与访问令牌同时生成，上下文中的授权信息在生成任何令牌之前构建，
+     * 供读取主体或属性的令牌定制器使用，其中不包含访问令牌和刷新令牌。
+     * </p>
      *
      * @param customAuthentication 自定义认证令牌
      * @param principal            用户认证主体
      * @param tokenContextBuilder  令牌上下文构建器
-     * @param authorizationBuilder 授权信息构建器
-     * @return 生成的OIDC ID令牌，若不支持则返回null
+     * @param authorizationBuilder 尚未添加令牌的授权信息构建器
+     * @return ID令牌上下文，若请求不包含openid范围则返回null
      */
-    private OidcIdToken getOidcIdToken(
+    private OAuth2TokenContext buildIdTokenContext(
             AbstractCustomAuthenticationToken customAuthentication,
             Authentication principal,
             DefaultOAuth2TokenContext.Builder tokenContextBuilder,
             OAuth2Authorization.Builder authorizationBuilder) {
 
-        if (customAuthentication.getScopes().contains(OidcScopes.OPENID)) {
-            SessionInformation sessionInformation = getSessionInformation(principal);
-            if (sessionInformation != null) {
-                try {
-                    sessionInformation = new SessionInformation(sessionInformation.getPrincipal(),
-                            createHash(sessionInformation.getSessionId()), sessionInformation.getLastRequest());
-                } catch (NoSuchAlgorithmException ex) {
-                    OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
-                            "Failed to compute hash for Session ID.", ERROR_URI);
-                    throw new OAuth2AuthenticationException(error);
-                }
-                tokenContextBuilder.put(SessionInformation.class, sessionInformation);
-            }
-
-            OAuth2TokenContext tokenContext = tokenContextBuilder
-                    .tokenType(ID_TOKEN_TOKEN_TYPE)
-                    .authorization(authorizationBuilder.build())
-                    .build();
-
-            OAuth2Token generatedIdToken = this.tokenGenerator.generate(tokenContext);
-            if (!(generatedIdToken instanceof Jwt)) {
+        if (!customAuthentication.getScopes().contains(OidcScopes.OPENID)) {
+            return null;
+        }
+        SessionInformation sessionInformation = getSessionInformation(principal);
+        if (sessionInformation != null) {
+            try {
+                sessionInformation = new SessionInformation(sessionInformation.getPrincipal(),
+                        createHash(sessionInformation.getSessionId()), sessionInformation.getLastRequest());
+            } catch (NoSuchAlgorithmException ex) {
                 OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
-                        "The token generator failed to generate the ID token.", ERROR_URI);
+                        "Failed to compute hash for Session ID.", ERROR_URI);
                 throw new OAuth2AuthenticationException(error);
             }
+            tokenContextBuilder.put(SessionInformation.class, sessionInformation);
+        }
+        return tokenContextBuilder.tokenType(ID_TOKEN_TOKEN_TYPE)
+                .authorization(authorizationBuilder.build())
+                .build();
+    }
+
+    /**
+     * 生成令牌，启用并行生成时在虚拟线程中执行。
+     * <p>
+     * 安全上下文由执行器传递；请求属性和授权服务器上下文在虚拟线程中设置，生成后清除。
+     * 请求线程在返回响应前等待生成完成，虚拟线程使用请求属性时请求仍然有效。
+     * </p>
+     *
+     * @param tokenContext 令牌上下文
+     * @return 令牌生成结果
+     */
+    private CompletableFuture<OAuth2Token> generateAsync(OAuth2TokenContext tokenContext) {
+        if (!this.parallelTokenGeneration) {
+            return CompletableFuture.completedFuture(this.tokenGenerator.generate(tokenContext));
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        AuthorizationServerContext authorizationServerContext = AuthorizationServerContextHolder.getContext();
+        return CompletableFuture.supplyAsync(() -> {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            AuthorizationServerContextHolder.setContext(authorizationServerContext);
+            try {
+                return this.tokenGenerator.generate(tokenContext);
+            } finally {
+                AuthorizationServerContextHolder.resetContext();
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }, TOKEN_EXECUTOR);
+    }
+
+    /**
+     * 获取OIDC ID令牌。
+     *
+     * @param idTokenFuture        ID令牌生成结果，请求不包含openid范围时为null
+     * @param authorizationBuilder 授权信息构建器
+     * @return 生成的OIDC ID令牌，若不支持则返回null
+     */
+    private OidcIdToken getOidcIdToken(
+            CompletableFuture<OAuth2Token> idTokenFuture,
+            OAuth2Authorization.Builder authorizationBuilder) {
 
-            if (log.isTraceEnabled()) {
-                log.trace("Generated id token");
+        if (idTokenFuture == null) {
+            return null;
+        }
+        OAuth2Token generatedIdToken;
+        try {
+            generatedIdToken = idTokenFuture.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw ex;
+        }
+        if (!(generatedIdToken instanceof Jwt)) {
+            OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
+                    "The token generator failed to generate the ID token.", ERROR_URI);
+            throw new OAuth2AuthenticationException(error);
+        }
 
-            OidcIdToken idToken = new OidcIdToken(generatedIdToken.getTokenValue(), generatedIdToken.getIssuedAt(),
-                    generatedIdToken.getExpiresAt(), ((Jwt) generatedIdToken).getClaims());
-            authorizationBuilder.token(idToken,
-                    (metadata) -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()));
-            return idToken;
+        if (log.isTraceEnabled()) {
+            log.trace("Generated id token");
         }
-        return null;
+
+        OidcIdToken idToken = new OidcIdToken(generatedIdToken.getTokenValue(), generatedIdToken.getIssuedAt(),
+                generatedIdToken.getExpiresAt(), ((Jwt) generatedIdToken).getClaims());
+        authorizationBuilder.token(idToken,
+                (metadata) -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()));
+        return idToken;
     }
 
     /**
      * 获取刷新令牌。
      *
-     * @param registeredClient     已注册的客户端
-     * @param tokenContextBuilder  令牌上下文构建器
+     * @param tokenContext         刷新令牌上下文，客户端不支持刷新令牌时为null
      * @param authorizationBuilder 授权信息构建器
      * @return 刷新令牌，若不支持或未生成则返回null
      */
     private OAuth2RefreshToken getRefreshToken(
-            RegisteredClient registeredClient,
-            DefaultOAuth2TokenContext.Builder tokenContextBuilder,
+            OAuth2TokenContext tokenContext,
             OAuth2Authorization.Builder authorizationBuilder) {
 
-        if (registeredClient.getAuthorizationGrantTypes().contains(AuthorizationGrantType.REFRESH_TOKEN)) {
-            OAuth2TokenContext tokenContext = tokenContextBuilder.tokenType(OAuth2TokenType.REFRESH_TOKEN).build();
-            OAuth2Token generatedRefreshToken = this.tokenGenerator.generate(tokenContext);
-
-            if (generatedRefreshToken != null) {
-                if (!(generatedRefreshToken instanceof OAuth2RefreshToken refreshToken)) {
-                    OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
-                            "The token generator failed to generate a valid refresh token.", ERROR_URI);
-                    throw new OAuth2AuthenticationException(error);
-                }
-
-                if (log.isTraceEnabled()) {
-                    log.trace("Generated refresh token");
-                }
+        if (tokenContext == null) {
+            return null;
+        }
+        OAuth2Token generatedRefreshToken = this.tokenGenerator.generate(tokenContext);
+        if (generatedRefreshToken == null) {
+            return null;
+        }
+        if (!(generatedRefreshToken instanceof OAuth2RefreshToken refreshToken)) {
+            OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
+                    "The token generator failed to generate a valid refresh token.", ERROR_URI);
+            throw new OAuth2AuthenticationException(error);
+        }
 
-                authorizationBuilder.refreshToken(refreshToken);
-                return refreshToken;
-            }
+        if (log.isTraceEnabled()) {
+            log.trace("Generated refresh token");
         }
-        return null;
+
+        authorizationBuilder.refreshToken(refreshToken);
+        return refreshToken;
     }
 
     /**
      * 获取访问令牌。
      *
-     * @param tokenContextBuilder  令牌上下文构建器
+     * @param tokenContext         访问令牌上下文
      * @param authorizationBuilder 授权信息构建器
      * @return 生成的访问令牌
      */
     private OAuth2AccessToken getAccessToken(
-            DefaultOAuth2TokenContext.Builder tokenContextBuilder,
+            OAuth2TokenContext tokenContext,
             OAuth2Authorization.Builder authorizationBuilder) {
 
-        OAuth2TokenContext tokenContext = tokenContextBuilder.tokenType(OAuth2TokenType.ACCESS_TOKEN).build();
         OAuth2Token generatedAccessToken = this.tokenGenerator.generate(tokenContext);
 
         if (generatedAccessToken == null) {
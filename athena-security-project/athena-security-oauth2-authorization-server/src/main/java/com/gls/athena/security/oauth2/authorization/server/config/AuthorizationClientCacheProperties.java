@@ -0,0 +1,34 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 注册客户端缓存配置属性类
+ * 用于配置授权服务查询注册客户端时使用的进程内缓存
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationClientCacheProperties implements Serializable {
+
+    /**
+     * 是否启用注册客户端缓存，默认启用
+     * 使用基于内存的客户端信息仓库时不会启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最大缓存客户端数量，默认50000
+     * 应不小于活跃客户端数量，否则被淘汰的客户端每次请求都要回源到Redis；
+     * 按每个客户端约2KB估算，默认值最多占用约100MB堆内存，客户端较少时可以调小
+     */
+    private long maximumSize = 50000;
+
+    /**
+     * 缓存存活时间，单位毫秒，默认300000毫秒(5分钟)
+     * 未发布变更事件时，客户端信息的修改最迟在该时间后生效
+     */
+    private long timeToLive = 300000;
+}
@@ -1,12 +1,40 @@
 package com.gls.athena.security.oauth2.authorization.server.config;
 
+import com.gls.athena.common.core.constant.IConstants;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryCodecUtil;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationConsentCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2RegisteredClientCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationConsentCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2RegisteredClientCodec;
 import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConsentConverter;
 import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2RegisteredClientConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.Oauth2AuthorizationExpirySweeper;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.Oauth2AuthorizationRevocationService;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.ReactiveRedisOauth2AuthorizationStore;
 import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisOauth2AuthorizationConsentServiceImpl;
 import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisOauth2AuthorizationServiceImpl;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisRegisteredClientRepositoryImpl;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AccessTokenRevocationFeed;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationNearCache;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.RedisOauth2AuthorizationBlockStore;
+import com.gls.athena.security.oauth2.authorization.server.support.CachingRegisteredClientRepository;
+import com.gls.athena.security.oauth2.authorization.server.support.RegisteredClientCache;
+import com.gls.athena.starter.data.redis.support.RedisObjectMapperCustomizer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -17,6 +45,7 @@ import org.springframework.security.oauth2.server.authorization.client.InMemoryR
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
 
 import java.util.UUID;
@@ -35,16 +64,229 @@ public class AuthorizationConfig {
      * 提供 OAuth2 授权服务的 Bean 实例
      * <p>
      * 当容器中不存在 OAuth2AuthorizationService 类型的 Bean 时，创建一个基于 Redis 的实现。
+     * 启用注册客户端缓存且客户端信息仓库自身没有缓存时，还原授权信息时优先从缓存读取客户端信息。
+     * 开启异步存储时，保存、删除和查找委托给异步存储并阻塞等待结果。
      *
      * @param converter                  OAuth2 授权对象转换器，用于序列化和反序列化授权信息
      * @param registeredClientRepository 已注册客户端信息仓库，用于获取客户端详情
-     * @return OAuth2AuthorizationService 授权服务实例
+     * @param redisTemplate              字符串Redis模板，用于维护令牌索引
+     * @param properties                 授权服务器配置属性
+     * @param codec                      授权信息编解码器
+     * @param nearCache                  授权信息本地近端缓存，未启用时为空
+     * @param clientCache                注册客户端本地缓存，未启用时为空
+     * @param asyncStore                 异步授权存储，未启用时为空
+     * @param revocationFeed             已撤销访问令牌的发布列表，未启用时为空
+     * @return RedisOauth2AuthorizationServiceImpl 授权服务实例
      */
     @Bean
     @ConditionalOnMissingBean(OAuth2AuthorizationService.class)
-    public OAuth2AuthorizationService authorizationService(Oauth2AuthorizationConverter converter,
-                                                           RegisteredClientRepository registeredClientRepository) {
-        return new RedisOauth2AuthorizationServiceImpl(converter, registeredClientRepository);
+    public RedisOauth2AuthorizationServiceImpl authorizationService(Oauth2AuthorizationConverter converter,
+                                                                    RegisteredClientRepository registeredClientRepository,
+                                                                    StringRedisTemplate redisTemplate,
+                                                                    AuthorizationServerProperties properties,
+                                                                    Oauth2AuthorizationCodec codec,
+                                                                    ObjectProvider<Oauth2AuthorizationNearCache> nearCache,
+                                                                    ObjectProvider<RegisteredClientCache> clientCache,
+                                                                    ObjectProvider<ReactiveRedisOauth2AuthorizationStore> asyncStore,
+                                                                    ObjectProvider<Oauth2AccessTokenRevocationFeed> revocationFeed) {
+        return new RedisOauth2AuthorizationServiceImpl(converter, getClientRepository(registeredClientRepository, clientCache),
+                redisTemplate, properties.getStore(), codec, new Oauth2AuthorizationKeys(properties.getStore().getShardCount()),
+                nearCache.getIfAvailable(), asyncStore.getIfAvailable(), revocationFeed.getIfAvailable());
+    }
+
+    /**
+     * 提供已撤销访问令牌发布列表的 Bean 实例
+     * <p>
+     * 默认启用，资源服务器本地验证JWT访问令牌时订阅该列表拒绝已撤销的令牌。
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param properties    授权服务器配置属性
+     * @return Oauth2AccessTokenRevocationFeed 撤销列表实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.revocation-feed",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public Oauth2AccessTokenRevocationFeed accessTokenRevocationFeed(StringRedisTemplate redisTemplate,
+                                                                     AuthorizationServerProperties properties) {
+        return new Oauth2AccessTokenRevocationFeed(redisTemplate, properties.getRevocationFeed());
+    }
+
+    /**
+     * 提供异步授权存储的 Bean 实例
+     * <p>
+     * 仅在开启异步存储时创建，基于 Redis 响应式 API 读写授权信息，可直接供响应式调用方使用；
+     * 基于 Redis 的授权服务会将读写委托给该存储。
+     *
+     * @param converter                  OAuth2 授权对象转换器
+     * @param registeredClientRepository 已注册客户端信息仓库，用于获取客户端详情
+     * @param redisTemplate              响应式字符串Redis模板
+     * @param properties                 授权服务器配置属性
+     * @param codec                      授权信息编解码器
+     * @param clientCache                注册客户端本地缓存，未启用时为空
+     * @param blockStore                 共享数据块存储，未配置时为空
+     * @return ReactiveRedisOauth2AuthorizationStore 异步授权存储实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.store",
+            name = "async-enabled", havingValue = "true")
+    public ReactiveRedisOauth2AuthorizationStore authorizationAsyncStore(Oauth2AuthorizationConverter converter,
+                                                                         RegisteredClientRepository registeredClientRepository,
+                                                                         ReactiveStringRedisTemplate redisTemplate,
+                                                                         AuthorizationServerProperties properties,
+                                                                         Oauth2AuthorizationCodec codec,
+                                                                         ObjectProvider<RegisteredClientCache> clientCache,
+                                                                         ObjectProvider<RedisOauth2AuthorizationBlockStore> blockStore) {
+        return new ReactiveRedisOauth2AuthorizationStore(converter, getClientRepository(registeredClientRepository, clientCache),
+                redisTemplate, properties.getStore(), codec, new Oauth2AuthorizationKeys(properties.getStore().getShardCount()),
+                blockStore.getIfAvailable());
+    }
+
+    /**
+     * 提供注册客户端本地缓存的 Bean 实例
+     * <p>
+     * 默认启用，修改客户端信息后可发布 RegisteredClientChangedEvent 事件立即失效缓存。
+     *
+     * @param properties 授权服务器配置属性
+     * @return RegisteredClientCache 注册客户端本地缓存实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.client-cache",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RegisteredClientCache registeredClientCache(AuthorizationServerProperties properties) {
+        return new RegisteredClientCache(properties.getClientCache());
+    }
+
+    /**
+     * 提供授权信息本地近端缓存的 Bean 实例
+     * <p>
+     * 仅在开启近端缓存时创建，缓存按授权ID和令牌值查找的结果，并通过 Redis 发布订阅在节点间失效。
+     *
+     * @param redisTemplate 字符串Redis模板，用于发布失效通知
+     * @param properties    授权服务器配置属性
+     * @return Oauth2AuthorizationNearCache 本地近端缓存实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.store.near-cache",
+            name = "enabled", havingValue = "true")
+    public Oauth2AuthorizationNearCache authorizationNearCache(StringRedisTemplate redisTemplate,
+                                                               AuthorizationServerProperties properties) {
+        return new Oauth2AuthorizationNearCache(redisTemplate, properties.getStore().getNearCache());
+    }
+
+    /**
+     * 提供订阅授权信息失效通知的消息监听容器
+     *
+     * @param connectionFactory Redis连接工厂
+     * @param nearCache         授权信息本地近端缓存
+     * @return RedisMessageListenerContainer 消息监听容器实例
+     */
+    @Bean
+    @ConditionalOnBean(Oauth2AuthorizationNearCache.class)
+    public RedisMessageListenerContainer authorizationNearCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                 Oauth2AuthorizationNearCache nearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearCache, new ChannelTopic(nearCache.getChannel()));
+        return container;
+    }
+
+    /**
+     * 提供授权信息共享数据块存储的 Bean 实例
+     * <p>
+     * 始终创建，关闭共享数据块后仍需读取已写入的共享数据块引用。
+     *
+     * @param redisTemplate         字符串Redis模板
+     * @param reactiveRedisTemplate 响应式字符串Redis模板，不存在时为空
+     * @param properties            授权服务器配置属性
+     * @return RedisOauth2AuthorizationBlockStore 共享数据块存储实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisOauth2AuthorizationBlockStore authorizationBlockStore(StringRedisTemplate redisTemplate,
+                                                                      ObjectProvider<ReactiveStringRedisTemplate> reactiveRedisTemplate,
+                                                                      AuthorizationServerProperties properties) {
+        return new RedisOauth2AuthorizationBlockStore(redisTemplate, reactiveRedisTemplate.getIfAvailable(), properties.getStore());
+    }
+
+    /**
+     * 提供授权信息编解码器的 Bean 实例
+     * <p>
+     * 当容器中不存在 Oauth2AuthorizationCodec 类型的 Bean 时，使用二进制编解码器。
+     * 启用共享数据块时，授权属性中的主体对象按内容摘要存储一份。
+     * 主体对象等无法按类型编码的值使用应用了 Redis 对象映射器自定义器的对象映射器编码，与旧版 JSON 格式一致。
+     *
+     * @param properties  授权服务器配置属性
+     * @param blockStore  共享数据块存储
+     * @param customizers Redis 对象映射器自定义器
+     * @return Oauth2AuthorizationCodec 授权信息编解码器实例
+     */
+    @Bean
+    @ConditionalOnMissingBean(Oauth2AuthorizationCodec.class)
+    public Oauth2AuthorizationCodec authorizationCodec(AuthorizationServerProperties properties,
+                                                       RedisOauth2AuthorizationBlockStore blockStore,
+                                                       ObjectProvider<RedisObjectMapperCustomizer> customizers) {
+        AuthorizationDedupProperties dedup = properties.getStore().getDedup();
+        return new BinaryOauth2AuthorizationCodec(properties.getStore().getCompressionThreshold(),
+                BinaryCodecUtil.createObjectMapper(customizers.orderedStream().toList()), blockStore,
+                dedup.isEnabled() ? dedup.getThreshold() : 0);
+    }
+
+    /**
+     * 提供授权同意信息编解码器的 Bean 实例
+     * <p>
+     * 当容器中不存在 Oauth2AuthorizationConsentCodec 类型的 Bean 时，使用二进制编解码器。
+     *
+     * @param properties  授权服务器配置属性
+     * @param customizers Redis 对象映射器自定义器
+     * @return Oauth2AuthorizationConsentCodec 授权同意信息编解码器实例
+     */
+    @Bean
+    @ConditionalOnMissingBean(Oauth2AuthorizationConsentCodec.class)
+    public Oauth2AuthorizationConsentCodec authorizationConsentCodec(AuthorizationServerProperties properties,
+                                                                     ObjectProvider<RedisObjectMapperCustomizer> customizers) {
+        return new BinaryOauth2AuthorizationConsentCodec(properties.getStore().getCompressionThreshold(),
+                BinaryCodecUtil.createObjectMapper(customizers.orderedStream().toList()));
+    }
+
+    /**
+     * 提供授权信息过期清理任务的 Bean 实例
+     * <p>
+     * 仅在使用基于 Redis 的授权服务且未关闭清理任务时创建，定期删除哈希表中已过期的授权信息。
+     *
+     * @param authorizationService 基于 Redis 的授权服务
+     * @param consentService       基于 Redis 的授权同意服务，未使用时为空
+     * @param properties           授权服务器配置属性
+     * @return Oauth2AuthorizationExpirySweeper 过期清理任务实例
+     */
+    @Bean
+    @ConditionalOnBean(RedisOauth2AuthorizationServiceImpl.class)
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.store",
+            name = "sweeper-enabled", havingValue = "true", matchIfMissing = true)
+    public Oauth2AuthorizationExpirySweeper authorizationExpirySweeper(RedisOauth2AuthorizationServiceImpl authorizationService,
+                                                                       ObjectProvider<RedisOauth2AuthorizationConsentServiceImpl> consentService,
+                                                                       AuthorizationServerProperties properties) {
+        return new Oauth2AuthorizationExpirySweeper(authorizationService, consentService.getIfAvailable(), properties.getStore());
+    }
+
+    /**
+     * 提供授权信息批量撤销服务的 Bean 实例
+     * <p>
+     * 仅在使用基于 Redis 的授权服务时创建，用于按用户或客户端撤销全部授权信息。
+     *
+     * @param authorizationService 基于 Redis 的授权服务
+     * @param properties           授权服务器配置属性
+     * @return Oauth2AuthorizationRevocationService 批量撤销服务实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(RedisOauth2AuthorizationServiceImpl.class)
+    public Oauth2AuthorizationRevocationService authorizationRevocationService(RedisOauth2AuthorizationServiceImpl authorizationService,
+                                                                               AuthorizationServerProperties properties) {
+        return new Oauth2AuthorizationRevocationService(authorizationService, properties.getStore());
     }
 
     /**
@@ -52,13 +294,19 @@ public class AuthorizationConfig {
      * <p>
      * 当容器中不存在 OAuth2AuthorizationConsentService 类型的 Bean 时，创建一个基于 Redis 的实现。
      *
-     * @param converter 授权同意信息转换器，用于序列化和反序列化授权同意信息
-     * @return OAuth2AuthorizationConsentService 授权同意服务实例
+     * @param converter     授权同意信息转换器，用于序列化和反序列化授权同意信息
+     * @param codec         授权同意信息编解码器
+     * @param redisTemplate 字符串Redis模板，用于读写编码后的授权同意信息和索引
+     * @param properties    授权服务器配置属性
+     * @return RedisOauth2AuthorizationConsentServiceImpl 授权同意服务实例
      */
     @Bean
     @ConditionalOnMissingBean(OAuth2AuthorizationConsentService.class)
-    public OAuth2AuthorizationConsentService authorizationConsentService(Oauth2AuthorizationConsentConverter converter) {
-        return new RedisOauth2AuthorizationConsentServiceImpl(converter);
+    public RedisOauth2AuthorizationConsentServiceImpl authorizationConsentService(Oauth2AuthorizationConsentConverter converter,
+                                                                                  Oauth2AuthorizationConsentCodec codec,
+                                                                                  StringRedisTemplate redisTemplate,
+                                                                                  AuthorizationServerProperties properties) {
+        return new RedisOauth2AuthorizationConsentServiceImpl(converter, codec, redisTemplate, properties.getStore());
     }
 
     /**
@@ -74,18 +322,77 @@ public class AuthorizationConfig {
         return new SessionRegistryImpl();
     }
 
+    /**
+     * 提供注册客户端编解码器的 Bean 实例
+     * <p>
+     * 当容器中不存在 Oauth2RegisteredClientCodec 类型的 Bean 时，使用二进制编解码器。
+     *
+     * @param properties  授权服务器配置属性
+     * @param customizers Redis 对象映射器自定义器
+     * @return Oauth2RegisteredClientCodec 注册客户端编解码器实例
+     */
+    @Bean
+    @ConditionalOnMissingBean(Oauth2RegisteredClientCodec.class)
+    public Oauth2RegisteredClientCodec registeredClientCodec(AuthorizationServerProperties properties,
+                                                             ObjectProvider<RedisObjectMapperCustomizer> customizers) {
+        return new BinaryOauth2RegisteredClientCodec(properties.getStore().getCompressionThreshold(),
+                BinaryCodecUtil.createObjectMapper(customizers.orderedStream().toList()));
+    }
+
+    /**
+     * 基于 Redis 的注册客户端信息仓库
+     * <p>
+     * 当客户端信息仓库类型为 redis 时创建，客户端信息在所有节点间共享，新增客户端无需重新部署。
+     *
+     * @param converter     注册客户端转换器
+     * @param codec         注册客户端编解码器
+     * @param redisTemplate 字符串Redis模板，用于读写编码后的客户端信息和索引
+     * @param clientCache   注册客户端本地缓存，未启用时为空
+     * @return RegisteredClientRepository 客户端信息仓库实例
+     */
+    @Bean
+    @ConditionalOnMissingBean(RegisteredClientRepository.class)
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server",
+            name = "client-repository", havingValue = "redis")
+    public RedisRegisteredClientRepositoryImpl redisRegisteredClientRepository(Oauth2RegisteredClientConverter converter,
+                                                                               Oauth2RegisteredClientCodec codec,
+                                                                               StringRedisTemplate redisTemplate,
+                                                                               ObjectProvider<RegisteredClientCache> clientCache) {
+        return new RedisRegisteredClientRepositoryImpl(converter, codec, redisTemplate, clientCache.getIfAvailable());
+    }
+
+    /**
+     * 提供订阅注册客户端失效通知的消息监听容器
+     *
+     * @param connectionFactory Redis连接工厂
+     * @param repository        基于 Redis 的注册客户端信息仓库
+     * @return RedisMessageListenerContainer 消息监听容器实例
+     */
+    @Bean
+    @ConditionalOnBean(RedisRegisteredClientRepositoryImpl.class)
+    public RedisMessageListenerContainer registeredClientListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           RedisRegisteredClientRepositoryImpl repository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(repository, new ChannelTopic(repository.getChannel()));
+        return container;
+    }
+
     /**
      * 注册客户端信息仓库
      * <p>
      * 配置一个默认的客户端（public-client），支持多种授权方式，包括授权码模式、刷新令牌、客户端凭证、密码模式和手机号码模式。
      * 同时设置重定向 URI、登出后重定向 URI、作用域及客户端和令牌相关设置。
-     * 使用内存存储方式管理注册客户端信息。
+     * 使用内存存储方式管理注册客户端信息。访问令牌格式由配置决定，默认为JWT访问令牌。
      *
+     * @param properties 授权服务器配置属性
      * @return RegisteredClientRepository 客户端信息仓库实例
      */
     @Bean
     @ConditionalOnMissingBean
-    public RegisteredClientRepository registeredClientRepository() {
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server",
+            name = "client-repository", havingValue = "memory", matchIfMissing = true)
+    public RegisteredClientRepository registeredClientRepository(AuthorizationServerProperties properties) {
         // 构建一个注册客户端对象，包含认证方式、授权类型、回调地址、作用域等配置
         RegisteredClient messagingClient = RegisteredClient.withId(UUID.randomUUID().toString())
                 .clientId("public-client")
@@ -106,10 +413,31 @@ public class AuthorizationConfig {
                 .scope("message.write")
                 .scope("user.read")
                 .clientSettings(ClientSettings.builder().build())
-                .tokenSettings(TokenSettings.builder().build())
+                .tokenSettings(TokenSettings.builder()
+                        .accessTokenFormat(new OAuth2TokenFormat(properties.getAccessTokenFormat()))
+                        .build())
                 .build();
 
         // 返回基于内存的客户端信息仓库
         return new InMemoryRegisteredClientRepository(messagingClient);
     }
+
+    /**
+     * 获取还原授权信息时使用的客户端信息仓库
+     * <p>
+     * 启用注册客户端缓存且客户端信息仓库自身没有缓存时，包装为带缓存的仓库。
+     *
+     * @param registeredClientRepository 已注册客户端信息仓库
+     * @param clientCache                注册客户端本地缓存，未启用时为空
+     * @return RegisteredClientRepository 客户端信息仓库
+     */
+    private RegisteredClientRepository getClientRepository(RegisteredClientRepository registeredClientRepository,
+                                                           ObjectProvider<RegisteredClientCache> clientCache) {
+        RegisteredClientCache cache = clientCache.getIfAvailable();
+        if (cache != null && !(registeredClientRepository instanceof InMemoryRegisteredClientRepository)
+                && !(registeredClientRepository instanceof RedisRegisteredClientRepositoryImpl)) {
+            return new CachingRegisteredClientRepository(registeredClientRepository, cache);
+        }
+        return registeredClientRepository;
+    }
 }
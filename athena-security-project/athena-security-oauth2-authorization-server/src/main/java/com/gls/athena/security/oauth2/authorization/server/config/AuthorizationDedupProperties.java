@@ -0,0 +1,34 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 授权信息共享数据块配置属性类
+ * 用于配置授权信息中重复内容的按摘要去重存储，包括启用开关、去重阈值和进程内缓存容量
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationDedupProperties implements Serializable {
+
+    /**
+     * 是否启用共享数据块，默认不启用
+     * 启用后授权属性中的主体对象按内容摘要单独存储，同一用户的多个授权信息共用一份。
+     * 关闭后不再写入新的共享数据块，已写入的共享数据块仍可读取并随授权信息过期
+     */
+    private boolean enabled = false;
+
+    /**
+     * 去重阈值，单位字节，默认256字节
+     * 编码后不小于该大小的主体对象才存储为共享数据块
+     */
+    private int threshold = 256;
+
+    /**
+     * 进程内缓存的共享数据块最大数量，默认10000
+     * 共享数据块内容不可变，缓存不需要失效
+     */
+    private long cacheMaximumSize = 10000;
+}
@@ -0,0 +1,67 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 签名密钥环配置属性类
+ * 用于配置签名密钥的存储位置以及定时轮换的周期和重叠时间，密钥算法与令牌签名配置中的默认签名算法一致
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationKeyRingProperties implements Serializable {
+
+    /**
+     * 是否启用签名密钥环，默认启用
+     * 容器中已存在JWKSource时不会启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 密钥环存储类型
+     * redis：存储在Redis中，所有节点共享同一密钥环；file：存储在本地文件中，仅适用于单节点部署
+     */
+    private String store = "redis";
+
+    /**
+     * 密钥环文件路径，存储类型为file时使用，默认jwks.json
+     */
+    private String file = "jwks.json";
+
+    /**
+     * 密钥加密密钥，Base64编码的256位AES密钥
+     * 配置后密钥环以JWE(dir + A256GCM)加密后存储；存储类型为redis时必须配置，除非开启plaintext-allowed
+     */
+    private String keyEncryptionKey;
+
+    /**
+     * 是否允许以明文存储包含私钥的密钥环，默认不允许
+     * 仅对redis存储生效：明文存储时，可读取"oauth2:jwk:ring"键的任何Redis客户端（包括共享该Redis的其他应用、备份和复制副本）
+     * 都能获取签名私钥并伪造令牌；file存储的文件仅所有者可读写
+     */
+    private boolean plaintextAllowed = false;
+
+    /**
+     * 密钥轮换周期，单位毫秒，默认604800000毫秒(7天)
+     */
+    private long rotationInterval = 604800000;
+
+    /**
+     * 新密钥提前发布时间，单位毫秒，默认3600000毫秒(1小时)
+     * 新密钥在启用前发布到JWK集合中，应大于资源服务器JWK缓存的刷新间隔
+     */
+    private long prePublish = 3600000;
+
+    /**
+     * 旧密钥保留时间，单位毫秒，默认86400000毫秒(1天)
+     * 轮换后旧密钥继续发布以便验证其签发的令牌，应大于访问令牌和ID令牌的最长有效期
+     */
+    private long overlap = 86400000;
+
+    /**
+     * 轮换检查间隔，单位毫秒，默认60000毫秒(1分钟)
+     */
+    private long checkInterval = 60000;
+}
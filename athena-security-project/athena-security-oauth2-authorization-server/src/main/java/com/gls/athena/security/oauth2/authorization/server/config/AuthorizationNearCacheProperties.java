@@ -0,0 +1,36 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 授权信息本地近端缓存配置属性类
+ * 用于配置授权服务前的进程内缓存，包括容量、存活时间和跨节点失效通知频道
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationNearCacheProperties implements Serializable {
+
+    /**
+     * 是否启用本地近端缓存，默认不启用
+     */
+    private boolean enabled = false;
+
+    /**
+     * 最大缓存授权信息数量，默认10000
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 缓存存活时间，单位毫秒，默认5000毫秒(5秒)
+     * 即使失效通知丢失，撤销的授权最迟在该时间后生效
+     */
+    private long timeToLive = 5000;
+
+    /**
+     * 跨节点失效通知的Redis发布订阅频道
+     */
+    private String channel = "oauth2:authorization:invalidation";
+}
@@ -0,0 +1,30 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 访问令牌撤销列表配置属性类
+ * 用于配置向资源服务器发布已撤销访问令牌的Redis有序集合和发布订阅频道，需与资源服务器的配置一致
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationRevocationFeedProperties implements Serializable {
+
+    /**
+     * 是否发布已撤销的访问令牌，默认启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 保存已撤销访问令牌摘要的Redis有序集合键，分数为令牌过期时间
+     */
+    private String key = "oauth2:access-token:revoked";
+
+    /**
+     * 通知资源服务器的Redis发布订阅频道
+     */
+    private String channel = "oauth2:access-token:revoked";
+}
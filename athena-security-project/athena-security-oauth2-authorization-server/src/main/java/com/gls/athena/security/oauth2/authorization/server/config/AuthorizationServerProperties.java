@@ -5,12 +5,62 @@ import com.gls.athena.common.core.constant.IConstants;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 /**
+ * 授权服务器配置属性类
+ *
  * @author george
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
 @ConfigurationProperties(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server")
 public class AuthorizationServerProperties extends BaseProperties {
+    /**
+     * 注册客户端信息仓库类型
+     * memory：基于内存，仅包含默认的public-client；redis：基于Redis，客户端信息在所有节点间共享
+     */
+    private String clientRepository = "memory";
+
+    /**
+     * 默认客户端的访问令牌格式
+     * self-contained：JWT访问令牌，资源服务器使用JWK集合在本地验证；reference：不透明访问令牌，资源服务器通过内省端点验证。
+     * 仅作用于内存中的默认客户端，Redis中的客户端使用各自的令牌配置
+     */
+    private String accessTokenFormat = "self-contained";
+
+    /**
+     * 授权信息存储配置
+     * 包含授权信息过期时间和过期清理任务相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationStoreProperties store = new AuthorizationStoreProperties();
+
+    /**
+     * 注册客户端缓存配置
+     * 包含授权服务查询注册客户端时使用的进程内缓存相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationClientCacheProperties clientCache = new AuthorizationClientCacheProperties();
+
+    /**
+     * 令牌签名配置
+     * 包含JWT签名算法以及签名密钥和签名器缓存相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationSigningProperties signing = new AuthorizationSigningProperties();
+
+    /**
+     * 签名密钥环配置
+     * 包含签名密钥的存储、生成和定时轮换相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationKeyRingProperties keyRing = new AuthorizationKeyRingProperties();
+
+    /**
+     * 访问令牌撤销列表配置
+     * 包含向资源服务器发布已撤销访问令牌相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationRevocationFeedProperties revocationFeed = new AuthorizationRevocationFeedProperties();
 }
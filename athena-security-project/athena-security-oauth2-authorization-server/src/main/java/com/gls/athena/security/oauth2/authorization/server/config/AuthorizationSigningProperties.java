@@ -0,0 +1,41 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 令牌签名配置属性类
+ * 用于配置JWT签名算法、签名密钥和签名器的缓存以及令牌的并行生成
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationSigningProperties implements Serializable {
+
+    /**
+     * 默认签名算法，可选RS256、ES256、EdDSA等，默认不指定
+     * 不指定时访问令牌使用RS256，ID令牌使用客户端配置的算法；指定时所有JWT均使用该算法，JWK源中需要包含对应类型的密钥
+     */
+    private String algorithm;
+
+    /**
+     * 是否缓存签名密钥和签名器，默认启用
+     * 禁用时每次签名都重新选择密钥并创建签名器
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * 签名密钥和签名器的缓存存活时间，单位毫秒，默认300000毫秒(5分钟)
+     * JWK源中的密钥变更最迟在该时间后生效，0表示不过期，仅在轮换时刷新
+     */
+    private long cacheTimeToLive = 300000;
+
+    /**
+     * 是否并行生成令牌，默认启用
+     * 启用时密码、手机、邮箱模式的ID令牌在虚拟线程中生成，与访问令牌的签名同时进行；
+     * 虚拟线程中可以读取请求线程的安全上下文和请求属性，但ID令牌上下文中的授权信息不包含本次生成的访问令牌和刷新令牌，
+     * ID令牌定制器需要读取访问令牌时应关闭
+     */
+    private boolean parallelGeneration = true;
+}
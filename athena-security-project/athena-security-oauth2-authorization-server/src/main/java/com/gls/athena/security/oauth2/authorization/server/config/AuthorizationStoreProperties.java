@@ -0,0 +1,102 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import java.io.Serializable;
+
+/**
+ * 授权信息存储配置属性类
+ * 用于配置Redis中授权信息的过期时间、过期清理任务、分片、编码压缩、共享数据块、异步存储、批量写入和本地近端缓存等参数
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationStoreProperties implements Serializable {
+
+    /**
+     * 默认存活时间，单位毫秒，默认3600000毫秒(1小时)
+     * 授权信息中不包含任何带过期时间的令牌时（例如仅有授权状态），使用该时间作为过期时间
+     */
+    private long defaultTimeToLive = 3600000;
+
+    /**
+     * 授权同意存活时间，单位毫秒，默认0表示永不过期
+     * 授权同意过期后用户需要重新确认授权范围
+     */
+    private long consentTimeToLive = 0;
+
+    /**
+     * 是否启用过期清理任务，默认启用
+     * 哈希表结构无法为单个授权信息设置过期时间，由清理任务定期删除已过期的授权信息
+     */
+    private boolean sweeperEnabled = true;
+
+    /**
+     * 过期清理间隔，单位毫秒，默认60000毫秒(1分钟)
+     */
+    private long sweepInterval = 60000;
+
+    /**
+     * 过期清理批次大小，默认500
+     * 每批删除的授权信息数量，避免单次事务过大阻塞Redis
+     */
+    private int sweepBatchSize = 500;
+
+    /**
+     * 单次清理最大批次数，默认100
+     * 达到该批次数后剩余的过期授权信息留到下一次清理
+     */
+    private int sweepMaxBatches = 100;
+
+    /**
+     * 授权信息哈希表分片数，默认16，设置为0表示不分片
+     * 授权信息按授权ID分散到多个带哈希标签的哈希表中，使用Redis集群时避免所有授权信息集中在一个槽位。
+     * 从0改为大于0时，未分片的数据由清理任务分批迁移；设置后不能再修改，否则已存储的授权信息将无法找到
+     */
+    private int shardCount = 16;
+
+    /**
+     * 批量撤销批次大小，默认1000
+     * 按用户或客户端撤销授权信息时，每批以管道方式删除的授权信息数量
+     */
+    private int revokeBatchSize = 1000;
+
+    /**
+     * 编码压缩阈值，单位字节，默认1024字节
+     * 编码后的授权信息超过该大小时尝试压缩，小于等于0表示不压缩
+     */
+    private int compressionThreshold = 1024;
+
+    /**
+     * 是否启用异步授权存储，默认不启用
+     * 启用后授权信息通过Redis响应式API读写，保存时旧授权信息清理与新授权信息写入以一次流水线发出
+     */
+    private boolean asyncEnabled = false;
+
+    /**
+     * 异步授权存储阻塞等待超时时间，单位毫秒，默认5000毫秒(5秒)
+     */
+    private long asyncTimeout = 5000;
+
+    /**
+     * 批量写入配置
+     * 包含登录高峰时合并保存授权信息相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationWriteBehindProperties writeBehind = new AuthorizationWriteBehindProperties();
+
+    /**
+     * 共享数据块配置
+     * 包含授权信息中重复内容按摘要去重存储相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationDedupProperties dedup = new AuthorizationDedupProperties();
+
+    /**
+     * 本地近端缓存配置
+     * 包含授权信息进程内缓存相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private AuthorizationNearCacheProperties nearCache = new AuthorizationNearCacheProperties();
+}
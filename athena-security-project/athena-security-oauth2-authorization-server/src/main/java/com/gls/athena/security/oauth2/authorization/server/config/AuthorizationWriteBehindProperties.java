@@ -0,0 +1,43 @@
+package com.gls.athena.security.oauth2.authorization.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 授权信息批量写入配置属性类
+ * 用于配置并发保存授权信息时的合并写入，包括批次大小、合并等待时间、队列容量和调用方等待超时时间
+ *
+ * @author george
+ */
+@Data
+public class AuthorizationWriteBehindProperties implements Serializable {
+
+    /**
+     * 是否启用批量写入，默认不启用
+     * 启用后并发的保存请求合并为一次Redis写入，调用方在所在批次写入完成后返回
+     */
+    private boolean enabled = false;
+
+    /**
+     * 单批最多合并的保存请求数量，默认100
+     */
+    private int batchSize = 100;
+
+    /**
+     * 合并等待时间，单位毫秒，默认5毫秒
+     * 收到批次中第一个保存请求后最多等待该时间以合并后续请求
+     */
+    private long window = 5;
+
+    /**
+     * 待写入队列容量，默认10000
+     * 队列已满时保存请求直接写入，不参与合并
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 调用方等待批次写入完成的超时时间，单位毫秒，默认5000毫秒(5秒)
+     */
+    private long timeout = 5000;
+}
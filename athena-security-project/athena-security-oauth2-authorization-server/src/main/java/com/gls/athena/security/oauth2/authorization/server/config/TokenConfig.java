@@ -1,18 +1,34 @@
 package com.gls.athena.security.oauth2.authorization.server.config;
 
+import com.gls.athena.common.core.constant.IConstants;
 import com.gls.athena.security.oauth2.authorization.server.customizer.JwtEncodingContextCustomizer;
 import com.gls.athena.security.oauth2.authorization.server.customizer.TokenClaimsContextCustomizer;
+import com.gls.athena.security.oauth2.authorization.server.token.CachingJwtEncoder;
+import com.gls.athena.security.oauth2.authorization.server.token.EncryptingJwkKeyRingRepository;
+import com.gls.athena.security.oauth2.authorization.server.token.FileJwkKeyRingRepository;
+import com.gls.athena.security.oauth2.authorization.server.token.JwkGenerator;
+import com.gls.athena.security.oauth2.authorization.server.token.JwkKeyRing;
+import com.gls.athena.security.oauth2.authorization.server.token.JwkKeyRingRepository;
+import com.gls.athena.security.oauth2.authorization.server.token.RedisJwkKeyRingRepository;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import jakarta.annotation.Resource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.token.*;
 
+import java.nio.file.Path;
+import java.util.Base64;
 import java.util.Optional;
 
 /**
@@ -37,14 +53,23 @@ public class TokenConfig {
      * 创建OAuth2令牌生成器，用于生成JWT、访问令牌和刷新令牌。
      *
      * @param jwtEncoder JWT编码器，用于JWT的编码操作
+     * @param properties 授权服务器配置属性，包含默认签名算法
      * @return OAuth2令牌生成器，支持JWT、访问令牌和刷新令牌的生成
      */
     @Bean
     @ConditionalOnMissingBean
-    public OAuth2TokenGenerator<? extends OAuth2Token> oauth2TokenGenerator(JwtEncoder jwtEncoder) {
+    public OAuth2TokenGenerator<? extends OAuth2Token> oauth2TokenGenerator(JwtEncoder jwtEncoder,
+                                                                            AuthorizationServerProperties properties) {
         // JWT生成器
         JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
-        jwtEncodingContextCustomizer.ifPresent(jwtGenerator::setJwtCustomizer);
+        JwsAlgorithm algorithm = JwkGenerator.resolveAlgorithm(properties.getSigning().getAlgorithm());
+        jwtGenerator.setJwtCustomizer(context -> {
+            // 指定默认签名算法时，所有JWT均使用该算法签名
+            if (algorithm != null) {
+                context.getJwsHeader().algorithm(algorithm);
+            }
+            jwtEncodingContextCustomizer.ifPresent(customizer -> customizer.customize(context));
+        });
         // 访问令牌生成器
         OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
         tokenClaimsContextCustomizer.ifPresent(accessTokenGenerator::setAccessTokenCustomizer);
@@ -56,13 +81,61 @@ public class TokenConfig {
 
     /**
      * 创建JWT编码器，用于对JWT进行编码操作。
+     * <p>
+     * 启用签名密钥缓存时使用{@link CachingJwtEncoder}，按算法和密钥ID复用签名器；否则使用Nimbus默认实现。
+     * </p>
      *
-     * @param jwkSource JWK源，提供用于JWT签名的密钥
-     * @return JWT编码器，使用Nimbus库实现
+     * @param jwkSource  JWK源，提供用于JWT签名的密钥
+     * @param properties 授权服务器配置属性
+     * @return JWT编码器
      */
     @Bean
     @ConditionalOnMissingBean
-    public JwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource) {
-        return new NimbusJwtEncoder(jwkSource);
+    public JwtEncoder jwtEncoder(JWKSource<SecurityContext> jwkSource, AuthorizationServerProperties properties) {
+        AuthorizationSigningProperties signing = properties.getSigning();
+        if (signing.isCacheEnabled()) {
+            CachingJwtEncoder jwtEncoder = new CachingJwtEncoder(jwkSource, signing.getCacheTimeToLive());
+            if (jwkSource instanceof JwkKeyRing keyRing) {
+                // 签名密钥轮换后预先构建新的签名器
+                keyRing.addRotationListener(jwtEncoder::refresh);
+            }
+            return jwtEncoder;
+        }
+        // JWK源中可能同时发布多个公钥，签名只使用包含私钥的密钥
+        return new NimbusJwtEncoder((jwkSelector, context) -> jwkSource.get(jwkSelector, context).stream()
+                .filter(JWK::isPrivate)
+                .toList());
+    }
+
+    /**
+     * 创建签名密钥环，作为JWK源提供签名密钥并发布JWK集合。
+     * <p>
+     * 容器中不存在JWK源时启用。密钥算法使用令牌签名配置中的默认签名算法，未指定时使用RS256；
+     * 密钥环默认存储在Redis中，所有节点共享。配置密钥加密密钥时密钥环加密后存储；
+     * Redis存储未配置密钥加密密钥时拒绝启动，除非显式允许明文存储，避免签名私钥以明文暴露给Redis的所有读取方。
+     * </p>
+     *
+     * @param redisTemplate 字符串Redis模板，存储类型为redis时使用
+     * @param properties    授权服务器配置属性
+     * @return 签名密钥环
+     */
+    @Bean
+    @ConditionalOnMissingBean(JWKSource.class)
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.authorization-server.key-ring",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public JwkKeyRing jwkSource(ObjectProvider<StringRedisTemplate> redisTemplate, AuthorizationServerProperties properties) {
+        AuthorizationKeyRingProperties keyRing = properties.getKeyRing();
+        boolean file = "file".equals(keyRing.getStore());
+        JwkKeyRingRepository repository = file
+                ? new FileJwkKeyRingRepository(Path.of(keyRing.getFile()))
+                : new RedisJwkKeyRingRepository(redisTemplate.getObject());
+        if (keyRing.getKeyEncryptionKey() != null && !keyRing.getKeyEncryptionKey().isBlank()) {
+            repository = new EncryptingJwkKeyRingRepository(repository, Base64.getDecoder().decode(keyRing.getKeyEncryptionKey().strip()));
+        } else if (!file && !keyRing.isPlaintextAllowed()) {
+            throw new IllegalStateException("签名密钥环存储在Redis中时必须配置key-encryption-key（Base64编码的256位AES密钥），"
+                    + "或使用file存储、自定义JWKSource，或显式开启plaintext-allowed以明文存储私钥");
+        }
+        String algorithm = properties.getSigning().getAlgorithm();
+        return new JwkKeyRing(repository, keyRing, algorithm != null ? algorithm : SignatureAlgorithm.RS256.getName());
     }
 }
@@ -1,6 +1,7 @@
 package com.gls.athena.security.oauth2.authorization.server.customizer;
 
 import com.gls.athena.security.oauth2.authorization.server.authentication.*;
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationServerProperties;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.config.Customizer;
@@ -40,6 +41,8 @@ public class TokenEndpointCustomizer implements Customizer<OAuth2TokenEndpointCo
     private UserDetailsService userDetailsService;
     @Resource
     private PasswordEncoder passwordEncoder;
+    @Resource
+    private AuthorizationServerProperties properties;
 
     /**
      * 自定义OAuth2令牌端点配置
@@ -56,20 +59,28 @@ public class TokenEndpointCustomizer implements Customizer<OAuth2TokenEndpointCo
      */
     @Override
     public void customize(OAuth2TokenEndpointConfigurer configurer) {
+        boolean parallelGeneration = properties.getSigning().isParallelGeneration();
+
         // 添加密码认证转换器和提供者
+        PasswordAuthenticationProvider passwordAuthenticationProvider = new PasswordAuthenticationProvider(
+                authorizationService, tokenGenerator, sessionRegistry, userDetailsService, passwordEncoder);
+        passwordAuthenticationProvider.setParallelTokenGeneration(parallelGeneration);
         configurer.accessTokenRequestConverter(new PasswordAuthenticationConverter())
-                .authenticationProvider(new PasswordAuthenticationProvider(
-                        authorizationService, tokenGenerator, sessionRegistry, userDetailsService, passwordEncoder));
+                .authenticationProvider(passwordAuthenticationProvider);
 
         // 添加手机认证转换器和提供者
+        MobileAuthenticationProvider mobileAuthenticationProvider = new MobileAuthenticationProvider(
+                authorizationService, tokenGenerator, sessionRegistry, userDetailsService);
+        mobileAuthenticationProvider.setParallelTokenGeneration(parallelGeneration);
         configurer.accessTokenRequestConverter(new MobileAuthenticationConverter())
-                .authenticationProvider(new MobileAuthenticationProvider(
-                        authorizationService, tokenGenerator, sessionRegistry, userDetailsService));
+                .authenticationProvider(mobileAuthenticationProvider);
 
         // 添加邮箱认证转换器和提供者
+        EmailAuthenticationProvider emailAuthenticationProvider = new EmailAuthenticationProvider(
+                authorizationService, tokenGenerator, sessionRegistry, userDetailsService);
+        emailAuthenticationProvider.setParallelTokenGeneration(parallelGeneration);
         configurer.accessTokenRequestConverter(new EmailAuthenticationConverter())
-                .authenticationProvider(new EmailAuthenticationProvider(
-                        authorizationService, tokenGenerator, sessionRegistry, userDetailsService));
+                .authenticationProvider(emailAuthenticationProvider);
     }
 
 }
@@ -1,18 +1,33 @@
 package com.gls.athena.security.oauth2.authorization.server.customizer;
 
+import com.gls.athena.security.oauth2.authorization.server.redis.service.Oauth2IntrospectionAuthorizationService;
+import com.gls.athena.security.oauth2.authorization.server.redis.service.RedisOauth2AuthorizationServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2TokenIntrospectionEndpointConfigurer;
 import org.springframework.stereotype.Component;
 
 /**
  * Token introspection端点自定义配置器
  * 用于自定义OAuth2令牌内省端点的配置
+ * <p>
+ * 使用基于Redis的授权服务时，内省认证提供者改用{@link Oauth2IntrospectionAuthorizationService}查找授权信息，
+ * 只还原被内省的令牌，不解码授权属性中序列化的主体对象。
+ * </p>
  *
  * @author george
  */
 @Component
 public class TokenIntrospectionEndpointCustomizer implements Customizer<OAuth2TokenIntrospectionEndpointConfigurer> {
 
+    @Resource
+    private OAuth2AuthorizationService authorizationService;
+    @Resource
+    private RegisteredClientRepository registeredClientRepository;
+
     /**
      * 自定义OAuth2令牌内省端点配置
      *
@@ -20,5 +35,13 @@ public class TokenIntrospectionEndpointCustomizer implements Customizer<OAuth2To
      */
     @Override
     public void customize(OAuth2TokenIntrospectionEndpointConfigurer configurer) {
+        if (authorizationService instanceof RedisOauth2AuthorizationServiceImpl redisAuthorizationService) {
+            Oauth2IntrospectionAuthorizationService introspectionAuthorizationService =
+                    new Oauth2IntrospectionAuthorizationService(redisAuthorizationService);
+            configurer.authenticationProviders(providers -> providers.replaceAll(provider ->
+                    provider instanceof OAuth2TokenIntrospectionAuthenticationProvider
+                            ? new OAuth2TokenIntrospectionAuthenticationProvider(registeredClientRepository, introspectionAuthorizationService)
+                            : provider));
+        }
     }
 }
@@ -0,0 +1,150 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 延迟解码的映射
+ * <p>
+ * 持有编码数据中一个数据块的位置，首次访问映射内容时才解码，未访问的数据块不会创建任何对象。
+ * 授权属性中的主体对象和令牌元数据中的声明解码开销较大，而删除、替换授权信息时只需要令牌值，
+ * 因此这些字段以数据块形式写入，读取时使用本类延迟解码。
+ * </p>
+ * <p>
+ * 解码结果可变，修改操作作用于解码后的映射。并发首次访问时可能重复解码，结果相同。
+ * 序列化时替换为解码后的{@link LinkedHashMap}。
+ * </p>
+ *
+ * @author george
+ */
+final class BinaryCodecLazyMap extends AbstractMap<String, Object> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient byte[] bytes;
+
+    private final transient int offset;
+
+    private final transient int length;
+
+    private final transient ObjectReader objectReader;
+
+    private final transient Function<String, byte[]> blockLoader;
+
+    private transient volatile Map<String, Object> decoded;
+
+    /**
+     * 构造延迟解码的映射
+     *
+     * @param bytes        编码数据
+     * @param offset       数据块起始位置
+     * @param length       数据块长度
+     * @param objectReader 用于回退解码对象值的JSON读取器
+     * @param blockLoader  共享数据块加载函数，可以为null
+     */
+    BinaryCodecLazyMap(byte[] bytes, int offset, int length, ObjectReader objectReader,
+                       Function<String, byte[]> blockLoader) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.objectReader = objectReader;
+        this.blockLoader = blockLoader;
+    }
+
+    /**
+     * 判断数据块是否已经解码
+     *
+     * @return 已解码返回true
+     */
+    boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     * 获取未解码的数据块，用于原样写回
+     *
+     * @return 数据块字节数组
+     */
+    byte[] getEncoded() {
+        byte[] block = new byte[length];
+        System.arraycopy(bytes, offset, block, 0, length);
+        return block;
+    }
+
+    /**
+     * 获取未解码的数据块中引用的共享数据块
+     *
+     * @return 共享数据块内容摘要列表
+     */
+    List<String> getSharedReferences() {
+        List<String> references = new ArrayList<>();
+        new BinaryCodecReader(bytes, offset, objectReader, blockLoader).skipValue(references::add);
+        return references;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return decode().entrySet();
+    }
+
+    @Override
+    public Object get(Object key) {
+        return decode().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return decode().containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return decode().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return decode().remove(key);
+    }
+
+    @Override
+    public int size() {
+        return decode().size();
+    }
+
+    /**
+     * 解码数据块
+     *
+     * @return 解码后的映射
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decode() {
+        Map<String, Object> map = decoded;
+        if (map == null) {
+            Object value = new BinaryCodecReader(bytes, offset, objectReader, blockLoader).readValue();
+            map = value != null ? (Map<String, Object>) value : new LinkedHashMap<>();
+            decoded = map;
+        }
+        return map;
+    }
+
+    /**
+     * 序列化时替换为解码后的映射
+     *
+     * @return 解码后的映射
+     */
+    @Serial
+    private Object writeReplace() {
+        return new LinkedHashMap<>(decode());
+    }
+}
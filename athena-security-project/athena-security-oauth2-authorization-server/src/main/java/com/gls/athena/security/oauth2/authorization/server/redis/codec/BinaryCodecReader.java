@@ -0,0 +1,274 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 二进制编码读取器
+ * <p>
+ * 读取{@link BinaryCodecWriter}写入的数据，未知的字段标签可通过{@link #readValue()}读取后丢弃，
+ * 以兼容新版本增加的字段。数据块类型的值不会立即解码，见{@link BinaryCodecLazyMap}；
+ * 共享数据块引用在读取时通过加载函数取得共享数据块并解码。
+ * </p>
+ *
+ * @author george
+ */
+final class BinaryCodecReader {
+
+    private final byte[] bytes;
+
+    private final ObjectReader objectReader;
+
+    /**
+     * 共享数据块加载函数，参数为内容摘要，为null时不能读取共享数据块引用
+     */
+    private final Function<String, byte[]> blockLoader;
+
+    private int position;
+
+    /**
+     * 构造读取器
+     *
+     * @param bytes        待读取的字节数组
+     * @param offset       起始位置
+     * @param objectReader 用于回退解码对象值的JSON读取器
+     * @param blockLoader  共享数据块加载函数，可以为null
+     */
+    BinaryCodecReader(byte[] bytes, int offset, ObjectReader objectReader, Function<String, byte[]> blockLoader) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.objectReader = objectReader;
+        this.blockLoader = blockLoader;
+    }
+
+    /**
+     * 读取下一个字段标签
+     *
+     * @return 字段标签，读取到结束标记或数据末尾时返回0
+     */
+    int readTag() {
+        if (position >= bytes.length) {
+            return 0;
+        }
+        return (int) readVarLong();
+    }
+
+    /**
+     * 读取带类型的值
+     *
+     * @return 值
+     */
+    Object readValue() {
+        int type = bytes[position++];
+        return switch (type) {
+            case BinaryCodecSupport.TYPE_NULL -> null;
+            case BinaryCodecSupport.TYPE_STRING -> readString();
+            case BinaryCodecSupport.TYPE_TRUE -> Boolean.TRUE;
+            case BinaryCodecSupport.TYPE_FALSE -> Boolean.FALSE;
+            case BinaryCodecSupport.TYPE_INTEGER -> (int) readZigZag();
+            case BinaryCodecSupport.TYPE_LONG -> readZigZag();
+            case BinaryCodecSupport.TYPE_DOUBLE -> Double.longBitsToDouble(readFixedLong());
+            case BinaryCodecSupport.TYPE_INSTANT -> Instant.ofEpochSecond(readZigZag(), readVarLong());
+            case BinaryCodecSupport.TYPE_AUTHORITY -> new SimpleGrantedAuthority(readString());
+            case BinaryCodecSupport.TYPE_SET -> readCollection(new LinkedHashSet<>());
+            case BinaryCodecSupport.TYPE_LIST -> readCollection(new ArrayList<>());
+            case BinaryCodecSupport.TYPE_MAP -> readMap();
+            case BinaryCodecSupport.TYPE_OBJECT -> readJson();
+            case BinaryCodecSupport.TYPE_BLOCK -> readBlock();
+            case BinaryCodecSupport.TYPE_DURATION -> Duration.ofSeconds(readZigZag(), readVarLong());
+            case BinaryCodecSupport.TYPE_SHARED -> readShared();
+            default -> throw new IllegalArgumentException("未知的值类型: " + type);
+        };
+    }
+
+    /**
+     * 跳过一个带类型的值，只收集其中的共享数据块引用
+     * <p>
+     * 不创建值对象，用于原样写回数据块时找出需要延长存活时间的共享数据块。
+     * </p>
+     *
+     * @param references 共享数据块内容摘要的接收函数
+     */
+    void skipValue(Consumer<String> references) {
+        int type = bytes[position++];
+        switch (type) {
+            case BinaryCodecSupport.TYPE_NULL, BinaryCodecSupport.TYPE_TRUE, BinaryCodecSupport.TYPE_FALSE -> {
+            }
+            case BinaryCodecSupport.TYPE_STRING, BinaryCodecSupport.TYPE_AUTHORITY -> skipString();
+            case BinaryCodecSupport.TYPE_INTEGER, BinaryCodecSupport.TYPE_LONG -> readVarLong();
+            case BinaryCodecSupport.TYPE_DOUBLE -> position += Long.BYTES;
+            case BinaryCodecSupport.TYPE_INSTANT, BinaryCodecSupport.TYPE_DURATION -> {
+                readVarLong();
+                readVarLong();
+            }
+            case BinaryCodecSupport.TYPE_SET, BinaryCodecSupport.TYPE_LIST -> {
+                long size = readVarLong();
+                for (long i = 0; i < size; i++) {
+                    skipValue(references);
+                }
+            }
+            case BinaryCodecSupport.TYPE_MAP -> {
+                long size = readVarLong();
+                for (long i = 0; i < size; i++) {
+                    skipString();
+                    skipValue(references);
+                }
+            }
+            case BinaryCodecSupport.TYPE_OBJECT, BinaryCodecSupport.TYPE_BLOCK -> {
+                int length = (int) readVarLong();
+                position += length;
+            }
+            case BinaryCodecSupport.TYPE_SHARED -> references.accept(readString());
+            default -> throw new IllegalArgumentException("未知的值类型: " + type);
+        }
+    }
+
+    /**
+     * 读取集合元素
+     *
+     * @param collection 目标集合
+     * @param <C>        集合类型
+     * @return 目标集合
+     */
+    private <C extends Collection<Object>> C readCollection(C collection) {
+        long size = readVarLong();
+        for (long i = 0; i < size; i++) {
+            collection.add(readValue());
+        }
+        return collection;
+    }
+
+    /**
+     * 读取字符串键的映射
+     *
+     * @return 映射
+     */
+    private Map<String, Object> readMap() {
+        int size = (int) readVarLong();
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    /**
+     * 读取字符串
+     *
+     * @return 字符串
+     */
+    private String readString() {
+        long value = readVarLong();
+        if (value == 0) {
+            return null;
+        }
+        if ((value & 1) == 1) {
+            return BinaryCodecSupport.DICTIONARY.get((int) (value >>> 1));
+        }
+        int length = (int) (value >>> 1) - 1;
+        String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return string;
+    }
+
+    /**
+     * 跳过字符串
+     */
+    private void skipString() {
+        long value = readVarLong();
+        if (value != 0 && (value & 1) == 0) {
+            position += (int) (value >>> 1) - 1;
+        }
+    }
+
+    /**
+     * 读取共享数据块引用，加载并解码共享数据块中的值
+     *
+     * @return 值
+     */
+    private Object readShared() {
+        String hash = readString();
+        byte[] block = blockLoader != null ? blockLoader.apply(hash) : null;
+        if (block == null) {
+            throw new IllegalStateException("共享数据块不存在: " + hash);
+        }
+        return new BinaryCodecReader(block, 0, objectReader, blockLoader).readValue();
+    }
+
+    /**
+     * 读取长度前缀的数据块，返回延迟解码的映射
+     *
+     * @return 延迟解码的映射
+     */
+    private Map<String, Object> readBlock() {
+        int length = (int) readVarLong();
+        BinaryCodecLazyMap map = new BinaryCodecLazyMap(bytes, position, length, objectReader, blockLoader);
+        position += length;
+        return map;
+    }
+
+    /**
+     * 读取带类型信息的JSON对象值
+     *
+     * @return 对象值
+     */
+    private Object readJson() {
+        int length = (int) readVarLong();
+        try {
+            Object value = objectReader.readValue(bytes, position, length);
+            position += length;
+            return value;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无法解码对象值", e);
+        }
+    }
+
+    /**
+     * 读取ZigZag变长整数
+     *
+     * @return 整数
+     */
+    private long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 读取无符号变长整数
+     *
+     * @return 整数
+     */
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 读取8字节定长整数
+     *
+     * @return 整数
+     */
+    private long readFixedLong() {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value |= (long) (bytes[position++] & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,305 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 二进制编解码器基类
+ * <p>
+ * 编码结果由3字节头部和字段数据组成：格式标记、格式版本、标志位。
+ * 字段数据超过压缩阈值且压缩后更小时使用Deflate压缩，并在标志位中记录。
+ * 首字节为'{'的数据视为旧版JSON格式，由子类按旧格式解码。
+ * </p>
+ * <p>
+ * 解码开销较大且多数读取不需要的字段可写为长度前缀的数据块，读取时返回{@link BinaryCodecLazyMap}，
+ * 首次访问时才解码。数据块中重复出现的较大值可按内容摘要单独存储，数据中只写入摘要引用，
+ * 读取时通过共享数据块加载函数还原。
+ * </p>
+ * <p>
+ * 常用名称字典只允许在末尾追加，已有序号不能调整，否则无法解码已存储的数据。
+ * </p>
+ *
+ * @author george
+ */
+abstract class BinaryCodecSupport {
+
+    static final int TYPE_NULL = 0;
+    static final int TYPE_STRING = 1;
+    static final int TYPE_TRUE = 2;
+    static final int TYPE_FALSE = 3;
+    static final int TYPE_INTEGER = 4;
+    static final int TYPE_LONG = 5;
+    static final int TYPE_DOUBLE = 6;
+    static final int TYPE_INSTANT = 7;
+    static final int TYPE_AUTHORITY = 8;
+    static final int TYPE_SET = 9;
+    static final int TYPE_LIST = 10;
+    static final int TYPE_MAP = 11;
+    static final int TYPE_OBJECT = 12;
+    static final int TYPE_BLOCK = 13;
+    static final int TYPE_DURATION = 14;
+    static final int TYPE_SHARED = 15;
+
+    /**
+     * 常用名称字典，包括作用域、声明、元数据键和授权类型等
+     */
+    static final List<String> DICTIONARY = List.of(
+            // 作用域
+            "openid", "profile", "email", "address", "phone", "offline_access",
+            // JWT及OIDC声明
+            "iss", "sub", "aud", "exp", "nbf", "iat", "jti", "azp", "auth_time", "nonce", "sid", "acr", "amr",
+            "at_hash", "c_hash", "scope", "client_id", "name", "preferred_username", "email_verified",
+            "phone_number", "phone_number_verified", "updated_at",
+            // 令牌元数据
+            "metadata.token.claims", "metadata.token.invalidated",
+            // 授权属性
+            "state", "java.security.Principal",
+            "org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest",
+            // 授权类型与令牌类型
+            "authorization_code", "refresh_token", "client_credentials", "password", "mobile",
+            "urn:ietf:params:oauth:grant-type:device_code", "urn:ietf:params:oauth:grant-type:token-exchange",
+            "urn:ietf:params:oauth:grant-type:jwt-bearer", "Bearer", "DPoP",
+            // 客户端认证方式
+            "client_secret_basic", "client_secret_post", "client_secret_jwt", "private_key_jwt", "none",
+            "tls_client_auth", "self_signed_tls_client_auth",
+            // 客户端设置与令牌设置
+            "settings.client.require-proof-key", "settings.client.require-authorization-consent",
+            "settings.client.jwk-set-url", "settings.client.token-endpoint-authentication-signing-algorithm",
+            "settings.client.x509-certificate-subject-dn",
+            "settings.token.authorization-code-time-to-live", "settings.token.access-token-time-to-live",
+            "settings.token.access-token-format", "settings.token.device-code-time-to-live",
+            "settings.token.reuse-refresh-tokens", "settings.token.refresh-token-time-to-live",
+            "settings.token.id-token-signature-algorithm", "settings.token.x509-certificate-bound-access-tokens",
+            "self-contained", "reference", "RS256", "ES256", "HS256"
+    );
+
+    /**
+     * 常用名称到字典序号的映射
+     */
+    static final Map<String, Integer> DICTIONARY_INDEX;
+
+    private static final int FORMAT_MAGIC = 0xAE;
+
+    /**
+     * 格式版本，版本2增加了延迟解码的数据块类型和时长类型，版本3增加了共享数据块引用类型
+     */
+    private static final int FORMAT_VERSION = 3;
+
+    /**
+     * 不包含共享数据块引用的数据使用的格式版本，未升级的节点仍可读取
+     */
+    private static final int BASE_FORMAT_VERSION = 2;
+
+    private static final int FLAG_COMPRESSED = 1;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private static final byte JSON_START = '{';
+
+    static {
+        Map<String, Integer> index = new HashMap<>(DICTIONARY.size() * 2);
+        for (int i = 0; i < DICTIONARY.size(); i++) {
+            index.put(DICTIONARY.get(i), i);
+        }
+        DICTIONARY_INDEX = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * 对象映射器，用于回退编码无法按类型编码的值（如授权属性中的主体对象）和解码旧版JSON
+     */
+    protected final ObjectMapper objectMapper;
+
+    /**
+     * 压缩阈值，单位字节，小于等于0表示不压缩
+     */
+    private final int compressionThreshold;
+
+    /**
+     * 构造编解码器，使用只注册了Spring Security及授权服务器Jackson模块的对象映射器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @see BinaryCodecUtil#createObjectMapper(List)
+     */
+    protected BinaryCodecSupport(int compressionThreshold) {
+        this(compressionThreshold, BinaryCodecUtil.createObjectMapper(List.of()));
+    }
+
+    /**
+     * 构造编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @param objectMapper         对象映射器，需能处理应用自定义的主体类型
+     */
+    protected BinaryCodecSupport(int compressionThreshold, ObjectMapper objectMapper) {
+        this.compressionThreshold = compressionThreshold;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 判断是否为简单权限对象，简单权限对象仅编码权限名称
+     *
+     * @param authority 权限对象
+     * @return 是简单权限对象返回true
+     */
+    static boolean isSimpleAuthority(GrantedAuthority authority) {
+        return authority.getClass() == SimpleGrantedAuthority.class;
+    }
+
+    /**
+     * 判断集合是否可按列表编码
+     *
+     * @param collection 集合
+     * @return 是列表返回true
+     */
+    static boolean isPlainList(Collection<?> collection) {
+        return collection instanceof List;
+    }
+
+    /**
+     * 判断映射的键是否全部为字符串
+     *
+     * @param map 映射
+     * @return 键全部为字符串返回true
+     */
+    static boolean isStringKeyed(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @return 写入器
+     */
+    protected BinaryCodecWriter newWriter() {
+        return new BinaryCodecWriter(objectMapper.writerFor(Object.class));
+    }
+
+    /**
+     * 判断数据是否为旧版JSON格式
+     *
+     * @param bytes 数据
+     * @return 是旧版JSON格式返回true
+     */
+    protected boolean isLegacyJson(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == JSON_START;
+    }
+
+    /**
+     * 为字段数据添加头部，必要时进行压缩
+     *
+     * @param writer 已写完字段的写入器
+     * @return 编码结果
+     */
+    protected byte[] finish(BinaryCodecWriter writer) {
+        writer.writeEnd();
+        byte[] body = writer.toByteArray();
+        int flags = 0;
+        if (compressionThreshold > 0 && body.length > compressionThreshold) {
+            byte[] compressed = compress(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                flags |= FLAG_COMPRESSED;
+            }
+        }
+        byte[] result = new byte[HEADER_LENGTH + body.length];
+        result[0] = (byte) FORMAT_MAGIC;
+        result[1] = (byte) (writer.hasSharedReferences() ? FORMAT_VERSION : BASE_FORMAT_VERSION);
+        result[2] = (byte) flags;
+        System.arraycopy(body, 0, result, HEADER_LENGTH, body.length);
+        return result;
+    }
+
+    /**
+     * 校验头部并创建读取器，必要时进行解压
+     *
+     * @param bytes 编码结果
+     * @return 读取器
+     */
+    protected BinaryCodecReader newReader(byte[] bytes) {
+        return newReader(bytes, null);
+    }
+
+    /**
+     * 校验头部并创建可以读取共享数据块引用的读取器，必要时进行解压
+     *
+     * @param bytes       编码结果
+     * @param blockLoader 共享数据块加载函数，参数为内容摘要，可以为null
+     * @return 读取器
+     */
+    protected BinaryCodecReader newReader(byte[] bytes, Function<String, byte[]> blockLoader) {
+        if (bytes.length < HEADER_LENGTH || (bytes[0] & 0xFF) != FORMAT_MAGIC) {
+            throw new IllegalArgumentException("无法识别的数据格式");
+        }
+        if (bytes[1] > FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的数据格式版本: " + bytes[1]);
+        }
+        if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+            return new BinaryCodecReader(decompress(bytes), 0, objectMapper.readerFor(Object.class), blockLoader);
+        }
+        return new BinaryCodecReader(bytes, HEADER_LENGTH, objectMapper.readerFor(Object.class), blockLoader);
+    }
+
+    /**
+     * 使用Deflate压缩数据
+     *
+     * @param body 原始数据
+     * @return 压缩数据
+     */
+    private byte[] compress(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压头部之后的数据
+     *
+     * @param bytes 编码结果
+     * @return 原始字段数据
+     */
+    private byte[] decompress(byte[] bytes) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("压缩数据不完整");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException | IOException e) {
+            throw new UncheckedIOException(new IOException("解压数据失败", e));
+        } finally {
+            inflater.end();
+        }
+    }
+}
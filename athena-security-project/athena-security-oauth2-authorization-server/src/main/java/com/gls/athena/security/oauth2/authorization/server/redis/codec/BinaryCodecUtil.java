@@ -0,0 +1,37 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gls.athena.starter.data.redis.support.RedisObjectMapperCustomizer;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+
+import java.util.List;
+
+/**
+ * 二进制编解码器工具类
+ *
+ * @author george
+ */
+@UtilityClass
+public class BinaryCodecUtil {
+
+    /**
+     * 创建编解码器使用的对象映射器
+     * <p>
+     * 注册Spring Security及授权服务器的Jackson模块后依次应用Redis对象映射器自定义器，
+     * 与{@link com.gls.athena.starter.data.redis.support.RedisUtil}使用的对象映射器一样能够处理应用注册了混入类的主体类型，
+     * 旧版以JSON格式存储的数据和新登录的自定义主体都能正常编解码。
+     * </p>
+     *
+     * @param customizers Redis对象映射器自定义器，按顺序应用
+     * @return 对象映射器
+     */
+    public ObjectMapper createObjectMapper(List<RedisObjectMapperCustomizer> customizers) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(BinaryCodecUtil.class.getClassLoader()));
+        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+        customizers.forEach(customizer -> customizer.customize(objectMapper));
+        return objectMapper;
+    }
+}
@@ -0,0 +1,313 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 二进制编码写入器
+ * <p>
+ * 按"字段标签 + 带类型值"的格式写入数据，字段标签为0表示结束。
+ * 字符串优先写入常用名称字典中的序号，无法识别的对象值回退为带类型信息的JSON。
+ * </p>
+ *
+ * @author george
+ */
+final class BinaryCodecWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+
+    private final ObjectWriter objectWriter;
+
+    /**
+     * 是否写入了共享数据块引用
+     */
+    private boolean sharedReferences;
+
+    /**
+     * 构造写入器
+     *
+     * @param objectWriter 用于回退编码对象值的JSON写入器
+     */
+    BinaryCodecWriter(ObjectWriter objectWriter) {
+        this.objectWriter = objectWriter;
+    }
+
+    /**
+     * 写入字段，值为null时跳过该字段
+     *
+     * @param tag   字段标签
+     * @param value 字段值
+     */
+    void writeField(int tag, Object value) {
+        if (value == null) {
+            return;
+        }
+        writeVarLong(tag);
+        writeValue(value);
+    }
+
+    /**
+     * 写入长度前缀的数据块字段，值为null时跳过该字段
+     * <p>
+     * 数据块读取时延迟解码；尚未解码的{@link BinaryCodecLazyMap}原样写回，不经过解码和重新编码。
+     * </p>
+     *
+     * @param tag   字段标签
+     * @param value 字段值
+     */
+    void writeBlockField(int tag, Map<String, Object> value) {
+        if (value == null) {
+            return;
+        }
+        writeVarLong(tag);
+        out.write(BinaryCodecSupport.TYPE_BLOCK);
+        if (value instanceof BinaryCodecLazyMap lazyMap && !lazyMap.isDecoded()) {
+            writeBytes(lazyMap.getEncoded());
+            return;
+        }
+        BinaryCodecWriter block = new BinaryCodecWriter(objectWriter);
+        block.writeValue(value);
+        writeBytes(block.toByteArray());
+    }
+
+    /**
+     * 写入长度前缀的数据块字段，其中指定键的较大值以共享数据块引用写入，值为null时跳过该字段
+     * <p>
+     * 指定键的值编码后达到阈值时，按编码结果的SHA-256摘要交给共享数据块写入函数，数据块中只写入摘要。
+     * 尚未解码的{@link BinaryCodecLazyMap}原样写回，其中已有的共享数据块以null数据交给写入函数，用于延长存活时间。
+     * </p>
+     *
+     * @param tag        字段标签
+     * @param value      字段值
+     * @param sharedKeys 以共享数据块写入的键
+     * @param threshold  共享数据块阈值，单位字节，小于等于0表示不写入新的共享数据块
+     * @param blockSink  共享数据块写入函数，参数为内容摘要和编码数据
+     */
+    void writeBlockField(int tag, Map<String, Object> value, Set<String> sharedKeys, int threshold,
+                         BiConsumer<String, byte[]> blockSink) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BinaryCodecLazyMap lazyMap && !lazyMap.isDecoded()) {
+            List<String> references = lazyMap.getSharedReferences();
+            references.forEach(hash -> blockSink.accept(hash, null));
+            sharedReferences |= !references.isEmpty();
+            writeBlockField(tag, value);
+            return;
+        }
+        BinaryCodecWriter block = new BinaryCodecWriter(objectWriter);
+        block.out.write(BinaryCodecSupport.TYPE_MAP);
+        block.writeVarLong(value.size());
+        value.forEach((key, item) -> {
+            block.writeString(key);
+            if (item == null || threshold <= 0 || !sharedKeys.contains(key)) {
+                block.writeValue(item);
+                return;
+            }
+            BinaryCodecWriter shared = new BinaryCodecWriter(objectWriter);
+            shared.writeValue(item);
+            byte[] bytes = shared.toByteArray();
+            if (bytes.length < threshold) {
+                block.out.writeBytes(bytes);
+                return;
+            }
+            String hash = DigestUtil.sha256Hex(bytes);
+            blockSink.accept(hash, bytes);
+            block.out.write(BinaryCodecSupport.TYPE_SHARED);
+            block.writeString(hash);
+            sharedReferences = true;
+        });
+        writeVarLong(tag);
+        out.write(BinaryCodecSupport.TYPE_BLOCK);
+        writeBytes(block.toByteArray());
+    }
+
+    /**
+     * 判断是否写入了共享数据块引用
+     *
+     * @return 写入了共享数据块引用返回true
+     */
+    boolean hasSharedReferences() {
+        return sharedReferences;
+    }
+
+    /**
+     * 写入结束标记
+     */
+    void writeEnd() {
+        writeVarLong(0);
+    }
+
+    /**
+     * 获取已写入的字节数组
+     *
+     * @return 字节数组
+     */
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入带类型的值
+     *
+     * @param value 值
+     */
+    private void writeValue(Object value) {
+        switch (value) {
+            case null -> out.write(BinaryCodecSupport.TYPE_NULL);
+            case String string -> {
+                out.write(BinaryCodecSupport.TYPE_STRING);
+                writeString(string);
+            }
+            case Boolean bool -> out.write(bool ? BinaryCodecSupport.TYPE_TRUE : BinaryCodecSupport.TYPE_FALSE);
+            case Integer integer -> {
+                out.write(BinaryCodecSupport.TYPE_INTEGER);
+                writeZigZag(integer);
+            }
+            case Long longValue -> {
+                out.write(BinaryCodecSupport.TYPE_LONG);
+                writeZigZag(longValue);
+            }
+            case Double doubleValue -> {
+                out.write(BinaryCodecSupport.TYPE_DOUBLE);
+                writeFixedLong(Double.doubleToRawLongBits(doubleValue));
+            }
+            case Instant instant -> {
+                out.write(BinaryCodecSupport.TYPE_INSTANT);
+                writeZigZag(instant.getEpochSecond());
+                writeVarLong(instant.getNano());
+            }
+            case Duration duration -> {
+                out.write(BinaryCodecSupport.TYPE_DURATION);
+                writeZigZag(duration.getSeconds());
+                writeVarLong(duration.getNano());
+            }
+            case GrantedAuthority authority when BinaryCodecSupport.isSimpleAuthority(authority) -> {
+                out.write(BinaryCodecSupport.TYPE_AUTHORITY);
+                writeString(authority.getAuthority());
+            }
+            case Set<?> set -> {
+                out.write(BinaryCodecSupport.TYPE_SET);
+                writeCollection(set);
+            }
+            case Collection<?> collection when BinaryCodecSupport.isPlainList(collection) -> {
+                out.write(BinaryCodecSupport.TYPE_LIST);
+                writeCollection(collection);
+            }
+            case Map<?, ?> map when BinaryCodecSupport.isStringKeyed(map) -> {
+                out.write(BinaryCodecSupport.TYPE_MAP);
+                writeVarLong(map.size());
+                map.forEach((key, item) -> {
+                    writeString((String) key);
+                    writeValue(item);
+                });
+            }
+            default -> {
+                out.write(BinaryCodecSupport.TYPE_OBJECT);
+                writeBytes(writeJson(value));
+            }
+        }
+    }
+
+    /**
+     * 写入集合元素
+     *
+     * @param collection 集合
+     */
+    private void writeCollection(Collection<?> collection) {
+        writeVarLong(collection.size());
+        collection.forEach(this::writeValue);
+    }
+
+    /**
+     * 写入字符串
+     * <p>
+     * 编码值0表示null，奇数表示字典序号，偶数表示后续UTF-8字节长度加一。
+     * </p>
+     *
+     * @param value 字符串
+     */
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        Integer index = BinaryCodecSupport.DICTIONARY_INDEX.get(value);
+        if (index != null) {
+            writeVarLong(((long) index << 1) | 1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong((bytes.length + 1L) << 1);
+        out.writeBytes(bytes);
+    }
+
+    /**
+     * 写入长度前缀的字节数组
+     *
+     * @param bytes 字节数组
+     */
+    private void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    /**
+     * 以带类型信息的JSON编码对象值
+     *
+     * @param value 对象值
+     * @return JSON字节数组
+     */
+    private byte[] writeJson(Object value) {
+        try {
+            return objectWriter.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法编码对象值: " + value.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * 写入ZigZag变长整数
+     *
+     * @param value 整数
+     */
+    private void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * 写入无符号变长整数
+     *
+     * @param value 整数
+     */
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 写入8字节定长整数
+     *
+     * @param value 整数
+     */
+    private void writeFixedLong(long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
+}
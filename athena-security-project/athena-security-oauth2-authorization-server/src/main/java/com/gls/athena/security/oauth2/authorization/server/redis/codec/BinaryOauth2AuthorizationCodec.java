@@ -0,0 +1,267 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * OAuth2授权信息二进制编解码器
+ * <p>
+ * 每个非空字段按固定的字段标签写入，解码时跳过未知标签，新增字段只需分配新的标签。
+ * 已分配的字段标签不能修改或复用。支持解码旧版JSON格式的数据。
+ * </p>
+ * <p>
+ * 授权属性和各令牌元数据以数据块写入，解码后在首次访问时才还原其中的主体对象和声明，
+ * 替换或删除授权信息时只读取令牌值，不产生这部分的解码开销。
+ * </p>
+ * <p>
+ * 配置{@link Oauth2AuthorizationBlockStore}时，授权属性中的主体对象按内容摘要存储为共享数据块，
+ * 同一用户在多个客户端、多个会话中的授权信息只保存一份主体对象。令牌元数据中的声明包含令牌ID和签发时间，
+ * 每个令牌都不相同，不使用共享数据块。
+ * </p>
+ *
+ * @author george
+ */
+public class BinaryOauth2AuthorizationCodec extends BinaryCodecSupport implements Oauth2AuthorizationCodec {
+
+    private static final int ID = 1;
+    private static final int REGISTERED_CLIENT_ID = 2;
+    private static final int PRINCIPAL_NAME = 3;
+    private static final int AUTHORIZATION_GRANT_TYPE = 4;
+    private static final int AUTHORIZED_SCOPES = 5;
+    private static final int ATTRIBUTES = 6;
+    private static final int STATE = 7;
+    private static final int AUTHORIZATION_CODE_VALUE = 10;
+    private static final int AUTHORIZATION_CODE_ISSUED_AT = 11;
+    private static final int AUTHORIZATION_CODE_EXPIRES_AT = 12;
+    private static final int AUTHORIZATION_CODE_METADATA = 13;
+    private static final int ACCESS_TOKEN_VALUE = 20;
+    private static final int ACCESS_TOKEN_ISSUED_AT = 21;
+    private static final int ACCESS_TOKEN_EXPIRES_AT = 22;
+    private static final int ACCESS_TOKEN_METADATA = 23;
+    private static final int ACCESS_TOKEN_TYPE = 24;
+    private static final int ACCESS_TOKEN_SCOPES = 25;
+    private static final int OIDC_ID_TOKEN_VALUE = 30;
+    private static final int OIDC_ID_TOKEN_ISSUED_AT = 31;
+    private static final int OIDC_ID_TOKEN_EXPIRES_AT = 32;
+    private static final int OIDC_ID_TOKEN_METADATA = 33;
+    private static final int REFRESH_TOKEN_VALUE = 40;
+    private static final int REFRESH_TOKEN_ISSUED_AT = 41;
+    private static final int REFRESH_TOKEN_EXPIRES_AT = 42;
+    private static final int REFRESH_TOKEN_METADATA = 43;
+    private static final int USER_CODE_VALUE = 50;
+    private static final int USER_CODE_ISSUED_AT = 51;
+    private static final int USER_CODE_EXPIRES_AT = 52;
+    private static final int USER_CODE_METADATA = 53;
+    private static final int DEVICE_CODE_VALUE = 60;
+    private static final int DEVICE_CODE_ISSUED_AT = 61;
+    private static final int DEVICE_CODE_EXPIRES_AT = 62;
+    private static final int DEVICE_CODE_METADATA = 63;
+
+    /**
+     * 授权属性中以共享数据块写入的键
+     */
+    private static final Set<String> SHARED_ATTRIBUTES = Set.of(Principal.class.getName());
+
+    /**
+     * 共享数据块存储，未配置时为null
+     */
+    private final Oauth2AuthorizationBlockStore blockStore;
+
+    /**
+     * 共享数据块阈值，单位字节，小于等于0表示不写入新的共享数据块
+     */
+    private final int sharedBlockThreshold;
+
+    /**
+     * 构造授权信息二进制编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     */
+    public BinaryOauth2AuthorizationCodec(int compressionThreshold) {
+        this(compressionThreshold, null, 0);
+    }
+
+    /**
+     * 构造使用共享数据块的授权信息二进制编解码器
+     * <p>
+     * 授权属性中的主体对象编码后达到阈值时存入共享数据块存储，同一用户的多个授权信息共用一份。
+     * 阈值小于等于0时不写入新的共享数据块，但仍可读取已写入的共享数据块引用。
+     * </p>
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @param blockStore           共享数据块存储，可以为null
+     * @param sharedBlockThreshold 共享数据块阈值，单位字节
+     */
+    public BinaryOauth2AuthorizationCodec(int compressionThreshold, Oauth2AuthorizationBlockStore blockStore,
+                                          int sharedBlockThreshold) {
+        this(compressionThreshold, BinaryCodecUtil.createObjectMapper(List.of()), blockStore, sharedBlockThreshold);
+    }
+
+    /**
+     * 使用指定对象映射器构造授权信息二进制编解码器
+     * <p>
+     * 授权属性中的主体对象等无法按类型编码的值由对象映射器编码，应用自定义的主体类型需在对象映射器中注册对应的Jackson模块或混入类。
+     * </p>
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @param objectMapper         对象映射器
+     * @param blockStore           共享数据块存储，可以为null
+     * @param sharedBlockThreshold 共享数据块阈值，单位字节
+     * @see BinaryCodecUtil#createObjectMapper(List)
+     */
+    public BinaryOauth2AuthorizationCodec(int compressionThreshold, ObjectMapper objectMapper,
+                                          Oauth2AuthorizationBlockStore blockStore, int sharedBlockThreshold) {
+        super(compressionThreshold, objectMapper);
+        this.blockStore = blockStore;
+        this.sharedBlockThreshold = sharedBlockThreshold;
+    }
+
+    /**
+     * 将授权信息实体编码为字节数组
+     * <p>
+     * 配置了共享数据块存储时，共享数据块在编码过程中直接写入存储。
+     * </p>
+     *
+     * @param authorization 授权信息实体
+     * @return 编码后的字节数组
+     */
+    @Override
+    public byte[] encode(Oauth2Authorization authorization) {
+        return encode(authorization, blockStore != null
+                ? (hash, block) -> blockStore.save(hash, block, authorization) : null);
+    }
+
+    /**
+     * 使用指定的共享数据块写入函数将授权信息实体编码为字节数组
+     *
+     * @param authorization 授权信息实体
+     * @param blockSink     共享数据块写入函数，为null时不使用共享数据块
+     * @return 编码后的字节数组
+     */
+    @Override
+    public byte[] encode(Oauth2Authorization authorization, BiConsumer<String, byte[]> blockSink) {
+        BinaryCodecWriter writer = newWriter();
+        writer.writeField(ID, authorization.getId());
+        writer.writeField(REGISTERED_CLIENT_ID, authorization.getRegisteredClientId());
+        writer.writeField(PRINCIPAL_NAME, authorization.getPrincipalName());
+        writer.writeField(AUTHORIZATION_GRANT_TYPE, authorization.getAuthorizationGrantType());
+        writer.writeField(AUTHORIZED_SCOPES, authorization.getAuthorizedScopes());
+        if (blockSink != null) {
+            writer.writeBlockField(ATTRIBUTES, authorization.getAttributes(), SHARED_ATTRIBUTES, sharedBlockThreshold, blockSink);
+        } else {
+            writer.writeBlockField(ATTRIBUTES, authorization.getAttributes());
+        }
+        writer.writeField(STATE, authorization.getState());
+        writer.writeField(AUTHORIZATION_CODE_VALUE, authorization.getAuthorizationCodeValue());
+        writer.writeField(AUTHORIZATION_CODE_ISSUED_AT, authorization.getAuthorizationCodeIssuedAt());
+        writer.writeField(AUTHORIZATION_CODE_EXPIRES_AT, authorization.getAuthorizationCodeExpiresAt());
+        writer.writeBlockField(AUTHORIZATION_CODE_METADATA, authorization.getAuthorizationCodeMetadata());
+        writer.writeField(ACCESS_TOKEN_VALUE, authorization.getAccessTokenValue());
+        writer.writeField(ACCESS_TOKEN_ISSUED_AT, authorization.getAccessTokenIssuedAt());
+        writer.writeField(ACCESS_TOKEN_EXPIRES_AT, authorization.getAccessTokenExpiresAt());
+        writer.writeBlockField(ACCESS_TOKEN_METADATA, authorization.getAccessTokenMetadata());
+        writer.writeField(ACCESS_TOKEN_TYPE, authorization.getAccessTokenType());
+        writer.writeField(ACCESS_TOKEN_SCOPES, authorization.getAccessTokenScopes());
+        writer.writeField(OIDC_ID_TOKEN_VALUE, authorization.getOidcIdTokenValue());
+        writer.writeField(OIDC_ID_TOKEN_ISSUED_AT, authorization.getOidcIdTokenIssuedAt());
+        writer.writeField(OIDC_ID_TOKEN_EXPIRES_AT, authorization.getOidcIdTokenExpiresAt());
+        writer.writeBlockField(OIDC_ID_TOKEN_METADATA, authorization.getOidcIdTokenMetadata());
+        writer.writeField(REFRESH_TOKEN_VALUE, authorization.getRefreshTokenValue());
+        writer.writeField(REFRESH_TOKEN_ISSUED_AT, authorization.getRefreshTokenIssuedAt());
+        writer.writeField(REFRESH_TOKEN_EXPIRES_AT, authorization.getRefreshTokenExpiresAt());
+        writer.writeBlockField(REFRESH_TOKEN_METADATA, authorization.getRefreshTokenMetadata());
+        writer.writeField(USER_CODE_VALUE, authorization.getUserCodeValue());
+        writer.writeField(USER_CODE_ISSUED_AT, authorization.getUserCodeIssuedAt());
+        writer.writeField(USER_CODE_EXPIRES_AT, authorization.getUserCodeExpiresAt());
+        writer.writeBlockField(USER_CODE_METADATA, authorization.getUserCodeMetadata());
+        writer.writeField(DEVICE_CODE_VALUE, authorization.getDeviceCodeValue());
+        writer.writeField(DEVICE_CODE_ISSUED_AT, authorization.getDeviceCodeIssuedAt());
+        writer.writeField(DEVICE_CODE_EXPIRES_AT, authorization.getDeviceCodeExpiresAt());
+        writer.writeBlockField(DEVICE_CODE_METADATA, authorization.getDeviceCodeMetadata());
+        return finish(writer);
+    }
+
+    /**
+     * 将字节数组解码为授权信息实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 授权信息实体，字节数组为null时返回null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Oauth2Authorization decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (isLegacyJson(bytes)) {
+            return decodeLegacyJson(bytes);
+        }
+        Oauth2Authorization authorization = new Oauth2Authorization();
+        BinaryCodecReader reader = newReader(bytes, blockStore != null ? blockStore::load : null);
+        for (int tag = reader.readTag(); tag != 0; tag = reader.readTag()) {
+            Object value = reader.readValue();
+            switch (tag) {
+                case ID -> authorization.setId((String) value);
+                case REGISTERED_CLIENT_ID -> authorization.setRegisteredClientId((String) value);
+                case PRINCIPAL_NAME -> authorization.setPrincipalName((String) value);
+                case AUTHORIZATION_GRANT_TYPE -> authorization.setAuthorizationGrantType((String) value);
+                case AUTHORIZED_SCOPES -> authorization.setAuthorizedScopes((Set<String>) value);
+                case ATTRIBUTES -> authorization.setAttributes((Map<String, Object>) value);
+                case STATE -> authorization.setState((String) value);
+                case AUTHORIZATION_CODE_VALUE -> authorization.setAuthorizationCodeValue((String) value);
+                case AUTHORIZATION_CODE_ISSUED_AT -> authorization.setAuthorizationCodeIssuedAt((Instant) value);
+                case AUTHORIZATION_CODE_EXPIRES_AT -> authorization.setAuthorizationCodeExpiresAt((Instant) value);
+                case AUTHORIZATION_CODE_METADATA -> authorization.setAuthorizationCodeMetadata((Map<String, Object>) value);
+                case ACCESS_TOKEN_VALUE -> authorization.setAccessTokenValue((String) value);
+                case ACCESS_TOKEN_ISSUED_AT -> authorization.setAccessTokenIssuedAt((Instant) value);
+                case ACCESS_TOKEN_EXPIRES_AT -> authorization.setAccessTokenExpiresAt((Instant) value);
+                case ACCESS_TOKEN_METADATA -> authorization.setAccessTokenMetadata((Map<String, Object>) value);
+                case ACCESS_TOKEN_TYPE -> authorization.setAccessTokenType((String) value);
+                case ACCESS_TOKEN_SCOPES -> authorization.setAccessTokenScopes((Set<String>) value);
+                case OIDC_ID_TOKEN_VALUE -> authorization.setOidcIdTokenValue((String) value);
+                case OIDC_ID_TOKEN_ISSUED_AT -> authorization.setOidcIdTokenIssuedAt((Instant) value);
+                case OIDC_ID_TOKEN_EXPIRES_AT -> authorization.setOidcIdTokenExpiresAt((Instant) value);
+                case OIDC_ID_TOKEN_METADATA -> authorization.setOidcIdTokenMetadata((Map<String, Object>) value);
+                case REFRESH_TOKEN_VALUE -> authorization.setRefreshTokenValue((String) value);
+                case REFRESH_TOKEN_ISSUED_AT -> authorization.setRefreshTokenIssuedAt((Instant) value);
+                case REFRESH_TOKEN_EXPIRES_AT -> authorization.setRefreshTokenExpiresAt((Instant) value);
+                case REFRESH_TOKEN_METADATA -> authorization.setRefreshTokenMetadata((Map<String, Object>) value);
+                case USER_CODE_VALUE -> authorization.setUserCodeValue((String) value);
+                case USER_CODE_ISSUED_AT -> authorization.setUserCodeIssuedAt((Instant) value);
+                case USER_CODE_EXPIRES_AT -> authorization.setUserCodeExpiresAt((Instant) value);
+                case USER_CODE_METADATA -> authorization.setUserCodeMetadata((Map<String, Object>) value);
+                case DEVICE_CODE_VALUE -> authorization.setDeviceCodeValue((String) value);
+                case DEVICE_CODE_ISSUED_AT -> authorization.setDeviceCodeIssuedAt((Instant) value);
+                case DEVICE_CODE_EXPIRES_AT -> authorization.setDeviceCodeExpiresAt((Instant) value);
+                case DEVICE_CODE_METADATA -> authorization.setDeviceCodeMetadata((Map<String, Object>) value);
+                default -> {
+                    // 忽略新版本增加的未知字段
+                }
+            }
+        }
+        return authorization;
+    }
+
+    /**
+     * 解码旧版JSON格式的授权信息
+     *
+     * @param bytes JSON字节数组
+     * @return 授权信息实体
+     */
+    private Oauth2Authorization decodeLegacyJson(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, Oauth2Authorization.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
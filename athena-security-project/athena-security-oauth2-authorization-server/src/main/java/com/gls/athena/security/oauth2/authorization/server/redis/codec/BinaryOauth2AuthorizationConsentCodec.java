@@ -0,0 +1,107 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2AuthorizationConsent;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * OAuth2授权同意信息二进制编解码器
+ * <p>
+ * 字段标签规则与{@link BinaryOauth2AuthorizationCodec}一致，支持解码旧版JSON格式的数据。
+ * </p>
+ *
+ * @author george
+ */
+public class BinaryOauth2AuthorizationConsentCodec extends BinaryCodecSupport implements Oauth2AuthorizationConsentCodec {
+
+    private static final int REGISTERED_CLIENT_ID = 1;
+    private static final int PRINCIPAL_NAME = 2;
+    private static final int AUTHORITIES = 3;
+    private static final int EXPIRES_AT = 4;
+
+    /**
+     * 构造授权同意信息二进制编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     */
+    public BinaryOauth2AuthorizationConsentCodec(int compressionThreshold) {
+        super(compressionThreshold);
+    }
+
+    /**
+     * 使用指定对象映射器构造授权同意信息二进制编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @param objectMapper         对象映射器，用于解码旧版JSON格式
+     */
+    public BinaryOauth2AuthorizationConsentCodec(int compressionThreshold, ObjectMapper objectMapper) {
+        super(compressionThreshold, objectMapper);
+    }
+
+    /**
+     * 将授权同意信息实体编码为字节数组
+     *
+     * @param consent 授权同意信息实体
+     * @return 编码后的字节数组
+     */
+    @Override
+    public byte[] encode(Oauth2AuthorizationConsent consent) {
+        BinaryCodecWriter writer = newWriter();
+        writer.writeField(REGISTERED_CLIENT_ID, consent.getRegisteredClientId());
+        writer.writeField(PRINCIPAL_NAME, consent.getPrincipalName());
+        writer.writeField(AUTHORITIES, consent.getAuthorities());
+        writer.writeField(EXPIRES_AT, consent.getExpiresAt());
+        return finish(writer);
+    }
+
+    /**
+     * 将字节数组解码为授权同意信息实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 授权同意信息实体，字节数组为null时返回null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Oauth2AuthorizationConsent decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (isLegacyJson(bytes)) {
+            return decodeLegacyJson(bytes);
+        }
+        Oauth2AuthorizationConsent consent = new Oauth2AuthorizationConsent();
+        BinaryCodecReader reader = newReader(bytes);
+        for (int tag = reader.readTag(); tag != 0; tag = reader.readTag()) {
+            Object value = reader.readValue();
+            switch (tag) {
+                case REGISTERED_CLIENT_ID -> consent.setRegisteredClientId((String) value);
+                case PRINCIPAL_NAME -> consent.setPrincipalName((String) value);
+                case AUTHORITIES -> consent.setAuthorities((Set<GrantedAuthority>) value);
+                case EXPIRES_AT -> consent.setExpiresAt((Instant) value);
+                default -> {
+                    // 忽略新版本增加的未知字段
+                }
+            }
+        }
+        return consent;
+    }
+
+    /**
+     * 解码旧版JSON格式的授权同意信息
+     *
+     * @param bytes JSON字节数组
+     * @return 授权同意信息实体
+     */
+    private Oauth2AuthorizationConsent decodeLegacyJson(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, Oauth2AuthorizationConsent.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2RegisteredClient;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OAuth2注册客户端二进制编解码器
+ * <p>
+ * 字段标签规则与{@link BinaryOauth2AuthorizationCodec}一致。
+ * 客户端设置和令牌设置的名称、认证方式和授权类型均在常用名称字典中，时长按秒和纳秒编码。
+ * </p>
+ *
+ * @author george
+ */
+public class BinaryOauth2RegisteredClientCodec extends BinaryCodecSupport implements Oauth2RegisteredClientCodec {
+
+    private static final int ID = 1;
+    private static final int CLIENT_ID = 2;
+    private static final int CLIENT_ID_ISSUED_AT = 3;
+    private static final int CLIENT_SECRET = 4;
+    private static final int CLIENT_SECRET_EXPIRES_AT = 5;
+    private static final int CLIENT_NAME = 6;
+    private static final int CLIENT_AUTHENTICATION_METHODS = 7;
+    private static final int AUTHORIZATION_GRANT_TYPES = 8;
+    private static final int REDIRECT_URIS = 9;
+    private static final int POST_LOGOUT_REDIRECT_URIS = 10;
+    private static final int SCOPES = 11;
+    private static final int CLIENT_SETTINGS = 12;
+    private static final int TOKEN_SETTINGS = 13;
+
+    /**
+     * 构造注册客户端二进制编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     */
+    public BinaryOauth2RegisteredClientCodec(int compressionThreshold) {
+        super(compressionThreshold);
+    }
+
+    /**
+     * 使用指定对象映射器构造注册客户端二进制编解码器
+     *
+     * @param compressionThreshold 压缩阈值，单位字节，小于等于0表示不压缩
+     * @param objectMapper         对象映射器，用于回退编码客户端设置和令牌设置中的自定义值
+     */
+    public BinaryOauth2RegisteredClientCodec(int compressionThreshold, ObjectMapper objectMapper) {
+        super(compressionThreshold, objectMapper);
+    }
+
+    /**
+     * 将注册客户端实体编码为字节数组
+     *
+     * @param client 注册客户端实体
+     * @return 编码后的字节数组
+     */
+    @Override
+    public byte[] encode(Oauth2RegisteredClient client) {
+        BinaryCodecWriter writer = newWriter();
+        writer.writeField(ID, client.getId());
+        writer.writeField(CLIENT_ID, client.getClientId());
+        writer.writeField(CLIENT_ID_ISSUED_AT, client.getClientIdIssuedAt());
+        writer.writeField(CLIENT_SECRET, client.getClientSecret());
+        writer.writeField(CLIENT_SECRET_EXPIRES_AT, client.getClientSecretExpiresAt());
+        writer.writeField(CLIENT_NAME, client.getClientName());
+        writer.writeField(CLIENT_AUTHENTICATION_METHODS, client.getClientAuthenticationMethods());
+        writer.writeField(AUTHORIZATION_GRANT_TYPES, client.getAuthorizationGrantTypes());
+        writer.writeField(REDIRECT_URIS, client.getRedirectUris());
+        writer.writeField(POST_LOGOUT_REDIRECT_URIS, client.getPostLogoutRedirectUris());
+        writer.writeField(SCOPES, client.getScopes());
+        writer.writeField(CLIENT_SETTINGS, client.getClientSettings());
+        writer.writeField(TOKEN_SETTINGS, client.getTokenSettings());
+        return finish(writer);
+    }
+
+    /**
+     * 将字节数组解码为注册客户端实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 注册客户端实体，字节数组为null时返回null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Oauth2RegisteredClient decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        Oauth2RegisteredClient client = new Oauth2RegisteredClient();
+        BinaryCodecReader reader = newReader(bytes);
+        for (int tag = reader.readTag(); tag != 0; tag = reader.readTag()) {
+            Object value = reader.readValue();
+            switch (tag) {
+                case ID -> client.setId((String) value);
+                case CLIENT_ID -> client.setClientId((String) value);
+                case CLIENT_ID_ISSUED_AT -> client.setClientIdIssuedAt((Instant) value);
+                case CLIENT_SECRET -> client.setClientSecret((String) value);
+                case CLIENT_SECRET_EXPIRES_AT -> client.setClientSecretExpiresAt((Instant) value);
+                case CLIENT_NAME -> client.setClientName((String) value);
+                case CLIENT_AUTHENTICATION_METHODS -> client.setClientAuthenticationMethods((Set<String>) value);
+                case AUTHORIZATION_GRANT_TYPES -> client.setAuthorizationGrantTypes((Set<String>) value);
+                case REDIRECT_URIS -> client.setRedirectUris((Set<String>) value);
+                case POST_LOGOUT_REDIRECT_URIS -> client.setPostLogoutRedirectUris((Set<String>) value);
+                case SCOPES -> client.setScopes((Set<String>) value);
+                case CLIENT_SETTINGS -> client.setClientSettings((Map<String, Object>) value);
+                case TOKEN_SETTINGS -> client.setTokenSettings((Map<String, Object>) value);
+                default -> {
+                    // 忽略新版本增加的未知字段
+                }
+            }
+        }
+        return client;
+    }
+}
@@ -0,0 +1,37 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+
+/**
+ * OAuth2授权信息共享数据块存储接口
+ * <p>
+ * 同一用户的多个授权信息中重复出现的较大值（如主体对象）按内容摘要只存储一份，授权信息中只保存摘要。
+ * 共享数据块内容不可变，可以在进程内长期缓存。
+ * </p>
+ *
+ * @author george
+ */
+public interface Oauth2AuthorizationBlockStore {
+
+    /**
+     * 保存共享数据块，存活时间不短于引用它的授权信息
+     * <p>
+     * 在写入引用它的授权信息之前调用。仅延长存活时间而数据块已不存在、又无法重新写入时必须抛出异常，
+     * 避免写入引用不存在数据块的授权信息。
+     * </p>
+     *
+     * @param hash  内容摘要
+     * @param block 编码数据，为null表示数据块已存在，仅延长存活时间
+     * @param owner 引用该数据块的授权信息实体
+     * @throws IllegalStateException 数据块不存在且无法重新写入
+     */
+    void save(String hash, byte[] block, Oauth2Authorization owner);
+
+    /**
+     * 加载共享数据块
+     *
+     * @param hash 内容摘要
+     * @return 编码数据，不存在时返回null
+     */
+    byte[] load(String hash);
+}
@@ -0,0 +1,47 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+
+import java.util.function.BiConsumer;
+
+/**
+ * OAuth2授权信息编解码器接口
+ * <p>
+ * 定义授权信息实体与Redis中存储的字节数组之间的转换，可通过注册同类型的Bean替换默认实现。
+ * </p>
+ *
+ * @author george
+ */
+public interface Oauth2AuthorizationCodec {
+
+    /**
+     * 将授权信息实体编码为字节数组
+     *
+     * @param authorization 授权信息实体
+     * @return 编码后的字节数组
+     */
+    byte[] encode(Oauth2Authorization authorization);
+
+    /**
+     * 使用指定的共享数据块写入函数将授权信息实体编码为字节数组
+     * <p>
+     * 用于无法在编码时同步写入共享数据块的调用方，由调用方将共享数据块与授权信息一同写入。
+     * 默认实现不使用共享数据块。
+     * </p>
+     *
+     * @param authorization 授权信息实体
+     * @param blockSink     共享数据块写入函数，参数为内容摘要和编码数据，数据为null表示仅延长存活时间
+     * @return 编码后的字节数组
+     */
+    default byte[] encode(Oauth2Authorization authorization, BiConsumer<String, byte[]> blockSink) {
+        return encode(authorization);
+    }
+
+    /**
+     * 将字节数组解码为授权信息实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 授权信息实体，字节数组为null时返回null
+     */
+    Oauth2Authorization decode(byte[] bytes);
+}
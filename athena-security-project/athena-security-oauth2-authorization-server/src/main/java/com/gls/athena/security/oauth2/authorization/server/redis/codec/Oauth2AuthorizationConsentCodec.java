@@ -0,0 +1,30 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2AuthorizationConsent;
+
+/**
+ * OAuth2授权同意信息编解码器接口
+ * <p>
+ * 定义授权同意信息实体与Redis中存储的字节数组之间的转换，可通过注册同类型的Bean替换默认实现。
+ * </p>
+ *
+ * @author george
+ */
+public interface Oauth2AuthorizationConsentCodec {
+
+    /**
+     * 将授权同意信息实体编码为字节数组
+     *
+     * @param consent 授权同意信息实体
+     * @return 编码后的字节数组
+     */
+    byte[] encode(Oauth2AuthorizationConsent consent);
+
+    /**
+     * 将字节数组解码为授权同意信息实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 授权同意信息实体，字节数组为null时返回null
+     */
+    Oauth2AuthorizationConsent decode(byte[] bytes);
+}
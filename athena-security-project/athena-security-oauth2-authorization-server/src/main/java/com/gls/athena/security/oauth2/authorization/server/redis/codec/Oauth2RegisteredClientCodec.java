@@ -0,0 +1,30 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2RegisteredClient;
+
+/**
+ * OAuth2注册客户端编解码器接口
+ * <p>
+ * 定义注册客户端实体与Redis中存储的字节数组之间的转换，可通过注册同类型的Bean替换默认实现。
+ * </p>
+ *
+ * @author george
+ */
+public interface Oauth2RegisteredClientCodec {
+
+    /**
+     * 将注册客户端实体编码为字节数组
+     *
+     * @param client 注册客户端实体
+     * @return 编码后的字节数组
+     */
+    byte[] encode(Oauth2RegisteredClient client);
+
+    /**
+     * 将字节数组解码为注册客户端实体
+     *
+     * @param bytes 编码后的字节数组
+     * @return 注册客户端实体，字节数组为null时返回null
+     */
+    Oauth2RegisteredClient decode(byte[] bytes);
+}
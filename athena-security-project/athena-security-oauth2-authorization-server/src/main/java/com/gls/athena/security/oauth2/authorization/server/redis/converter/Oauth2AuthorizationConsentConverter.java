@@ -2,6 +2,7 @@ package com.gls.athena.security.oauth2.authorization.server.redis.converter;
 
 import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2AuthorizationConsent;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
@@ -22,6 +23,7 @@ public interface Oauth2AuthorizationConsentConverter {
      * @param authorizationConsent Spring Security OAuth2授权同意对象
      * @return 转换后的自定义授权同意实体
      */
+    @Mapping(target = "expiresAt", ignore = true)
     Oauth2AuthorizationConsent convert(OAuth2AuthorizationConsent authorizationConsent);
 
     /**
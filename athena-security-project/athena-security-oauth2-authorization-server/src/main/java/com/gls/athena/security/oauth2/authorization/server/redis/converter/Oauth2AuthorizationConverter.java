@@ -158,6 +158,7 @@ public interface Oauth2AuthorizationConverter {
 
     /**
      * 将自定义的 Oauth2Authorization 域对象反向转换为 Spring Security 的 OAuth2Authorization 对象。
+     * 属性和令牌元数据可能是延迟解码的映射，复制到构建器时才会解码，因此只应在需要返回完整授权信息时调用。
      *
      * @param registeredClient 已注册客户端信息
      * @param authorization    自定义的 Oauth2Authorization 域对象
@@ -184,6 +185,33 @@ public interface Oauth2AuthorizationConverter {
         return builder.build();
     }
 
+    /**
+     * 将自定义的 Oauth2Authorization 域对象转换为只用于令牌内省的 OAuth2Authorization 对象。
+     * 只包含基础授权信息和被内省的访问令牌或刷新令牌及其元数据，不读取属性（包括序列化的主体对象）和其他令牌，
+     * 延迟解码的属性块不会被解码。结果不完整，不能用于保存，也不能放入缓存。
+     * 被内省的令牌不是访问令牌或刷新令牌时返回完整的授权信息。
+     *
+     * @param registeredClient 已注册客户端信息
+     * @param authorization    自定义的 Oauth2Authorization 域对象
+     * @param token            被内省的令牌值
+     * @return 只包含被内省令牌的 OAuth2Authorization 对象
+     */
+    default OAuth2Authorization reverseToIntrospection(RegisteredClient registeredClient, Oauth2Authorization authorization, String token) {
+        OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(authorization.getId())
+                .principalName(authorization.getPrincipalName())
+                .authorizationGrantType(new AuthorizationGrantType(authorization.getAuthorizationGrantType()))
+                .authorizedScopes(authorization.getAuthorizedScopes());
+        if (token.equals(authorization.getAccessTokenValue())) {
+            setAccessToken(authorization, builder);
+        } else if (token.equals(authorization.getRefreshTokenValue())) {
+            setRefreshToken(authorization, builder);
+        } else {
+            return reverseToAuthorization(registeredClient, authorization);
+        }
+        return builder.build();
+    }
+
     /**
      * 设置设备码（Device Code）相关信息到构建器中。
      *
@@ -0,0 +1,151 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.converter;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2RegisteredClient;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.ConfigurationSettingNames;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * OAuth2注册客户端转换器接口
+ * 用于在Spring Security OAuth2注册客户端对象和自定义的注册客户端实体之间进行转换。
+ * 设置中的令牌格式和签名算法转换为名称存储，读取时按设置名称还原。
+ *
+ * @author george
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+public interface Oauth2RegisteredClientConverter {
+
+    /**
+     * 将Spring Security OAuth2注册客户端对象转换为自定义的注册客户端实体
+     *
+     * @param registeredClient Spring Security OAuth2注册客户端对象
+     * @return 转换后的自定义注册客户端实体
+     */
+    default Oauth2RegisteredClient convert(RegisteredClient registeredClient) {
+        if (registeredClient == null) {
+            return null;
+        }
+        Oauth2RegisteredClient client = new Oauth2RegisteredClient();
+        client.setId(registeredClient.getId());
+        client.setClientId(registeredClient.getClientId());
+        client.setClientIdIssuedAt(registeredClient.getClientIdIssuedAt());
+        client.setClientSecret(registeredClient.getClientSecret());
+        client.setClientSecretExpiresAt(registeredClient.getClientSecretExpiresAt());
+        client.setClientName(registeredClient.getClientName());
+        client.setClientAuthenticationMethods(registeredClient.getClientAuthenticationMethods().stream()
+                .map(ClientAuthenticationMethod::getValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        client.setAuthorizationGrantTypes(registeredClient.getAuthorizationGrantTypes().stream()
+                .map(AuthorizationGrantType::getValue)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        client.setRedirectUris(new LinkedHashSet<>(registeredClient.getRedirectUris()));
+        client.setPostLogoutRedirectUris(new LinkedHashSet<>(registeredClient.getPostLogoutRedirectUris()));
+        client.setScopes(new LinkedHashSet<>(registeredClient.getScopes()));
+        client.setClientSettings(convertSettings(registeredClient.getClientSettings().getSettings()));
+        client.setTokenSettings(convertSettings(registeredClient.getTokenSettings().getSettings()));
+        return client;
+    }
+
+    /**
+     * 将自定义的注册客户端实体转换回Spring Security OAuth2注册客户端对象
+     *
+     * @param client 自定义的注册客户端实体
+     * @return 转换后的Spring Security OAuth2注册客户端对象
+     */
+    default RegisteredClient reverse(Oauth2RegisteredClient client) {
+        if (client == null) {
+            return null;
+        }
+        return RegisteredClient.withId(client.getId())
+                .clientId(client.getClientId())
+                .clientIdIssuedAt(client.getClientIdIssuedAt())
+                .clientSecret(client.getClientSecret())
+                .clientSecretExpiresAt(client.getClientSecretExpiresAt())
+                .clientName(client.getClientName())
+                .clientAuthenticationMethods(methods -> nullToEmpty(client.getClientAuthenticationMethods())
+                        .forEach(method -> methods.add(new ClientAuthenticationMethod(method))))
+                .authorizationGrantTypes(grantTypes -> nullToEmpty(client.getAuthorizationGrantTypes())
+                        .forEach(grantType -> grantTypes.add(new AuthorizationGrantType(grantType))))
+                .redirectUris(uris -> uris.addAll(nullToEmpty(client.getRedirectUris())))
+                .postLogoutRedirectUris(uris -> uris.addAll(nullToEmpty(client.getPostLogoutRedirectUris())))
+                .scopes(scopes -> scopes.addAll(nullToEmpty(client.getScopes())))
+                .clientSettings(ClientSettings.withSettings(reverseSettings(client.getClientSettings())).build())
+                .tokenSettings(TokenSettings.withSettings(reverseSettings(client.getTokenSettings())).build())
+                .build();
+    }
+
+    /**
+     * 将设置中的令牌格式和签名算法转换为名称
+     *
+     * @param settings 设置
+     * @return 转换后的设置
+     */
+    private Map<String, Object> convertSettings(Map<String, Object> settings) {
+        Map<String, Object> result = new HashMap<>(settings.size() * 2);
+        settings.forEach((name, value) -> {
+            if (value instanceof OAuth2TokenFormat tokenFormat) {
+                result.put(name, tokenFormat.getValue());
+            } else if (value instanceof JwsAlgorithm algorithm) {
+                result.put(name, algorithm.getName());
+            } else {
+                result.put(name, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 按设置名称将令牌格式和签名算法名称还原为对象
+     *
+     * @param settings 存储的设置
+     * @return 还原后的设置
+     */
+    private Map<String, Object> reverseSettings(Map<String, Object> settings) {
+        Map<String, Object> result = new HashMap<>();
+        if (settings == null) {
+            return result;
+        }
+        settings.forEach((name, value) -> {
+            if (!(value instanceof String string)) {
+                result.put(name, value);
+            } else if (ConfigurationSettingNames.Token.ACCESS_TOKEN_FORMAT.equals(name)) {
+                result.put(name, new OAuth2TokenFormat(string));
+            } else if (ConfigurationSettingNames.Token.ID_TOKEN_SIGNATURE_ALGORITHM.equals(name)) {
+                result.put(name, SignatureAlgorithm.from(string));
+            } else if (ConfigurationSettingNames.Client.TOKEN_ENDPOINT_AUTHENTICATION_SIGNING_ALGORITHM.equals(name)) {
+                SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(string);
+                result.put(name, signatureAlgorithm != null ? signatureAlgorithm : MacAlgorithm.from(string));
+            } else {
+                result.put(name, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 将null集合转换为空集合
+     *
+     * @param values 集合
+     * @return 非null集合
+     */
+    private Set<String> nullToEmpty(Set<String> values) {
+        return values != null ? values : Set.of();
+    }
+}
@@ -4,12 +4,13 @@ import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Set;
 
 /**
  * OAuth2授权同意信息实体类
  * <p>
- * 该类用于存储客户端授权同意的相关信息，包括客户端ID、主体名称和授权权限集合
+ * 该类用于存储客户端授权同意的相关信息，包括客户端ID、主体名称、授权权限集合和过期时间
  * </p>
  *
  * @author george
@@ -31,5 +32,10 @@ public class Oauth2AuthorizationConsent implements Serializable {
      * 授权权限集合
      */
     private Set<GrantedAuthority> authorities;
+
+    /**
+     * 过期时间，为null表示永不过期
+     */
+    private Instant expiresAt;
 }
 
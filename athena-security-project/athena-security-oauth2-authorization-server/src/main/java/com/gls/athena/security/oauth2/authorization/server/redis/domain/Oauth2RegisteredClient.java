@@ -0,0 +1,83 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.domain;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OAuth2注册客户端实体类
+ * 用于存储注册客户端的认证方式、授权类型、回调地址、作用域及客户端和令牌设置
+ *
+ * @author george
+ */
+@Data
+public class Oauth2RegisteredClient implements Serializable {
+
+    /**
+     * 注册客户端的唯一标识符
+     */
+    private String id;
+
+    /**
+     * 客户端标识
+     */
+    private String clientId;
+
+    /**
+     * 客户端标识签发时间
+     */
+    private Instant clientIdIssuedAt;
+
+    /**
+     * 客户端密钥
+     */
+    private String clientSecret;
+
+    /**
+     * 客户端密钥过期时间
+     */
+    private Instant clientSecretExpiresAt;
+
+    /**
+     * 客户端名称
+     */
+    private String clientName;
+
+    /**
+     * 客户端认证方式集合
+     */
+    private Set<String> clientAuthenticationMethods;
+
+    /**
+     * 授权许可类型集合
+     */
+    private Set<String> authorizationGrantTypes;
+
+    /**
+     * 重定向地址集合
+     */
+    private Set<String> redirectUris;
+
+    /**
+     * 登出后重定向地址集合
+     */
+    private Set<String> postLogoutRedirectUris;
+
+    /**
+     * 作用域集合
+     */
+    private Set<String> scopes;
+
+    /**
+     * 客户端设置
+     */
+    private Map<String, Object> clientSettings;
+
+    /**
+     * 令牌设置
+     */
+    private Map<String, Object> tokenSettings;
+}
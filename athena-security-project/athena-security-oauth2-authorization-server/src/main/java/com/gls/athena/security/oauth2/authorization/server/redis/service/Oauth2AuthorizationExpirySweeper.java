@@ -0,0 +1,150 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * OAuth2授权信息过期清理任务
+ * <p>
+ * 授权信息存储在Redis哈希表中，无法为单个授权信息设置过期时间。
+ * 该任务按固定间隔调用{@link RedisOauth2AuthorizationServiceImpl#removeExpired(int)}分批删除已过期的授权信息，
+ * 使用基于Redis的授权同意服务时同时删除已过期的授权同意信息。
+ * 清理前先调用{@link RedisOauth2AuthorizationServiceImpl#migrateLegacy(int)}分批迁移旧版JSON格式和未分片的授权信息，
+ * 旧版授权信息没有过期记录，迁移时补写，已过期的在同一次清理中删除。
+ * 通过Micrometer记录清理数量、迁移数量、失败次数和耗时。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class Oauth2AuthorizationExpirySweeper implements InitializingBean, DisposableBean {
+
+    private final RedisOauth2AuthorizationServiceImpl authorizationService;
+
+    /**
+     * 基于Redis的授权同意服务，未使用时为null
+     */
+    private final RedisOauth2AuthorizationConsentServiceImpl consentService;
+
+    private final AuthorizationStoreProperties properties;
+
+    private final Counter removedCounter = Metrics.counter("athena.oauth2.authorization.sweep.removed");
+
+    private final Counter migratedCounter = Metrics.counter("athena.oauth2.authorization.sweep.migrated");
+
+    private final Counter failureCounter = Metrics.counter("athena.oauth2.authorization.sweep.failures");
+
+    private final Timer sweepTimer = Metrics.timer("athena.oauth2.authorization.sweep");
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造过期清理任务
+     *
+     * @param authorizationService 基于Redis的授权服务
+     * @param consentService       基于Redis的授权同意服务，可以为null
+     * @param properties           授权信息存储配置
+     */
+    public Oauth2AuthorizationExpirySweeper(RedisOauth2AuthorizationServiceImpl authorizationService,
+                                            RedisOauth2AuthorizationConsentServiceImpl consentService,
+                                            AuthorizationStoreProperties properties) {
+        this.authorizationService = authorizationService;
+        this.consentService = consentService;
+        this.properties = properties;
+    }
+
+    /**
+     * 启动定时清理任务
+     */
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("oauth2-authorization-sweeper")
+                .daemon(true)
+                .factory());
+        executor.scheduleWithFixedDelay(this::sweep, properties.getSweepInterval(),
+                properties.getSweepInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 执行一次过期清理
+     * <p>
+     * 先迁移旧版授权信息，再连续删除多个批次，直到某批不足批次大小或达到最大批次数。
+     * </p>
+     */
+    public void sweep() {
+        sweepTimer.record(() -> {
+            try {
+                migrate();
+                int total = runBatches(authorizationService::removeExpired);
+                if (consentService != null) {
+                    total += runBatches(consentService::removeExpired);
+                }
+                removedCounter.increment(total);
+                if (total > 0) {
+                    log.debug("清理过期授权信息: {}", total);
+                }
+            } catch (Exception e) {
+                failureCounter.increment();
+                log.warn("清理过期授权信息失败", e);
+            }
+        });
+    }
+
+    /**
+     * 连续执行多个批次，直到某批不足批次大小或达到最大批次数
+     *
+     * @param batch 单批操作，参数为批次大小，返回本批处理数量
+     * @return 处理总数
+     */
+    private int runBatches(IntUnaryOperator batch) {
+        int total = 0;
+        for (int i = 0; i < properties.getSweepMaxBatches(); i++) {
+            int processed = batch.applyAsInt(properties.getSweepBatchSize());
+            total += processed;
+            if (processed < properties.getSweepBatchSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 迁移旧版JSON格式和未分片的授权信息
+     * <p>
+     * 迁移失败时记录失败次数后继续清理，不阻塞已有过期记录的删除。
+     * </p>
+     */
+    private void migrate() {
+        try {
+            int total = runBatches(authorizationService::migrateLegacy);
+            migratedCounter.increment(total);
+            if (total > 0) {
+                log.info("迁移旧版授权信息: {}", total);
+            }
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.warn("迁移旧版授权信息失败", e);
+        }
+    }
+
+    /**
+     * 停止定时清理任务
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
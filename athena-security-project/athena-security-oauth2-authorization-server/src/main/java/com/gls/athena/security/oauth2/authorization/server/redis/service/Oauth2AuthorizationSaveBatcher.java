@@ -0,0 +1,233 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationWriteBehindProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * OAuth2授权信息批量保存器
+ * <p>
+ * 登录高峰时大量线程同时保存授权信息，每次保存都需要若干次Redis往返。
+ * 本类将并发的保存请求放入队列，由单个写入线程按批次大小和合并等待时间取出，
+ * 整批交给批量写入函数以管道或事务方式写入，吞吐量随批次大小而非往返次数增长。
+ * </p>
+ * <p>
+ * 调用方在所在批次写入Redis并得到确认后才返回，因此保存语义与直接写入一致：
+ * </p>
+ * <ul>
+ *     <li>单个授权信息转换或编码失败时只有该调用方收到异常，同批次的其他授权信息照常写入</li>
+ *     <li>写入Redis失败时异常抛给该批次的所有调用方</li>
+ *     <li>等待超时时，尚未被写入线程取走的保存请求被取消，不会在调用方收到异常之后再写入；
+ *     已被写入线程取走的保存请求不再超时，调用方等待该批次写入完成，等待时间受Redis命令超时限制</li>
+ * </ul>
+ * <p>
+ * 队列已满或写入线程已停止时，保存请求在调用方线程中直接写入。
+ * 通过Micrometer记录批次大小、批次写入耗时和失败次数。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class Oauth2AuthorizationSaveBatcher {
+
+    private final Function<List<OAuth2Authorization>, Map<OAuth2Authorization, RuntimeException>> writer;
+
+    private final AuthorizationWriteBehindProperties properties;
+
+    private final BlockingQueue<SaveRequest> queue;
+
+    private final DistributionSummary batchSizeSummary = Metrics.summary("athena.oauth2.authorization.save.batch.size");
+
+    private final Timer batchTimer = Metrics.timer("athena.oauth2.authorization.save.batch");
+
+    private final Counter failureCounter = Metrics.counter("athena.oauth2.authorization.save.batch.failures");
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    /**
+     * 构造批量保存器
+     *
+     * @param writer     批量写入函数，按提交顺序写入一批授权信息，返回未写入的授权信息及其异常，
+     *                   写入Redis失败时抛出异常
+     * @param properties 批量写入配置
+     */
+    public Oauth2AuthorizationSaveBatcher(Function<List<OAuth2Authorization>, Map<OAuth2Authorization, RuntimeException>> writer,
+                                          AuthorizationWriteBehindProperties properties) {
+        this.writer = writer;
+        this.properties = properties;
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    /**
+     * 启动写入线程
+     */
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("oauth2-authorization-save-batcher")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * 保存授权信息，所在批次写入完成后返回
+     *
+     * @param authorization OAuth2授权对象
+     */
+    public void save(OAuth2Authorization authorization) {
+        SaveRequest request = new SaveRequest(authorization, new CompletableFuture<>(), new AtomicBoolean(true));
+        if (!running || !queue.offer(request)) {
+            RuntimeException failure = writer.apply(List.of(authorization)).get(authorization);
+            if (failure != null) {
+                throw failure;
+            }
+            return;
+        }
+        try {
+            try {
+                request.future().get(properties.getTimeout(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (request.claim()) {
+                    // 尚未被写入线程取走，取消后不会再写入
+                    queue.remove(request);
+                    throw new IllegalStateException("等待授权信息批量写入超时", e);
+                }
+                // 已被写入线程取走，等待所在批次写入完成，避免调用方收到异常后写入仍然生效
+                request.future().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("保存授权信息失败", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待授权信息批量写入被中断", e);
+        }
+    }
+
+    /**
+     * 停止写入线程，并写入队列中剩余的保存请求
+     */
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(properties.getTimeout());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<SaveRequest> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * 写入线程主循环
+     * <p>
+     * 阻塞等待批次中的第一个保存请求，随后在合并等待时间内继续收集，直到达到批次大小。
+     * </p>
+     */
+    private void run() {
+        while (running) {
+            List<SaveRequest> batch = new ArrayList<>(properties.getBatchSize());
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWindow());
+                while (batch.size() < properties.getBatchSize()) {
+                    // 先取出已排队的请求，队列为空时才等待
+                    if (queue.drainTo(batch, properties.getBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    SaveRequest request = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (request == null) {
+                        break;
+                    }
+                    batch.add(request);
+                }
+            } catch (InterruptedException e) {
+                // 停止时由stop方法写入剩余请求，已取出的请求在此写入
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * 写入一批保存请求并通知调用方
+     * <p>
+     * 只写入成功取走的保存请求，已因等待超时被取消的保存请求直接丢弃。
+     * </p>
+     *
+     * @param batch 保存请求
+     */
+    private void flush(List<SaveRequest> batch) {
+        List<SaveRequest> claimed = batch.stream().filter(SaveRequest::claim).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        batchSizeSummary.record(claimed.size());
+        Map<OAuth2Authorization, RuntimeException> failures;
+        try {
+            failures = batchTimer.record(() -> writer.apply(claimed.stream().map(SaveRequest::authorization).toList()));
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.warn("批量写入授权信息失败: {}", claimed.size(), e);
+            claimed.forEach(request -> request.future().completeExceptionally(e));
+            return;
+        }
+        claimed.forEach(request -> {
+            RuntimeException failure = failures != null ? failures.get(request.authorization()) : null;
+            if (failure != null) {
+                log.warn("授权信息未能写入: {}", request.authorization().getId(), failure);
+                request.future().completeExceptionally(failure);
+            } else {
+                request.future().complete(null);
+            }
+        });
+    }
+
+    /**
+     * 保存请求
+     *
+     * @param authorization OAuth2授权对象
+     * @param future        写入完成通知
+     * @param pending       是否仍在等待，写入线程取走或调用方取消时置为false
+     */
+    private record SaveRequest(OAuth2Authorization authorization, CompletableFuture<Void> future, AtomicBoolean pending) {
+
+        /**
+         * 取走或取消保存请求，写入线程与超时的调用方只有一方能成功
+         *
+         * @return 成功返回true
+         */
+        boolean claim() {
+            return pending.compareAndSet(true, false);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+/**
+ * 令牌内省专用的只读授权服务
+ * <p>
+ * 供令牌内省认证提供者使用，根据令牌查找时委托{@link RedisOauth2AuthorizationServiceImpl#findByTokenForIntrospection}，
+ * 只还原被内省的令牌，不解码授权属性中序列化的主体对象。内省不修改授权信息，保存和删除不受支持，
+ * 避免将不完整的授权信息写回存储。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class Oauth2IntrospectionAuthorizationService implements OAuth2AuthorizationService {
+
+    private final RedisOauth2AuthorizationServiceImpl authorizationService;
+
+    /**
+     * 不支持保存
+     *
+     * @param authorization 授权信息
+     */
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        throw new UnsupportedOperationException("令牌内省授权服务不支持保存授权信息");
+    }
+
+    /**
+     * 不支持删除
+     *
+     * @param authorization 授权信息
+     */
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        throw new UnsupportedOperationException("令牌内省授权服务不支持删除授权信息");
+    }
+
+    /**
+     * 根据授权ID查找完整的授权信息
+     *
+     * @param id 授权ID
+     * @return 授权信息，不存在时返回null
+     */
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return authorizationService.findById(id);
+    }
+
+    /**
+     * 根据令牌查找只包含被内省令牌的授权信息
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null
+     * @return 授权信息，不存在时返回null
+     */
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        return authorizationService.findByTokenForIntrospection(token, tokenType);
+    }
+}
@@ -0,0 +1,426 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AccessTokenRevocationFeed;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2TokenIndex;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.RedisOauth2AuthorizationBlockStore;
+import com.gls.athena.starter.data.redis.support.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 基于Redis响应式API的异步OAuth2授权存储
+ * <p>
+ * 与{@link RedisOauth2AuthorizationServiceImpl}使用相同的键布局（见{@link Oauth2AuthorizationKeys}）和编码，
+ * 两者读写同一份数据。所有操作返回{@link Mono}，不占用调用线程，可直接用于响应式调用方；
+ * {@link RedisOauth2AuthorizationServiceImpl}配置本存储后作为阻塞适配器供Spring Authorization Server使用。
+ * </p>
+ * <p>
+ * 保存时先读取用户和客户端索引及旧授权信息，写入共享数据块后，将删除旧授权信息、写入新授权信息和所有索引的命令一次性发出。
+ * Lettuce在共享连接上不等待响应即连续发送命令，这些命令只需一次网络往返；同一个键的命令按发出顺序执行，
+ * 因此删除旧索引总是先于写入新索引。旧版以JSON格式存储的授权信息在上述命令全部完成后才删除。
+ * </p>
+ * <p>
+ * 一致性弱于{@link RedisOauth2AuthorizationServiceImpl}：同步实现在单机和哨兵模式下以MULTI/EXEC事务写入，
+ * 本存储在任何模式下都不使用事务，与同步实现在集群模式下的管道写入相同：
+ * </p>
+ * <ul>
+ *     <li>并发的读操作可能看到写入的中间状态，例如旧令牌索引已删除而新令牌索引尚未写入</li>
+ *     <li>某个命令失败时其余命令仍会执行，可能留下部分写入；调用方收到异常，可重新保存修复，
+ *     残留的过期记录和索引由过期清理删除</li>
+ * </ul>
+ * <p>
+ * 还原授权信息时同步查询注册客户端仓库，应配合注册客户端本地缓存使用；
+ * 旧版以JSON格式存储的授权信息仍通过阻塞API读写，在弹性线程池中执行。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class ReactiveRedisOauth2AuthorizationStore {
+
+    private final Oauth2AuthorizationConverter converter;
+
+    private final RegisteredClientRepository registeredClientRepository;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final AuthorizationStoreProperties properties;
+
+    private final Oauth2AuthorizationCodec codec;
+
+    private final Oauth2AuthorizationKeys keys;
+
+    /**
+     * 共享数据块存储，未配置时为null
+     */
+    private final RedisOauth2AuthorizationBlockStore blockStore;
+
+    private final String cacheName = Oauth2AuthorizationKeys.CACHE_NAME;
+
+    /**
+     * 保存授权信息
+     * <p>
+     * 相同用户和客户端的旧授权信息及其索引会被删除。
+     * </p>
+     *
+     * @param authorization OAuth2授权对象
+     * @return 保存结果，包含被写入和替换的授权ID及访问令牌被替换的旧授权信息
+     */
+    public Mono<SaveResult> save(OAuth2Authorization authorization) {
+        Oauth2Authorization newAuthorization = converter.convertToDomain(authorization);
+        String principalKey = keys.getPrincipalKey(newAuthorization.getRegisteredClientId(), newAuthorization.getPrincipalName());
+        return redisTemplate.opsForSet().members(principalKey).collectList()
+                .flatMap(oldIds -> getAuthorizations(oldIds).flatMap(oldAuthorizations -> {
+                    // 共享数据块先写入，数据块已失效且无法恢复时不写入授权信息
+                    List<Mono<?>> blockCommands = new ArrayList<>();
+                    ByteBuffer value = encode(newAuthorization, blockCommands);
+                    List<Mono<?>> commands = new ArrayList<>();
+                    oldAuthorizations.forEach(oldAuthorization -> deleteReplaced(oldAuthorization, newAuthorization, commands));
+                    Object[] replacedIds = oldIds.stream().filter(id -> !id.equals(newAuthorization.getId())).toArray();
+                    if (replacedIds.length > 0) {
+                        // 清理索引中已不存在对应授权信息的授权ID，新授权信息的ID保留在索引中
+                        commands.add(redisTemplate.opsForSet().remove(principalKey, replacedIds));
+                    }
+                    setAuthorization(newAuthorization, value, commands);
+                    saveIndexes(newAuthorization, commands);
+                    Set<String> ids = new HashSet<>(oldIds);
+                    ids.add(newAuthorization.getId());
+                    SaveResult result = new SaveResult(ids, Oauth2AccessTokenRevocationFeed.getReplaced(oldAuthorizations, newAuthorization));
+                    // 新授权信息写入完成后再删除旧版JSON格式的授权信息，读取回退时不会出现两者都不存在的窗口
+                    Set<String> legacyIds = new HashSet<>();
+                    legacyIds.add(newAuthorization.getId());
+                    oldAuthorizations.forEach(oldAuthorization -> legacyIds.add(oldAuthorization.getId()));
+                    return Flux.merge(blockCommands)
+                            .thenMany(Flux.merge(commands))
+                            .then(deleteLegacyRows(legacyIds))
+                            .then(Mono.just(result));
+                }));
+    }
+
+    /**
+     * 删除授权信息及其索引
+     *
+     * @param authorization OAuth2授权对象
+     * @return 删除完成信号
+     */
+    public Mono<Void> remove(OAuth2Authorization authorization) {
+        // 优先使用已存储的授权信息删除索引，避免遗漏已被替换的令牌索引
+        return getAuthorization(authorization.getId())
+                .switchIfEmpty(Mono.fromSupplier(() -> converter.convertToDomain(authorization)))
+                .flatMap(oldAuthorization -> {
+                    List<Mono<?>> commands = new ArrayList<>();
+                    deleteAuthorization(oldAuthorization, commands);
+                    return Flux.merge(commands).then(deleteLegacyRows(List.of(oldAuthorization.getId())));
+                });
+    }
+
+    /**
+     * 根据授权ID查找授权信息
+     *
+     * @param id 授权ID
+     * @return 授权信息，不存在时为空
+     */
+    public Mono<OAuth2Authorization> findById(String id) {
+        return getAuthorization(id).flatMap(this::reverseToAuthorization);
+    }
+
+    /**
+     * 根据令牌值和令牌类型查找授权信息
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null表示匹配任意类型的令牌
+     * @return 授权信息，不存在时为空
+     */
+    public Mono<OAuth2Authorization> findByToken(String token, OAuth2TokenType tokenType) {
+        // 确定需要查询的令牌索引，令牌类型为null时查询所有类型
+        List<Oauth2TokenIndex> indexes = new ArrayList<>();
+        if (tokenType == null) {
+            indexes.addAll(List.of(Oauth2TokenIndex.values()));
+        } else {
+            Oauth2TokenIndex index = Oauth2TokenIndex.of(tokenType);
+            if (index == null) {
+                return Mono.empty();
+            }
+            indexes.add(index);
+        }
+        List<String> tokenKeys = indexes.stream().map(index -> keys.getTokenKey(index, token)).toList();
+        return redisTemplate.opsForValue().multiGet(tokenKeys)
+                .flatMap(ids -> Flux.range(0, indexes.size())
+                        .filter(i -> ids.get(i) != null)
+                        // 校验授权信息中的令牌值，防止索引与授权信息不一致
+                        .concatMap(i -> getAuthorization(ids.get(i)).filter(authorization -> indexes.get(i).matches(token, authorization)))
+                        .next())
+                .flatMap(this::reverseToAuthorization);
+    }
+
+    /**
+     * 将持久化授权信息转换为OAuth2Authorization对象
+     *
+     * @param authorization 持久化授权信息
+     * @return OAuth2Authorization对象
+     */
+    private Mono<OAuth2Authorization> reverseToAuthorization(Oauth2Authorization authorization) {
+        return Mono.fromSupplier(() -> {
+            RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
+            return converter.reverseToAuthorization(registeredClient, authorization);
+        });
+    }
+
+    /**
+     * 根据授权ID读取持久化授权信息
+     * <p>
+     * 分片哈希表中不存在时回退读取未分片哈希表，仍不存在时读取旧版以JSON格式存储的授权信息。
+     * </p>
+     *
+     * @param id 授权ID
+     * @return 持久化授权信息，不存在时为空
+     */
+    private Mono<Oauth2Authorization> getAuthorization(String id) {
+        Mono<ByteBuffer> bytes = hGet(keys.getDataKey(id), id);
+        if (keys.isSharded()) {
+            bytes = bytes.switchIfEmpty(Mono.defer(() -> hGet(keys.getLegacyDataKey(), id)));
+        }
+        return bytes.map(buffer -> codec.decode(ByteUtils.getBytes(buffer)))
+                .switchIfEmpty(Mono.fromCallable(() -> RedisUtil.getCacheTableRow(cacheName, id, Oauth2Authorization.class))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * 一次性读取多个编码后的持久化授权信息
+     * <p>
+     * 按分片分组并发读取，分片哈希表中不存在的授权信息回退到未分片哈希表读取，仍不存在的授权信息会被跳过。
+     * </p>
+     *
+     * @param ids 授权ID集合
+     * @return 存在的持久化授权信息
+     */
+    private Mono<List<Oauth2Authorization>> getAuthorizations(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        Map<Integer, List<String>> shards = ids.stream().collect(Collectors.groupingBy(keys::getShard));
+        return Flux.fromIterable(shards.values())
+                .flatMap(shardIds -> getRows(keys.getDataKey(shardIds.getFirst()), shardIds)
+                        .flatMapMany(values -> {
+                            List<Oauth2Authorization> authorizations = new ArrayList<>();
+                            List<String> missingIds = new ArrayList<>();
+                            for (int i = 0; i < shardIds.size(); i++) {
+                                ByteBuffer buffer = values.get(i);
+                                if (buffer != null) {
+                                    authorizations.add(codec.decode(ByteUtils.getBytes(buffer)));
+                                } else {
+                                    missingIds.add(shardIds.get(i));
+                                }
+                            }
+                            if (!keys.isSharded() || missingIds.isEmpty()) {
+                                return Flux.fromIterable(authorizations);
+                            }
+                            return Flux.fromIterable(authorizations).concatWith(getRows(keys.getLegacyDataKey(), missingIds)
+                                    .flatMapIterable(legacyValues -> legacyValues.stream()
+                                            .filter(Objects::nonNull)
+                                            .map(buffer -> codec.decode(ByteUtils.getBytes(buffer)))
+                                            .toList()));
+                        }))
+                .collectList();
+    }
+
+    /**
+     * 从指定哈希表中一次性读取多个编码后的授权信息
+     *
+     * @param key 哈希表键
+     * @param ids 授权ID列表
+     * @return 与授权ID顺序一致的编码结果，不存在的位置为null
+     */
+    private Mono<List<ByteBuffer>> getRows(byte[] key, List<String> ids) {
+        List<ByteBuffer> fields = ids.stream().map(this::toBuffer).toList();
+        return redisTemplate.execute(connection -> connection.hashCommands().hMGet(ByteBuffer.wrap(key), fields)).next();
+    }
+
+    /**
+     * 读取哈希表字段
+     *
+     * @param key 哈希表键
+     * @param id  授权ID
+     * @return 字段值，不存在时为空
+     */
+    private Mono<ByteBuffer> hGet(byte[] key, String id) {
+        return redisTemplate.execute(connection -> connection.hashCommands().hGet(ByteBuffer.wrap(key), toBuffer(id))).next();
+    }
+
+    /**
+     * 编码持久化授权信息，并添加写入其共享数据块的命令
+     *
+     * @param authorization 持久化授权信息
+     * @param blockCommands 共享数据块命令列表，需在写入授权信息之前执行
+     * @return 编码结果
+     */
+    private ByteBuffer encode(Oauth2Authorization authorization, List<Mono<?>> blockCommands) {
+        return ByteBuffer.wrap(codec.encode(authorization, blockStore != null
+                ? (hash, block) -> blockCommands.add(blockStore.saveAsync(hash, block, authorization)) : null));
+    }
+
+    /**
+     * 添加写入编码后的持久化授权信息的命令，同时删除未分片哈希表中的授权信息
+     * <p>
+     * 旧版JSON格式中的授权信息由调用方在命令完成后删除。
+     * </p>
+     *
+     * @param authorization 持久化授权信息
+     * @param value         编码结果
+     * @param commands      命令列表
+     */
+    private void setAuthorization(Oauth2Authorization authorization, ByteBuffer value, List<Mono<?>> commands) {
+        String id = authorization.getId();
+        ByteBuffer key = ByteBuffer.wrap(keys.getDataKey(id));
+        commands.add(redisTemplate.execute(connection -> connection.hashCommands().hSet(key, toBuffer(id), value)).next());
+        if (keys.isSharded()) {
+            ByteBuffer legacyKey = ByteBuffer.wrap(keys.getLegacyDataKey());
+            commands.add(redisTemplate.execute(connection -> connection.hashCommands().hDel(legacyKey, toBuffer(id))).next());
+            commands.add(redisTemplate.opsForZSet().remove(keys.getLegacyExpiryKey(), id));
+        }
+    }
+
+    /**
+     * 添加写入过期记录、用户和客户端索引以及所有令牌索引的命令
+     *
+     * @param authorization 持久化授权信息
+     * @param commands      命令列表
+     */
+    private void saveIndexes(Oauth2Authorization authorization, List<Mono<?>> commands) {
+        String id = authorization.getId();
+        Instant now = Instant.now();
+        Instant expiresAt = Oauth2TokenIndex.getAuthorizationExpiresAt(authorization, properties.getDefaultTimeToLive());
+        commands.add(redisTemplate.opsForZSet().add(keys.getExpiryKey(id), id, expiresAt.toEpochMilli()));
+
+        String principalKey = keys.getPrincipalKey(authorization.getRegisteredClientId(), authorization.getPrincipalName());
+        commands.add(redisTemplate.opsForSet().add(principalKey, id));
+        commands.add(redisTemplate.expireAt(principalKey, expiresAt));
+        // 客户端和主体名称索引不设置过期时间，由删除和过期清理维护
+        commands.add(redisTemplate.opsForSet().add(keys.getClientKey(authorization.getRegisteredClientId()), id));
+        commands.add(redisTemplate.opsForSet().add(keys.getPrincipalNameKey(authorization.getPrincipalName()), id));
+
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(authorization);
+            if (token == null) {
+                continue;
+            }
+            Instant tokenExpiresAt = index.getExpiresAt(authorization);
+            Duration timeToLive = Duration.between(now, tokenExpiresAt != null ? tokenExpiresAt : expiresAt);
+            if (!timeToLive.isNegative() && !timeToLive.isZero()) {
+                commands.add(redisTemplate.opsForValue().set(keys.getTokenKey(index, token), id, timeToLive));
+            }
+        }
+    }
+
+    /**
+     * 添加删除授权信息、过期记录及所有索引的命令
+     * <p>
+     * 旧版JSON格式中的授权信息由调用方在命令完成后删除。
+     * </p>
+     *
+     * @param authorization 持久化授权信息
+     * @param commands      命令列表
+     */
+    private void deleteAuthorization(Oauth2Authorization authorization, List<Mono<?>> commands) {
+        String id = authorization.getId();
+        ByteBuffer key = ByteBuffer.wrap(keys.getDataKey(id));
+        commands.add(redisTemplate.execute(connection -> connection.hashCommands().hDel(key, toBuffer(id))).next());
+        commands.add(redisTemplate.opsForZSet().remove(keys.getExpiryKey(id), id));
+        if (keys.isSharded()) {
+            ByteBuffer legacyKey = ByteBuffer.wrap(keys.getLegacyDataKey());
+            commands.add(redisTemplate.execute(connection -> connection.hashCommands().hDel(legacyKey, toBuffer(id))).next());
+            commands.add(redisTemplate.opsForZSet().remove(keys.getLegacyExpiryKey(), id));
+        }
+        commands.add(redisTemplate.opsForSet().remove(keys.getPrincipalKey(authorization.getRegisteredClientId(),
+                authorization.getPrincipalName()), id));
+        commands.add(redisTemplate.opsForSet().remove(keys.getClientKey(authorization.getRegisteredClientId()), id));
+        commands.add(redisTemplate.opsForSet().remove(keys.getPrincipalNameKey(authorization.getPrincipalName()), id));
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(authorization);
+            if (token != null) {
+                // 逐个删除，令牌索引键位于不同槽位
+                commands.add(redisTemplate.delete(keys.getTokenKey(index, token)));
+            }
+        }
+    }
+
+    /**
+     * 添加删除被新授权信息替换的旧授权信息及其索引的命令
+     * <p>
+     * 旧授权信息与新授权信息的ID相同时，授权信息、过期记录和各集合索引由随后的写入覆盖，只删除新授权信息不再使用的令牌索引。
+     * </p>
+     *
+     * @param oldAuthorization 旧授权信息
+     * @param newAuthorization 新授权信息
+     * @param commands         命令列表
+     */
+    private void deleteReplaced(Oauth2Authorization oldAuthorization, Oauth2Authorization newAuthorization, List<Mono<?>> commands) {
+        if (!oldAuthorization.getId().equals(newAuthorization.getId())) {
+            deleteAuthorization(oldAuthorization, commands);
+            return;
+        }
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(oldAuthorization);
+            if (token != null && !token.equals(index.getValue(newAuthorization))) {
+                commands.add(redisTemplate.delete(keys.getTokenKey(index, token)));
+            }
+        }
+    }
+
+    /**
+     * 删除旧版以JSON格式存储的授权信息
+     *
+     * @param ids 授权ID集合
+     * @return 删除完成信号
+     */
+    private Mono<Void> deleteLegacyRows(Collection<String> ids) {
+        return Mono.fromRunnable(() -> ids.forEach(id -> RedisUtil.deleteCacheTableRow(cacheName, id)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * 将字符串转换为字节缓冲区
+     *
+     * @param value 字符串
+     * @return 字节缓冲区
+     */
+    private ByteBuffer toBuffer(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 保存结果
+     *
+     * @param ids      被写入和替换的授权ID集合，用于失效本地缓存
+     * @param replaced 访问令牌被新授权信息替换的旧授权信息，用于发布撤销列表
+     */
+    public record SaveResult(Set<String> ids, List<Oauth2Authorization> replaced) {
+    }
+}
@@ -1,17 +1,47 @@
 package com.gls.athena.security.oauth2.authorization.server.redis.service;
 
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationConsentCodec;
 import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConsentConverter;
 import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2AuthorizationConsent;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.RedisWriteUtil;
 import com.gls.athena.starter.data.redis.support.RedisUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * 基于Redis的OAuth2授权同意信息管理服务实现类。
  * <p>
  * 该类实现了{@link OAuth2AuthorizationConsentService}接口，用于在Redis中存储、删除和查询OAuth2授权同意信息。
- * 使用{@link Oauth2AuthorizationConsentConverter}进行实体与领域模型之间的转换。
+ * 使用{@link Oauth2AuthorizationConsentConverter}进行实体与领域模型之间的转换，
+ * 实体由{@link Oauth2AuthorizationConsentCodec}编码后存储在"{缓存名称}:data"哈希表中。
+ * 读取时若新哈希表中不存在，则回退读取旧版以JSON格式存储的哈希表，旧数据在下次保存时迁移。
+ * </p>
+ * <p>
+ * 同时维护"主体名称 → 客户端ID集合"和"客户端ID → 主体名称集合"两个索引，
+ * 按用户或客户端列出、撤销授权同意信息时无需扫描整个哈希表。
+ * 配置了授权同意存活时间时，过期时间记录在实体和有序集合中，读取时忽略已过期的授权同意信息，
+ * 并由{@link #removeExpired(int)}定期清理。哈希表与过期时间有序集合以缓存名称作为哈希标签，位于同一个槽位，
+ * 清理时可在同一个脚本中检查过期时间并删除。
+ * </p>
+ * <p>
+ * 写操作通过{@link RedisWriteUtil#executeWrites(StringRedisTemplate, Runnable)}执行，集群模式下以管道方式按顺序写入。
  * </p>
  *
  * @author george
@@ -21,8 +51,18 @@ public class RedisOauth2AuthorizationConsentServiceImpl implements OAuth2Authori
 
     private final Oauth2AuthorizationConsentConverter converter;
 
+    private final Oauth2AuthorizationConsentCodec codec;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final AuthorizationStoreProperties properties;
+
     private final String cacheName = "oauth2:authorization:consent";
 
+    private final String expiryKey = "{" + cacheName + "}:expiry";
+
+    private final byte[] dataKey = ("{" + cacheName + "}:data").getBytes(StandardCharsets.UTF_8);
+
     /**
      * 保存OAuth2授权同意信息到Redis缓存中。
      *
@@ -35,10 +75,25 @@ public class RedisOauth2AuthorizationConsentServiceImpl implements OAuth2Authori
         if (consent == null) {
             return;
         }
+        if (properties.getConsentTimeToLive() > 0) {
+            consent.setExpiresAt(Instant.now().plusMillis(properties.getConsentTimeToLive()));
+        }
         // 构造Redis缓存中的行键
         String key = getRowId(consent.getRegisteredClientId(), consent.getPrincipalName());
-        // 存储到Redis缓存表中
-        RedisUtil.setCacheTableRow(cacheName, key, consent);
+        // 编码后存储到Redis缓存表中，写入索引，并删除旧版JSON格式的记录
+        byte[] field = key.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = codec.encode(consent);
+        executeInTransaction(() -> {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.hashCommands().hSet(dataKey, field, bytes));
+            redisTemplate.opsForSet().add(getPrincipalKey(consent.getPrincipalName()), consent.getRegisteredClientId());
+            redisTemplate.opsForSet().add(getClientKey(consent.getRegisteredClientId()), consent.getPrincipalName());
+            if (consent.getExpiresAt() != null) {
+                redisTemplate.opsForZSet().add(expiryKey, key, consent.getExpiresAt().toEpochMilli());
+            } else {
+                redisTemplate.opsForZSet().remove(expiryKey, key);
+            }
+            RedisUtil.deleteCacheTableRow(cacheName, key);
+        });
     }
 
     /**
@@ -59,10 +114,9 @@ public class RedisOauth2AuthorizationConsentServiceImpl implements OAuth2Authori
      */
     @Override
     public void remove(OAuth2AuthorizationConsent authorizationConsent) {
-        // 构造Redis缓存中的行键
-        String key = getRowId(authorizationConsent.getRegisteredClientId(), authorizationConsent.getPrincipalName());
-        // 从Redis缓存表中删除对应记录
-        RedisUtil.deleteCacheTableRow(cacheName, key);
+        String registeredClientId = authorizationConsent.getRegisteredClientId();
+        String principalName = authorizationConsent.getPrincipalName();
+        executeInTransaction(() -> deleteConsent(registeredClientId, principalName));
     }
 
     /**
@@ -70,15 +124,213 @@ public class RedisOauth2AuthorizationConsentServiceImpl implements OAuth2Authori
      *
      * @param registeredClientId 客户端ID
      * @param principalName      主体名称（通常是用户名）
-     * @return 对应的OAuth2授权同意信息对象，如果未找到则返回null
+     * @return 对应的OAuth2授权同意信息对象，如果未找到或已过期则返回null
      */
     @Override
     public OAuth2AuthorizationConsent findById(String registeredClientId, String principalName) {
         // 构造Redis缓存中的行键
         String key = getRowId(registeredClientId, principalName);
-        // 从Redis缓存表中获取实体对象
-        Oauth2AuthorizationConsent consent = RedisUtil.getCacheTableRow(cacheName, key, Oauth2AuthorizationConsent.class);
+        // 从Redis缓存表中获取实体对象，不存在时回退读取旧版JSON格式的记录
+        byte[] field = key.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(dataKey, field));
+        Oauth2AuthorizationConsent consent = bytes != null
+                ? codec.decode(bytes) : RedisUtil.getCacheTableRow(cacheName, key, Oauth2AuthorizationConsent.class);
+        if (consent != null && isExpired(consent)) {
+            return null;
+        }
         // 将实体对象反向转换为OAuth2授权同意信息对象
         return converter.reverse(consent);
     }
+
+    /**
+     * 列出指定用户的所有授权同意信息
+     *
+     * @param principalName 主体名称（通常是用户名）
+     * @return 未过期的授权同意信息列表
+     */
+    public List<OAuth2AuthorizationConsent> findByPrincipalName(String principalName) {
+        Set<String> registeredClientIds = redisTemplate.opsForSet().members(getPrincipalKey(principalName));
+        if (registeredClientIds == null || registeredClientIds.isEmpty()) {
+            return List.of();
+        }
+        return getConsents(registeredClientIds.stream().map(id -> getRowId(id, principalName)).toList());
+    }
+
+    /**
+     * 列出指定客户端的所有授权同意信息
+     *
+     * @param registeredClientId 客户端ID
+     * @return 未过期的授权同意信息列表
+     */
+    public List<OAuth2AuthorizationConsent> findByRegisteredClientId(String registeredClientId) {
+        Set<String> principalNames = redisTemplate.opsForSet().members(getClientKey(registeredClientId));
+        if (principalNames == null || principalNames.isEmpty()) {
+            return List.of();
+        }
+        return getConsents(principalNames.stream().map(name -> getRowId(registeredClientId, name)).toList());
+    }
+
+    /**
+     * 撤销指定用户的所有授权同意信息
+     *
+     * @param principalName 主体名称（通常是用户名）
+     * @return 撤销的授权同意信息数量
+     */
+    public long revokeByPrincipalName(String principalName) {
+        return revoke(getPrincipalKey(principalName), registeredClientId -> new String[]{registeredClientId, principalName});
+    }
+
+    /**
+     * 撤销指定客户端的所有授权同意信息，用于删除客户端
+     *
+     * @param registeredClientId 客户端ID
+     * @return 撤销的授权同意信息数量
+     */
+    public long revokeByRegisteredClientId(String registeredClientId) {
+        return revoke(getClientKey(registeredClientId), principalName -> new String[]{registeredClientId, principalName});
+    }
+
+    /**
+     * 删除已过期的授权同意信息
+     *
+     * @param batchSize 单批最多删除的授权同意信息数量
+     * @return 实际删除的授权同意信息数量
+     */
+    public int removeExpired(int batchSize) {
+        long now = System.currentTimeMillis();
+        Set<String> rowIds = redisTemplate.opsForZSet().rangeByScore(expiryKey, 0, now, 0, batchSize);
+        if (rowIds == null || rowIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, Oauth2AuthorizationConsent> consents = getRows(new ArrayList<>(rowIds)).stream()
+                .collect(Collectors.toMap(consent -> getRowId(consent.getRegisteredClientId(), consent.getPrincipalName()),
+                        consent -> consent, (a, b) -> a));
+        // 脚本重新读取过期时间，期间被重新保存的授权同意信息不会被删除
+        List<String> removedIds = RedisWriteUtil.removeExpired(redisTemplate, expiryKey,
+                new String(dataKey, StandardCharsets.UTF_8), now, rowIds);
+        if (removedIds.isEmpty()) {
+            return 0;
+        }
+        executeInTransaction(() -> removedIds.forEach(rowId -> {
+            Oauth2AuthorizationConsent consent = consents.get(rowId);
+            if (consent != null) {
+                redisTemplate.opsForSet().remove(getPrincipalKey(consent.getPrincipalName()), consent.getRegisteredClientId());
+                redisTemplate.opsForSet().remove(getClientKey(consent.getRegisteredClientId()), consent.getPrincipalName());
+            }
+            RedisUtil.deleteCacheTableRow(cacheName, rowId);
+        }));
+        return removedIds.size();
+    }
+
+    /**
+     * 从索引中分批取出成员并以管道方式删除对应的授权同意信息
+     *
+     * @param indexKey 索引键
+     * @param resolver 根据索引成员得到客户端ID和主体名称
+     * @return 撤销的授权同意信息数量
+     */
+    private long revoke(String indexKey, Function<String, String[]> resolver) {
+        long total = 0;
+        while (true) {
+            Set<String> members = redisTemplate.opsForSet().distinctRandomMembers(indexKey, properties.getRevokeBatchSize());
+            if (members == null || members.isEmpty()) {
+                return total;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    members.forEach(member -> {
+                        String[] id = resolver.apply(member);
+                        deleteConsent(id[0], id[1]);
+                    });
+                    return null;
+                }
+            });
+            total += members.size();
+        }
+    }
+
+    /**
+     * 一次性读取多个授权同意信息并过滤已过期的记录
+     *
+     * @param rowIds 行键列表
+     * @return 未过期的授权同意信息列表
+     */
+    private List<OAuth2AuthorizationConsent> getConsents(List<String> rowIds) {
+        return getRows(rowIds).stream()
+                .filter(consent -> !isExpired(consent))
+                .map(converter::reverse)
+                .toList();
+    }
+
+    /**
+     * 一次性读取多个编码后的授权同意信息，不存在的记录会被跳过
+     *
+     * @param rowIds 行键列表
+     * @return 授权同意信息实体列表
+     */
+    private List<Oauth2AuthorizationConsent> getRows(List<String> rowIds) {
+        byte[][] fields = rowIds.stream().map(id -> id.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(dataKey, fields));
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream().filter(Objects::nonNull).map(codec::decode).toList();
+    }
+
+    /**
+     * 删除授权同意信息、索引和过期记录，以及旧版JSON格式的记录
+     *
+     * @param registeredClientId 客户端ID
+     * @param principalName      主体名称
+     */
+    private void deleteConsent(String registeredClientId, String principalName) {
+        String key = getRowId(registeredClientId, principalName);
+        byte[] field = key.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(dataKey, field));
+        redisTemplate.opsForSet().remove(getPrincipalKey(principalName), registeredClientId);
+        redisTemplate.opsForSet().remove(getClientKey(registeredClientId), principalName);
+        redisTemplate.opsForZSet().remove(expiryKey, key);
+        RedisUtil.deleteCacheTableRow(cacheName, key);
+    }
+
+    /**
+     * 判断授权同意信息是否已过期
+     *
+     * @param consent 授权同意信息实体
+     * @return 已过期返回true
+     */
+    private boolean isExpired(Oauth2AuthorizationConsent consent) {
+        return consent.getExpiresAt() != null && consent.getExpiresAt().isBefore(Instant.now());
+    }
+
+    /**
+     * 构造主体名称索引键
+     *
+     * @param principalName 主体名称
+     * @return 索引键，格式为"缓存名称:principal:主体名称"
+     */
+    private String getPrincipalKey(String principalName) {
+        return cacheName + ":principal:" + principalName;
+    }
+
+    /**
+     * 构造客户端索引键
+     *
+     * @param registeredClientId 客户端ID
+     * @return 索引键，格式为"缓存名称:client:客户端ID"
+     */
+    private String getClientKey(String registeredClientId) {
+        return cacheName + ":client:" + registeredClientId;
+    }
+
+    /**
+     * 在同一个Redis事务中执行写操作，集群模式下以管道方式按顺序执行，回调内不能执行读操作
+     *
+     * @param operations 写操作
+     * @see RedisWriteUtil#executeWrites(StringRedisTemplate, Runnable)
+     */
+    private void executeInTransaction(Runnable operations) {
+        RedisWriteUtil.executeWrites(redisTemplate, operations);
+    }
 }
@@ -1,36 +1,154 @@
 package com.gls.athena.security.oauth2.authorization.server.redis.service;
 
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationCodec;
 import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
 import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AccessTokenRevocationFeed;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationNearCache;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2TokenIndex;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.RedisWriteUtil;
 import com.gls.athena.starter.data.redis.support.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
-import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 基于Redis的OAuth2授权服务实现类
  * <p>
  * 该类实现了Spring Security OAuth2的{@link OAuth2AuthorizationService}接口，
  * 使用Redis作为存储后端来管理OAuth2授权信息。
+ * 每种令牌类型维护一个"令牌值 → 授权ID"的二级索引（见{@link Oauth2TokenIndex}），
+ * 同时维护一个"客户端ID + 主体名称 → 授权ID集合"的索引用于保存时替换旧授权信息，
+ * 以及"客户端ID → 授权ID集合"和"主体名称 → 授权ID集合"的索引用于批量撤销。
+ * 索引与授权信息在同一个Redis事务中写入和删除（集群模式下以管道方式按顺序写入，见{@link RedisWriteUtil}），查找时只需单点读取。
+ * </p>
+ * <p>
+ * 令牌索引在对应令牌过期时自动过期；授权信息存储在哈希表中无法单独设置过期时间，
+ * 因此其过期时间（各令牌过期时间的最大值）记录在有序集合中，由{@link #removeExpired(int)}定期清理。
+ * </p>
+ * <p>
+ * 授权信息由{@link Oauth2AuthorizationCodec}编码后存储在"缓存名称:data"哈希表中。
+ * 读取时若新哈希表中不存在，则回退读取旧版以JSON格式存储的哈希表，旧数据在下次保存时迁移，并由{@link #migrateLegacy(int)}分批迁移。
+ * </p>
+ * <p>
+ * 分片数大于0时，授权信息按授权ID分散到多个"缓存名称:{分片序号}:data"哈希表和对应的过期时间有序集合中，
+ * 哈希标签使同一分片的授权信息与其过期记录位于同一个集群槽位，存储容量随集群分片线性扩展。
+ * 未分片哈希表中的数据在读取时回退查找，
+ * 保存时迁移，并由{@link #migrateLegacy(int)}分批迁移。
+ * </p>
+ * <p>
+ * 启用{@link Oauth2AuthorizationNearCache}时，查找结果缓存在进程内，保存和删除后通知所有节点失效。
+ * </p>
+ * <p>
+ * 启用{@link ReactiveRedisOauth2AuthorizationStore}时，保存、删除和查找委托给异步存储并阻塞等待结果，
+ * 本类作为Spring Authorization Server使用的阻塞适配器；过期清理、迁移和批量撤销仍由本类执行。
+ * </p>
+ * <p>
+ * 启用批量写入时，并发的保存请求由{@link Oauth2AuthorizationSaveBatcher}合并后通过{@link #saveAll(List)}写入。
+ * </p>
+ * <p>
+ * 启用{@link Oauth2AccessTokenRevocationFeed}时，访问令牌被撤销、授权信息被删除、替换或批量撤销后，
+ * 尚未过期的访问令牌发布到撤销列表，供本地验证JWT的资源服务器拒绝。
  * </p>
  *
  * @author george
  */
+@Slf4j
 @RequiredArgsConstructor
-public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationService {
+public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationService, InitializingBean, DisposableBean {
 
     private final Oauth2AuthorizationConverter converter;
 
     private final RegisteredClientRepository registeredClientRepository;
 
-    private final String cacheName = "oauth2:authorization";
+    private final StringRedisTemplate redisTemplate;
+
+    private final AuthorizationStoreProperties properties;
+
+    private final Oauth2AuthorizationCodec codec;
+
+    private final Oauth2AuthorizationKeys keys;
+
+    /**
+     * 本地近端缓存，未启用时为null
+     */
+    private final Oauth2AuthorizationNearCache nearCache;
+
+    /**
+     * 异步授权存储，未启用时为null
+     */
+    private final ReactiveRedisOauth2AuthorizationStore asyncStore;
+
+    /**
+     * 已撤销访问令牌的发布列表，未启用时为null
+     */
+    private final Oauth2AccessTokenRevocationFeed revocationFeed;
+
+    private final String cacheName = Oauth2AuthorizationKeys.CACHE_NAME;
+
+    private final Counter invalidRowCounter = Metrics.counter("athena.oauth2.authorization.migration.invalid");
+
+    /**
+     * 批量保存器，未启用批量写入时为null
+     */
+    private Oauth2AuthorizationSaveBatcher saveBatcher;
+
+    /**
+     * 启用批量写入时启动批量保存器
+     * <p>
+     * 启用异步存储时保存已委托给异步存储，不再启用批量写入。
+     * </p>
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (properties.getWriteBehind().isEnabled() && asyncStore == null) {
+            saveBatcher = new Oauth2AuthorizationSaveBatcher(this::saveAll, properties.getWriteBehind());
+            saveBatcher.start();
+        }
+    }
+
+    /**
+     * 停止批量保存器，并写入尚未写入的授权信息
+     */
+    @Override
+    public void destroy() {
+        if (saveBatcher != null) {
+            saveBatcher.stop();
+        }
+    }
 
     /**
      * 保存OAuth2授权信息到Redis中
@@ -39,21 +157,154 @@ public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationS
      */
     @Override
     public void save(OAuth2Authorization authorization) {
-        // 获取Redis中已存在的授权信息列表
-        List<Oauth2Authorization> authorizations = RedisUtil.getCacheTableRows(cacheName, Oauth2Authorization.class);
+        if (revocationFeed != null && authorization.getAccessToken() != null && authorization.getAccessToken().isInvalidated()) {
+            // 访问令牌已被撤销端点标记为失效
+            revocationFeed.revoke(authorization);
+        }
+        if (asyncStore != null) {
+            // 异步存储以一次流水线写入，返回被写入和替换的授权ID以及被替换的授权信息
+            ReactiveRedisOauth2AuthorizationStore.SaveResult result = await(asyncStore.save(authorization));
+            if (result == null) {
+                return;
+            }
+            if (revocationFeed != null && !result.replaced().isEmpty()) {
+                revocationFeed.revokeAll(result.replaced());
+            }
+            if (nearCache != null) {
+                nearCache.invalidate(result.ids());
+            }
+            return;
+        }
+        if (saveBatcher != null) {
+            // 与并发的保存请求合并写入，所在批次写入完成后返回
+            saveBatcher.save(authorization);
+            return;
+        }
 
-        // 查找并删除相同用户和客户端的旧授权信息
-        authorizations.stream()
-                .filter(auth -> auth.getPrincipalName().equals(authorization.getPrincipalName())
-                        && auth.getRegisteredClientId().equals(authorization.getRegisteredClientId()))
-                .forEach(auth -> {
-                    // 如果已存在相同的授权信息，则先删除旧的授权信息
-                    RedisUtil.deleteCacheTableRow(cacheName, auth.getId());
-                });
+        // 通过用户和客户端索引查找相同用户和客户端的旧授权信息
+        String principalKey = keys.getPrincipalKey(authorization.getRegisteredClientId(), authorization.getPrincipalName());
+        Set<String> oldIds = redisTemplate.opsForSet().members(principalKey);
+        List<Oauth2Authorization> oldAuthorizations = new ArrayList<>();
+        if (oldIds != null) {
+            oldIds.stream()
+                    .map(this::getAuthorization)
+                    .filter(Objects::nonNull)
+                    .forEach(oldAuthorizations::add);
+        }
 
-        // 转换并保存新的授权信息
-        Oauth2Authorization existingAuthorization = converter.convertToDomain(authorization);
-        RedisUtil.setCacheTableRow(cacheName, existingAuthorization.getId(), existingAuthorization);
+        // 转换并编码新的授权信息，编码在事务之外进行，共享数据块先于授权信息写入
+        Oauth2Authorization newAuthorization = converter.convertToDomain(authorization);
+        byte[] bytes = codec.encode(newAuthorization);
+
+        executeWrites(() -> {
+            // 如果已存在相同的授权信息，则先删除旧的授权信息及其索引
+            oldAuthorizations.forEach(oldAuthorization -> deleteReplaced(oldAuthorization, newAuthorization));
+            if (oldIds != null && !oldIds.isEmpty()) {
+                // 清理索引中已不存在对应授权信息的授权ID
+                removeReplacedIds(principalKey, oldIds, newAuthorization);
+            }
+            // 保存新的授权信息及其索引
+            setAuthorization(newAuthorization, bytes);
+            saveIndexes(newAuthorization);
+        });
+
+        if (revocationFeed != null) {
+            // 被替换的旧授权信息中的访问令牌不再由本服务返回，但在过期前仍可被资源服务器在本地验证通过
+            revocationFeed.revokeReplaced(oldAuthorizations, newAuthorization);
+        }
+        if (nearCache != null) {
+            Set<String> invalidIds = new HashSet<>();
+            invalidIds.add(newAuthorization.getId());
+            if (oldIds != null) {
+                invalidIds.addAll(oldIds);
+            }
+            nearCache.invalidate(invalidIds);
+        }
+    }
+
+    /**
+     * 批量保存OAuth2授权信息
+     * <p>
+     * 以管道方式一次读取所有相关的用户和客户端索引及旧授权信息，随后在一次写入中删除旧授权信息、写入新授权信息及其索引。
+     * 同一批中相同用户和客户端的授权信息按顺序写入，后写入的授权信息替换先写入的授权信息，结果与逐个保存一致。
+     * 批量读取旧授权信息时不读取旧版以JSON格式存储的授权信息。
+     * </p>
+     * <p>
+     * 每个授权信息在写入之前单独转换和编码，失败的授权信息不写入并随返回值报告，不影响同批次的其他授权信息。
+     * </p>
+     *
+     * @param authorizations OAuth2授权对象列表，按保存顺序排列
+     * @return 转换或编码失败、未写入的授权信息及其异常，按对象标识查找
+     */
+    public Map<OAuth2Authorization, RuntimeException> saveAll(List<OAuth2Authorization> authorizations) {
+        Map<OAuth2Authorization, RuntimeException> failures = new IdentityHashMap<>();
+        // 按用户和客户端索引分组，组内保持保存顺序；编码在写入之外进行，共享数据块先于授权信息写入
+        Map<String, List<Oauth2Authorization>> groups = new LinkedHashMap<>();
+        Map<Oauth2Authorization, byte[]> encoded = new IdentityHashMap<>();
+        authorizations.forEach(authorization -> {
+            Oauth2Authorization newAuthorization;
+            try {
+                newAuthorization = converter.convertToDomain(authorization);
+                encoded.put(newAuthorization, codec.encode(newAuthorization));
+            } catch (RuntimeException e) {
+                failures.put(authorization, e);
+                return;
+            }
+            String principalKey = keys.getPrincipalKey(newAuthorization.getRegisteredClientId(), newAuthorization.getPrincipalName());
+            groups.computeIfAbsent(principalKey, key -> new ArrayList<>()).add(newAuthorization);
+        });
+        if (groups.isEmpty()) {
+            return failures;
+        }
+
+        // 以管道方式一次读取所有用户和客户端索引
+        List<String> principalKeys = new ArrayList<>(groups.keySet());
+        List<Object> members = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                principalKeys.forEach(principalKey -> redisTemplate.opsForSet().members(principalKey));
+                return null;
+            }
+        });
+        Map<String, Set<String>> oldIds = new HashMap<>();
+        Set<String> allOldIds = new HashSet<>();
+        for (int i = 0; i < principalKeys.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Set<String> ids = members.get(i) instanceof Set<?> set ? (Set<String>) set : Set.of();
+            oldIds.put(principalKeys.get(i), ids);
+            allOldIds.addAll(ids);
+        }
+        Map<String, Oauth2Authorization> oldAuthorizations = getAuthorizations(allOldIds).stream()
+                .collect(Collectors.toMap(Oauth2Authorization::getId, authorization -> authorization, (a, b) -> a));
+
+        Set<String> invalidIds = new HashSet<>(allOldIds);
+        List<Oauth2Authorization> replaced = new ArrayList<>();
+        executeWrites(() -> groups.forEach((principalKey, newAuthorizations) -> {
+            Set<String> ids = oldIds.get(principalKey);
+            List<Oauth2Authorization> previous = ids.stream().map(oldAuthorizations::get).filter(Objects::nonNull).toList();
+            for (Oauth2Authorization newAuthorization : newAuthorizations) {
+                // 每个授权信息替换前一个，第一个替换Redis中已存在的旧授权信息
+                previous.forEach(oldAuthorization -> deleteReplaced(oldAuthorization, newAuthorization));
+                if (!ids.isEmpty()) {
+                    removeReplacedIds(principalKey, ids, newAuthorization);
+                }
+                // 同一批中被后写入的授权信息替换的访问令牌也可能已经颁发给客户端
+                replaced.addAll(Oauth2AccessTokenRevocationFeed.getReplaced(previous, newAuthorization));
+                setAuthorization(newAuthorization, encoded.get(newAuthorization));
+                saveIndexes(newAuthorization);
+                invalidIds.add(newAuthorization.getId());
+                previous = List.of(newAuthorization);
+                ids = Set.of(newAuthorization.getId());
+            }
+        }));
+
+        if (revocationFeed != null && !replaced.isEmpty()) {
+            revocationFeed.revokeAll(replaced);
+        }
+        if (nearCache != null) {
+            nearCache.invalidate(invalidIds);
+        }
+        return failures;
     }
 
     /**
@@ -63,7 +314,21 @@ public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationS
      */
     @Override
     public void remove(OAuth2Authorization authorization) {
-        RedisUtil.deleteCacheTableRow(cacheName, authorization.getId());
+        if (revocationFeed != null) {
+            revocationFeed.revoke(authorization);
+        }
+        if (asyncStore != null) {
+            await(asyncStore.remove(authorization));
+        } else {
+            // 优先使用已存储的授权信息删除索引，避免遗漏已被替换的令牌索引
+            Oauth2Authorization storedAuthorization = getAuthorization(authorization.getId());
+            Oauth2Authorization oldAuthorization = storedAuthorization != null
+                    ? storedAuthorization : converter.convertToDomain(authorization);
+            executeWrites(() -> deleteAuthorization(oldAuthorization));
+        }
+        if (nearCache != null) {
+            nearCache.invalidate(List.of(authorization.getId()));
+        }
     }
 
     /**
@@ -74,14 +339,25 @@ public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationS
      */
     @Override
     public OAuth2Authorization findById(String id) {
-        // 从Redis缓存中获取授权信息
-        Oauth2Authorization authorization = RedisUtil.getCacheTableRow(cacheName, id, Oauth2Authorization.class);
-        if (authorization != null) {
-            // 获取注册客户端信息并转换为OAuth2Authorization对象
-            RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
-            return converter.reverseToAuthorization(registeredClient, authorization);
+        // 优先从本地近端缓存中获取
+        if (nearCache != null) {
+            OAuth2Authorization cached = nearCache.getById(id);
+            if (cached != null) {
+                return cached;
+            }
         }
-        return null;
+        OAuth2Authorization result;
+        if (asyncStore != null) {
+            result = await(asyncStore.findById(id));
+        } else {
+            // 从Redis缓存中获取授权信息，获取注册客户端信息并转换为OAuth2Authorization对象
+            Oauth2Authorization authorization = getAuthorization(id);
+            result = authorization != null ? reverseToAuthorization(authorization) : null;
+        }
+        if (result != null && nearCache != null) {
+            nearCache.put(result);
+        }
+        return result;
     }
 
     /**
@@ -93,56 +369,590 @@ public class RedisOauth2AuthorizationServiceImpl implements OAuth2AuthorizationS
      */
     @Override
     public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
-        // 从Redis缓存中获取所有授权信息
-        List<Oauth2Authorization> authorizations = RedisUtil.getCacheTableRows(cacheName, Oauth2Authorization.class);
-        return authorizations.stream()
-                // 过滤出包含指定令牌的授权信息
-                .filter(authorization -> hasToken(token, tokenType, authorization))
-                .findFirst()
-                // 将持久化授权信息转换为OAuth2Authorization对象
-                .map(authorization -> {
-                    RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
-                    return converter.reverseToAuthorization(registeredClient, authorization);
-                })
-                .orElse(null);
-    }
-
-    /**
-     * 检查指定的令牌是否存在于OAuth2授权对象中
-     *
-     * @param token         要检查的令牌值
-     * @param tokenType     令牌类型，如果为null则检查所有类型的令牌
-     * @param authorization OAuth2授权对象，包含各种令牌信息
-     * @return 如果找到匹配的令牌返回true，否则返回false
-     */
-    private boolean hasToken(String token, OAuth2TokenType tokenType, Oauth2Authorization authorization) {
-        // 当令牌类型为null时，检查所有可能的令牌类型
+        // 优先从本地近端缓存中获取
+        if (nearCache != null) {
+            OAuth2Authorization cached = nearCache.getByToken(token, tokenType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        OAuth2Authorization result = asyncStore != null
+                ? await(asyncStore.findByToken(token, tokenType)) : loadByToken(token, tokenType);
+        if (result != null && nearCache != null) {
+            nearCache.put(result, token, tokenType);
+        }
+        return result;
+    }
+
+    /**
+     * 根据令牌查找用于令牌内省的授权信息
+     * <p>
+     * 令牌内省只需要被内省令牌的值、有效期和声明，返回的授权信息由
+     * {@link Oauth2AuthorizationConverter#reverseToIntrospection}构建，不解码属性块中序列化的主体对象。
+     * 近端缓存中已有完整授权信息时直接返回；结果不完整，不放入近端缓存，不能用于保存。
+     * </p>
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null表示匹配任意类型的令牌
+     * @return 如果找到匹配的授权信息则返回OAuth2Authorization对象，否则返回null
+     */
+    public OAuth2Authorization findByTokenForIntrospection(String token, OAuth2TokenType tokenType) {
+        if (nearCache != null) {
+            OAuth2Authorization cached = nearCache.getByToken(token, tokenType);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Oauth2Authorization authorization = loadDomainByToken(token, tokenType);
+        if (authorization == null) {
+            return null;
+        }
+        RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
+        return converter.reverseToIntrospection(registeredClient, authorization, token);
+    }
+
+    /**
+     * 通过令牌索引从Redis中加载OAuth2授权信息
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null表示匹配任意类型的令牌
+     * @return 如果找到匹配的授权信息则返回OAuth2Authorization对象，否则返回null
+     */
+    private OAuth2Authorization loadByToken(String token, OAuth2TokenType tokenType) {
+        Oauth2Authorization authorization = loadDomainByToken(token, tokenType);
+        return authorization != null ? reverseToAuthorization(authorization) : null;
+    }
+
+    /**
+     * 通过令牌索引从Redis中加载持久化授权信息
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null表示匹配任意类型的令牌
+     * @return 令牌值匹配的持久化授权信息，不存在时返回null
+     */
+    private Oauth2Authorization loadDomainByToken(String token, OAuth2TokenType tokenType) {
+        // 确定需要查询的令牌索引，令牌类型为null时查询所有类型
+        List<Oauth2TokenIndex> indexes = new ArrayList<>();
         if (tokenType == null) {
-            return token.equals(authorization.getState())
-                    || token.equals(authorization.getAuthorizationCodeValue())
-                    || token.equals(authorization.getAccessTokenValue())
-                    || token.equals(authorization.getOidcIdTokenValue())
-                    || token.equals(authorization.getRefreshTokenValue())
-                    || token.equals(authorization.getDeviceCodeValue())
-                    || token.equals(authorization.getUserCodeValue());
-        }
-        // 根据具体的令牌类型检查对应的令牌值
-        else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
-            return token.equals(authorization.getState());
-        } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
-            return token.equals(authorization.getAuthorizationCodeValue());
-        } else if (OAuth2ParameterNames.ACCESS_TOKEN.equals(tokenType.getValue())) {
-            return token.equals(authorization.getAccessTokenValue());
-        } else if (OidcParameterNames.ID_TOKEN.equals(tokenType.getValue())) {
-            return token.equals(authorization.getOidcIdTokenValue());
-        } else if (OAuth2ParameterNames.REFRESH_TOKEN.equals(tokenType.getValue())) {
-            return token.equals(authorization.getRefreshTokenValue());
-        } else if (OAuth2ParameterNames.DEVICE_CODE.equals(tokenType.getValue())) {
-            return token.equals(authorization.getDeviceCodeValue());
-        } else if (OAuth2ParameterNames.USER_CODE.equals(tokenType.getValue())) {
-            return token.equals(authorization.getUserCodeValue());
-        }
-        return false;
+            indexes.addAll(List.of(Oauth2TokenIndex.values()));
+        } else {
+            Oauth2TokenIndex index = Oauth2TokenIndex.of(tokenType);
+            if (index == null) {
+                return null;
+            }
+            indexes.add(index);
+        }
+
+        // 一次性读取所有候选索引对应的授权ID
+        List<String> tokenKeys = indexes.stream().map(index -> keys.getTokenKey(index, token)).toList();
+        List<String> ids = redisTemplate.opsForValue().multiGet(tokenKeys);
+        if (ids == null) {
+            return null;
+        }
+
+        for (int i = 0; i < indexes.size(); i++) {
+            String id = ids.get(i);
+            if (id == null) {
+                continue;
+            }
+            Oauth2Authorization authorization = getAuthorization(id);
+            // 校验授权信息中的令牌值，防止索引与授权信息不一致
+            if (authorization != null && indexes.get(i).matches(token, authorization)) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 删除已过期的授权信息
+     * <p>
+     * 从过期时间有序集合中取出一批已过期的授权ID，由{@link RedisWriteUtil#removeExpired}在脚本中重新读取过期时间，
+     * 仍已过期的授权ID与其授权信息在同一个脚本中删除，随后删除其索引。
+     * 取出与删除之间被重新保存的授权信息过期时间已更新，不会被删除。
+     * 令牌索引和用户客户端索引带有各自的过期时间，客户端索引和主体名称索引没有过期时间，必须在此清理。
+     * </p>
+     *
+     * @param batchSize 每个过期时间有序集合单批最多删除的授权信息数量
+     * @return 实际删除的授权信息数量
+     */
+    public int removeExpired(int batchSize) {
+        int removed = 0;
+        for (String key : keys.getExpiryKeys()) {
+            removed += removeExpired(key, batchSize);
+        }
+        return removed;
+    }
+
+    /**
+     * 从指定的过期时间有序集合中删除一批已过期的授权信息
+     * <p>
+     * 分片的过期时间有序集合与授权信息哈希表位于同一个槽位，检查和删除在同一个脚本中完成；
+     * 集群模式下未分片的两个键位于不同槽位，脚本只删除过期记录，授权信息随后删除。
+     * </p>
+     *
+     * @param key       过期时间有序集合键
+     * @param batchSize 单批最多删除的授权信息数量
+     * @return 实际删除的授权信息数量
+     */
+    private int removeExpired(String key, int batchSize) {
+        long now = System.currentTimeMillis();
+        Set<String> ids = redisTemplate.opsForZSet().rangeByScore(key, 0, now, 0, batchSize);
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        // 读取授权信息以便同时清理客户端和主体名称索引，这两个索引没有过期时间
+        Map<String, Oauth2Authorization> authorizations = getAuthorizations(ids).stream()
+                .collect(Collectors.toMap(Oauth2Authorization::getId, authorization -> authorization, (a, b) -> a));
+
+        boolean rowsInScript = !key.equals(keys.getLegacyExpiryKey())
+                || !RedisWriteUtil.isCluster(redisTemplate.getRequiredConnectionFactory());
+        List<String> removedIds = RedisWriteUtil.removeExpired(redisTemplate, key,
+                rowsInScript ? keys.getDataKeyByExpiryKey(key) : null, now, ids);
+        if (removedIds.isEmpty()) {
+            return 0;
+        }
+
+        executeWrites(() -> removedIds.forEach(id -> {
+            if (!rowsInScript) {
+                byte[] field = id.getBytes(StandardCharsets.UTF_8);
+                redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(keys.getDataKey(id), field));
+            }
+            deleteLegacyRows(id);
+            Oauth2Authorization authorization = authorizations.get(id);
+            if (authorization != null) {
+                deleteIndexes(authorization);
+            }
+        }));
+        if (nearCache != null) {
+            nearCache.invalidate(removedIds);
+        }
+        return removedIds.size();
+    }
+
+    /**
+     * 将一批旧格式或未分片的授权信息迁移到当前的授权信息哈希表
+     * <p>
+     * 依次处理RedisUtil缓存表中以JSON格式存储的授权信息和启用分片时未分片哈希表中的授权信息，
+     * 迁移后补写过期记录、令牌索引和用户、客户端、主体名称索引。
+     * 每条授权信息由{@link RedisWriteUtil#moveRow}移动：源字段已被并发删除的不会重新写入，
+     * 目标哈希表中已由并发保存写入的授权信息不会被覆盖。
+     * 无法解码的授权信息移入隔离哈希表（见{@link Oauth2AuthorizationKeys#getQuarantineKey(byte[])}）并计数，不阻塞其他授权信息的迁移。
+     * 处理过的授权信息都已从源哈希表中删除，因此每次从头扫描即可取到尚未迁移的授权信息。
+     * </p>
+     *
+     * @param batchSize 单批最多处理的授权信息数量
+     * @return 本批处理的授权信息数量，包括被隔离和已不需要迁移的授权信息
+     */
+    public int migrateLegacy(int batchSize) {
+        int processed = migrateRows(keys.getLegacyTableKey(), batchSize, true);
+        if (keys.isSharded() && processed < batchSize) {
+            processed += migrateRows(keys.getLegacyDataKey(), batchSize - processed, false);
+        }
+        return processed;
+    }
+
+    /**
+     * 将一批源哈希表中的授权信息迁移到当前的授权信息哈希表
+     *
+     * @param sourceKey   源哈希表键
+     * @param batchSize   单批最多处理的授权信息数量
+     * @param legacyTable 源哈希表是否为RedisUtil缓存表，是时重新编码，否则源哈希表中的值已是编解码器的格式，原样移动
+     * @return 本批处理的授权信息数量
+     */
+    private int migrateRows(byte[] sourceKey, int batchSize, boolean legacyTable) {
+        List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            try (Cursor<Map.Entry<byte[], byte[]>> cursor = connection.hashCommands()
+                    .hScan(sourceKey, ScanOptions.scanOptions().count(batchSize).build())) {
+                while (cursor.hasNext() && entries.size() < batchSize) {
+                    entries.add(cursor.next());
+                }
+            }
+            return null;
+        });
+        List<Oauth2Authorization> moved = new ArrayList<>();
+        for (Map.Entry<byte[], byte[]> entry : entries) {
+            String id = new String(entry.getKey(), StandardCharsets.UTF_8);
+            Oauth2Authorization authorization;
+            byte[] bytes;
+            try {
+                authorization = decodeLegacyRow(id, entry.getValue(), legacyTable);
+                bytes = legacyTable ? codec.encode(authorization) : entry.getValue();
+            } catch (DataAccessException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (RedisWriteUtil.quarantineRow(redisTemplate, sourceKey, keys.getQuarantineKey(sourceKey), entry.getKey())) {
+                    invalidRowCounter.increment();
+                    log.warn("无法迁移的授权信息已隔离: {}", id, e);
+                }
+                continue;
+            }
+            if (RedisWriteUtil.moveRow(redisTemplate, sourceKey, keys.getDataKey(id), entry.getKey(), bytes)) {
+                moved.add(authorization);
+            }
+        }
+        if (!moved.isEmpty()) {
+            executeWrites(() -> moved.forEach(authorization -> {
+                // 迁移之后被重新保存的授权信息已写入更新的过期时间，不覆盖
+                Instant expiresAt = Oauth2TokenIndex.getAuthorizationExpiresAt(authorization, properties.getDefaultTimeToLive());
+                redisTemplate.opsForZSet().addIfAbsent(keys.getExpiryKey(authorization.getId()), authorization.getId(), expiresAt.toEpochMilli());
+                if (keys.isSharded()) {
+                    redisTemplate.opsForZSet().remove(keys.getLegacyExpiryKey(), authorization.getId());
+                }
+                // RedisUtil缓存表中的授权信息没有令牌索引和集合索引，迁移后补写，否则无法通过令牌查找
+                saveLookupIndexes(authorization, expiresAt);
+            }));
+        }
+        return entries.size();
+    }
+
+    /**
+     * 解码待迁移的授权信息
+     * <p>
+     * RedisUtil缓存表中的授权信息在编解码器无法解码时按RedisUtil的序列化方式重新读取。
+     * </p>
+     *
+     * @param id          授权ID
+     * @param bytes       源哈希表中的值
+     * @param legacyTable 源哈希表是否为RedisUtil缓存表
+     * @return 持久化授权信息
+     * @throws IllegalStateException 无法解码时抛出
+     */
+    private Oauth2Authorization decodeLegacyRow(String id, byte[] bytes, boolean legacyTable) {
+        Oauth2Authorization authorization;
+        try {
+            authorization = codec.decode(bytes);
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (!legacyTable) {
+                throw e;
+            }
+            authorization = RedisUtil.getCacheTableRow(cacheName, id, Oauth2Authorization.class);
+        }
+        if (authorization == null || !id.equals(authorization.getId())) {
+            throw new IllegalStateException("授权信息无法解码: " + id);
+        }
+        return authorization;
+    }
+
+    /**
+     * 批量撤销指定主体名称的授权信息
+     * <p>
+     * 从主体名称索引中取出一批授权ID，以管道方式删除授权信息、令牌索引和其他索引，不使用事务，
+     * 避免单个大事务阻塞Redis。索引中的授权ID在对应授权信息删除后才移除，中途失败时可以重新执行。
+     * </p>
+     *
+     * @param principalName 主体名称
+     * @param batchSize     单批最多撤销的授权信息数量
+     * @return 本批处理的授权ID数量，为0表示已全部撤销
+     */
+    public int revokeByPrincipal(String principalName, int batchSize) {
+        return revokeBatch(keys.getPrincipalNameKey(principalName), batchSize);
+    }
+
+    /**
+     * 批量撤销指定客户端的授权信息
+     *
+     * @param registeredClientId 客户端ID
+     * @param batchSize          单批最多撤销的授权信息数量
+     * @return 本批处理的授权ID数量，为0表示已全部撤销
+     * @see #revokeByPrincipal(String, int)
+     */
+    public int revokeByClient(String registeredClientId, int batchSize) {
+        return revokeBatch(keys.getClientKey(registeredClientId), batchSize);
+    }
+
+    /**
+     * 从索引中取出一批授权ID并以管道方式删除
+     *
+     * @param indexKey  授权ID集合索引键
+     * @param batchSize 单批最多撤销的授权信息数量
+     * @return 本批处理的授权ID数量
+     */
+    private int revokeBatch(String indexKey, int batchSize) {
+        Set<String> ids = redisTemplate.opsForSet().distinctRandomMembers(indexKey, batchSize);
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Oauth2Authorization> authorizations = getAuthorizations(ids);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                authorizations.forEach(RedisOauth2AuthorizationServiceImpl.this::deleteAuthorization);
+                // 索引中已不存在对应授权信息的授权ID一并移除
+                redisTemplate.opsForSet().remove(indexKey, ids.toArray());
+                return null;
+            }
+        });
+        if (nearCache != null) {
+            nearCache.invalidate(ids);
+        }
+        if (revocationFeed != null) {
+            revocationFeed.revokeAll(authorizations);
+        }
+        return ids.size();
+    }
+
+    /**
+     * 等待异步存储的操作完成
+     *
+     * @param operation 异步操作
+     * @param <T>       结果类型
+     * @return 操作结果，结果为空时返回null
+     */
+    private <T> T await(Mono<T> operation) {
+        return operation.block(Duration.ofMillis(properties.getAsyncTimeout()));
+    }
+
+    /**
+     * 将持久化授权信息转换为OAuth2Authorization对象
+     *
+     * @param authorization 持久化授权信息
+     * @return OAuth2Authorization对象
+     */
+    private OAuth2Authorization reverseToAuthorization(Oauth2Authorization authorization) {
+        RegisteredClient registeredClient = registeredClientRepository.findById(authorization.getRegisteredClientId());
+        return converter.reverseToAuthorization(registeredClient, authorization);
+    }
+
+    /**
+     * 根据授权ID读取持久化授权信息
+     * <p>
+     * 优先读取编码后的授权信息，不存在时回退读取旧版以JSON格式存储的授权信息。
+     * </p>
+     *
+     * @param id 授权ID
+     * @return 持久化授权信息，不存在时返回null
+     */
+    private Oauth2Authorization getAuthorization(String id) {
+        byte[] field = id.getBytes(StandardCharsets.UTF_8);
+        byte[] key = keys.getDataKey(id);
+        byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, field));
+        if (bytes == null && keys.isSharded()) {
+            // 回退读取尚未迁移到分片哈希表的授权信息
+            bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(keys.getLegacyDataKey(), field));
+        }
+        if (bytes != null) {
+            return codec.decode(bytes);
+        }
+        return RedisUtil.getCacheTableRow(cacheName, id, Oauth2Authorization.class);
+    }
+
+    /**
+     * 一次性读取多个编码后的持久化授权信息
+     * <p>
+     * 按分片分组读取，分片哈希表中不存在的授权信息回退到未分片哈希表读取，仍不存在的授权信息会被跳过。
+     * 不读取旧版以JSON格式存储的授权信息。
+     * </p>
+     *
+     * @param ids 授权ID集合
+     * @return 存在的持久化授权信息
+     */
+    private List<Oauth2Authorization> getAuthorizations(Collection<String> ids) {
+        Map<Integer, List<String>> shards = ids.stream().collect(Collectors.groupingBy(keys::getShard));
+        List<Oauth2Authorization> authorizations = new ArrayList<>();
+        List<String> missingIds = new ArrayList<>();
+        shards.values().forEach(shardIds -> {
+            List<byte[]> values = getRows(keys.getDataKey(shardIds.getFirst()), shardIds);
+            for (int i = 0; i < shardIds.size(); i++) {
+                byte[] bytes = values != null ? values.get(i) : null;
+                if (bytes != null) {
+                    authorizations.add(codec.decode(bytes));
+                } else {
+                    missingIds.add(shardIds.get(i));
+                }
+            }
+        });
+        if (keys.isSharded() && !missingIds.isEmpty()) {
+            List<byte[]> values = getRows(keys.getLegacyDataKey(), missingIds);
+            if (values != null) {
+                values.stream().filter(Objects::nonNull).map(codec::decode).forEach(authorizations::add);
+            }
+        }
+        return authorizations;
+    }
+
+    /**
+     * 从指定哈希表中一次性读取多个编码后的授权信息
+     *
+     * @param key 哈希表键
+     * @param ids 授权ID列表
+     * @return 与授权ID顺序一致的编码结果，不存在的位置为null
+     */
+    private List<byte[]> getRows(byte[] key, List<String> ids) {
+        byte[][] fields = ids.stream().map(id -> id.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(key, fields));
+    }
+
+    /**
+     * 写入编码后的持久化授权信息，同时删除旧版JSON格式的授权信息
+     *
+     * @param authorization 持久化授权信息
+     * @param bytes         在写操作之外编码的授权信息
+     */
+    private void setAuthorization(Oauth2Authorization authorization, byte[] bytes) {
+        byte[] field = authorization.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] key = keys.getDataKey(authorization.getId());
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.hashCommands().hSet(key, field, bytes));
+        if (keys.isSharded()) {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(keys.getLegacyDataKey(), field));
+            redisTemplate.opsForZSet().remove(keys.getLegacyExpiryKey(), authorization.getId());
+        }
+        RedisUtil.deleteCacheTableRow(cacheName, authorization.getId());
+    }
+
+    /**
+     * 删除编码后的授权信息及旧版JSON格式的授权信息，启用分片时同时删除未分片哈希表中的授权信息
+     *
+     * @param id 授权ID
+     */
+    private void deleteRow(String id) {
+        byte[] field = id.getBytes(StandardCharsets.UTF_8);
+        byte[] key = keys.getDataKey(id);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(key, field));
+        deleteLegacyRows(id);
+    }
+
+    /**
+     * 删除旧版JSON格式的授权信息，启用分片时同时删除未分片哈希表中的授权信息
+     *
+     * @param id 授权ID
+     */
+    private void deleteLegacyRows(String id) {
+        if (keys.isSharded()) {
+            byte[] field = id.getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(keys.getLegacyDataKey(), field));
+        }
+        RedisUtil.deleteCacheTableRow(cacheName, id);
+    }
+
+    /**
+     * 写入授权信息的过期记录、用户和客户端索引以及所有令牌的索引
+     *
+     * @param authorization 持久化授权信息
+     */
+    private void saveIndexes(Oauth2Authorization authorization) {
+        Instant expiresAt = Oauth2TokenIndex.getAuthorizationExpiresAt(authorization, properties.getDefaultTimeToLive());
+        redisTemplate.opsForZSet().add(keys.getExpiryKey(authorization.getId()), authorization.getId(), expiresAt.toEpochMilli());
+        saveLookupIndexes(authorization, expiresAt);
+    }
+
+    /**
+     * 写入授权信息的用户和客户端索引、客户端索引、主体名称索引以及所有令牌的索引
+     * <p>
+     * 令牌索引在令牌过期时过期，没有过期时间的令牌（如授权状态）随授权信息一同过期；
+     * 已过期的令牌不再写入索引。
+     * </p>
+     *
+     * @param authorization 持久化授权信息
+     * @param expiresAt     授权信息的过期时间
+     */
+    private void saveLookupIndexes(Oauth2Authorization authorization, Instant expiresAt) {
+        Instant now = Instant.now();
+        String principalKey = keys.getPrincipalKey(authorization.getRegisteredClientId(), authorization.getPrincipalName());
+        redisTemplate.opsForSet().add(principalKey, authorization.getId());
+        redisTemplate.expireAt(principalKey, expiresAt);
+        // 客户端和主体名称索引包含多个有效期不同的授权信息，不设置过期时间，由删除和过期清理维护
+        redisTemplate.opsForSet().add(keys.getClientKey(authorization.getRegisteredClientId()), authorization.getId());
+        redisTemplate.opsForSet().add(keys.getPrincipalNameKey(authorization.getPrincipalName()), authorization.getId());
+
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(authorization);
+            if (token == null) {
+                continue;
+            }
+            Instant tokenExpiresAt = index.getExpiresAt(authorization);
+            Duration timeToLive = Duration.between(now, tokenExpiresAt != null ? tokenExpiresAt : expiresAt);
+            if (!timeToLive.isNegative() && !timeToLive.isZero()) {
+                redisTemplate.opsForValue().set(keys.getTokenKey(index, token), authorization.getId(), timeToLive);
+            }
+        }
+    }
+
+    /**
+     * 删除授权信息及其用户和客户端索引、客户端索引、主体名称索引、所有令牌的索引
+     *
+     * @param authorization 持久化授权信息
+     */
+    private void deleteAuthorization(Oauth2Authorization authorization) {
+        deleteRow(authorization.getId());
+        redisTemplate.opsForZSet().remove(keys.getExpiryKey(authorization.getId()), authorization.getId());
+        if (keys.isSharded()) {
+            redisTemplate.opsForZSet().remove(keys.getLegacyExpiryKey(), authorization.getId());
+        }
+        deleteIndexes(authorization);
+    }
+
+    /**
+     * 删除授权信息的用户和客户端索引、客户端索引、主体名称索引、所有令牌的索引
+     *
+     * @param authorization 持久化授权信息
+     */
+    private void deleteIndexes(Oauth2Authorization authorization) {
+        redisTemplate.opsForSet().remove(keys.getPrincipalKey(authorization.getRegisteredClientId(), authorization.getPrincipalName()),
+                authorization.getId());
+        redisTemplate.opsForSet().remove(keys.getClientKey(authorization.getRegisteredClientId()), authorization.getId());
+        redisTemplate.opsForSet().remove(keys.getPrincipalNameKey(authorization.getPrincipalName()), authorization.getId());
+        // 各令牌索引键位于不同槽位，逐个删除，集群模式下每条命令只涉及一个槽位
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(authorization);
+            if (token != null) {
+                redisTemplate.delete(keys.getTokenKey(index, token));
+            }
+        }
+    }
+
+    /**
+     * 删除被新授权信息替换的旧授权信息及其索引
+     * <p>
+     * 旧授权信息与新授权信息的ID相同时（例如刷新令牌后重新保存），授权信息、过期记录和各集合索引由随后的写入覆盖，
+     * 只删除新授权信息不再使用的令牌索引。集群模式下写操作不是原子的，这样重新保存期间不会出现授权信息或仍有效的令牌索引暂时缺失。
+     * </p>
+     *
+     * @param oldAuthorization 旧授权信息
+     * @param newAuthorization 新授权信息
+     */
+    private void deleteReplaced(Oauth2Authorization oldAuthorization, Oauth2Authorization newAuthorization) {
+        if (!oldAuthorization.getId().equals(newAuthorization.getId())) {
+            deleteAuthorization(oldAuthorization);
+            return;
+        }
+        for (Oauth2TokenIndex index : Oauth2TokenIndex.values()) {
+            String token = index.getValue(oldAuthorization);
+            if (token != null && !token.equals(index.getValue(newAuthorization))) {
+                redisTemplate.delete(keys.getTokenKey(index, token));
+            }
+        }
+    }
+
+    /**
+     * 从用户和客户端索引中移除被替换的授权ID，新授权信息的ID保留在索引中
+     *
+     * @param principalKey     用户和客户端索引键
+     * @param oldIds           被替换的授权ID
+     * @param newAuthorization 新授权信息
+     */
+    private void removeReplacedIds(String principalKey, Collection<String> oldIds, Oauth2Authorization newAuthorization) {
+        Object[] ids = oldIds.stream().filter(id -> !id.equals(newAuthorization.getId())).toArray();
+        if (ids.length > 0) {
+            redisTemplate.opsForSet().remove(principalKey, ids);
+        }
+    }
+
+    /**
+     * 执行一组写操作
+     * <p>
+     * 单机和哨兵模式下在同一个Redis事务中执行；集群模式不支持跨槽位事务，改为以管道方式按顺序执行，
+     * 此时授权信息、过期记录和各索引的写入不再是原子的。回调内不能执行读操作。
+     * </p>
+     *
+     * @param operations 写操作
+     * @see RedisWriteUtil#executeWrites(StringRedisTemplate, Runnable)
+     */
+    private void executeWrites(Runnable operations) {
+        RedisWriteUtil.executeWrites(redisTemplate, operations);
     }
 
 }
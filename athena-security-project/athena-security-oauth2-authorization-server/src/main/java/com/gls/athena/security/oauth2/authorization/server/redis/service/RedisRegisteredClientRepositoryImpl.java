@@ -0,0 +1,241 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2RegisteredClientCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2RegisteredClientConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2RegisteredClient;
+import com.gls.athena.security.oauth2.authorization.server.support.RegisteredClientCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 基于Redis的注册客户端信息仓库实现类
+ * <p>
+ * 注册客户端由{@link Oauth2RegisteredClientCodec}编码后存储在"{缓存名称}:data"哈希表中，字段为注册客户端ID；
+ * "{缓存名称}:client-id"哈希表维护客户端标识到注册客户端ID的索引。两种查找方式都是常数时间，与客户端数量无关。
+ * 两个键以缓存名称作为哈希标签，在集群模式下位于同一个槽位，保存时仍可在同一个事务中写入。
+ * </p>
+ * <p>
+ * 保存时先WATCH两个键，再检查客户端标识是否唯一、读取旧的客户端标识，然后在事务中写入；
+ * 检查之后其他保存修改了任一键时事务不执行，重新检查后重试，两个并发保存不会以同一个客户端标识写入不同的注册客户端。
+ * </p>
+ * <p>
+ * 配置了{@link RegisteredClientCache}时查询结果缓存在进程内。保存客户端后失效本节点缓存，
+ * 并通过Redis发布订阅通知其他节点失效。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisRegisteredClientRepositoryImpl implements RegisteredClientRepository, MessageListener {
+
+    /**
+     * 保存时因并发修改而重试的最大次数
+     */
+    private static final int MAX_SAVE_ATTEMPTS = 10;
+
+    private final Oauth2RegisteredClientConverter converter;
+
+    private final Oauth2RegisteredClientCodec codec;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 注册客户端本地缓存，未启用时为null
+     */
+    private final RegisteredClientCache cache;
+
+    private final String cacheName = "oauth2:registered-client";
+
+    private final String channel = cacheName + ":invalidation";
+
+    private final byte[] dataKey = ("{" + cacheName + "}:data").getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] clientIdKey = ("{" + cacheName + "}:client-id").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 获取失效通知频道
+     *
+     * @return 频道名称
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 保存注册客户端
+     * <p>
+     * 客户端标识已被其他注册客户端使用时抛出异常；客户端标识变更时同时删除旧的索引。
+     * 检查与写入之间有其他保存时重试，重试次数用尽时抛出{@link ConcurrencyFailureException}。
+     * </p>
+     *
+     * @param registeredClient 注册客户端
+     */
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        Assert.notNull(registeredClient, "registeredClient cannot be null");
+        Oauth2RegisteredClient client = converter.convert(registeredClient);
+        byte[] bytes = codec.encode(client);
+        int attempts = 0;
+        while (!trySave(client, bytes)) {
+            if (++attempts >= MAX_SAVE_ATTEMPTS) {
+                throw new ConcurrencyFailureException("Registered client was modified concurrently: " + client.getId());
+            }
+        }
+
+        if (cache != null) {
+            cache.invalidate(client.getId());
+            try {
+                redisTemplate.convertAndSend(channel, client.getId());
+            } catch (Exception e) {
+                // 通知失败时其他节点的缓存在存活时间后过期
+                log.warn("发布注册客户端失效通知失败", e);
+            }
+        }
+    }
+
+    /**
+     * 在WATCH保护下检查并写入一次注册客户端
+     * <p>
+     * 会话回调将连接绑定到当前线程，WATCH、读取和事务使用同一个连接；事务被放弃时EXEC返回空结果。
+     * </p>
+     *
+     * @param client 注册客户端实体
+     * @param bytes  编码后的注册客户端
+     * @return 写入成功返回true，检查之后被其他保存修改时返回false
+     */
+    private boolean trySave(Oauth2RegisteredClient client, byte[] bytes) {
+        byte[] id = client.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] clientId = client.getClientId().getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public <K, V> List<Object> execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                redisTemplate.execute((RedisCallback<Void>) connection -> {
+                    connection.watch(dataKey, clientIdKey);
+                    return null;
+                });
+                try {
+                    String existingId = getId(client.getClientId());
+                    Assert.isTrue(existingId == null || existingId.equals(client.getId()),
+                            "Registered client must be unique. Found duplicate client identifier: " + client.getClientId());
+                } catch (IllegalArgumentException e) {
+                    redisOperations.unwatch();
+                    throw e;
+                }
+                Oauth2RegisteredClient oldClient = getClient(client.getId());
+
+                redisOperations.multi();
+                redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.hashCommands().hSet(dataKey, id, bytes));
+                redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.hashCommands().hSet(clientIdKey, clientId, id));
+                if (oldClient != null && !oldClient.getClientId().equals(client.getClientId())) {
+                    byte[] oldClientId = oldClient.getClientId().getBytes(StandardCharsets.UTF_8);
+                    redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(clientIdKey, oldClientId));
+                }
+                return redisOperations.exec();
+            }
+        });
+        return results != null && !results.isEmpty();
+    }
+
+    /**
+     * 根据注册客户端ID查找客户端信息
+     *
+     * @param id 注册客户端ID
+     * @return 客户端信息，不存在时返回null
+     */
+    @Override
+    public RegisteredClient findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        if (cache != null) {
+            return cache.getById(id, this::loadById);
+        }
+        return loadById(id);
+    }
+
+    /**
+     * 根据客户端标识查找客户端信息
+     *
+     * @param clientId 客户端标识
+     * @return 客户端信息，不存在时返回null
+     */
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        if (cache != null) {
+            return cache.getByClientId(clientId, this::loadByClientId);
+        }
+        return loadByClientId(clientId);
+    }
+
+    /**
+     * 接收其他节点发布的失效通知
+     *
+     * @param message 失效通知消息，消息体为注册客户端ID
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (cache != null) {
+            cache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 从Redis中加载客户端信息
+     *
+     * @param id 注册客户端ID
+     * @return 客户端信息，不存在时返回null
+     */
+    private RegisteredClient loadById(String id) {
+        return converter.reverse(getClient(id));
+    }
+
+    /**
+     * 通过客户端标识索引从Redis中加载客户端信息
+     *
+     * @param clientId 客户端标识
+     * @return 客户端信息，不存在时返回null
+     */
+    private RegisteredClient loadByClientId(String clientId) {
+        String id = getId(clientId);
+        return id != null ? loadById(id) : null;
+    }
+
+    /**
+     * 读取注册客户端实体
+     *
+     * @param id 注册客户端ID
+     * @return 注册客户端实体，不存在时返回null
+     */
+    private Oauth2RegisteredClient getClient(String id) {
+        byte[] field = id.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(dataKey, field));
+        return codec.decode(bytes);
+    }
+
+    /**
+     * 根据客户端标识读取注册客户端ID
+     *
+     * @param clientId 客户端标识
+     * @return 注册客户端ID，不存在时返回null
+     */
+    private String getId(String clientId) {
+        byte[] field = clientId.getBytes(StandardCharsets.UTF_8);
+        byte[] id = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(clientIdKey, field));
+        return id != null ? new String(id, StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationRevocationFeedProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 已撤销访问令牌的发布列表
+ * <p>
+ * 资源服务器在本地验证JWT访问令牌时无法感知授权服务器上的撤销，因此访问令牌在过期前被撤销、删除或随授权信息被替换时，
+ * 将其SHA-256摘要写入Redis有序集合，分数为令牌过期时间，并通过发布订阅通知资源服务器。
+ * 列表只包含尚未过期的已撤销令牌，写入时顺带删除已过期的条目，因此始终保持紧凑。
+ * 消息格式为"摘要 过期时间毫秒数"，每行一个令牌。
+ * </p>
+ *
+ * @author george
+ */
+public class Oauth2AccessTokenRevocationFeed {
+
+    /**
+     * 消息中令牌之间的分隔符
+     */
+    private static final String ENTRY_SEPARATOR = "\n";
+
+    /**
+     * 消息中摘要与过期时间之间的分隔符
+     */
+    private static final String FIELD_SEPARATOR = " ";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final AuthorizationRevocationFeedProperties properties;
+
+    private final Counter revokedCounter = Metrics.counter("athena.oauth2.access-token.revocations");
+
+    /**
+     * 构造撤销列表
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param properties    撤销列表配置
+     */
+    public Oauth2AccessTokenRevocationFeed(StringRedisTemplate redisTemplate, AuthorizationRevocationFeedProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 发布授权信息中的访问令牌
+     *
+     * @param authorization 授权信息
+     */
+    public void revoke(OAuth2Authorization authorization) {
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (accessToken != null) {
+            publish(List.of(new Entry(accessToken.getToken().getTokenValue(), accessToken.getToken().getExpiresAt())));
+        }
+    }
+
+    /**
+     * 批量发布持久化授权信息中的访问令牌
+     *
+     * @param authorizations 持久化授权信息
+     */
+    public void revokeAll(Collection<Oauth2Authorization> authorizations) {
+        List<Entry> entries = new ArrayList<>(authorizations.size());
+        authorizations.forEach(authorization -> {
+            if (authorization.getAccessTokenValue() != null) {
+                entries.add(new Entry(authorization.getAccessTokenValue(), authorization.getAccessTokenExpiresAt()));
+            }
+        });
+        publish(entries);
+    }
+
+    /**
+     * 批量发布被新授权信息替换的旧授权信息中的访问令牌
+     *
+     * @param oldAuthorizations 被替换的旧授权信息
+     * @param newAuthorization  新授权信息
+     */
+    public void revokeReplaced(Collection<Oauth2Authorization> oldAuthorizations, Oauth2Authorization newAuthorization) {
+        revokeAll(getReplaced(oldAuthorizations, newAuthorization));
+    }
+
+    /**
+     * 筛选访问令牌被新授权信息替换的旧授权信息
+     * <p>
+     * 同一授权信息刷新其他令牌后重新保存时访问令牌不变，该访问令牌仍然有效，不属于被替换的访问令牌。
+     * </p>
+     *
+     * @param oldAuthorizations 被替换的旧授权信息
+     * @param newAuthorization  新授权信息
+     * @return 访问令牌与新授权信息不同的旧授权信息
+     */
+    public static List<Oauth2Authorization> getReplaced(Collection<Oauth2Authorization> oldAuthorizations,
+                                                        Oauth2Authorization newAuthorization) {
+        return oldAuthorizations.stream()
+                .filter(oldAuthorization -> oldAuthorization.getAccessTokenValue() != null
+                        && !Objects.equals(oldAuthorization.getAccessTokenValue(), newAuthorization.getAccessTokenValue()))
+                .toList();
+    }
+
+    /**
+     * 计算访问令牌摘要
+     *
+     * @param tokenValue 访问令牌值
+     * @return Base64 URL安全编码的SHA-256摘要
+     */
+    public static String digest(String tokenValue) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256算法", e);
+        }
+    }
+
+    /**
+     * 以管道方式写入未过期的令牌、删除已过期的条目并发布通知
+     *
+     * @param entries 已撤销的令牌
+     */
+    private void publish(List<Entry> entries) {
+        long now = System.currentTimeMillis();
+        List<String> messages = new ArrayList<>(entries.size());
+        List<Entry> active = entries.stream()
+                .filter(entry -> entry.expiresAt() != null && entry.expiresAt().toEpochMilli() > now)
+                .toList();
+        if (active.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                for (Entry entry : active) {
+                    String digest = digest(entry.tokenValue());
+                    long expiresAt = entry.expiresAt().toEpochMilli();
+                    redisTemplate.opsForZSet().add(properties.getKey(), digest, expiresAt);
+                    messages.add(digest + FIELD_SEPARATOR + expiresAt);
+                }
+                redisTemplate.opsForZSet().removeRangeByScore(properties.getKey(), 0, now);
+                redisTemplate.convertAndSend(properties.getChannel(), String.join(ENTRY_SEPARATOR, messages));
+                return null;
+            }
+        });
+        revokedCounter.increment(active.size());
+    }
+
+    /**
+     * 已撤销的令牌
+     *
+     * @param tokenValue 令牌值
+     * @param expiresAt  过期时间，可以为null
+     */
+    private record Entry(String tokenValue, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * OAuth2授权信息Redis键布局
+ * <p>
+ * 集中定义授权信息哈希表、过期时间有序集合和各类索引的键，同步和异步两种授权存储共用同一布局，
+ * 读写的是同一份数据。分片数大于0时，授权信息哈希表和过期时间有序集合按授权ID分片，
+ * 键中的哈希标签使同一分片的授权信息与其过期记录位于同一个集群槽位。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class Oauth2AuthorizationKeys {
+
+    /**
+     * 授权信息缓存名称
+     */
+    public static final String CACHE_NAME = "oauth2:authorization";
+
+    /**
+     * 未分片时的过期时间有序集合键
+     */
+    private static final String LEGACY_EXPIRY_KEY = CACHE_NAME + ":expiry";
+
+    /**
+     * 未分片时的授权信息哈希表键
+     */
+    private static final byte[] LEGACY_DATA_KEY = (CACHE_NAME + ":data").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 旧版以JSON格式存储授权信息的RedisUtil缓存表键
+     */
+    private static final byte[] LEGACY_TABLE_KEY = CACHE_NAME.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 分片数，小于等于0表示不分片
+     */
+    private final int shardCount;
+
+    /**
+     * 判断是否启用分片
+     *
+     * @return 启用分片返回true
+     */
+    public boolean isSharded() {
+        return shardCount > 0;
+    }
+
+    /**
+     * 计算授权ID所在的分片
+     * <p>
+     * 分片序号为授权ID的UTF-8编码的CRC32校验值（IEEE 802.3多项式，与{@link CRC32}一致）对分片数取模。
+     * 该映射写入Redis的键中，不随JDK版本或进程变化，修改算法会导致已存储的授权信息无法找到。
+     * </p>
+     *
+     * @param id 授权ID
+     * @return 分片序号，未启用分片时返回-1
+     */
+    public int getShard(String id) {
+        if (shardCount <= 0) {
+            return -1;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(id.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % shardCount);
+    }
+
+    /**
+     * 获取授权ID所在的授权信息哈希表键
+     *
+     * @param id 授权ID
+     * @return 哈希表键，启用分片时格式为"缓存名称:{分片序号}:data"
+     */
+    public byte[] getDataKey(String id) {
+        int shard = getShard(id);
+        return shard >= 0 ? (CACHE_NAME + ":{" + shard + "}:data").getBytes(StandardCharsets.UTF_8) : LEGACY_DATA_KEY;
+    }
+
+    /**
+     * 获取未分片的授权信息哈希表键
+     *
+     * @return 哈希表键，格式为"缓存名称:data"
+     */
+    public byte[] getLegacyDataKey() {
+        return LEGACY_DATA_KEY;
+    }
+
+    /**
+     * 获取旧版以JSON格式存储授权信息的RedisUtil缓存表键
+     * <p>
+     * RedisUtil以缓存名称为键、授权ID为字段将授权信息存储在哈希表中。
+     * </p>
+     *
+     * @return 缓存表键
+     */
+    public byte[] getLegacyTableKey() {
+        return LEGACY_TABLE_KEY;
+    }
+
+    /**
+     * 获取迁移时无法解码的授权信息的隔离哈希表键
+     * <p>
+     * 格式为"{源哈希表键}:invalid"，哈希标签使隔离哈希表与源哈希表位于同一个集群槽位。
+     * </p>
+     *
+     * @param sourceKey 源哈希表键
+     * @return 隔离哈希表键
+     */
+    public byte[] getQuarantineKey(byte[] sourceKey) {
+        return ("{" + new String(sourceKey, StandardCharsets.UTF_8) + "}:invalid").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 获取授权ID所在的过期时间有序集合键
+     *
+     * @param id 授权ID
+     * @return 有序集合键，启用分片时格式为"缓存名称:{分片序号}:expiry"
+     */
+    public String getExpiryKey(String id) {
+        int shard = getShard(id);
+        return shard >= 0 ? CACHE_NAME + ":{" + shard + "}:expiry" : LEGACY_EXPIRY_KEY;
+    }
+
+    /**
+     * 获取过期时间有序集合对应的授权信息哈希表键
+     *
+     * @param expiryKey 过期时间有序集合键，来自{@link #getExpiryKeys()}
+     * @return 同一分片的授权信息哈希表键，未分片的有序集合对应未分片的哈希表
+     */
+    public String getDataKeyByExpiryKey(String expiryKey) {
+        return expiryKey.substring(0, expiryKey.length() - "expiry".length()) + "data";
+    }
+
+    /**
+     * 获取未分片的过期时间有序集合键
+     *
+     * @return 有序集合键，格式为"缓存名称:expiry"
+     */
+    public String getLegacyExpiryKey() {
+        return LEGACY_EXPIRY_KEY;
+    }
+
+    /**
+     * 获取所有需要清理的过期时间有序集合键
+     * <p>
+     * 启用分片时包含各分片的有序集合以及未分片的有序集合，后者用于清理尚未迁移的授权信息。
+     * </p>
+     *
+     * @return 有序集合键列表
+     */
+    public List<String> getExpiryKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            keys.add(CACHE_NAME + ":{" + shard + "}:expiry");
+        }
+        keys.add(LEGACY_EXPIRY_KEY);
+        return keys;
+    }
+
+    /**
+     * 构造用户和客户端索引键
+     *
+     * @param registeredClientId 客户端ID
+     * @param principalName      主体名称（通常是用户名）
+     * @return 索引键，格式为"缓存名称:principal:客户端ID:主体名称"
+     */
+    public String getPrincipalKey(String registeredClientId, String principalName) {
+        return CACHE_NAME + ":principal:" + registeredClientId + ":" + principalName;
+    }
+
+    /**
+     * 构造客户端索引键
+     *
+     * @param registeredClientId 客户端ID
+     * @return 索引键，格式为"缓存名称:client:客户端ID"
+     */
+    public String getClientKey(String registeredClientId) {
+        return CACHE_NAME + ":client:" + registeredClientId;
+    }
+
+    /**
+     * 构造主体名称索引键
+     *
+     * @param principalName 主体名称（通常是用户名）
+     * @return 索引键，格式为"缓存名称:principal-name:主体名称"
+     */
+    public String getPrincipalNameKey(String principalName) {
+        return CACHE_NAME + ":principal-name:" + principalName;
+    }
+
+    /**
+     * 构造令牌索引键
+     *
+     * @param index 令牌索引类型
+     * @param token 令牌值
+     * @return 索引键
+     * @see Oauth2TokenIndex#getKey(String, String)
+     */
+    public String getTokenKey(Oauth2TokenIndex index, String token) {
+        return index.getKey(CACHE_NAME, token);
+    }
+}
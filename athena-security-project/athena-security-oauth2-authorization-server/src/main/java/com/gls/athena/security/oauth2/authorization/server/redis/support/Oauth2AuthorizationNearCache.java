@@ -0,0 +1,201 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationNearCacheProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OAuth2授权信息本地近端缓存
+ * <p>
+ * 在进程内缓存已还原的{@link OAuth2Authorization}，按授权ID和令牌值两种方式查找，
+ * 命中时无需读取Redis、解码和查询注册客户端。
+ * 授权信息保存或删除后通过Redis发布订阅通知所有节点失效对应的授权ID；
+ * 缓存项在写入后固定时间过期，即使通知丢失，过期数据的存活时间也不会超过该时间。
+ * 命中、未命中和淘汰次数通过Micrometer记录。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class Oauth2AuthorizationNearCache implements MessageListener {
+
+    /**
+     * 失效通知消息中授权ID的分隔符
+     */
+    private static final String ID_SEPARATOR = "\n";
+
+    /**
+     * 授权ID到授权信息的缓存
+     */
+    private final Cache<String, OAuth2Authorization> authorizations;
+
+    /**
+     * 令牌类型和令牌值到授权ID的缓存
+     */
+    private final Cache<String, String> tokens;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String channel;
+
+    /**
+     * 构造本地近端缓存
+     *
+     * @param redisTemplate 字符串Redis模板，用于发布失效通知
+     * @param properties    本地近端缓存配置
+     */
+    public Oauth2AuthorizationNearCache(StringRedisTemplate redisTemplate, AuthorizationNearCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.channel = properties.getChannel();
+        Duration timeToLive = Duration.ofMillis(properties.getTimeToLive());
+        this.authorizations = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, authorizations, "oauth2.authorization.near-cache");
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, tokens, "oauth2.authorization.near-cache.tokens");
+    }
+
+    /**
+     * 获取失效通知频道
+     *
+     * @return 频道名称
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 根据授权ID获取缓存的授权信息
+     *
+     * @param id 授权ID
+     * @return 授权信息，未命中时返回null
+     */
+    public OAuth2Authorization getById(String id) {
+        return authorizations.getIfPresent(id);
+    }
+
+    /**
+     * 根据令牌值和令牌类型获取缓存的授权信息
+     * <p>
+     * 命中后会校验授权信息中仍包含该令牌，防止同一授权ID更新令牌后返回旧令牌的授权信息。
+     * </p>
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null
+     * @return 授权信息，未命中时返回null
+     */
+    public OAuth2Authorization getByToken(String token, OAuth2TokenType tokenType) {
+        String id = tokens.getIfPresent(getTokenKey(token, tokenType));
+        if (id == null) {
+            return null;
+        }
+        OAuth2Authorization authorization = authorizations.getIfPresent(id);
+        if (authorization == null || !containsToken(authorization, token, tokenType)) {
+            return null;
+        }
+        return authorization;
+    }
+
+    /**
+     * 缓存授权信息
+     *
+     * @param authorization 授权信息
+     */
+    public void put(OAuth2Authorization authorization) {
+        authorizations.put(authorization.getId(), authorization);
+    }
+
+    /**
+     * 缓存授权信息及令牌到授权ID的映射
+     *
+     * @param authorization 授权信息
+     * @param token         令牌值
+     * @param tokenType     令牌类型，可以为null
+     */
+    public void put(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+        authorizations.put(authorization.getId(), authorization);
+        tokens.put(getTokenKey(token, tokenType), authorization.getId());
+    }
+
+    /**
+     * 失效本节点缓存中的授权信息，并通知其他节点失效
+     *
+     * @param ids 授权ID集合
+     */
+    public void invalidate(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        authorizations.invalidateAll(ids);
+        try {
+            // 一批授权ID合并为一条消息，批量撤销时不会产生大量发布请求
+            redisTemplate.convertAndSend(channel, String.join(ID_SEPARATOR, ids));
+        } catch (Exception e) {
+            // 通知失败时其他节点的缓存在存活时间后过期
+            log.warn("发布授权信息失效通知失败", e);
+        }
+    }
+
+    /**
+     * 接收其他节点发布的失效通知
+     *
+     * @param message 失效通知消息，消息体为换行分隔的授权ID
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        authorizations.invalidateAll(List.of(body.split(ID_SEPARATOR)));
+    }
+
+    /**
+     * 构造令牌缓存键
+     *
+     * @param token     令牌值
+     * @param tokenType 令牌类型，可以为null
+     * @return 令牌缓存键
+     */
+    private String getTokenKey(String token, OAuth2TokenType tokenType) {
+        return (tokenType != null ? tokenType.getValue() : "") + ":" + token;
+    }
+
+    /**
+     * 判断授权信息中是否包含指定令牌
+     *
+     * @param authorization 授权信息
+     * @param token         令牌值
+     * @param tokenType     令牌类型，可以为null
+     * @return 包含返回true
+     */
+    private boolean containsToken(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+        boolean stateMatches = token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+        if (tokenType == null) {
+            return stateMatches || authorization.getToken(token) != null;
+        }
+        if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+            return stateMatches;
+        }
+        return authorization.getToken(token) != null;
+    }
+}
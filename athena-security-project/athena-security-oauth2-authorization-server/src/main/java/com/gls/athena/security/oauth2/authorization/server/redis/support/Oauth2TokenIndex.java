@@ -0,0 +1,157 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * OAuth2令牌二级索引类型枚举
+ * <p>
+ * 每种令牌类型对应一个"令牌值 → 授权ID"的二级索引，使按令牌查找授权信息成为单点读取。
+ * 枚举顺序即令牌类型为null时的匹配顺序，与{@link OAuth2TokenType}的判定保持一致。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public enum Oauth2TokenIndex {
+
+    /**
+     * 授权状态
+     */
+    STATE(OAuth2ParameterNames.STATE, Oauth2Authorization::getState, authorization -> null),
+
+    /**
+     * 授权码
+     */
+    CODE(OAuth2ParameterNames.CODE, Oauth2Authorization::getAuthorizationCodeValue, Oauth2Authorization::getAuthorizationCodeExpiresAt),
+
+    /**
+     * 访问令牌
+     */
+    ACCESS_TOKEN(OAuth2ParameterNames.ACCESS_TOKEN, Oauth2Authorization::getAccessTokenValue, Oauth2Authorization::getAccessTokenExpiresAt),
+
+    /**
+     * OpenID Connect ID令牌
+     */
+    ID_TOKEN(OidcParameterNames.ID_TOKEN, Oauth2Authorization::getOidcIdTokenValue, Oauth2Authorization::getOidcIdTokenExpiresAt),
+
+    /**
+     * 刷新令牌
+     */
+    REFRESH_TOKEN(OAuth2ParameterNames.REFRESH_TOKEN, Oauth2Authorization::getRefreshTokenValue, Oauth2Authorization::getRefreshTokenExpiresAt),
+
+    /**
+     * 设备码
+     */
+    DEVICE_CODE(OAuth2ParameterNames.DEVICE_CODE, Oauth2Authorization::getDeviceCodeValue, Oauth2Authorization::getDeviceCodeExpiresAt),
+
+    /**
+     * 用户码
+     */
+    USER_CODE(OAuth2ParameterNames.USER_CODE, Oauth2Authorization::getUserCodeValue, Oauth2Authorization::getUserCodeExpiresAt);
+
+    /**
+     * 令牌类型值，与{@link OAuth2TokenType#getValue()}对应
+     */
+    @Getter
+    private final String tokenType;
+
+    /**
+     * 从授权实体中读取令牌值的函数
+     */
+    private final Function<Oauth2Authorization, String> valueGetter;
+
+    /**
+     * 从授权实体中读取令牌过期时间的函数，授权状态没有过期时间
+     */
+    private final Function<Oauth2Authorization, Instant> expiresAtGetter;
+
+    /**
+     * 根据令牌类型获取对应的索引类型
+     *
+     * @param tokenType 令牌类型
+     * @return 对应的索引类型，不支持的令牌类型返回null
+     */
+    public static Oauth2TokenIndex of(OAuth2TokenType tokenType) {
+        for (Oauth2TokenIndex index : values()) {
+            if (index.tokenType.equals(tokenType.getValue())) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 计算授权信息的过期时间
+     * <p>
+     * 取各令牌过期时间的最大值，不包含任何带过期时间的令牌时使用默认存活时间。
+     * </p>
+     *
+     * @param authorization     授权实体
+     * @param defaultTimeToLive 默认存活时间，单位毫秒
+     * @return 过期时间
+     */
+    public static Instant getAuthorizationExpiresAt(Oauth2Authorization authorization, long defaultTimeToLive) {
+        Instant expiresAt = null;
+        for (Oauth2TokenIndex index : values()) {
+            Instant tokenExpiresAt = index.getExpiresAt(authorization);
+            if (tokenExpiresAt != null && (expiresAt == null || tokenExpiresAt.isAfter(expiresAt))) {
+                expiresAt = tokenExpiresAt;
+            }
+        }
+        return expiresAt != null ? expiresAt : Instant.now().plusMillis(defaultTimeToLive);
+    }
+
+    /**
+     * 获取授权实体中该类型的令牌值
+     *
+     * @param authorization 授权实体
+     * @return 令牌值，不存在时返回null
+     */
+    public String getValue(Oauth2Authorization authorization) {
+        return valueGetter.apply(authorization);
+    }
+
+    /**
+     * 获取授权实体中该类型令牌的过期时间
+     *
+     * @param authorization 授权实体
+     * @return 过期时间，令牌不存在或无过期时间时返回null
+     */
+    public Instant getExpiresAt(Oauth2Authorization authorization) {
+        return expiresAtGetter.apply(authorization);
+    }
+
+    /**
+     * 判断授权实体中该类型的令牌值是否与指定令牌一致
+     *
+     * @param token         令牌值
+     * @param authorization 授权实体
+     * @return 一致返回true，否则返回false
+     */
+    public boolean matches(String token, Oauth2Authorization authorization) {
+        return token.equals(getValue(authorization));
+    }
+
+    /**
+     * 构造索引键
+     * <p>
+     * 令牌值（尤其是JWT）可能很长，因此使用其SHA-256摘要作为键的一部分，保持键长度固定。
+     * </p>
+     *
+     * @param cacheName 授权信息缓存名称
+     * @param token     令牌值
+     * @return 索引键，格式为"缓存名称:token:令牌类型:令牌摘要"
+     */
+    public String getKey(String cacheName, String token) {
+        return cacheName + ":token:" + tokenType + ":" + DigestUtil.sha256Hex(token);
+    }
+}
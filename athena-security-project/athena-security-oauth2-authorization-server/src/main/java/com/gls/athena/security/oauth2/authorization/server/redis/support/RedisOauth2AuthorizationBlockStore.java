@@ -0,0 +1,204 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.Oauth2AuthorizationBlockStore;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 基于Redis的OAuth2授权信息共享数据块存储
+ * <p>
+ * 共享数据块以"缓存名称:block:内容摘要"为键存储，存活时间取引用它的授权信息中最晚的过期时间再加一个过期清理间隔：
+ * 每次保存授权信息时通过脚本将数据块的存活时间延长到不短于该授权信息，从不缩短，因此无需引用计数。
+ * 授权信息过期后要到下一次过期清理才被删除，多出的清理间隔保证在此之前仍能读取到数据块。
+ * </p>
+ * <p>
+ * 授权信息只引用已存在的数据块时不发送数据块内容。数据块在Redis中已过期或被淘汰时，脚本返回不存在，
+ * 此时若本节点缓存了该数据块则重新发送完整内容，否则抛出异常，引用它的授权信息不会被写入。
+ * 因此保存数据块必须在写入授权信息之前、在事务和管道之外执行，才能得到脚本的结果。
+ * </p>
+ * <p>
+ * 同步保存使用{@link StringRedisTemplate}；异步授权存储使用{@link #saveAsync(String, byte[], Oauth2Authorization)}，
+ * 数据块写入完成后再写入授权信息。数据块内容不可变，加载结果缓存在进程内。
+ * </p>
+ *
+ * @author george
+ */
+public class RedisOauth2AuthorizationBlockStore implements Oauth2AuthorizationBlockStore {
+
+    /**
+     * 保存脚本：数据块不存在时写入，存在时仅在剩余存活时间更短时延长；数据为空表示仅延长存活时间，
+     * 此时数据块不存在返回{@link #MISSING}
+     */
+    private static final byte[] SAVE_SCRIPT = """
+            local ttl = redis.call('PTTL', KEYS[1])
+            if ttl == -2 then
+                if ARGV[1] == '' then
+                    return -1
+                end
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            elseif ttl >= 0 and ttl < tonumber(ARGV[2]) then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 保存脚本返回值：数据块不存在且未发送数据块内容
+     */
+    private static final long MISSING = -1;
+
+    /**
+     * 最短存活时间，单位毫秒
+     */
+    private static final long MINIMUM_TIME_TO_LIVE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 响应式字符串Redis模板，未启用异步存储时为null
+     */
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    private final AuthorizationStoreProperties properties;
+
+    private final Cache<String, byte[]> blocks;
+
+    /**
+     * 构造共享数据块存储
+     *
+     * @param redisTemplate         字符串Redis模板
+     * @param reactiveRedisTemplate 响应式字符串Redis模板，可以为null
+     * @param properties            授权信息存储配置
+     */
+    public RedisOauth2AuthorizationBlockStore(StringRedisTemplate redisTemplate, ReactiveStringRedisTemplate reactiveRedisTemplate,
+                                              AuthorizationStoreProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.properties = properties;
+        this.blocks = Caffeine.newBuilder()
+                .maximumSize(properties.getDedup().getCacheMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, blocks, "oauth2.authorization.blocks");
+    }
+
+    /**
+     * 保存共享数据块
+     * <p>
+     * 仅延长存活时间时，若本节点缓存了该数据块则一并发送，数据块在Redis中已过期或被淘汰时随之恢复。
+     * </p>
+     *
+     * @param hash  内容摘要
+     * @param block 编码数据，为null表示仅延长存活时间
+     * @param owner 引用该数据块的授权信息实体
+     * @throws IllegalStateException 数据块在Redis中不存在且本节点没有缓存其内容
+     */
+    @Override
+    public void save(String hash, byte[] block, Oauth2Authorization owner) {
+        byte[] value = getValue(hash, block);
+        byte[] key = getKey(hash);
+        byte[] timeToLive = getTimeToLive(owner);
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+                .eval(SAVE_SCRIPT, ReturnType.INTEGER, 1, key, value, timeToLive));
+        // 在事务或管道中调用时结果为null，无法检查
+        if (result != null && result == MISSING) {
+            throw missing(hash);
+        }
+    }
+
+    /**
+     * 以响应式方式保存共享数据块
+     *
+     * @param hash  内容摘要
+     * @param block 编码数据，为null表示仅延长存活时间
+     * @param owner 引用该数据块的授权信息实体
+     * @return 保存完成信号，数据块在Redis中不存在且本节点没有缓存其内容时以{@link IllegalStateException}结束
+     */
+    public Mono<Void> saveAsync(String hash, byte[] block, Oauth2Authorization owner) {
+        ByteBuffer value = ByteBuffer.wrap(getValue(hash, block));
+        ByteBuffer key = ByteBuffer.wrap(getKey(hash));
+        ByteBuffer timeToLive = ByteBuffer.wrap(getTimeToLive(owner));
+        return reactiveRedisTemplate.execute(connection -> connection.scriptingCommands()
+                        .<Long>eval(ByteBuffer.wrap(SAVE_SCRIPT), ReturnType.INTEGER, 1, key, value, timeToLive))
+                .next()
+                .flatMap(result -> result == MISSING ? Mono.error(missing(hash)) : Mono.empty());
+    }
+
+    /**
+     * 加载共享数据块，优先从本节点缓存读取
+     *
+     * @param hash 内容摘要
+     * @return 编码数据，不存在时返回null
+     */
+    @Override
+    public byte[] load(String hash) {
+        return blocks.get(hash, key -> redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(getKey(key))));
+    }
+
+    /**
+     * 获取需要发送的数据块，并缓存新写入的数据块
+     *
+     * @param hash  内容摘要
+     * @param block 编码数据，可以为null
+     * @return 需要发送的数据，本节点也没有缓存时为空数组
+     */
+    private byte[] getValue(String hash, byte[] block) {
+        if (block != null) {
+            blocks.put(hash, block);
+            return block;
+        }
+        byte[] cached = blocks.getIfPresent(hash);
+        return cached != null ? cached : new byte[0];
+    }
+
+    /**
+     * 构造数据块不存在时的异常
+     *
+     * @param hash 内容摘要
+     * @return 异常
+     */
+    private IllegalStateException missing(String hash) {
+        return new IllegalStateException("共享数据块已过期且本节点没有缓存，无法保存引用它的授权信息: " + hash);
+    }
+
+    /**
+     * 构造共享数据块键
+     *
+     * @param hash 内容摘要
+     * @return 键，格式为"缓存名称:block:内容摘要"
+     */
+    private byte[] getKey(String hash) {
+        return (Oauth2AuthorizationKeys.CACHE_NAME + ":block:" + hash).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 计算数据块需要的存活时间
+     * <p>
+     * 不短于引用它的授权信息的过期时间加一个过期清理间隔，授权信息被清理前数据块不会过期。
+     * </p>
+     *
+     * @param owner 引用该数据块的授权信息实体
+     * @return 存活时间毫秒数的字符串形式
+     */
+    private byte[] getTimeToLive(Oauth2Authorization owner) {
+        Instant expiresAt = Oauth2TokenIndex.getAuthorizationExpiresAt(owner, properties.getDefaultTimeToLive())
+                .plusMillis(Math.max(properties.getSweepInterval(), 0));
+        long timeToLive = Math.max(Duration.between(Instant.now(), expiresAt).toMillis(), MINIMUM_TIME_TO_LIVE);
+        return String.valueOf(timeToLive).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis写操作工具类
+ * <p>
+ * 授权信息、注册客户端和授权同意的一组写操作涉及多个键，这些键在集群模式下通常位于不同槽位：
+ * </p>
+ * <ul>
+ *     <li>单机和哨兵模式下在同一个MULTI/EXEC事务中执行，全部成功或全部不执行，读操作不会看到中间状态</li>
+ *     <li>集群模式不支持跨槽位事务，改为以管道方式按顺序发出；同一个键上的命令保持发出顺序，
+ *     但不同节点上的命令之间没有原子性，中途失败时可能留下部分写入，读操作可能看到中间状态</li>
+ * </ul>
+ *
+ * @author george
+ */
+@UtilityClass
+public class RedisWriteUtil {
+
+    /**
+     * 过期清理脚本：逐个重新读取过期时间，仍已过期时删除过期记录，提供数据哈希表键时同时删除数据
+     * <p>
+     * KEYS[1]为过期时间有序集合，KEYS[2]为数据哈希表（可选）；ARGV[1]为当前时间毫秒数，其余为成员。
+     * 返回实际删除的成员。
+     * </p>
+     */
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> REMOVE_EXPIRED_SCRIPT = RedisScript.of("""
+            local removed = {}
+            for i = 2, #ARGV do
+                local score = redis.call('ZSCORE', KEYS[1], ARGV[i])
+                if score and tonumber(score) <= tonumber(ARGV[1]) then
+                    redis.call('ZREM', KEYS[1], ARGV[i])
+                    if KEYS[2] then
+                        redis.call('HDEL', KEYS[2], ARGV[i])
+                    end
+                    removed[#removed + 1] = ARGV[i]
+                end
+            end
+            return removed
+            """, List.class);
+
+    /**
+     * 迁移脚本：源哈希表中的字段仍存在时删除，目标哈希表中不存在该字段时写入
+     * <p>
+     * KEYS[1]为源哈希表，KEYS[2]为目标哈希表；ARGV[1]为字段，ARGV[2]为写入目标哈希表的值。
+     * 返回1表示已写入目标哈希表，0表示源字段已不存在或目标字段已存在。
+     * </p>
+     */
+    private final byte[] MOVE_ROW_SCRIPT = """
+            if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            return redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[2])
+            """.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 隔离脚本：将源哈希表中的字段原样移入隔离哈希表
+     * <p>
+     * KEYS[1]为源哈希表，KEYS[2]为与其位于同一槽位的隔离哈希表；ARGV[1]为字段。
+     * 返回1表示已隔离，0表示源字段已不存在。
+     * </p>
+     */
+    private final byte[] QUARANTINE_ROW_SCRIPT = """
+            local value = redis.call('HGET', KEYS[1], ARGV[1])
+            if not value then
+                return 0
+            end
+            redis.call('HSET', KEYS[2], ARGV[1], value)
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 连接工厂是否为集群模式，首次使用时检测
+     */
+    private final Map<RedisConnectionFactory, Boolean> CLUSTER = new ConcurrentHashMap<>();
+
+    /**
+     * 判断连接工厂是否连接到Redis集群
+     *
+     * @param connectionFactory Redis连接工厂
+     * @return 集群模式返回true
+     */
+    public boolean isCluster(RedisConnectionFactory connectionFactory) {
+        return CLUSTER.computeIfAbsent(connectionFactory, factory -> {
+            try (RedisConnection connection = factory.getConnection()) {
+                return connection instanceof RedisClusterConnection;
+            }
+        });
+    }
+
+    /**
+     * 执行一组写操作
+     * <p>
+     * 会话回调会将连接绑定到当前线程，回调内通过同一连接工厂执行的命令都会进入同一个事务或管道。
+     * 回调内不能执行读操作。
+     * </p>
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param operations    写操作
+     */
+    public void executeWrites(StringRedisTemplate redisTemplate, Runnable operations) {
+        if (isCluster(redisTemplate.getRequiredConnectionFactory())) {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    operations.run();
+                    return null;
+                }
+            });
+            return;
+        }
+        redisTemplate.execute(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                redisOperations.multi();
+                operations.run();
+                return redisOperations.exec();
+            }
+        });
+    }
+
+    /**
+     * 删除仍已过期的成员
+     * <p>
+     * 调用方先按过期时间范围查询出候选成员并读取删除索引所需的数据，再调用本方法。
+     * 脚本重新读取每个成员的过期时间，查询之后被重新保存、过期时间已更新的成员不会被删除；
+     * 数据哈希表与过期时间有序集合位于同一个槽位时，数据在同一个脚本中删除。
+     * </p>
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param expiryKey     过期时间有序集合键
+     * @param dataKey       数据哈希表键，与有序集合不在同一个槽位时为null，由调用方随后删除数据
+     * @param now           当前时间毫秒数
+     * @param members       候选成员
+     * @return 实际删除的成员
+     */
+    public List<String> removeExpired(StringRedisTemplate redisTemplate, String expiryKey, String dataKey,
+                                      long now, Collection<String> members) {
+        List<String> args = new ArrayList<>(members.size() + 1);
+        args.add(String.valueOf(now));
+        args.addAll(members);
+        List<String> scriptKeys = dataKey != null ? List.of(expiryKey, dataKey) : List.of(expiryKey);
+        @SuppressWarnings("unchecked")
+        List<String> removed = redisTemplate.execute(REMOVE_EXPIRED_SCRIPT, scriptKeys, args.toArray());
+        return removed != null ? removed : List.of();
+    }
+
+    /**
+     * 将哈希表中的一个字段移动到另一个哈希表
+     * <p>
+     * 只有源字段仍存在时才移动，目标字段已存在时不覆盖，源字段在两种情况下都被删除：
+     * 并发删除后不会重新写入，并发保存的新值不会被旧值覆盖。
+     * 单机和哨兵模式下检查和写入在同一个脚本中完成；集群模式下两个哈希表位于不同槽位，
+     * 先以HDEL取得源字段，再以HSETNX写入目标哈希表，两步之间读取该字段的请求两处都读不到，
+     * 进程在两步之间退出时该字段丢失。
+     * </p>
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param sourceKey     源哈希表键
+     * @param targetKey     目标哈希表键
+     * @param field         字段
+     * @param value         写入目标哈希表的值
+     * @return 已写入目标哈希表返回true
+     */
+    public boolean moveRow(StringRedisTemplate redisTemplate, byte[] sourceKey, byte[] targetKey, byte[] field, byte[] value) {
+        if (isCluster(redisTemplate.getRequiredConnectionFactory())) {
+            Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> connection.hashCommands().hDel(sourceKey, field));
+            return deleted != null && deleted > 0 && Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.hashCommands().hSetNX(targetKey, field, value)));
+        }
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+                .eval(MOVE_ROW_SCRIPT, ReturnType.INTEGER, 2, sourceKey, targetKey, field, value));
+        return result != null && result == 1;
+    }
+
+    /**
+     * 将哈希表中无法处理的字段原样移入隔离哈希表，供人工检查
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param sourceKey     源哈希表键
+     * @param quarantineKey 与源哈希表位于同一槽位的隔离哈希表键
+     * @param field         字段
+     * @return 已隔离返回true，源字段已不存在时返回false
+     */
+    public boolean quarantineRow(StringRedisTemplate redisTemplate, byte[] sourceKey, byte[] quarantineKey, byte[] field) {
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+                .eval(QUARANTINE_ROW_SCRIPT, ReturnType.INTEGER, 2, sourceKey, quarantineKey, field));
+        return result != null && result == 1;
+    }
+}
@@ -0,0 +1,55 @@
+package com.gls.athena.security.oauth2.authorization.server.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+
+/**
+ * 带本地缓存的注册客户端信息仓库
+ * <p>
+ * 装饰其他{@link RegisteredClientRepository}实现，查询结果缓存在{@link RegisteredClientCache}中，
+ * 稳定状态下授权服务还原授权信息时无需远程查询客户端信息。保存客户端后失效对应的缓存。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class CachingRegisteredClientRepository implements RegisteredClientRepository {
+
+    private final RegisteredClientRepository delegate;
+
+    private final RegisteredClientCache cache;
+
+    /**
+     * 保存注册客户端并失效对应的缓存
+     *
+     * @param registeredClient 注册客户端
+     */
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        delegate.save(registeredClient);
+        cache.invalidate(registeredClient.getId());
+    }
+
+    /**
+     * 根据注册客户端ID查找客户端信息，优先读取缓存
+     *
+     * @param id 注册客户端ID
+     * @return 客户端信息，不存在时返回null
+     */
+    @Override
+    public RegisteredClient findById(String id) {
+        return cache.getById(id, delegate::findById);
+    }
+
+    /**
+     * 根据客户端标识查找客户端信息，优先读取缓存
+     *
+     * @param clientId 客户端标识
+     * @return 客户端信息，不存在时返回null
+     */
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        return cache.getByClientId(clientId, delegate::findByClientId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.gls.athena.security.oauth2.authorization.server.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationClientCacheProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 注册客户端本地缓存
+ * <p>
+ * 按注册客户端ID缓存客户端信息，并维护客户端标识到注册客户端ID的映射。
+ * 缓存项在写入后固定时间过期；客户端信息变更后可调用{@link #invalidate(String)}，
+ * 或发布{@link RegisteredClientChangedEvent}立即失效。命中、未命中和淘汰次数通过Micrometer记录。
+ * </p>
+ *
+ * @author george
+ */
+public class RegisteredClientCache {
+
+    /**
+     * 注册客户端ID到客户端信息的缓存
+     */
+    private final Cache<String, RegisteredClient> clients;
+
+    /**
+     * 客户端标识到注册客户端ID的缓存
+     */
+    private final Cache<String, String> clientIds;
+
+    /**
+     * 构造注册客户端本地缓存
+     *
+     * @param properties 注册客户端缓存配置
+     */
+    public RegisteredClientCache(AuthorizationClientCacheProperties properties) {
+        Duration timeToLive = Duration.ofMillis(properties.getTimeToLive());
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.clientIds = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clients, "oauth2.registered-client.cache");
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, clientIds, "oauth2.registered-client.cache.client-ids");
+    }
+
+    /**
+     * 根据注册客户端ID获取客户端信息，未命中时加载并缓存
+     *
+     * @param id     注册客户端ID
+     * @param loader 客户端信息加载方法，返回null时不缓存
+     * @return 客户端信息，不存在时返回null
+     */
+    public RegisteredClient getById(String id, Function<String, RegisteredClient> loader) {
+        return clients.get(id, loader);
+    }
+
+    /**
+     * 根据客户端标识获取客户端信息，未命中时加载并缓存
+     *
+     * @param clientId 客户端标识
+     * @param loader   客户端信息加载方法，返回null时不缓存
+     * @return 客户端信息，不存在时返回null
+     */
+    public RegisteredClient getByClientId(String clientId, Function<String, RegisteredClient> loader) {
+        String id = clientIds.getIfPresent(clientId);
+        if (id != null) {
+            RegisteredClient registeredClient = clients.getIfPresent(id);
+            if (registeredClient != null && clientId.equals(registeredClient.getClientId())) {
+                return registeredClient;
+            }
+        }
+        RegisteredClient registeredClient = loader.apply(clientId);
+        if (registeredClient != null) {
+            put(registeredClient);
+        }
+        return registeredClient;
+    }
+
+    /**
+     * 缓存客户端信息
+     *
+     * @param registeredClient 客户端信息
+     */
+    public void put(RegisteredClient registeredClient) {
+        clients.put(registeredClient.getId(), registeredClient);
+        clientIds.put(registeredClient.getClientId(), registeredClient.getId());
+    }
+
+    /**
+     * 失效指定注册客户端的缓存
+     * <p>
+     * 客户端标识映射在读取时会校验，无需同时失效。
+     * </p>
+     *
+     * @param id 注册客户端ID
+     */
+    public void invalidate(String id) {
+        clients.invalidate(id);
+    }
+
+    /**
+     * 失效全部注册客户端的缓存
+     */
+    public void invalidateAll() {
+        clients.invalidateAll();
+        clientIds.invalidateAll();
+    }
+
+    /**
+     * 处理注册客户端变更事件
+     *
+     * @param event 注册客户端变更事件
+     */
+    @EventListener(RegisteredClientChangedEvent.class)
+    public void onRegisteredClientChanged(RegisteredClientChangedEvent event) {
+        if (event.getRegisteredClientId() == null) {
+            invalidateAll();
+        } else {
+            invalidate(event.getRegisteredClientId());
+        }
+    }
+}
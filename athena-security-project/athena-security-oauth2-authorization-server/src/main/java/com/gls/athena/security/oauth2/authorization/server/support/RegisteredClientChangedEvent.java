@@ -0,0 +1,33 @@
+package com.gls.athena.security.oauth2.authorization.server.support;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 注册客户端变更事件
+ * <p>
+ * 修改或删除注册客户端后发布该事件，{@link RegisteredClientCache}收到后失效对应的缓存。
+ * 客户端ID为null表示失效全部缓存。
+ * </p>
+ *
+ * @author george
+ */
+@Getter
+public class RegisteredClientChangedEvent extends ApplicationEvent {
+
+    /**
+     * 发生变更的注册客户端ID，为null表示全部客户端
+     */
+    private final String registeredClientId;
+
+    /**
+     * 构造注册客户端变更事件
+     *
+     * @param source             事件源
+     * @param registeredClientId 发生变更的注册客户端ID，为null表示全部客户端
+     */
+    public RegisteredClientChangedEvent(Object source, String registeredClientId) {
+        super(source);
+        this.registeredClientId = registeredClientId;
+    }
+}
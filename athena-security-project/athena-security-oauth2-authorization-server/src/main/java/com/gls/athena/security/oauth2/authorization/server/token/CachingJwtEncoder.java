@@ -0,0 +1,355 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存签名密钥和签名器的JWT编码器
+ * <p>
+ * {@link NimbusJwtEncoder}每次编码都从JWK源选择密钥并创建签名器，使用RSA密钥时创建签名器需要重新解析私钥，
+ * 成为令牌签发的主要开销。本类按签名算法、密钥ID和证书指纹缓存选中的密钥及其签名器，
+ * 签名器均为线程安全实现，被所有签发线程共享。
+ * </p>
+ * <p>
+ * 缓存条目在存活时间后重新选择密钥，JWK源中的变更最迟在该时间后生效。密钥轮换时调用{@link #refresh()}
+ * 为当前使用中的所有算法和密钥ID预先构建新的签名器，构建完成后整体替换缓存，签发过程无需暂停。
+ * 只选择包含私钥的密钥，同一算法存在多个候选密钥时使用JWK源返回的第一个，
+ * 因此{@link JwkKeyRing}发布的待启用和已停用公钥不会被用于签名。
+ * </p>
+ * <p>
+ * 除Spring Security支持的算法外，还支持EdDSA(Ed25519)签名，由{@link JdkEd25519Signer}实现。
+ * 头部和声明的转换规则与{@link NimbusJwtEncoder}一致。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class CachingJwtEncoder implements JwtEncoder {
+
+    private static final String ENCODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to encode the Jwt: %s";
+
+    private static final JwsHeader DEFAULT_JWS_HEADER = JwsHeader.with(SignatureAlgorithm.RS256).build();
+
+    private static final DefaultJWSSignerFactory JWS_SIGNER_FACTORY = new DefaultJWSSignerFactory();
+
+    private final JWKSource<SecurityContext> jwkSource;
+
+    /**
+     * 缓存存活时间，单位毫秒，小于等于0表示不过期
+     */
+    private final long timeToLive;
+
+    /**
+     * 签名密钥缓存，轮换时整体替换
+     */
+    private volatile Map<SignerKey, SigningKey> signingKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 构造JWT编码器
+     *
+     * @param jwkSource  JWK源
+     * @param timeToLive 缓存存活时间，单位毫秒，小于等于0表示不过期
+     */
+    public CachingJwtEncoder(JWKSource<SecurityContext> jwkSource, long timeToLive) {
+        Assert.notNull(jwkSource, "jwkSource cannot be null");
+        this.jwkSource = jwkSource;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 编码并签名JWT
+     *
+     * @param parameters 编码参数
+     * @return 已签名的JWT
+     * @throws JwtEncodingException 选择密钥或签名失败
+     */
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        Assert.notNull(parameters, "parameters cannot be null");
+        JwsHeader headers = parameters.getJwsHeader() != null ? parameters.getJwsHeader() : DEFAULT_JWS_HEADER;
+        JwtClaimsSet claims = parameters.getClaims();
+
+        SigningKey signingKey = getSigningKey(headers);
+        headers = addKeyIdentifierHeadersIfNecessary(headers, signingKey.jwk());
+
+        String jws = serialize(headers, claims, signingKey.signer());
+        return new Jwt(jws, claims.getIssuedAt(), claims.getExpiresAt(), headers.getHeaders(), claims.getClaims());
+    }
+
+    /**
+     * 刷新签名密钥
+     * <p>
+     * 为缓存中的每个算法和密钥ID重新选择密钥并构建签名器，全部完成后替换缓存；
+     * 已不存在的密钥不再缓存，下次使用时重新选择。刷新期间签发继续使用旧的签名器。
+     * </p>
+     */
+    public void refresh() {
+        Map<SignerKey, SigningKey> refreshed = new ConcurrentHashMap<>();
+        for (SignerKey signerKey : signingKeys.keySet()) {
+            try {
+                refreshed.put(signerKey, selectSigningKey(signerKey));
+            } catch (JwtEncodingException e) {
+                log.warn("刷新签名密钥失败: {}", signerKey, e);
+            }
+        }
+        signingKeys = refreshed;
+    }
+
+    /**
+     * 获取签名密钥，缓存未命中或已过期时重新选择
+     *
+     * @param headers JWS头
+     * @return 签名密钥
+     */
+    private SigningKey getSigningKey(JwsHeader headers) {
+        SignerKey signerKey = new SignerKey(headers.getAlgorithm().getName(), headers.getKeyId(),
+                headers.getX509SHA256Thumbprint());
+        Map<SignerKey, SigningKey> current = signingKeys;
+        SigningKey signingKey = current.get(signerKey);
+        if (signingKey == null || signingKey.isExpired()) {
+            signingKey = selectSigningKey(signerKey);
+            current.put(signerKey, signingKey);
+        }
+        return signingKey;
+    }
+
+    /**
+     * 从JWK源选择签名密钥并创建签名器
+     *
+     * @param signerKey 缓存键
+     * @return 签名密钥
+     * @throws JwtEncodingException 没有匹配的密钥或无法创建签名器
+     */
+    private SigningKey selectSigningKey(SignerKey signerKey) {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(signerKey.algorithm());
+        JWKMatcher matcher = new JWKMatcher.Builder()
+                .keyType(KeyType.forAlgorithm(algorithm))
+                .keyID(signerKey.keyId())
+                .keyUses(KeyUse.SIGNATURE, null)
+                .algorithms(algorithm, null)
+                .x509CertSHA256Thumbprint(Base64URL.from(signerKey.thumbprint()))
+                .privateOnly(true)
+                .build();
+        List<JWK> jwks;
+        try {
+            jwks = jwkSource.get(new JWKSelector(matcher), null);
+        } catch (Exception e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to select a JWK signing key -> " + e.getMessage()), e);
+        }
+        if (CollectionUtils.isEmpty(jwks)) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to select a JWK signing key"));
+        }
+        JWK jwk = jwks.getFirst();
+        try {
+            JWSSigner signer = jwk instanceof OctetKeyPair octetKeyPair
+                    ? new JdkEd25519Signer(octetKeyPair)
+                    : JWS_SIGNER_FACTORY.createJWSSigner(jwk, algorithm);
+            long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+            return new SigningKey(jwk, signer, expiresAt);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to create a JWS signer -> " + e.getMessage()), e);
+        }
+    }
+
+    /**
+     * 将选中密钥的密钥ID和证书指纹补充到JWS头中
+     *
+     * @param headers JWS头
+     * @param jwk     选中的密钥
+     * @return JWS头
+     */
+    private JwsHeader addKeyIdentifierHeadersIfNecessary(JwsHeader headers, JWK jwk) {
+        if (headers.getKeyId() != null && headers.getX509SHA256Thumbprint() != null) {
+            return headers;
+        }
+        if (jwk.getKeyID() == null && jwk.getX509CertSHA256Thumbprint() == null) {
+            return headers;
+        }
+        JwsHeader.Builder builder = JwsHeader.from(headers);
+        if (headers.getKeyId() == null && jwk.getKeyID() != null) {
+            builder.keyId(jwk.getKeyID());
+        }
+        if (headers.getX509SHA256Thumbprint() == null && jwk.getX509CertSHA256Thumbprint() != null) {
+            builder.x509SHA256Thumbprint(jwk.getX509CertSHA256Thumbprint().toString());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 序列化并签名JWT
+     *
+     * @param headers JWS头
+     * @param claims  JWT声明
+     * @param signer  签名器
+     * @return 紧凑序列化的JWS
+     */
+    private String serialize(JwsHeader headers, JwtClaimsSet claims, JWSSigner signer) {
+        SignedJWT signedJwt = new SignedJWT(convert(headers), convert(claims));
+        try {
+            signedJwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to sign the JWT -> " + e.getMessage()), e);
+        }
+        return signedJwt.serialize();
+    }
+
+    /**
+     * 转换JWS头
+     *
+     * @param headers Spring Security的JWS头
+     * @return Nimbus的JWS头
+     */
+    @SuppressWarnings("deprecation")
+    private static JWSHeader convert(JwsHeader headers) {
+        JWSHeader.Builder builder = new JWSHeader.Builder(JWSAlgorithm.parse(headers.getAlgorithm().getName()));
+
+        if (headers.getJwkSetUrl() != null) {
+            builder.jwkURL(toUri(headers.getJwkSetUrl()));
+        }
+        Map<String, Object> jwk = headers.getJwk();
+        if (!CollectionUtils.isEmpty(jwk)) {
+            try {
+                builder.jwk(JWK.parse(jwk));
+            } catch (Exception e) {
+                throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                        "Unable to convert '" + JoseHeaderNames.JWK + "' JOSE header"), e);
+            }
+        }
+        if (headers.getKeyId() != null) {
+            builder.keyID(headers.getKeyId());
+        }
+        if (headers.getX509Url() != null) {
+            builder.x509CertURL(toUri(headers.getX509Url()));
+        }
+        List<String> x509CertificateChain = headers.getX509CertificateChain();
+        if (!CollectionUtils.isEmpty(x509CertificateChain)) {
+            builder.x509CertChain(x509CertificateChain.stream().map(Base64::new).toList());
+        }
+        if (headers.getX509SHA1Thumbprint() != null) {
+            builder.x509CertThumbprint(new Base64URL(headers.getX509SHA1Thumbprint()));
+        }
+        if (headers.getX509SHA256Thumbprint() != null) {
+            builder.x509CertSHA256Thumbprint(new Base64URL(headers.getX509SHA256Thumbprint()));
+        }
+        if (headers.getType() != null) {
+            builder.type(new JOSEObjectType(headers.getType()));
+        }
+        if (headers.getContentType() != null) {
+            builder.contentType(headers.getContentType());
+        }
+        Set<String> critical = headers.getCritical();
+        if (!CollectionUtils.isEmpty(critical)) {
+            builder.criticalParams(critical);
+        }
+        headers.getHeaders().forEach((name, value) -> {
+            if (!JWSHeader.getRegisteredParameterNames().contains(name)) {
+                builder.customParam(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * 转换JWT声明
+     *
+     * @param claims Spring Security的JWT声明
+     * @return Nimbus的JWT声明
+     */
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+
+        Object issuer = claims.getClaim(JwtClaimNames.ISS);
+        if (issuer != null) {
+            builder.issuer(issuer.toString());
+        }
+        if (claims.getSubject() != null) {
+            builder.subject(claims.getSubject());
+        }
+        if (!CollectionUtils.isEmpty(claims.getAudience())) {
+            builder.audience(claims.getAudience());
+        }
+        if (claims.getExpiresAt() != null) {
+            builder.expirationTime(Date.from(claims.getExpiresAt()));
+        }
+        if (claims.getNotBefore() != null) {
+            builder.notBeforeTime(Date.from(claims.getNotBefore()));
+        }
+        if (claims.getIssuedAt() != null) {
+            builder.issueTime(Date.from(claims.getIssuedAt()));
+        }
+        if (claims.getId() != null) {
+            builder.jwtID(claims.getId());
+        }
+        claims.getClaims().forEach((name, value) -> {
+            if (!JWTClaimsSet.getRegisteredNames().contains(name)) {
+                builder.claim(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * 转换URL
+     *
+     * @param url URL
+     * @return URI
+     */
+    private static URI toUri(URL url) {
+        try {
+            return url.toURI();
+        } catch (Exception e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Unable to convert URL '" + url + "' to URI"), e);
+        }
+    }
+
+    /**
+     * 签名密钥缓存键
+     *
+     * @param algorithm  签名算法名称
+     * @param keyId      密钥ID，可以为null
+     * @param thumbprint 证书SHA-256指纹，可以为null
+     */
+    private record SignerKey(String algorithm, String keyId, String thumbprint) {
+    }
+
+    /**
+     * 签名密钥
+     *
+     * @param jwk       选中的密钥
+     * @param signer    签名器
+     * @param expiresAt 缓存过期时间，毫秒时间戳
+     */
+    private record SigningKey(JWK jwk, JWSSigner signer, long expiresAt) {
+
+        /**
+         * 判断缓存是否已过期
+         *
+         * @return 已过期返回true
+         */
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
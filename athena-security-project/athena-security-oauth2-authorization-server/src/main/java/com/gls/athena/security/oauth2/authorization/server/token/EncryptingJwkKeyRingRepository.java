@@ -0,0 +1,163 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.text.ParseException;
+import java.util.Objects;
+
+/**
+ * 加密存储的签名密钥环存储
+ * <p>
+ * 包装其他密钥环存储，密钥环以密钥加密密钥（256位AES密钥）加密为紧凑序列化的JWE（dir + A256GCM）后写入，
+ * 读取时解密，读取存储内容的客户端只能看到密文，无法获取签名私钥。
+ * </p>
+ * <p>
+ * 旧版以明文存储的密钥环（以"{"开头）仍可读取，读取后以比较并交换写回密文。
+ * 每次加密使用随机初始向量，相同明文的密文不同，比较并交换时将期望的明文换算为最近一次读取的密文。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class EncryptingJwkKeyRingRepository implements JwkKeyRingRepository {
+
+    /**
+     * 密钥加密密钥长度，单位字节
+     */
+    private static final int KEY_ENCRYPTION_KEY_LENGTH = 32;
+
+    private final JwkKeyRingRepository delegate;
+
+    private final DirectEncrypter encrypter;
+
+    private final DirectDecrypter decrypter;
+
+    /**
+     * 最近一次读取的存储内容及其明文
+     */
+    private volatile StoredRing lastLoaded;
+
+    /**
+     * 构造加密存储
+     *
+     * @param delegate         实际存储
+     * @param keyEncryptionKey 256位AES密钥加密密钥
+     * @throws IllegalArgumentException 密钥长度不是256位
+     */
+    public EncryptingJwkKeyRingRepository(JwkKeyRingRepository delegate, byte[] keyEncryptionKey) {
+        if (keyEncryptionKey.length != KEY_ENCRYPTION_KEY_LENGTH) {
+            throw new IllegalArgumentException("密钥加密密钥必须为256位，实际为" + keyEncryptionKey.length * 8 + "位");
+        }
+        this.delegate = delegate;
+        try {
+            this.encrypter = new DirectEncrypter(keyEncryptionKey);
+            this.decrypter = new DirectDecrypter(keyEncryptionKey);
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("无效的密钥加密密钥", e);
+        }
+    }
+
+    /**
+     * 读取并解密密钥环，明文存储的密钥环加密后写回
+     *
+     * @return JWK集合JSON，不存在时返回null
+     */
+    @Override
+    public String load() {
+        String stored = delegate.load();
+        String plaintext = decrypt(stored);
+        lastLoaded = new StoredRing(stored, plaintext);
+        if (stored != null && isPlaintext(stored) && delegate.compareAndSet(stored, encrypt(plaintext))) {
+            log.info("明文存储的签名密钥环已加密");
+            lastLoaded = null;
+        }
+        return plaintext;
+    }
+
+    /**
+     * 比较并交换密钥环，新内容加密后写入
+     *
+     * @param expected 期望的当前明文，为null表示期望密钥环不存在
+     * @param updated  新的明文
+     * @return 写入成功返回true
+     */
+    @Override
+    public boolean compareAndSet(String expected, String updated) {
+        if (expected == null) {
+            return delegate.compareAndSet(null, encrypt(updated));
+        }
+        StoredRing last = lastLoaded;
+        String stored;
+        if (last != null && expected.equals(last.plaintext())) {
+            stored = last.stored();
+        } else {
+            stored = delegate.load();
+            if (!Objects.equals(decrypt(stored), expected)) {
+                return false;
+            }
+        }
+        return delegate.compareAndSet(stored, encrypt(updated));
+    }
+
+    /**
+     * 加密密钥环
+     *
+     * @param plaintext JWK集合JSON
+     * @return 紧凑序列化的JWE
+     */
+    private String encrypt(String plaintext) {
+        JWEObject jwe = new JWEObject(new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM), new Payload(plaintext));
+        try {
+            jwe.encrypt(encrypter);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("加密签名密钥环失败", e);
+        }
+        return jwe.serialize();
+    }
+
+    /**
+     * 解密密钥环
+     *
+     * @param stored 存储内容，可以为null
+     * @return JWK集合JSON，存储内容为null时返回null
+     */
+    private String decrypt(String stored) {
+        if (stored == null || isPlaintext(stored)) {
+            return stored;
+        }
+        try {
+            JWEObject jwe = JWEObject.parse(stored);
+            jwe.decrypt(decrypter);
+            return jwe.getPayload().toString();
+        } catch (ParseException | JOSEException e) {
+            throw new IllegalStateException("解密签名密钥环失败，请检查密钥加密密钥", e);
+        }
+    }
+
+    /**
+     * 判断存储内容是否为明文JWK集合
+     *
+     * @param stored 存储内容
+     * @return 明文返回true
+     */
+    private static boolean isPlaintext(String stored) {
+        return stored.stripLeading().startsWith("{");
+    }
+
+    /**
+     * 存储内容及其明文
+     *
+     * @param stored    存储内容
+     * @param plaintext 明文
+     */
+    private record StoredRing(String stored, String plaintext) {
+    }
+}
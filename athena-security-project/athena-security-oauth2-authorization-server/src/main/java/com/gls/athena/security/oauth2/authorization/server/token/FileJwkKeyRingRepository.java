@@ -0,0 +1,92 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Objects;
+
+/**
+ * 基于本地文件的签名密钥环存储
+ * <p>
+ * 适用于单节点部署。写入时先写入同目录下的临时文件再原子替换，进程崩溃不会留下不完整的密钥环；
+ * 支持POSIX权限的文件系统上文件仅所有者可读写。比较并交换在进程内同步执行。
+ * </p>
+ *
+ * @author george
+ */
+public class FileJwkKeyRingRepository implements JwkKeyRingRepository {
+
+    private final Path path;
+
+    /**
+     * 构造文件存储
+     *
+     * @param path 密钥环文件路径
+     */
+    public FileJwkKeyRingRepository(Path path) {
+        this.path = path.toAbsolutePath();
+    }
+
+    /**
+     * 读取密钥环
+     *
+     * @return JWK集合JSON，文件不存在时返回null
+     */
+    @Override
+    public synchronized String load() {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return Files.readString(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取密钥环文件失败: " + path, e);
+        }
+    }
+
+    /**
+     * 比较并交换密钥环
+     *
+     * @param expected 期望的当前内容，为null表示期望文件不存在
+     * @param updated  新的内容
+     * @return 写入成功返回true
+     */
+    @Override
+    public synchronized boolean compareAndSet(String expected, String updated) {
+        if (!Objects.equals(load(), expected)) {
+            return false;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                restrictPermissions(temp);
+                Files.writeString(temp, updated, StandardCharsets.UTF_8);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入密钥环文件失败: " + path, e);
+        }
+    }
+
+    /**
+     * 限制文件仅所有者可读写，文件系统不支持POSIX权限时忽略
+     *
+     * @param file 文件
+     * @throws IOException 设置权限失败
+     */
+    private void restrictPermissions(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // 非POSIX文件系统
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.EdECPrivateKeySpec;
+import java.security.spec.NamedParameterSpec;
+import java.util.Set;
+
+/**
+ * 基于JDK的Ed25519签名器
+ * <p>
+ * Nimbus自带的Ed25519签名器依赖Tink，本类改用JDK内置的EdDSA实现。私钥在构造时解析一次，
+ * 每次签名创建新的{@link Signature}实例，因此可以被多个线程共享。
+ * </p>
+ *
+ * @author george
+ */
+public class JdkEd25519Signer implements JWSSigner {
+
+    private static final String ALGORITHM = "Ed25519";
+
+    private final JCAContext jcaContext = new JCAContext();
+
+    private final PrivateKey privateKey;
+
+    /**
+     * 构造Ed25519签名器
+     *
+     * @param octetKeyPair 包含私钥的Ed25519密钥对
+     * @throws JOSEException 密钥不是Ed25519私钥或无法解析
+     */
+    public JdkEd25519Signer(OctetKeyPair octetKeyPair) throws JOSEException {
+        if (!Curve.Ed25519.equals(octetKeyPair.getCurve()) || !octetKeyPair.isPrivate()) {
+            throw new JOSEException("需要包含私钥的Ed25519密钥");
+        }
+        try {
+            this.privateKey = KeyFactory.getInstance(ALGORITHM)
+                    .generatePrivate(new EdECPrivateKeySpec(NamedParameterSpec.ED25519, octetKeyPair.getDecodedD()));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("解析Ed25519私钥失败", e);
+        }
+    }
+
+    /**
+     * 签名
+     *
+     * @param header       JWS头
+     * @param signingInput 待签名数据
+     * @return 签名
+     * @throws JOSEException 签名失败
+     */
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("不支持的签名算法: " + header.getAlgorithm());
+        }
+        try {
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initSign(privateKey);
+            signature.update(signingInput);
+            return Base64URL.encode(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Ed25519签名失败", e);
+        }
+    }
+
+    /**
+     * 获取支持的签名算法
+     *
+     * @return 仅包含EdDSA
+     */
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.EdDSA);
+    }
+
+    /**
+     * 获取JCA上下文
+     *
+     * @return JCA上下文
+     */
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+}
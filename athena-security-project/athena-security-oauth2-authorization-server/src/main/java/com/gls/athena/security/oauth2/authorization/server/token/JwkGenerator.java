@@ -0,0 +1,120 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.EdECPrivateKey;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * JWK生成工具类，提供签名算法解析和签名密钥生成
+ * <p>
+ * 除Spring Security支持的RSA和EC算法外，还支持EdDSA(Ed25519)。Ed25519密钥使用JDK生成，不依赖Tink。
+ * </p>
+ *
+ * @author george
+ */
+@UtilityClass
+public class JwkGenerator {
+
+    /**
+     * EdDSA签名算法，Spring Security的{@link SignatureAlgorithm}中没有对应的枚举值
+     */
+    public final JwsAlgorithm EDDSA = () -> JWSAlgorithm.EdDSA.getName();
+
+    /**
+     * X.509编码的Ed25519公钥中原始公钥之前的前缀长度
+     */
+    private final int ED25519_PUBLIC_KEY_PREFIX_LENGTH = 12;
+
+    /**
+     * 解析签名算法名称
+     *
+     * @param algorithm 签名算法名称，如RS256、ES256、EdDSA
+     * @return 签名算法，名称为空时返回null
+     * @throws IllegalArgumentException 不支持的签名算法
+     */
+    public JwsAlgorithm resolveAlgorithm(String algorithm) {
+        if (algorithm == null || algorithm.isBlank()) {
+            return null;
+        }
+        if (EDDSA.getName().equals(algorithm)) {
+            return EDDSA;
+        }
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(algorithm);
+        if (signatureAlgorithm == null) {
+            throw new IllegalArgumentException("不支持的签名算法: " + algorithm);
+        }
+        return signatureAlgorithm;
+    }
+
+    /**
+     * 生成签名密钥
+     * <p>
+     * RS系列和PS系列生成2048位RSA密钥，ES256、ES384、ES512分别生成P-256、P-384、P-521曲线的EC密钥，
+     * EdDSA生成Ed25519密钥。生成的密钥标注签名用途和算法。
+     * </p>
+     *
+     * @param algorithm 签名算法名称
+     * @param keyId     密钥ID，为null时随机生成
+     * @return 包含私钥的JWK
+     * @throws IllegalArgumentException 不支持的签名算法
+     * @throws IllegalStateException    生成密钥失败
+     */
+    public JWK generate(String algorithm, String keyId) {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        String kid = keyId != null ? keyId : UUID.randomUUID().toString();
+        try {
+            if (JWSAlgorithm.Family.RSA.contains(jwsAlgorithm)) {
+                return new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyID(kid).generate();
+            }
+            if (JWSAlgorithm.Family.EC.contains(jwsAlgorithm)) {
+                Curve curve = Curve.forJWSAlgorithm(jwsAlgorithm).iterator().next();
+                return new ECKeyGenerator(curve)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).keyID(kid).generate();
+            }
+            if (JWSAlgorithm.EdDSA.equals(jwsAlgorithm)) {
+                return generateEd25519(kid);
+            }
+        } catch (JOSEException | GeneralSecurityException e) {
+            throw new IllegalStateException("生成签名密钥失败: " + algorithm, e);
+        }
+        throw new IllegalArgumentException("不支持的签名算法: " + algorithm);
+    }
+
+    /**
+     * 使用JDK生成Ed25519密钥
+     *
+     * @param keyId 密钥ID
+     * @return Ed25519密钥对JWK
+     * @throws GeneralSecurityException 生成密钥失败
+     */
+    private JWK generateEd25519(String keyId) throws GeneralSecurityException {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        byte[] x = Arrays.copyOfRange(encoded, ED25519_PUBLIC_KEY_PREFIX_LENGTH, encoded.length);
+        byte[] d = ((EdECPrivateKey) keyPair.getPrivate()).getBytes()
+                .orElseThrow(() -> new GeneralSecurityException("无法导出Ed25519私钥"));
+        return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x))
+                .d(Base64URL.encode(d))
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.EdDSA)
+                .keyID(keyId)
+                .build();
+    }
+}
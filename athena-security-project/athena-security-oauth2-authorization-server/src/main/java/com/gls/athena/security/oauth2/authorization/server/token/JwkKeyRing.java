@@ -0,0 +1,353 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationKeyRingProperties;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时轮换的签名密钥环
+ * <p>
+ * 密钥环中的每个密钥以JWK标准的nbf参数记录启用时间，以exp参数记录停止发布的时间，
+ * 整体作为包含私钥的JWK集合持久化在{@link JwkKeyRingRepository}中，所有节点共享。密钥经历三个阶段：
+ * </p>
+ * <ul>
+ *     <li>待启用：在当前密钥到期前提前发布，资源服务器刷新JWK缓存后即可识别，启用时无需远程获取</li>
+ *     <li>当前：nbf不晚于当前时间的最新密钥，用于签名</li>
+ *     <li>已停用：被新密钥替代后在重叠时间内继续发布，用于验证其签发的尚未过期的令牌，到达exp后删除</li>
+ * </ul>
+ * <p>
+ * 作为{@link JWKSource}时，当前密钥包含私钥并排在最前，其余密钥只提供公钥，
+ * 因此签名只会选中当前密钥，而授权服务器的JWK集合端点发布全部三个阶段的公钥。
+ * 定时任务按检查间隔执行轮换，多个节点同时轮换时通过比较并交换只有一个节点写入成功，
+ * 其余节点读取其结果。当前密钥变化时通知轮换监听器，例如刷新{@link CachingJwtEncoder}的签名器。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class JwkKeyRing implements JWKSource<SecurityContext>, InitializingBean, DisposableBean {
+
+    /**
+     * 比较并交换失败后的最大重试次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JwkKeyRingRepository repository;
+
+    private final AuthorizationKeyRingProperties properties;
+
+    /**
+     * 签名密钥算法名称
+     */
+    private final String algorithm;
+
+    /**
+     * 时钟，决定密钥的启用、轮换和停止发布时间
+     */
+    private final Clock clock;
+
+    private final List<Runnable> rotationListeners = new CopyOnWriteArrayList<>();
+
+    private final Counter rotationCounter = Metrics.counter("athena.oauth2.jwk.rotations");
+
+    private final Counter failureCounter = Metrics.counter("athena.oauth2.jwk.rotation.failures");
+
+    /**
+     * 对外提供的JWK集合，当前密钥包含私钥并排在最前
+     */
+    private volatile JWKSet jwkSet = new JWKSet();
+
+    /**
+     * 当前签名密钥ID
+     */
+    private volatile String activeKeyId;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造签名密钥环
+     *
+     * @param repository 密钥环存储
+     * @param properties 密钥环配置
+     * @param algorithm  签名密钥算法名称
+     */
+    public JwkKeyRing(JwkKeyRingRepository repository, AuthorizationKeyRingProperties properties, String algorithm) {
+        this(repository, properties, algorithm, Clock.systemUTC());
+    }
+
+    /**
+     * 使用指定时钟构造签名密钥环
+     *
+     * @param repository 密钥环存储
+     * @param properties 密钥环配置
+     * @param algorithm  签名密钥算法名称
+     * @param clock      时钟
+     */
+    public JwkKeyRing(JwkKeyRingRepository repository, AuthorizationKeyRingProperties properties, String algorithm, Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.algorithm = algorithm;
+        this.clock = clock;
+    }
+
+    /**
+     * 加载密钥环并启动定时轮换任务
+     */
+    @Override
+    public void afterPropertiesSet() {
+        rotate();
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("oauth2-jwk-key-ring")
+                .daemon(true)
+                .factory());
+        executor.scheduleWithFixedDelay(this::scheduledRotate, properties.getCheckInterval(),
+                properties.getCheckInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时轮换任务
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 选择密钥
+     *
+     * @param jwkSelector 密钥选择器
+     * @param context     安全上下文
+     * @return 匹配的密钥
+     */
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(jwkSet);
+    }
+
+    /**
+     * 获取发布的JWK集合
+     *
+     * @return 只包含公钥的JWK集合
+     */
+    public JWKSet getPublicJwkSet() {
+        return jwkSet.toPublicJWKSet();
+    }
+
+    /**
+     * 获取当前签名密钥ID
+     *
+     * @return 当前签名密钥ID
+     */
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * 添加轮换监听器，当前签名密钥变化后调用
+     *
+     * @param listener 轮换监听器
+     */
+    public void addRotationListener(Runnable listener) {
+        rotationListeners.add(listener);
+    }
+
+    /**
+     * 执行一次轮换检查
+     * <p>
+     * 读取密钥环，删除已停止发布的密钥，必要时生成当前密钥或提前生成下一个密钥，
+     * 有变化时以比较并交换写回；写入冲突时重新读取后重试，最终使用存储中的密钥环。
+     * </p>
+     */
+    public synchronized void rotate() {
+        String current = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            current = repository.load();
+            List<JWK> keys = parse(current);
+            List<JWK> rotated = rotate(keys, clock.millis());
+            if (rotated == null) {
+                apply(keys);
+                return;
+            }
+            if (repository.compareAndSet(current, new JWKSet(rotated).toString(false))) {
+                rotationCounter.increment();
+                apply(rotated);
+                return;
+            }
+            log.debug("签名密钥环已被其他节点修改，重新读取");
+        }
+        apply(parse(current));
+    }
+
+    /**
+     * 定时任务执行的轮换检查，异常只记录不抛出
+     */
+    private void scheduledRotate() {
+        try {
+            rotate();
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.warn("签名密钥轮换失败", e);
+        }
+    }
+
+    /**
+     * 计算轮换后的密钥环
+     *
+     * @param keys 当前密钥环
+     * @param now  当前时间毫秒数
+     * @return 轮换后的密钥环，无需变化时返回null
+     */
+    private List<JWK> rotate(List<JWK> keys, long now) {
+        List<JWK> ring = new ArrayList<>(keys);
+        boolean changed = ring.removeIf(jwk -> jwk.getExpirationTime() != null && jwk.getExpirationTime().getTime() <= now);
+        ring.sort(Comparator.comparing(JwkKeyRing::getNotBefore));
+
+        JWK active = findActive(ring, now);
+        if (active == null) {
+            active = generate(now);
+            ring.add(active);
+            ring.sort(Comparator.comparing(JwkKeyRing::getNotBefore));
+            changed = true;
+        }
+        long activatedAt = getNotBefore(active);
+        boolean hasNext = ring.stream().anyMatch(jwk -> getNotBefore(jwk) > now);
+        if (!hasNext && now >= activatedAt + properties.getRotationInterval() - properties.getPrePublish()) {
+            // 提前发布下一个密钥；错过轮换时间时从现在起提前发布
+            long activatesAt = Math.max(activatedAt + properties.getRotationInterval(), now + properties.getPrePublish());
+            ring.add(generate(activatesAt));
+            changed = true;
+        }
+
+        // 为每个已被替代的密钥设置停止发布时间：替代它的密钥启用后再保留重叠时间
+        for (int i = 0; i < ring.size() - 1; i++) {
+            JWK jwk = ring.get(i);
+            if (jwk.getExpirationTime() == null) {
+                Date expiresAt = new Date(getNotBefore(ring.get(i + 1)) + properties.getOverlap());
+                ring.set(i, withExpirationTime(jwk, expiresAt));
+                changed = true;
+            }
+        }
+        return changed ? ring : null;
+    }
+
+    /**
+     * 查找当前签名密钥
+     *
+     * @param ring 按启用时间排序的密钥环
+     * @param now  当前时间毫秒数
+     * @return 启用时间不晚于当前时间的最新密钥，不存在时返回null
+     */
+    private JWK findActive(List<JWK> ring, long now) {
+        JWK active = null;
+        for (JWK jwk : ring) {
+            if (getNotBefore(jwk) <= now) {
+                active = jwk;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * 使用密钥环更新对外提供的JWK集合
+     *
+     * @param ring 密钥环
+     */
+    private void apply(List<JWK> ring) {
+        long now = clock.millis();
+        List<JWK> sorted = new ArrayList<>(ring);
+        sorted.sort(Comparator.comparing(JwkKeyRing::getNotBefore));
+        JWK active = findActive(sorted, now);
+        List<JWK> published = new ArrayList<>(sorted.size());
+        if (active != null) {
+            published.add(active);
+        }
+        sorted.stream().filter(jwk -> jwk != active).map(JWK::toPublicJWK).forEach(published::add);
+        jwkSet = new JWKSet(published);
+
+        String keyId = active != null ? active.getKeyID() : null;
+        if (!Objects.equals(keyId, activeKeyId)) {
+            log.info("签名密钥已切换: {} -> {}", activeKeyId, keyId);
+            activeKeyId = keyId;
+            rotationListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * 生成新密钥
+     *
+     * @param activatesAt 启用时间毫秒数
+     * @return 新密钥
+     */
+    private JWK generate(long activatesAt) {
+        JWK jwk = JwkGenerator.generate(algorithm, null);
+        Date notBefore = new Date(activatesAt);
+        Date issuedAt = new Date(clock.millis());
+        log.info("生成签名密钥: {}，启用时间: {}", jwk.getKeyID(), notBefore);
+        return switch (jwk) {
+            case RSAKey rsaKey -> new RSAKey.Builder(rsaKey).notBeforeTime(notBefore).issueTime(issuedAt).build();
+            case ECKey ecKey -> new ECKey.Builder(ecKey).notBeforeTime(notBefore).issueTime(issuedAt).build();
+            case OctetKeyPair octetKeyPair ->
+                    new OctetKeyPair.Builder(octetKeyPair).notBeforeTime(notBefore).issueTime(issuedAt).build();
+            default -> throw new IllegalStateException("不支持的密钥类型: " + jwk.getKeyType());
+        };
+    }
+
+    /**
+     * 设置密钥的停止发布时间
+     *
+     * @param jwk       密钥
+     * @param expiresAt 停止发布时间
+     * @return 新密钥
+     */
+    private static JWK withExpirationTime(JWK jwk, Date expiresAt) {
+        return switch (jwk) {
+            case RSAKey rsaKey -> new RSAKey.Builder(rsaKey).expirationTime(expiresAt).build();
+            case ECKey ecKey -> new ECKey.Builder(ecKey).expirationTime(expiresAt).build();
+            case OctetKeyPair octetKeyPair -> new OctetKeyPair.Builder(octetKeyPair).expirationTime(expiresAt).build();
+            default -> throw new IllegalStateException("不支持的密钥类型: " + jwk.getKeyType());
+        };
+    }
+
+    /**
+     * 获取密钥的启用时间，未设置时视为最早
+     *
+     * @param jwk 密钥
+     * @return 启用时间毫秒数
+     */
+    private static long getNotBefore(JWK jwk) {
+        return jwk.getNotBeforeTime() != null ? jwk.getNotBeforeTime().getTime() : 0L;
+    }
+
+    /**
+     * 解析密钥环
+     *
+     * @param json JWK集合JSON，可以为null
+     * @return 密钥列表
+     */
+    private static List<JWK> parse(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return JWKSet.parse(json).getKeys();
+        } catch (ParseException e) {
+            throw new IllegalStateException("解析签名密钥环失败", e);
+        }
+    }
+}
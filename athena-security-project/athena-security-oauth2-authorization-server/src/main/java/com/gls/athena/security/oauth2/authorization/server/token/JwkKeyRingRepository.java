@@ -0,0 +1,29 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+/**
+ * 签名密钥环存储接口
+ * <p>
+ * 密钥环以包含私钥的JWK集合JSON格式整体存储。多个节点可能同时轮换密钥，
+ * 写入使用比较并交换语义，只有存储内容仍为读取时的内容才写入，保证所有节点使用同一组密钥。
+ * </p>
+ *
+ * @author george
+ */
+public interface JwkKeyRingRepository {
+
+    /**
+     * 读取密钥环
+     *
+     * @return JWK集合JSON，不存在时返回null
+     */
+    String load();
+
+    /**
+     * 比较并交换密钥环
+     *
+     * @param expected 期望的当前内容，为null表示期望密钥环不存在
+     * @param updated  新的内容
+     * @return 写入成功返回true，当前内容已被其他节点修改时返回false
+     */
+    boolean compareAndSet(String expected, String updated);
+}
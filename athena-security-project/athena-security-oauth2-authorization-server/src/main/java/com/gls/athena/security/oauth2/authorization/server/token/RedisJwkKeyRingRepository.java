@@ -0,0 +1,62 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * 基于Redis的签名密钥环存储
+ * <p>
+ * 密钥环存储在"oauth2:jwk:ring"键中，比较并交换通过脚本原子执行，所有节点共享同一密钥环。
+ * 本类按原样存储内容，签名私钥应由{@link EncryptingJwkKeyRingRepository}加密后再写入。
+ * </p>
+ *
+ * @author george
+ */
+@RequiredArgsConstructor
+public class RedisJwkKeyRingRepository implements JwkKeyRingRepository {
+
+    /**
+     * 密钥环键
+     */
+    private static final String KEY = "oauth2:jwk:ring";
+
+    /**
+     * 比较并交换脚本：当前内容（不存在视为空字符串）与期望内容一致时写入
+     */
+    private static final RedisScript<Long> COMPARE_AND_SET_SCRIPT = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1]) or ''
+            if current ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 读取密钥环
+     *
+     * @return JWK集合JSON，不存在时返回null
+     */
+    @Override
+    public String load() {
+        return redisTemplate.opsForValue().get(KEY);
+    }
+
+    /**
+     * 比较并交换密钥环
+     *
+     * @param expected 期望的当前内容，为null表示期望密钥环不存在
+     * @param updated  新的内容
+     * @return 写入成功返回true
+     */
+    @Override
+    public boolean compareAndSet(String expected, String updated) {
+        Long result = redisTemplate.execute(COMPARE_AND_SET_SCRIPT, List.of(KEY), expected != null ? expected : "", updated);
+        return result != null && result == 1;
+    }
+}
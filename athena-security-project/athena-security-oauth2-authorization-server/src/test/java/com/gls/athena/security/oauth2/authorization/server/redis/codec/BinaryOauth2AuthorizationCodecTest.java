@@ -0,0 +1,331 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 授权信息二进制编解码器测试
+ *
+ * @author george
+ */
+@DisplayName("授权信息二进制编解码器测试")
+class BinaryOauth2AuthorizationCodecTest {
+
+    /**
+     * 格式标记
+     */
+    private static final int FORMAT_MAGIC = 0xAE;
+
+    @Test
+    @DisplayName("编码后解码 - 所有字段保持不变")
+    void roundTrip() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+        Oauth2Authorization authorization = authorization("user");
+
+        byte[] bytes = codec.encode(authorization);
+
+        assertEquals(authorization, codec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("不含共享数据块引用时使用版本2头部")
+    void baseVersionHeader() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+
+        byte[] bytes = codec.encode(authorization("user"));
+
+        assertEquals(FORMAT_MAGIC, bytes[0] & 0xFF);
+        assertEquals(2, bytes[1]);
+        assertEquals(0, bytes[2]);
+    }
+
+    @Test
+    @DisplayName("拒绝无法识别的头部和更高的格式版本")
+    void rejectUnknownHeader() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+        byte[] bytes = codec.encode(authorization("user"));
+        byte[] newerVersion = bytes.clone();
+        newerVersion[1] = 4;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(newerVersion));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("超过压缩阈值时压缩并可解码")
+    void compressed() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(64);
+        Oauth2Authorization authorization = authorization("user");
+        authorization.setAccessTokenValue("a".repeat(2048));
+
+        byte[] bytes = codec.encode(authorization);
+
+        assertEquals(1, bytes[2] & 1);
+        assertTrue(bytes.length < 2048);
+        assertEquals(authorization, codec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("未超过压缩阈值时不压缩")
+    void notCompressedBelowThreshold() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(1 << 20);
+
+        byte[] bytes = codec.encode(authorization("user"));
+
+        assertEquals(0, bytes[2] & 1);
+    }
+
+    @Test
+    @DisplayName("数据块字段在首次访问时才解码，未访问时原样写回")
+    void lazyBlocks() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+        Oauth2Authorization authorization = authorization("user");
+
+        Oauth2Authorization decoded = codec.decode(codec.encode(authorization));
+        BinaryCodecLazyMap attributes = assertInstanceOf(BinaryCodecLazyMap.class, decoded.getAttributes());
+        assertFalse(attributes.isDecoded());
+
+        // 替换令牌值后重新编码，未访问的数据块原样写回
+        decoded.setAccessTokenValue("access-token-2");
+        Oauth2Authorization reencoded = codec.decode(codec.encode(decoded));
+        assertFalse(attributes.isDecoded());
+        assertEquals("access-token-2", reencoded.getAccessTokenValue());
+        assertEquals(authorization.getAttributes(), reencoded.getAttributes());
+        assertEquals(authorization.getAttributes(), decoded.getAttributes());
+        assertTrue(attributes.isDecoded());
+    }
+
+    @Test
+    @DisplayName("令牌内省投影只还原被内省的令牌，不解码属性数据块")
+    void introspectionProjection() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+        Oauth2AuthorizationConverter converter = Mappers.getMapper(Oauth2AuthorizationConverter.class);
+        RegisteredClient registeredClient = RegisteredClient.withId("client")
+                .clientId("client")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("https://example.com/callback")
+                .build();
+        Oauth2Authorization authorization = authorization("user");
+        authorization.setRefreshTokenMetadata(Map.of("metadata.token.invalidated", false));
+
+        Oauth2Authorization decoded = codec.decode(codec.encode(authorization));
+        OAuth2Authorization accessTokenView = converter.reverseToIntrospection(registeredClient, decoded, "access-token");
+        OAuth2Authorization refreshTokenView = converter.reverseToIntrospection(registeredClient, decoded, "refresh-token");
+
+        assertFalse(assertInstanceOf(BinaryCodecLazyMap.class, decoded.getAttributes()).isDecoded());
+        assertTrue(accessTokenView.getAttributes().isEmpty());
+        OAuth2Authorization.Token<OAuth2Token> accessToken = accessTokenView.getToken("access-token");
+        assertNotNull(accessToken);
+        assertTrue(accessToken.isActive());
+        assertEquals("user", accessToken.getClaims().get("sub"));
+        assertNull(accessTokenView.getRefreshToken());
+        assertNotNull(refreshTokenView.getToken("refresh-token"));
+        assertNull(refreshTokenView.getAccessToken());
+        assertEquals(Set.of("openid", "profile", "custom"), accessTokenView.getAuthorizedScopes());
+    }
+
+    @Test
+    @DisplayName("主体对象由对象映射器编码后可还原")
+    void principalAttribute() {
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0);
+        Oauth2Authorization authorization = authorization("user");
+        User user = new User("user", "", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        Authentication principal = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        authorization.getAttributes().put(Principal.class.getName(), principal);
+
+        Oauth2Authorization decoded = codec.decode(codec.encode(authorization));
+
+        Authentication decodedPrincipal = assertInstanceOf(Authentication.class,
+                decoded.getAttributes().get(Principal.class.getName()));
+        assertEquals("user", decodedPrincipal.getName());
+        assertEquals(Set.of("ROLE_USER"), AuthorityUtils.authorityListToSet(decodedPrincipal.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("解码旧版JSON格式，对象映射器使用应用的自定义器")
+    void legacyJson() throws Exception {
+        ObjectMapper objectMapper = BinaryCodecUtil.createObjectMapper(List.of(
+                mapper -> mapper.addMixIn(Oauth2Authorization.class, LegacyAuthorizationMixin.class)));
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0, objectMapper, null, 0);
+        Oauth2Authorization authorization = new Oauth2Authorization();
+        authorization.setId("legacy-id");
+        authorization.setRegisteredClientId("client");
+        authorization.setPrincipalName("user");
+        authorization.setAccessTokenValue("legacy-access-token");
+        authorization.setAccessTokenExpiresAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+
+        byte[] json = objectMapper.writeValueAsBytes(authorization);
+
+        assertEquals('{', json[0]);
+        assertEquals(authorization, codec.decode(json));
+    }
+
+    @Test
+    @DisplayName("共享数据块 - 达到阈值的主体对象只存储一份，使用版本3头部")
+    void sharedBlocks() {
+        InMemoryBlockStore blockStore = new InMemoryBlockStore();
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0, blockStore, 64);
+        String principal = "p".repeat(256);
+        Oauth2Authorization first = authorization("user");
+        first.getAttributes().put(Principal.class.getName(), principal);
+        Oauth2Authorization second = authorization("user");
+        second.setId("id-user-2");
+        second.getAttributes().put(Principal.class.getName(), principal);
+
+        byte[] firstBytes = codec.encode(first);
+        byte[] secondBytes = codec.encode(second);
+
+        assertEquals(3, firstBytes[1]);
+        assertEquals(1, blockStore.blocks.size());
+        assertTrue(firstBytes.length < 256);
+        assertEquals(first, codec.decode(firstBytes));
+        assertEquals(second, codec.decode(secondBytes));
+    }
+
+    @Test
+    @DisplayName("共享数据块 - 未达到阈值时内联写入")
+    void sharedBlockBelowThreshold() {
+        InMemoryBlockStore blockStore = new InMemoryBlockStore();
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0, blockStore, 1024);
+        Oauth2Authorization authorization = authorization("user");
+        authorization.getAttributes().put(Principal.class.getName(), "short-principal");
+
+        byte[] bytes = codec.encode(authorization);
+
+        assertEquals(2, bytes[1]);
+        assertTrue(blockStore.blocks.isEmpty());
+        assertEquals(authorization, codec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("共享数据块 - 原样写回未解码的数据块时延长已引用数据块的存活时间")
+    void sharedBlockRenewedOnRewrite() {
+        InMemoryBlockStore blockStore = new InMemoryBlockStore();
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0, blockStore, 64);
+        Oauth2Authorization authorization = authorization("user");
+        authorization.getAttributes().put(Principal.class.getName(), "p".repeat(256));
+        Oauth2Authorization decoded = codec.decode(codec.encode(authorization));
+        blockStore.renewed.clear();
+
+        byte[] bytes = codec.encode(decoded);
+
+        assertEquals(List.copyOf(blockStore.blocks.keySet()), blockStore.renewed);
+        assertEquals(3, bytes[1]);
+        assertEquals(authorization.getAttributes(), codec.decode(bytes).getAttributes());
+    }
+
+    @Test
+    @DisplayName("共享数据块 - 存储拒绝保存时编码失败")
+    void sharedBlockStoreFailure() {
+        Oauth2AuthorizationBlockStore blockStore = new Oauth2AuthorizationBlockStore() {
+            @Override
+            public void save(String hash, byte[] block, Oauth2Authorization owner) {
+                throw new IllegalStateException("missing");
+            }
+
+            @Override
+            public byte[] load(String hash) {
+                return null;
+            }
+        };
+        BinaryOauth2AuthorizationCodec codec = new BinaryOauth2AuthorizationCodec(0, blockStore, 64);
+        Oauth2Authorization authorization = authorization("user");
+        authorization.getAttributes().put(Principal.class.getName(), "p".repeat(256));
+
+        assertThrows(IllegalStateException.class, () -> codec.encode(authorization));
+    }
+
+    /**
+     * 构造包含各类字段的授权信息
+     *
+     * @param principalName 用户名
+     * @return 授权信息
+     */
+    static Oauth2Authorization authorization(String principalName) {
+        Instant now = Instant.now();
+        Oauth2Authorization authorization = new Oauth2Authorization();
+        authorization.setId("id-" + principalName);
+        authorization.setRegisteredClientId("client");
+        authorization.setPrincipalName(principalName);
+        authorization.setAuthorizationGrantType("authorization_code");
+        authorization.setAuthorizedScopes(Set.of("openid", "profile", "custom"));
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("state", "state-value");
+        attributes.put("count", 3);
+        authorization.setAttributes(attributes);
+        authorization.setAuthorizationCodeValue("code");
+        authorization.setAuthorizationCodeIssuedAt(now);
+        authorization.setAuthorizationCodeExpiresAt(now.plusSeconds(300));
+        authorization.setAuthorizationCodeMetadata(Map.of("metadata.token.invalidated", true));
+        authorization.setAccessTokenValue("access-token");
+        authorization.setAccessTokenIssuedAt(now);
+        authorization.setAccessTokenExpiresAt(now.plusSeconds(3600));
+        authorization.setAccessTokenMetadata(Map.of("metadata.token.claims", Map.of("sub", principalName, "scope", List.of("openid"))));
+        authorization.setAccessTokenType("Bearer");
+        authorization.setAccessTokenScopes(Set.of("openid"));
+        authorization.setRefreshTokenValue("refresh-token");
+        authorization.setRefreshTokenIssuedAt(now);
+        authorization.setRefreshTokenExpiresAt(now.plusSeconds(86400));
+        return authorization;
+    }
+
+    /**
+     * 内存共享数据块存储，记录仅延长存活时间的调用
+     */
+    static class InMemoryBlockStore implements Oauth2AuthorizationBlockStore {
+
+        private final Map<String, byte[]> blocks = new HashMap<>();
+
+        private final List<String> renewed = new ArrayList<>();
+
+        @Override
+        public void save(String hash, byte[] block, Oauth2Authorization owner) {
+            if (block != null) {
+                blocks.put(hash, block);
+            } else if (blocks.containsKey(hash)) {
+                renewed.add(hash);
+            } else {
+                throw new IllegalStateException("共享数据块不存在: " + hash);
+            }
+        }
+
+        @Override
+        public byte[] load(String hash) {
+            return blocks.get(hash);
+        }
+    }
+
+    /**
+     * 模拟应用为旧版JSON格式注册的混入类
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@class")
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class LegacyAuthorizationMixin {
+    }
+}
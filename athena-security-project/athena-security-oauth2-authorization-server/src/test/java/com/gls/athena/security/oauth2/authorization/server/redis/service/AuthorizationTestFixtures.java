@@ -0,0 +1,70 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationServerConstants;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 授权存储测试数据构造工具
+ *
+ * @author george
+ */
+final class AuthorizationTestFixtures {
+
+    private AuthorizationTestFixtures() {
+    }
+
+    /**
+     * 构造支持密码模式和刷新令牌的注册客户端
+     *
+     * @return 注册客户端
+     */
+    static RegisteredClient registeredClient() {
+        return RegisteredClient.withId("test-client-id")
+                .clientId("test-client")
+                .clientSecret("{noop}secret")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationServerConstants.PASSWORD)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .scope("message.read")
+                .build();
+    }
+
+    /**
+     * 构造包含访问令牌和刷新令牌的授权信息，令牌值和授权ID均随机生成
+     *
+     * @param registeredClient      注册客户端
+     * @param principalName         主体名称
+     * @param accessTokenTimeToLive 访问令牌剩余有效时间，为负数时已过期
+     * @param refreshTokenTimeToLive 刷新令牌剩余有效时间，为负数时已过期
+     * @return 授权信息
+     */
+    static OAuth2Authorization authorization(RegisteredClient registeredClient, String principalName,
+                                             Duration accessTokenTimeToLive, Duration refreshTokenTimeToLive) {
+        Instant now = Instant.now();
+        Instant accessTokenExpiresAt = now.plus(accessTokenTimeToLive);
+        Instant refreshTokenExpiresAt = now.plus(refreshTokenTimeToLive);
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                UUID.randomUUID().toString(), accessTokenExpiresAt.minus(Duration.ofHours(1)), accessTokenExpiresAt,
+                Set.of("message.read"));
+        OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(UUID.randomUUID().toString(),
+                refreshTokenExpiresAt.minus(Duration.ofDays(1)), refreshTokenExpiresAt);
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(UUID.randomUUID().toString())
+                .principalName(principalName)
+                .authorizationGrantType(AuthorizationServerConstants.PASSWORD)
+                .authorizedScopes(Set.of("message.read"))
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .build();
+    }
+}
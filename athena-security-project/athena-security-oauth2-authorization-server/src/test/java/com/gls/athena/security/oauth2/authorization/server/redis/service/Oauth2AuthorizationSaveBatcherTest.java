@@ -0,0 +1,200 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationWriteBehindProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 授权信息批量保存器测试
+ *
+ * @author george
+ */
+@DisplayName("授权信息批量保存器测试")
+class Oauth2AuthorizationSaveBatcherTest {
+
+    private final RegisteredClient registeredClient = AuthorizationTestFixtures.registeredClient();
+
+    private final List<OAuth2Authorization> written = new CopyOnWriteArrayList<>();
+
+    private Oauth2AuthorizationSaveBatcher batcher;
+
+    @AfterEach
+    void stop() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("并发的保存请求写入完成后返回")
+    void batchWrite() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = start(authorizations -> {
+            awaitQuietly(release);
+            written.addAll(authorizations);
+            return Map.of();
+        }, properties(100, 5000));
+        OAuth2Authorization first = authorization("first");
+        OAuth2Authorization second = authorization("second");
+
+        CompletableFuture<Void> firstSave = CompletableFuture.runAsync(() -> batcher.save(first));
+        CompletableFuture<Void> secondSave = CompletableFuture.runAsync(() -> batcher.save(second));
+        release.countDown();
+        firstSave.get(5, TimeUnit.SECONDS);
+        secondSave.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, written.size());
+        assertTrue(written.containsAll(List.of(first, second)));
+    }
+
+    @Test
+    @DisplayName("等待超时时取消尚未写入的保存请求，之后不再写入")
+    void timeoutCancelsQueuedRequest() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = start(authorizations -> {
+            entered.countDown();
+            awaitQuietly(release);
+            written.addAll(authorizations);
+            return Map.of();
+        }, properties(1, 200));
+        OAuth2Authorization first = authorization("first");
+        OAuth2Authorization second = authorization("second");
+
+        // 第一个保存请求被写入线程取走后阻塞在写入函数中，第二个保存请求留在队列中
+        CompletableFuture<Void> firstSave = CompletableFuture.runAsync(() -> batcher.save(first));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> batcher.save(second));
+        assertEquals("等待授权信息批量写入超时", exception.getMessage());
+
+        release.countDown();
+        // 已被取走的保存请求不超时，等待所在批次写入完成
+        firstSave.get(5, TimeUnit.SECONDS);
+        batcher.stop();
+        batcher = null;
+
+        assertEquals(List.of(first), written);
+    }
+
+    @Test
+    @DisplayName("单个授权信息写入失败时只有该调用方收到异常")
+    void entryFailureFailsOnlyThatRequest() throws Exception {
+        IllegalArgumentException failure = new IllegalArgumentException("编码失败");
+        OAuth2Authorization failed = authorization("failed");
+        OAuth2Authorization succeeded = authorization("succeeded");
+        batcher = start(authorizations -> {
+            authorizations.stream().filter(authorization -> authorization != failed).forEach(written::add);
+            return authorizations.contains(failed) ? Map.of(failed, failure) : Map.of();
+        }, properties(100, 5000));
+
+        CompletableFuture<Void> failedSave = CompletableFuture.runAsync(() -> batcher.save(failed));
+        CompletableFuture<Void> succeededSave = CompletableFuture.runAsync(() -> batcher.save(succeeded));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> failedSave.get(5, TimeUnit.SECONDS));
+        assertSame(failure, exception.getCause());
+        succeededSave.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(succeeded), written);
+    }
+
+    @Test
+    @DisplayName("批量写入失败时同批次的所有调用方收到异常")
+    void batchFailureFailsAllRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Redis不可用");
+        batcher = start(authorizations -> {
+            awaitQuietly(release);
+            throw failure;
+        }, properties(100, 5000));
+
+        CompletableFuture<Void> firstSave = CompletableFuture.runAsync(() -> batcher.save(authorization("first")));
+        CompletableFuture<Void> secondSave = CompletableFuture.runAsync(() -> batcher.save(authorization("second")));
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> firstSave.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> secondSave.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    @DisplayName("写入线程未启动时在调用方线程中直接写入")
+    void directWriteWhenNotRunning() {
+        IllegalArgumentException failure = new IllegalArgumentException("编码失败");
+        OAuth2Authorization failed = authorization("failed");
+        OAuth2Authorization succeeded = authorization("succeeded");
+        Oauth2AuthorizationSaveBatcher stopped = new Oauth2AuthorizationSaveBatcher(authorizations -> {
+            authorizations.stream().filter(authorization -> authorization != failed).forEach(written::add);
+            return authorizations.contains(failed) ? Map.of(failed, failure) : Map.of();
+        }, properties(100, 5000));
+
+        stopped.save(succeeded);
+        assertSame(failure, assertThrows(IllegalArgumentException.class, () -> stopped.save(failed)));
+        assertEquals(List.of(succeeded), written);
+    }
+
+    /**
+     * 创建并启动批量保存器
+     *
+     * @param writer     批量写入函数
+     * @param properties 批量写入配置
+     * @return 批量保存器
+     */
+    private Oauth2AuthorizationSaveBatcher start(Function<List<OAuth2Authorization>, Map<OAuth2Authorization, RuntimeException>> writer,
+                                                 AuthorizationWriteBehindProperties properties) {
+        Oauth2AuthorizationSaveBatcher saveBatcher = new Oauth2AuthorizationSaveBatcher(writer, properties);
+        saveBatcher.start();
+        return saveBatcher;
+    }
+
+    /**
+     * 构造批量写入配置
+     *
+     * @param batchSize 批次大小
+     * @param timeout   等待写入超时毫秒数
+     * @return 批量写入配置
+     */
+    private AuthorizationWriteBehindProperties properties(int batchSize, long timeout) {
+        AuthorizationWriteBehindProperties properties = new AuthorizationWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(batchSize);
+        properties.setWindow(20);
+        properties.setTimeout(timeout);
+        return properties;
+    }
+
+    /**
+     * 构造授权信息
+     *
+     * @param principalName 主体名称
+     * @return 授权信息
+     */
+    private OAuth2Authorization authorization(String principalName) {
+        return AuthorizationTestFixtures.authorization(registeredClient, principalName, Duration.ofMinutes(10), Duration.ofDays(1));
+    }
+
+    /**
+     * 在写入函数中等待测试放行
+     *
+     * @param latch 放行信号
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.EmbeddedRedisServer;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2TokenIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应式授权存储测试，在嵌入式Redis中验证令牌索引的存活时间和替换结果
+ *
+ * @author george
+ */
+@DisplayName("响应式授权存储测试")
+class ReactiveRedisOauth2AuthorizationStoreTest {
+
+    private static EmbeddedRedisServer redis;
+
+    private final RegisteredClient registeredClient = AuthorizationTestFixtures.registeredClient();
+
+    private final Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(16);
+
+    private ReactiveRedisOauth2AuthorizationStore store;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flush();
+        AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+        store = new ReactiveRedisOauth2AuthorizationStore(
+                Mappers.getMapper(Oauth2AuthorizationConverter.class),
+                new InMemoryRegisteredClientRepository(registeredClient),
+                redis.getReactiveRedisTemplate(),
+                properties,
+                new BinaryOauth2AuthorizationCodec(properties.getCompressionThreshold()),
+                keys,
+                null);
+    }
+
+    @Test
+    @DisplayName("令牌索引使用各自令牌的存活时间，过期记录使用最晚的过期时间")
+    void tokenIndexesExpireWithTheirToken() {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(7));
+
+        ReactiveRedisOauth2AuthorizationStore.SaveResult result = store.save(authorization).block();
+
+        assertNotNull(result);
+        assertTrue(result.ids().contains(authorization.getId()));
+        assertTrue(result.replaced().isEmpty());
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        String refreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+        long accessTokenTimeToLive = timeToLive(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, accessToken));
+        long refreshTokenTimeToLive = timeToLive(keys.getTokenKey(Oauth2TokenIndex.REFRESH_TOKEN, refreshToken));
+        assertTrue(accessTokenTimeToLive > Duration.ofMinutes(9).toMillis() && accessTokenTimeToLive <= Duration.ofMinutes(10).toMillis(),
+                "访问令牌索引存活时间: " + accessTokenTimeToLive);
+        assertTrue(refreshTokenTimeToLive > Duration.ofDays(7).minusMinutes(1).toMillis(),
+                "刷新令牌索引存活时间: " + refreshTokenTimeToLive);
+
+        Double score = redis.getRedisTemplate().opsForZSet().score(keys.getExpiryKey(authorization.getId()), authorization.getId());
+        assertNotNull(score);
+        assertEquals(authorization.getRefreshToken().getToken().getExpiresAt().toEpochMilli(), score.longValue());
+
+        OAuth2Authorization found = store.findByToken(accessToken, OAuth2TokenType.ACCESS_TOKEN).block();
+        assertNotNull(found);
+        assertEquals(authorization.getId(), found.getId());
+    }
+
+    @Test
+    @DisplayName("已过期的令牌不写入令牌索引")
+    void expiredTokenNotIndexed() {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(-1), Duration.ofDays(1));
+
+        store.save(authorization).block();
+
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, accessToken)));
+        assertNull(store.findByToken(accessToken, OAuth2TokenType.ACCESS_TOKEN).block());
+    }
+
+    @Test
+    @DisplayName("相同用户和客户端的旧授权信息被替换，返回访问令牌被替换的旧授权信息")
+    void replaceReturnsOldAccessToken() {
+        OAuth2Authorization oldAuthorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        OAuth2Authorization newAuthorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        store.save(oldAuthorization).block();
+
+        ReactiveRedisOauth2AuthorizationStore.SaveResult result = store.save(newAuthorization).block();
+
+        assertNotNull(result);
+        assertTrue(result.ids().contains(oldAuthorization.getId()));
+        assertEquals(1, result.replaced().size());
+        String oldAccessToken = oldAuthorization.getAccessToken().getToken().getTokenValue();
+        assertEquals(oldAccessToken, result.replaced().getFirst().getAccessTokenValue());
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, oldAccessToken)));
+        assertNull(store.findById(oldAuthorization.getId()).block());
+        assertNotNull(store.findById(newAuthorization.getId()).block());
+    }
+
+    @Test
+    @DisplayName("删除授权信息同时删除令牌索引和过期记录")
+    void remove() {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        store.save(authorization).block();
+
+        store.remove(authorization).block();
+
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, accessToken)));
+        assertNull(redis.getRedisTemplate().opsForZSet().score(keys.getExpiryKey(authorization.getId()), authorization.getId()));
+        assertNull(store.findById(authorization.getId()).block());
+    }
+
+    /**
+     * 读取键的剩余存活时间
+     *
+     * @param key 键
+     * @return 剩余存活时间毫秒数，键不存在时为-2
+     */
+    private long timeToLive(String key) {
+        Long timeToLive = redis.getRedisTemplate().getExpire(key, TimeUnit.MILLISECONDS);
+        return timeToLive != null ? timeToLive : -2;
+    }
+}
@@ -0,0 +1,284 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.service;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryCodecUtil;
+import com.gls.athena.security.oauth2.authorization.server.redis.codec.BinaryOauth2AuthorizationCodec;
+import com.gls.athena.security.oauth2.authorization.server.redis.converter.Oauth2AuthorizationConverter;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.EmbeddedRedisServer;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2AuthorizationKeys;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.Oauth2TokenIndex;
+import com.gls.athena.security.oauth2.authorization.server.redis.support.RedisWriteUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis授权服务测试，在嵌入式Redis中验证令牌索引的存活时间和过期清理
+ *
+ * @author george
+ */
+@DisplayName("Redis授权服务测试")
+class RedisOauth2AuthorizationServiceImplTest {
+
+    private static EmbeddedRedisServer redis;
+
+    private final RegisteredClient registeredClient = AuthorizationTestFixtures.registeredClient();
+
+    private final Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(16);
+
+    private final Oauth2AuthorizationConverter converter = Mappers.getMapper(Oauth2AuthorizationConverter.class);
+
+    private RedisOauth2AuthorizationServiceImpl authorizationService;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flush();
+        AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+        authorizationService = new RedisOauth2AuthorizationServiceImpl(
+                converter,
+                new InMemoryRegisteredClientRepository(registeredClient),
+                redis.getRedisTemplate(),
+                properties,
+                new BinaryOauth2AuthorizationCodec(properties.getCompressionThreshold()),
+                keys,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    @DisplayName("令牌索引使用各自令牌的存活时间，过期记录使用最晚的过期时间")
+    void tokenIndexesExpireWithTheirToken() {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(7));
+
+        authorizationService.save(authorization);
+
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        String refreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+        long accessTokenTimeToLive = timeToLive(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, accessToken));
+        long refreshTokenTimeToLive = timeToLive(keys.getTokenKey(Oauth2TokenIndex.REFRESH_TOKEN, refreshToken));
+        assertTrue(accessTokenTimeToLive > Duration.ofMinutes(9).toMillis() && accessTokenTimeToLive <= Duration.ofMinutes(10).toMillis(),
+                "访问令牌索引存活时间: " + accessTokenTimeToLive);
+        assertTrue(refreshTokenTimeToLive > Duration.ofDays(7).minusMinutes(1).toMillis(),
+                "刷新令牌索引存活时间: " + refreshTokenTimeToLive);
+
+        Double score = redis.getRedisTemplate().opsForZSet().score(keys.getExpiryKey(authorization.getId()), authorization.getId());
+        assertNotNull(score);
+        assertEquals(authorization.getRefreshToken().getToken().getExpiresAt().toEpochMilli(), score.longValue());
+
+        OAuth2Authorization found = authorizationService.findByToken(accessToken, OAuth2TokenType.ACCESS_TOKEN);
+        assertNotNull(found);
+        assertEquals(authorization.getId(), found.getId());
+    }
+
+    @Test
+    @DisplayName("已过期的令牌不写入令牌索引")
+    void expiredTokenNotIndexed() {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(-1), Duration.ofDays(1));
+
+        authorizationService.save(authorization);
+
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        String refreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(keys.getTokenKey(Oauth2TokenIndex.ACCESS_TOKEN, accessToken)));
+        assertNull(authorizationService.findByToken(accessToken, OAuth2TokenType.ACCESS_TOKEN));
+        assertNotNull(authorizationService.findByToken(refreshToken, OAuth2TokenType.REFRESH_TOKEN));
+    }
+
+    @Test
+    @DisplayName("过期清理删除已过期的授权信息及其索引，保留未过期的授权信息")
+    void removeExpired() {
+        OAuth2Authorization expired = AuthorizationTestFixtures.authorization(registeredClient, "expired",
+                Duration.ofMinutes(-2), Duration.ofMinutes(-1));
+        OAuth2Authorization active = AuthorizationTestFixtures.authorization(registeredClient, "active",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        authorizationService.save(expired);
+        authorizationService.save(active);
+
+        assertEquals(1, authorizationService.removeExpired(100));
+
+        assertNull(authorizationService.findById(expired.getId()));
+        assertNotNull(authorizationService.findById(active.getId()));
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().opsForSet().isMember(
+                keys.getClientKey(registeredClient.getId()), expired.getId()));
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().opsForSet().isMember(
+                keys.getPrincipalNameKey("expired"), expired.getId()));
+        assertEquals(0, authorizationService.removeExpired(100));
+    }
+
+    @Test
+    @DisplayName("迁移RedisUtil缓存表中的旧版授权信息，源字段删除后不再扫描")
+    void migrateLegacyTable() throws JsonProcessingException {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        putLegacyRow(authorization.getId(), legacyJson(authorization));
+
+        assertEquals(1, authorizationService.migrateLegacy(100));
+
+        assertNull(getRow(keys.getLegacyTableKey(), authorization.getId()));
+        assertNotNull(getRow(keys.getDataKey(authorization.getId()), authorization.getId()));
+        assertNotNull(authorizationService.findById(authorization.getId()));
+        assertEquals(0, authorizationService.migrateLegacy(100));
+    }
+
+    @Test
+    @DisplayName("迁移RedisUtil缓存表中的授权信息后补写令牌索引和集合索引，刷新令牌可以查找")
+    void migrateBackfillsIndexes() throws JsonProcessingException {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(7));
+        putLegacyRow(authorization.getId(), legacyJson(authorization));
+        String accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        String refreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+        assertNull(authorizationService.findByToken(refreshToken, OAuth2TokenType.REFRESH_TOKEN));
+
+        assertEquals(1, authorizationService.migrateLegacy(100));
+
+        OAuth2Authorization found = authorizationService.findByToken(refreshToken, OAuth2TokenType.REFRESH_TOKEN);
+        assertNotNull(found);
+        assertEquals(authorization.getId(), found.getId());
+        assertNotNull(authorizationService.findByToken(accessToken, null));
+        long refreshTokenTimeToLive = timeToLive(keys.getTokenKey(Oauth2TokenIndex.REFRESH_TOKEN, refreshToken));
+        assertTrue(refreshTokenTimeToLive > Duration.ofDays(7).minusMinutes(1).toMillis(),
+                "刷新令牌索引存活时间: " + refreshTokenTimeToLive);
+        assertEquals(Boolean.TRUE, redis.getRedisTemplate().opsForSet().isMember(
+                keys.getPrincipalKey(registeredClient.getId(), "user"), authorization.getId()));
+        assertEquals(Boolean.TRUE, redis.getRedisTemplate().opsForSet().isMember(
+                keys.getClientKey(registeredClient.getId()), authorization.getId()));
+        assertEquals(Boolean.TRUE, redis.getRedisTemplate().opsForSet().isMember(
+                keys.getPrincipalNameKey("user"), authorization.getId()));
+    }
+
+    @Test
+    @DisplayName("迁移时为RedisUtil缓存表中的授权信息补写过期记录，已过期的在同一次清理中删除")
+    void sweepRemovesExpiredLegacyRow() throws JsonProcessingException {
+        OAuth2Authorization expired = AuthorizationTestFixtures.authorization(registeredClient, "expired",
+                Duration.ofMinutes(-2), Duration.ofMinutes(-1));
+        OAuth2Authorization active = AuthorizationTestFixtures.authorization(registeredClient, "active",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        putLegacyRow(expired.getId(), legacyJson(expired));
+        putLegacyRow(active.getId(), legacyJson(active));
+
+        new Oauth2AuthorizationExpirySweeper(authorizationService, null, new AuthorizationStoreProperties()).sweep();
+
+        assertNull(getRow(keys.getLegacyTableKey(), expired.getId()));
+        assertNull(authorizationService.findById(expired.getId()));
+        assertNotNull(authorizationService.findById(active.getId()));
+        Double score = redis.getRedisTemplate().opsForZSet().score(keys.getExpiryKey(active.getId()), active.getId());
+        assertNotNull(score);
+        assertEquals(active.getRefreshToken().getToken().getExpiresAt().toEpochMilli(), score.longValue());
+    }
+
+    @Test
+    @DisplayName("迁移不覆盖已重新保存的授权信息，源字段已删除时不重新写入")
+    void migrateKeepsNewerRow() throws JsonProcessingException {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        OAuth2Authorization stale = OAuth2Authorization.from(AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1))).id(authorization.getId()).build();
+        authorizationService.save(authorization);
+        // 模拟保存之前扫描到的旧版授权信息
+        putLegacyRow(authorization.getId(), legacyJson(stale));
+
+        assertEquals(1, authorizationService.migrateLegacy(100));
+
+        assertNull(getRow(keys.getLegacyTableKey(), authorization.getId()));
+        OAuth2Authorization found = authorizationService.findById(authorization.getId());
+        assertNotNull(found);
+        assertEquals(authorization.getAccessToken().getToken().getTokenValue(), found.getAccessToken().getToken().getTokenValue());
+
+        byte[] field = "removed".getBytes(StandardCharsets.UTF_8);
+        assertFalse(RedisWriteUtil.moveRow(redis.getRedisTemplate(), keys.getLegacyTableKey(), keys.getDataKey("removed"),
+                field, new byte[]{1}));
+        assertNull(getRow(keys.getDataKey("removed"), "removed"));
+    }
+
+    @Test
+    @DisplayName("无法解码的授权信息被隔离，不阻塞其他授权信息的迁移")
+    void migrateQuarantinesInvalidRow() throws JsonProcessingException {
+        OAuth2Authorization authorization = AuthorizationTestFixtures.authorization(registeredClient, "user",
+                Duration.ofMinutes(10), Duration.ofDays(1));
+        putLegacyRow("invalid", "{not json".getBytes(StandardCharsets.UTF_8));
+        putLegacyRow(authorization.getId(), legacyJson(authorization));
+
+        assertEquals(2, authorizationService.migrateLegacy(100));
+
+        assertNotNull(authorizationService.findById(authorization.getId()));
+        assertNull(getRow(keys.getLegacyTableKey(), "invalid"));
+        assertArrayEquals("{not json".getBytes(StandardCharsets.UTF_8),
+                getRow(keys.getQuarantineKey(keys.getLegacyTableKey()), "invalid"));
+        assertEquals(0, authorizationService.migrateLegacy(100));
+    }
+
+    /**
+     * 将授权信息按旧版格式编码为JSON
+     *
+     * @param authorization 授权信息
+     * @return JSON字节数组
+     * @throws JsonProcessingException 编码失败时抛出
+     */
+    private byte[] legacyJson(OAuth2Authorization authorization) throws JsonProcessingException {
+        return BinaryCodecUtil.createObjectMapper(List.of()).writeValueAsBytes(converter.convertToDomain(authorization));
+    }
+
+    /**
+     * 向RedisUtil缓存表写入旧版授权信息
+     *
+     * @param id    授权ID
+     * @param bytes 授权信息
+     */
+    private void putLegacyRow(String id, byte[] bytes) {
+        redis.getRedisTemplate().execute((RedisCallback<Boolean>) connection -> connection.hashCommands()
+                .hSet(keys.getLegacyTableKey(), id.getBytes(StandardCharsets.UTF_8), bytes));
+    }
+
+    /**
+     * 读取哈希表中的字段
+     *
+     * @param key 哈希表键
+     * @param id  授权ID
+     * @return 字段值，不存在时为null
+     */
+    private byte[] getRow(byte[] key, String id) {
+        return redis.getRedisTemplate().execute((RedisCallback<byte[]>) connection -> connection.hashCommands()
+                .hGet(key, id.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 读取键的剩余存活时间
+     *
+     * @param key 键
+     * @return 剩余存活时间毫秒数，键不存在时为-2
+     */
+    private long timeToLive(String key) {
+        Long timeToLive = redis.getRedisTemplate().getExpire(key, TimeUnit.MILLISECONDS);
+        return timeToLive != null ? timeToLive : -2;
+    }
+}
@@ -0,0 +1,133 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 测试用嵌入式Redis
+ * <p>
+ * 在本机随机端口启动Redis进程，用于测试Lua脚本和Redis存储，不依赖Docker。
+ * Redis连接和RedisUtil等基础设施由Spring Boot自动配置提供，与生产环境一致；
+ * 本项目各安全模块的自动配置被排除，被测组件由各测试使用生产构造函数显式创建。
+ * </p>
+ *
+ * @author george
+ */
+public class EmbeddedRedisServer implements AutoCloseable {
+
+    private final RedisServer redisServer;
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedRedisServer(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    /**
+     * 启动嵌入式Redis
+     *
+     * @return 嵌入式Redis
+     */
+    public static EmbeddedRedisServer start() {
+        int port;
+        RedisServer redisServer;
+        try {
+            port = getFreePort();
+            redisServer = new RedisServer(port);
+            redisServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("启动嵌入式Redis失败", e);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("spring.data.redis.host=127.0.0.1", "spring.data.redis.port=" + port)
+                .run();
+        EmbeddedRedisServer server = new EmbeddedRedisServer(redisServer, context);
+        server.flush();
+        return server;
+    }
+
+    /**
+     * 获取字符串Redis模板
+     *
+     * @return 字符串Redis模板
+     */
+    public StringRedisTemplate getRedisTemplate() {
+        return context.getBean(StringRedisTemplate.class);
+    }
+
+    /**
+     * 获取响应式字符串Redis模板
+     *
+     * @return 响应式字符串Redis模板
+     */
+    public ReactiveStringRedisTemplate getReactiveRedisTemplate() {
+        return context.getBean(ReactiveStringRedisTemplate.class);
+    }
+
+    /**
+     * 清空当前数据库
+     */
+    public void flush() {
+        getRedisTemplate().execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    /**
+     * 关闭Spring上下文并停止Redis
+     */
+    @Override
+    public void close() {
+        context.close();
+        try {
+            redisServer.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException("停止嵌入式Redis失败", e);
+        }
+    }
+
+    /**
+     * 获取本机空闲端口
+     *
+     * @return 端口号
+     * @throws IOException 无法分配端口时抛出
+     */
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 测试应用配置，仅保留基础设施自动配置
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = {
+            "com.gls.athena.security.common.SecurityCommonAutoConfig",
+            "com.gls.athena.security.captcha.CaptchaAutoConfig",
+            "com.gls.athena.security.rest.RestAutoConfig",
+            "com.gls.athena.security.web.SecurityWebAutoConfig",
+            "com.gls.athena.security.oauth2.client.Oauth2ClientAutoConfig",
+            "com.gls.athena.security.oauth2.client.feishu.Oauth2FeishuAutoConfig",
+            "com.gls.athena.security.oauth2.client.wechat.Oauth2WechatAutoConfig",
+            "com.gls.athena.security.oauth2.authorization.server.AuthorizationServerAutoConfig"
+    })
+    static class TestApplication {
+    }
+}
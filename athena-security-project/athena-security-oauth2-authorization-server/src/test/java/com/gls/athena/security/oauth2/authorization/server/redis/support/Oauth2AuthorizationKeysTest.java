@@ -0,0 +1,79 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 授权信息Redis键布局测试
+ *
+ * @author george
+ */
+@DisplayName("授权信息Redis键布局测试")
+class Oauth2AuthorizationKeysTest {
+
+    @Test
+    @DisplayName("分片序号为UTF-8编码的CRC32校验值对分片数取模")
+    void shardIsCrc32() {
+        // CRC32("123456789") = 0xCBF43926 = 3421780262
+        assertEquals(6, new Oauth2AuthorizationKeys(16).getShard("123456789"));
+        assertEquals(2, new Oauth2AuthorizationKeys(10).getShard("123456789"));
+        assertEquals(0, new Oauth2AuthorizationKeys(1).getShard("123456789"));
+    }
+
+    @Test
+    @DisplayName("分片键布局与文档一致")
+    void shardedKeys() {
+        Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(16);
+
+        assertTrue(keys.isSharded());
+        assertEquals("oauth2:authorization:{6}:data", new String(keys.getDataKey("123456789"), StandardCharsets.UTF_8));
+        assertEquals("oauth2:authorization:{6}:expiry", keys.getExpiryKey("123456789"));
+        assertEquals("oauth2:authorization:{6}:data", keys.getDataKeyByExpiryKey("oauth2:authorization:{6}:expiry"));
+        assertEquals("oauth2:authorization:data", keys.getDataKeyByExpiryKey(keys.getLegacyExpiryKey()));
+        assertEquals(17, keys.getExpiryKeys().size());
+        assertEquals(keys.getLegacyExpiryKey(), keys.getExpiryKeys().getLast());
+    }
+
+    @Test
+    @DisplayName("同一分片的授权信息哈希表与过期时间有序集合位于同一个集群槽位")
+    void sameSlotPerShard() {
+        Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(16);
+        for (String expiryKey : keys.getExpiryKeys()) {
+            if (expiryKey.equals(keys.getLegacyExpiryKey())) {
+                continue;
+            }
+            assertEquals(SlotHash.getSlot(expiryKey), SlotHash.getSlot(keys.getDataKeyByExpiryKey(expiryKey)));
+        }
+    }
+
+    @Test
+    @DisplayName("未分片时使用原有键")
+    void unsharded() {
+        Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(0);
+
+        assertFalse(keys.isSharded());
+        assertEquals(-1, keys.getShard("123456789"));
+        assertArrayEquals(keys.getLegacyDataKey(), keys.getDataKey("123456789"));
+        assertEquals("oauth2:authorization:expiry", keys.getExpiryKey("123456789"));
+        assertEquals(1, keys.getExpiryKeys().size());
+    }
+
+    @Test
+    @DisplayName("随机授权ID均匀分布到各分片")
+    void uniformDistribution() {
+        Oauth2AuthorizationKeys keys = new Oauth2AuthorizationKeys(16);
+        int[] counts = new int[16];
+        for (int i = 0; i < 16000; i++) {
+            counts[keys.getShard(UUID.randomUUID().toString())]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800 && count < 1200, "分片分布不均匀: " + count);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.gls.athena.security.oauth2.authorization.server.redis.support;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationStoreProperties;
+import com.gls.athena.security.oauth2.authorization.server.redis.domain.Oauth2Authorization;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享数据块存储测试，在嵌入式Redis中执行保存脚本
+ *
+ * @author george
+ */
+@DisplayName("共享数据块存储测试")
+class RedisOauth2AuthorizationBlockStoreTest {
+
+    private static final String HASH = "block-hash";
+
+    private static final String KEY = Oauth2AuthorizationKeys.CACHE_NAME + ":block:" + HASH;
+
+    private static final byte[] BLOCK = "block-content".getBytes(StandardCharsets.UTF_8);
+
+    private static EmbeddedRedisServer redis;
+
+    private final AuthorizationStoreProperties properties = new AuthorizationStoreProperties();
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void flush() {
+        redis.flush();
+    }
+
+    @Test
+    @DisplayName("写入新数据块，存活时间不短于授权信息过期时间")
+    void saveNewBlock() {
+        RedisOauth2AuthorizationBlockStore blockStore = newBlockStore();
+
+        blockStore.save(HASH, BLOCK, owner(3600));
+
+        assertEquals("block-content", redis.getRedisTemplate().opsForValue().get(KEY));
+        assertTrue(timeToLive() >= 3600_000);
+        assertArrayEquals(BLOCK, newBlockStore().load(HASH));
+    }
+
+    @Test
+    @DisplayName("只延长存活时间，不缩短")
+    void extendNeverShortens() {
+        RedisOauth2AuthorizationBlockStore blockStore = newBlockStore();
+        blockStore.save(HASH, BLOCK, owner(600));
+        long initial = timeToLive();
+
+        blockStore.save(HASH, null, owner(7200));
+        long extended = timeToLive();
+        blockStore.save(HASH, null, owner(60));
+
+        assertTrue(extended > initial);
+        assertTrue(timeToLive() > initial);
+        assertEquals("block-content", redis.getRedisTemplate().opsForValue().get(KEY));
+    }
+
+    @Test
+    @DisplayName("数据块已不存在且本节点有缓存时重新写入")
+    void restoreFromLocalCache() {
+        RedisOauth2AuthorizationBlockStore blockStore = newBlockStore();
+        blockStore.save(HASH, BLOCK, owner(600));
+        redis.getRedisTemplate().delete(KEY);
+
+        blockStore.save(HASH, null, owner(600));
+
+        assertEquals("block-content", redis.getRedisTemplate().opsForValue().get(KEY));
+    }
+
+    @Test
+    @DisplayName("数据块已不存在且本节点没有缓存时抛出异常，不写入空数据块")
+    void missingBlockFails() {
+        RedisOauth2AuthorizationBlockStore blockStore = newBlockStore();
+
+        assertThrows(IllegalStateException.class, () -> blockStore.save(HASH, null, owner(600)));
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(KEY));
+    }
+
+    @Test
+    @DisplayName("异步保存 - 数据块已不存在且本节点没有缓存时以异常结束")
+    void missingBlockFailsAsync() {
+        RedisOauth2AuthorizationBlockStore blockStore = newBlockStore();
+
+        assertThrows(IllegalStateException.class, () -> blockStore.saveAsync(HASH, null, owner(600)).block());
+        assertEquals(Boolean.FALSE, redis.getRedisTemplate().hasKey(KEY));
+
+        blockStore.saveAsync(HASH, BLOCK, owner(600)).block();
+        assertEquals("block-content", redis.getRedisTemplate().opsForValue().get(KEY));
+    }
+
+    /**
+     * 创建本地缓存为空的共享数据块存储
+     *
+     * @return 共享数据块存储
+     */
+    private RedisOauth2AuthorizationBlockStore newBlockStore() {
+        return new RedisOauth2AuthorizationBlockStore(redis.getRedisTemplate(), redis.getReactiveRedisTemplate(), properties);
+    }
+
+    /**
+     * 构造引用数据块的授权信息
+     *
+     * @param seconds 访问令牌剩余有效秒数
+     * @return 授权信息
+     */
+    private Oauth2Authorization owner(long seconds) {
+        Oauth2Authorization authorization = new Oauth2Authorization();
+        authorization.setId("owner");
+        authorization.setAccessTokenValue("access-token");
+        authorization.setAccessTokenExpiresAt(Instant.now().plusSeconds(seconds));
+        return authorization;
+    }
+
+    /**
+     * 读取数据块剩余存活时间
+     *
+     * @return 剩余存活时间毫秒数
+     */
+    private long timeToLive() {
+        Long timeToLive = redis.getRedisTemplate().getExpire(KEY, TimeUnit.MILLISECONDS);
+        return timeToLive != null ? timeToLive : -2;
+    }
+}
@@ -0,0 +1,81 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 加密存储的签名密钥环存储测试
+ *
+ * @author george
+ */
+@DisplayName("加密存储的签名密钥环存储测试")
+class EncryptingJwkKeyRingRepositoryTest {
+
+    private final InMemoryJwkKeyRingRepository delegate = new InMemoryJwkKeyRingRepository();
+
+    private final EncryptingJwkKeyRingRepository repository = new EncryptingJwkKeyRingRepository(delegate, randomKey());
+
+    private final String ring = new JWKSet(JwkGenerator.generate("ES256", "key-1")).toString(false);
+
+    @Test
+    @DisplayName("写入密文，读取明文，存储中不包含私钥")
+    void encryptAtRest() {
+        assertTrue(repository.compareAndSet(null, ring));
+
+        String stored = delegate.load();
+        assertFalse(stored.contains("\"d\""));
+        assertFalse(stored.contains("key-1"));
+        assertEquals(5, stored.split("\\.", -1).length);
+        assertEquals(ring, repository.load());
+    }
+
+    @Test
+    @DisplayName("比较并交换以明文比较，期望内容过期时写入失败")
+    void compareAndSet() {
+        String updated = new JWKSet(JwkGenerator.generate("ES256", "key-2")).toString(false);
+        assertTrue(repository.compareAndSet(null, ring));
+        assertFalse(repository.compareAndSet(null, updated));
+
+        assertEquals(ring, repository.load());
+        assertTrue(repository.compareAndSet(ring, updated));
+        assertFalse(repository.compareAndSet(ring, ring));
+        assertEquals(updated, repository.load());
+    }
+
+    @Test
+    @DisplayName("明文存储的旧密钥环读取后加密写回")
+    void encryptLegacyPlaintext() {
+        delegate.set(ring);
+
+        assertEquals(ring, repository.load());
+
+        assertFalse(delegate.load().contains("\"d\""));
+        assertEquals(ring, repository.load());
+    }
+
+    @Test
+    @DisplayName("密钥加密密钥不匹配时拒绝读取，长度不是256位时拒绝构造")
+    void wrongKey() {
+        assertTrue(repository.compareAndSet(null, ring));
+
+        EncryptingJwkKeyRingRepository other = new EncryptingJwkKeyRingRepository(delegate, randomKey());
+        assertThrows(IllegalStateException.class, other::load);
+        assertThrows(IllegalArgumentException.class, () -> new EncryptingJwkKeyRingRepository(delegate, new byte[16]));
+    }
+
+    /**
+     * 生成随机的256位密钥加密密钥
+     *
+     * @return 密钥
+     */
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import java.util.Objects;
+
+/**
+ * 测试用内存密钥环存储
+ *
+ * @author george
+ */
+class InMemoryJwkKeyRingRepository implements JwkKeyRingRepository {
+
+    private String content;
+
+    @Override
+    public synchronized String load() {
+        return content;
+    }
+
+    @Override
+    public synchronized boolean compareAndSet(String expected, String updated) {
+        if (!Objects.equals(content, expected)) {
+            return false;
+        }
+        content = updated;
+        return true;
+    }
+
+    /**
+     * 直接写入存储内容，模拟其他节点或旧版本的写入
+     *
+     * @param content 存储内容
+     */
+    synchronized void set(String content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,92 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.EdECPrivateKey;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于JDK的Ed25519签名器测试，签名结果由JDK的EdDSA实现验证
+ *
+ * @author george
+ */
+@DisplayName("基于JDK的Ed25519签名器测试")
+class JdkEd25519SignerTest {
+
+    @Test
+    @DisplayName("JWS签名可由JDK的Ed25519公钥验证")
+    void signVerifiesWithJdk() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        JWSObject jws = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload("{\"sub\":\"user\"}"));
+
+        jws.sign(new JdkEd25519Signer(toOctetKeyPair(keyPair)));
+
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(jws.getSigningInput());
+        assertTrue(verifier.verify(jws.getSignature().decode()));
+
+        // 篡改载荷后签名失效
+        byte[] tampered = jws.getSigningInput().clone();
+        tampered[tampered.length - 1] ^= 1;
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(tampered);
+        assertFalse(verifier.verify(jws.getSignature().decode()));
+    }
+
+    @Test
+    @DisplayName("Ed25519签名是确定性的，相同输入得到相同签名")
+    void deterministic() throws Exception {
+        JdkEd25519Signer signer = new JdkEd25519Signer(toOctetKeyPair(KeyPairGenerator.getInstance("Ed25519").generateKeyPair()));
+        JWSHeader header = new JWSHeader(JWSAlgorithm.EdDSA);
+        byte[] input = "header.payload".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(signer.sign(header, input), signer.sign(header, input));
+    }
+
+    @Test
+    @DisplayName("只支持EdDSA算法和包含私钥的Ed25519密钥")
+    void rejectUnsupported() throws Exception {
+        OctetKeyPair octetKeyPair = toOctetKeyPair(KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+        JdkEd25519Signer signer = new JdkEd25519Signer(octetKeyPair);
+
+        assertThrows(JOSEException.class, () -> signer.sign(new JWSHeader(JWSAlgorithm.ES256), new byte[1]));
+        assertThrows(JOSEException.class, () -> new JdkEd25519Signer(octetKeyPair.toPublicJWK()));
+    }
+
+    /**
+     * 将JDK生成的Ed25519密钥对转换为JWK
+     * <p>
+     * 公钥的X.509编码以固定前缀开头，最后32字节为原始公钥。
+     * </p>
+     *
+     * @param keyPair JDK密钥对
+     * @return Ed25519 JWK
+     * @throws GeneralSecurityException 私钥不可导出
+     */
+    static OctetKeyPair toOctetKeyPair(KeyPair keyPair) throws GeneralSecurityException {
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        byte[] x = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        byte[] d = ((EdECPrivateKey) keyPair.getPrivate()).getBytes()
+                .orElseThrow(() -> new GeneralSecurityException("无法导出Ed25519私钥"));
+        return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x))
+                .d(Base64URL.encode(d))
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package com.gls.athena.security.oauth2.authorization.server.token;
+
+import com.gls.athena.security.oauth2.authorization.server.config.AuthorizationKeyRingProperties;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 签名密钥环轮换测试，使用可调整的时钟验证密钥的提前发布、启用和停止发布
+ *
+ * @author george
+ */
+@DisplayName("签名密钥环轮换测试")
+class JwkKeyRingTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private static final long ROTATION_INTERVAL = 10_000;
+
+    private static final long PRE_PUBLISH = 1_000;
+
+    private static final long OVERLAP = 3_000;
+
+    private final InMemoryJwkKeyRingRepository repository = new InMemoryJwkKeyRingRepository();
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private final JwkKeyRing keyRing = new JwkKeyRing(repository, properties(), "ES256", clock);
+
+    @Test
+    @DisplayName("密钥环为空时生成立即启用的密钥，没有变化时不写入")
+    void generateActiveKey() throws ParseException {
+        keyRing.rotate();
+
+        List<JWK> keys = storedKeys();
+        assertEquals(1, keys.size());
+        assertEquals(START, keys.getFirst().getNotBeforeTime().getTime());
+        assertNull(keys.getFirst().getExpirationTime());
+        assertEquals(keys.getFirst().getKeyID(), keyRing.getActiveKeyId());
+
+        String stored = repository.load();
+        clock.set(START + ROTATION_INTERVAL - PRE_PUBLISH - 1);
+        keyRing.rotate();
+        assertSame(stored, repository.load());
+    }
+
+    @Test
+    @DisplayName("到期前提前发布下一个密钥，当前密钥仍用于签名")
+    void prePublishNextKey() throws ParseException {
+        keyRing.rotate();
+        String activeKeyId = keyRing.getActiveKeyId();
+
+        clock.set(START + ROTATION_INTERVAL - PRE_PUBLISH);
+        keyRing.rotate();
+
+        List<JWK> keys = storedKeys();
+        assertEquals(2, keys.size());
+        assertEquals(activeKeyId, keys.get(0).getKeyID());
+        assertEquals(START + ROTATION_INTERVAL + OVERLAP, keys.get(0).getExpirationTime().getTime());
+        assertEquals(START + ROTATION_INTERVAL, keys.get(1).getNotBeforeTime().getTime());
+        assertEquals(activeKeyId, keyRing.getActiveKeyId());
+        assertEquals(2, keyRing.getPublicJwkSet().getKeys().size());
+        List<JWK> signingKeys = keyRing.get(new JWKSelector(new JWKMatcher.Builder().privateOnly(true).build()), null);
+        assertEquals(List.of(activeKeyId), signingKeys.stream().map(JWK::getKeyID).toList());
+    }
+
+    @Test
+    @DisplayName("下一个密钥启用后切换签名密钥，旧密钥在重叠时间内继续发布，之后删除")
+    void activateAndRetire() throws ParseException {
+        AtomicInteger rotations = new AtomicInteger();
+        keyRing.addRotationListener(rotations::incrementAndGet);
+        keyRing.rotate();
+        String oldKeyId = keyRing.getActiveKeyId();
+        clock.set(START + ROTATION_INTERVAL - PRE_PUBLISH);
+        keyRing.rotate();
+        String newKeyId = storedKeys().get(1).getKeyID();
+
+        clock.set(START + ROTATION_INTERVAL);
+        keyRing.rotate();
+
+        assertEquals(newKeyId, keyRing.getActiveKeyId());
+        assertEquals(2, rotations.get());
+        assertEquals(List.of(newKeyId, oldKeyId),
+                keyRing.getPublicJwkSet().getKeys().stream().map(JWK::getKeyID).toList());
+
+        clock.set(START + ROTATION_INTERVAL + OVERLAP - 1);
+        keyRing.rotate();
+        assertEquals(2, storedKeys().size());
+
+        clock.set(START + ROTATION_INTERVAL + OVERLAP);
+        keyRing.rotate();
+        assertEquals(List.of(newKeyId), storedKeys().stream().map(JWK::getKeyID).toList());
+        assertEquals(newKeyId, keyRing.getActiveKeyId());
+    }
+
+    @Test
+    @DisplayName("错过轮换时间时从当前时间起提前发布下一个密钥")
+    void missedRotation() throws ParseException {
+        keyRing.rotate();
+        String activeKeyId = keyRing.getActiveKeyId();
+
+        long now = START + 5 * ROTATION_INTERVAL;
+        clock.set(now);
+        keyRing.rotate();
+
+        List<JWK> keys = storedKeys();
+        assertEquals(2, keys.size());
+        assertEquals(now + PRE_PUBLISH, keys.get(1).getNotBeforeTime().getTime());
+        assertEquals(activeKeyId, keyRing.getActiveKeyId());
+    }
+
+    @Test
+    @DisplayName("多个节点共享存储时使用同一个密钥")
+    void sharedRepository() {
+        JwkKeyRing other = new JwkKeyRing(repository, properties(), "ES256", clock);
+
+        keyRing.rotate();
+        other.rotate();
+
+        assertEquals(keyRing.getActiveKeyId(), other.getActiveKeyId());
+    }
+
+    /**
+     * 读取存储中的密钥，按启用时间排序
+     *
+     * @return 密钥列表
+     * @throws ParseException 解析失败时抛出
+     */
+    private List<JWK> storedKeys() throws ParseException {
+        return JWKSet.parse(repository.load()).getKeys();
+    }
+
+    /**
+     * 构造密钥环配置
+     *
+     * @return 密钥环配置
+     */
+    private static AuthorizationKeyRingProperties properties() {
+        AuthorizationKeyRingProperties properties = new AuthorizationKeyRingProperties();
+        properties.setRotationInterval(ROTATION_INTERVAL);
+        properties.setPrePublish(PRE_PUBLISH);
+        properties.setOverlap(OVERLAP);
+        return properties;
+    }
+
+    /**
+     * 可调整的时钟
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        private MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
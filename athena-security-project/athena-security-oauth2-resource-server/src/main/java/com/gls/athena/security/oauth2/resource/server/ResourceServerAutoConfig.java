@@ -1,5 +1,7 @@
 package com.gls.athena.security.oauth2.resource.server;
 
+import com.gls.athena.security.oauth2.resource.server.config.ResourceServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,5 +12,6 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ComponentScan
+@EnableConfigurationProperties(ResourceServerProperties.class)
 public class ResourceServerAutoConfig {
 }
@@ -0,0 +1,165 @@
+package com.gls.athena.security.oauth2.resource.server.config;
+
+import cn.hutool.core.util.StrUtil;
+import com.gls.athena.common.core.constant.IConstants;
+import com.gls.athena.security.oauth2.resource.server.introspection.CachingOpaqueTokenIntrospector;
+import com.gls.athena.security.oauth2.resource.server.jwt.CachingJwkSource;
+import com.gls.athena.security.oauth2.resource.server.jwt.JdkJwsKeySelector;
+import com.gls.athena.security.oauth2.resource.server.jwt.JdkJwsVerifierFactory;
+import com.gls.athena.security.oauth2.resource.server.jwt.RevokedJwtValidator;
+import com.gls.athena.security.oauth2.resource.server.revocation.AccessTokenRevocationList;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.introspection.SpringOpaqueTokenIntrospector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 资源服务器配置类
+ * 提供已撤销访问令牌列表；验证模式为jwt时提供后台刷新的JWK集合缓存和本地验证JWT的解码器，
+ * 验证模式为opaque且配置了内省端点时提供缓存内省结果的内省器
+ *
+ * @author george
+ */
+@Configuration
+public class ResourceServerConfig {
+
+    /**
+     * 创建JWK集合缓存
+     *
+     * @param properties 资源服务器配置属性
+     * @return JWK集合缓存
+     * @throws IllegalStateException 未配置JWK集合地址
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.resource-server",
+            name = "mode", havingValue = "jwt")
+    public CachingJwkSource cachingJwkSource(ResourceServerProperties properties) {
+        if (StrUtil.isBlank(properties.getJwk().getJwkSetUri())) {
+            throw new IllegalStateException("验证模式为jwt时需要配置JWK集合地址");
+        }
+        return new CachingJwkSource(properties.getJwk());
+    }
+
+    /**
+     * 创建已撤销访问令牌列表
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param properties    资源服务器配置属性
+     * @return 已撤销访问令牌列表
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.resource-server.revocation",
+            name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AccessTokenRevocationList accessTokenRevocationList(StringRedisTemplate redisTemplate,
+                                                               ResourceServerProperties properties) {
+        return new AccessTokenRevocationList(redisTemplate, properties.getRevocation());
+    }
+
+    /**
+     * 创建订阅撤销通知的消息监听容器
+     *
+     * @param connectionFactory Redis连接工厂
+     * @param revocationList    已撤销访问令牌列表
+     * @return 消息监听容器
+     */
+    @Bean
+    @ConditionalOnBean(AccessTokenRevocationList.class)
+    public RedisMessageListenerContainer accessTokenRevocationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                AccessTokenRevocationList revocationList) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(revocationList, new ChannelTopic(revocationList.getChannel()));
+        return container;
+    }
+
+    /**
+     * 创建JWT解码器
+     * <p>
+     * 验证密钥只从JWK集合缓存中读取，支持RSA、EC以及基于JDK实现的EdDSA签名；
+     * 声明由Spring Security的校验器校验，配置了签发者时同时校验iss声明，启用撤销列表时拒绝已撤销的令牌。
+     * </p>
+     *
+     * @param cachingJwkSource JWK集合缓存
+     * @param revocationList   已撤销访问令牌列表，未启用时为空
+     * @param properties       资源服务器配置属性
+     * @return JWT解码器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(CachingJwkSource.class)
+    public JwtDecoder jwtDecoder(CachingJwkSource cachingJwkSource,
+                                 ObjectProvider<AccessTokenRevocationList> revocationList,
+                                 ResourceServerProperties properties) {
+        ResourceServerJwkProperties jwk = properties.getJwk();
+        Set<JWSAlgorithm> algorithms = jwk.getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toUnmodifiableSet());
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JdkJwsKeySelector(algorithms, cachingJwkSource));
+        jwtProcessor.setJWSVerifierFactory(new JdkJwsVerifierFactory());
+        // 声明由NimbusJwtDecoder的校验器统一校验
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(StrUtil.isBlank(jwk.getIssuer())
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(jwk.getIssuer()));
+        revocationList.ifAvailable(list -> validators.add(new RevokedJwtValidator(list)));
+        jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(validators));
+        return jwtDecoder;
+    }
+
+    /**
+     * 创建不透明令牌内省器
+     * <p>
+     * 通过授权服务器内省端点验证令牌，启用缓存时包装为{@link CachingOpaqueTokenIntrospector}，
+     * 并在启用撤销列表时订阅撤销通知失效缓存。
+     * </p>
+     *
+     * @param revocationList 已撤销访问令牌列表，未启用时为空
+     * @param properties     资源服务器配置属性
+     * @return 不透明令牌内省器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.resource-server.introspection",
+            name = "uri")
+    public OpaqueTokenIntrospector opaqueTokenIntrospector(ObjectProvider<AccessTokenRevocationList> revocationList,
+                                                           ResourceServerProperties properties) {
+        ResourceServerIntrospectionProperties introspection = properties.getIntrospection();
+        OpaqueTokenIntrospector introspector = SpringOpaqueTokenIntrospector
+                .withIntrospectionUri(introspection.getUri())
+                .clientId(introspection.getClientId())
+                .clientSecret(introspection.getClientSecret())
+                .build();
+        if (!introspection.isCacheEnabled()) {
+            return introspector;
+        }
+        return new CachingOpaqueTokenIntrospector(introspector, introspection, revocationList.getIfAvailable());
+    }
+}
@@ -0,0 +1,52 @@
+package com.gls.athena.security.oauth2.resource.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 不透明令牌内省配置属性类
+ * 用于配置授权服务器内省端点、客户端凭证以及内省结果的本地缓存
+ *
+ * @author george
+ */
+@Data
+public class ResourceServerIntrospectionProperties implements Serializable {
+
+    /**
+     * 授权服务器内省端点地址，例如http://localhost:8080/oauth2/introspect
+     * 未配置时不创建内省器，使用Spring Boot的默认配置
+     */
+    private String uri;
+
+    /**
+     * 调用内省端点的客户端ID
+     */
+    private String clientId;
+
+    /**
+     * 调用内省端点的客户端密钥
+     */
+    private String clientSecret;
+
+    /**
+     * 是否缓存内省结果，默认启用
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * 有效令牌内省结果的缓存存活时间，单位毫秒，默认60000毫秒(1分钟)
+     * 实际存活时间不超过令牌的过期时间；未订阅撤销列表时，撤销的令牌最迟在该时间后失效
+     */
+    private long timeToLive = 60000;
+
+    /**
+     * 无效令牌内省结果的缓存存活时间，单位毫秒，默认5000毫秒(5秒)
+     */
+    private long negativeTimeToLive = 5000;
+
+    /**
+     * 最大缓存令牌数量，默认100000
+     */
+    private long maximumSize = 100000;
+}
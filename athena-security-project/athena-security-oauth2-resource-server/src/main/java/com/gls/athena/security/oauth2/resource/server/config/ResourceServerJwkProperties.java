@@ -0,0 +1,60 @@
+package com.gls.athena.security.oauth2.resource.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWK集合缓存配置属性类
+ * 用于配置授权服务器JWK集合地址、后台刷新周期以及本地验证JWT时接受的签名算法
+ *
+ * @author george
+ */
+@Data
+public class ResourceServerJwkProperties implements Serializable {
+
+    /**
+     * 授权服务器JWK集合地址，例如http://localhost:8080/oauth2/jwks
+     * 验证模式为jwt时必须配置
+     */
+    private String jwkSetUri;
+
+    /**
+     * 令牌签发者，配置后校验JWT的iss声明，默认不校验
+     */
+    private String issuer;
+
+    /**
+     * 接受的签名算法，默认RS256、ES256、EdDSA
+     */
+    private List<String> jwsAlgorithms = new ArrayList<>(List.of("RS256", "ES256", "EdDSA"));
+
+    /**
+     * JWK集合后台刷新间隔，单位毫秒，默认300000毫秒(5分钟)
+     * 应小于授权服务器新密钥的提前发布时间
+     */
+    private long refreshInterval = 300000;
+
+    /**
+     * 遇到未知密钥ID时触发刷新的最小间隔，单位毫秒，默认30000毫秒(30秒)
+     * 防止携带伪造密钥ID的令牌频繁触发远程获取
+     */
+    private long minRefreshInterval = 30000;
+
+    /**
+     * 获取JWK集合的连接超时时间，单位毫秒，默认5000毫秒
+     */
+    private int connectTimeout = 5000;
+
+    /**
+     * 获取JWK集合的读取超时时间，单位毫秒，默认5000毫秒
+     */
+    private int readTimeout = 5000;
+
+    /**
+     * JWK集合响应的最大字节数，默认51200字节(50KB)
+     */
+    private int sizeLimit = 51200;
+}
@@ -0,0 +1,46 @@
+package com.gls.athena.security.oauth2.resource.server.config;
+
+import com.gls.athena.common.core.constant.BaseProperties;
+import com.gls.athena.common.core.constant.IConstants;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+/**
+ * 资源服务器配置属性类
+ *
+ * @author george
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ConfigurationProperties(prefix = IConstants.BASE_PROPERTIES_PREFIX + ".security.oauth2.resource-server")
+public class ResourceServerProperties extends BaseProperties {
+
+    /**
+     * 访问令牌验证模式
+     * opaque：通过授权服务器内省端点验证不透明访问令牌；jwt：使用缓存的JWK集合在本地验证JWT访问令牌，需要配置JWK集合地址
+     */
+    private String mode = "opaque";
+
+    /**
+     * JWK集合缓存配置
+     * 包含本地验证JWT访问令牌时使用的JWK集合地址和后台刷新相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private ResourceServerJwkProperties jwk = new ResourceServerJwkProperties();
+
+    /**
+     * 不透明令牌内省配置
+     * 包含内省端点地址、客户端凭证和内省结果缓存相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private ResourceServerIntrospectionProperties introspection = new ResourceServerIntrospectionProperties();
+
+    /**
+     * 访问令牌撤销列表配置
+     * 包含订阅授权服务器发布的已撤销访问令牌相关的配置属性
+     */
+    @NestedConfigurationProperty
+    private ResourceServerRevocationProperties revocation = new ResourceServerRevocationProperties();
+}
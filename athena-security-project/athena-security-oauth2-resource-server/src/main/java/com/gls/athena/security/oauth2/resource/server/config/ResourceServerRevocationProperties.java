@@ -0,0 +1,36 @@
+package com.gls.athena.security.oauth2.resource.server.config;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 访问令牌撤销列表配置属性类
+ * 用于配置订阅授权服务器已撤销访问令牌的Redis有序集合、发布订阅频道和全量同步间隔，需与授权服务器的配置一致
+ *
+ * @author george
+ */
+@Data
+public class ResourceServerRevocationProperties implements Serializable {
+
+    /**
+     * 是否订阅已撤销的访问令牌，默认启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 保存已撤销访问令牌摘要的Redis有序集合键，分数为令牌过期时间
+     */
+    private String key = "oauth2:access-token:revoked";
+
+    /**
+     * 授权服务器发布撤销通知的Redis发布订阅频道
+     */
+    private String channel = "oauth2:access-token:revoked";
+
+    /**
+     * 全量同步间隔，单位毫秒，默认60000毫秒(1分钟)
+     * 撤销通知通过发布订阅实时推送，全量同步用于补偿订阅中断期间丢失的通知并清理已过期的条目
+     */
+    private long syncInterval = 60000;
+}
@@ -0,0 +1,195 @@
+package com.gls.athena.security.oauth2.resource.server.introspection;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.gls.athena.security.oauth2.resource.server.config.ResourceServerIntrospectionProperties;
+import com.gls.athena.security.oauth2.resource.server.revocation.AccessTokenRevocationList;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存内省结果的不透明令牌内省器
+ * <p>
+ * 以令牌的SHA-256摘要为键缓存内省结果，内存中不保存令牌原文：
+ * 有效令牌缓存到令牌过期时间与配置的存活时间中较早的时间，无效令牌按较短的存活时间缓存，
+ * 调用内省端点失败等其他异常不缓存。同一令牌的并发内省只调用一次内省端点，其余请求等待其结果。
+ * </p>
+ * <p>
+ * 缓存中保存内省结果的{@link CompletableFuture}：首个请求放入未完成的结果后在自身线程中调用内省端点，
+ * 阻塞的HTTP调用不在缓存的计算过程中执行，不会持有缓存内部的锁，也不会阻塞同一分段中其他令牌的读写。
+ * </p>
+ * <p>
+ * 配置{@link AccessTokenRevocationList}时，收到撤销通知后立即失效对应的缓存，命中缓存时也会再次检查撤销列表，
+ * 避免内省期间到达的撤销通知被缓存结果覆盖。
+ * </p>
+ *
+ * @author george
+ */
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+    private final OpaqueTokenIntrospector delegate;
+
+    /**
+     * 撤销列表，未启用时为null
+     */
+    private final AccessTokenRevocationList revocationList;
+
+    /**
+     * 令牌摘要到内省结果的缓存
+     */
+    private final AsyncCache<String, IntrospectionResult> cache;
+
+    /**
+     * 构造缓存内省结果的内省器
+     *
+     * @param delegate       实际调用内省端点的内省器
+     * @param properties     内省配置
+     * @param revocationList 撤销列表，可以为null
+     */
+    public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate, ResourceServerIntrospectionProperties properties,
+                                          AccessTokenRevocationList revocationList) {
+        this.delegate = delegate;
+        this.revocationList = revocationList;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new IntrospectionExpiry(properties.getTimeToLive(), properties.getNegativeTimeToLive()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache.synchronous(), "oauth2.resource.introspection");
+        if (revocationList != null) {
+            revocationList.addRevocationListener(cache.synchronous()::invalidate);
+        }
+    }
+
+    /**
+     * 内省令牌，优先使用缓存的结果
+     *
+     * @param token 不透明令牌
+     * @return 令牌对应的主体
+     * @throws BadOpaqueTokenException 令牌无效或已撤销
+     */
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        String digest = AccessTokenRevocationList.digest(token);
+        if (revocationList != null && revocationList.isRevokedDigest(digest)) {
+            cache.synchronous().invalidate(digest);
+            throw new BadOpaqueTokenException("Provided token isn't active");
+        }
+        CompletableFuture<IntrospectionResult> future = new CompletableFuture<>();
+        CompletableFuture<IntrospectionResult> cached = cache.get(digest, (key, executor) -> future);
+        if (cached == future) {
+            introspect(token, future);
+        }
+        IntrospectionResult result;
+        try {
+            result = cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (result.principal() == null) {
+            throw result.exception();
+        }
+        return result.principal();
+    }
+
+    /**
+     * 在当前线程调用内省端点并完成缓存中的结果
+     * <p>
+     * 无效令牌作为结果缓存；其他异常使结果异常完成，缓存随即移除该结果，等待中的请求收到同一个异常。
+     * </p>
+     *
+     * @param token  不透明令牌
+     * @param future 缓存中的结果
+     */
+    private void introspect(String token, CompletableFuture<IntrospectionResult> future) {
+        try {
+            future.complete(new IntrospectionResult(delegate.introspect(token), null));
+        } catch (BadOpaqueTokenException e) {
+            future.complete(new IntrospectionResult(null, e));
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 内省结果
+     *
+     * @param principal 有效令牌对应的主体，令牌无效时为null
+     * @param exception 令牌无效时的异常，令牌有效时为null
+     */
+    private record IntrospectionResult(OAuth2AuthenticatedPrincipal principal, BadOpaqueTokenException exception) {
+    }
+
+    /**
+     * 按内省结果计算缓存存活时间
+     *
+     * @param timeToLive         有效令牌的最长存活时间，单位毫秒
+     * @param negativeTimeToLive 无效令牌的存活时间，单位毫秒
+     */
+    private record IntrospectionExpiry(long timeToLive, long negativeTimeToLive) implements Expiry<String, IntrospectionResult> {
+
+        /**
+         * 新缓存的结果：有效令牌取令牌过期时间与最长存活时间中较早者，无效令牌使用无效令牌存活时间
+         *
+         * @param key         令牌摘要
+         * @param value       内省结果
+         * @param currentTime 当前时间纳秒数
+         * @return 存活时间纳秒数
+         */
+        @Override
+        public long expireAfterCreate(String key, IntrospectionResult value, long currentTime) {
+            if (value.principal() == null) {
+                return TimeUnit.MILLISECONDS.toNanos(negativeTimeToLive);
+            }
+            long ttl = timeToLive;
+            if (value.principal().getAttribute(OAuth2TokenIntrospectionClaimNames.EXP) instanceof Instant expiresAt) {
+                ttl = Math.min(ttl, expiresAt.toEpochMilli() - System.currentTimeMillis());
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(ttl, 0));
+        }
+
+        /**
+         * 更新的结果按新结果重新计算存活时间
+         *
+         * @param key             令牌摘要
+         * @param value           内省结果
+         * @param currentTime     当前时间纳秒数
+         * @param currentDuration 剩余存活时间纳秒数
+         * @return 存活时间纳秒数
+         */
+        @Override
+        public long expireAfterUpdate(String key, IntrospectionResult value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        /**
+         * 读取不延长存活时间
+         *
+         * @param key             令牌摘要
+         * @param value           内省结果
+         * @param currentTime     当前时间纳秒数
+         * @param currentDuration 剩余存活时间纳秒数
+         * @return 剩余存活时间纳秒数
+         */
+        @Override
+        public long expireAfterRead(String key, IntrospectionResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
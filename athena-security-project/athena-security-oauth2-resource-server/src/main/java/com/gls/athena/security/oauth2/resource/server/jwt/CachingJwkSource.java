@@ -0,0 +1,160 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.gls.athena.security.oauth2.resource.server.config.ResourceServerJwkProperties;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 后台刷新的JWK集合缓存
+ * <p>
+ * JWK集合保存在内存中，由后台线程按刷新间隔从授权服务器获取，验证令牌时只读取内存，不会阻塞在远程获取上。
+ * 授权服务器会在启用新密钥前提前发布，因此正常轮换时缓存中已经包含新密钥。
+ * 遇到未知密钥ID时本次选择返回空结果，同时在后台触发一次刷新，两次触发之间至少间隔最小刷新间隔。
+ * 获取失败时保留上一次的JWK集合。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class CachingJwkSource implements JWKSource<SecurityContext>, InitializingBean, DisposableBean {
+
+    private final URL jwkSetUrl;
+
+    private final ResourceServerJwkProperties properties;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final Counter refreshCounter = Metrics.counter("athena.oauth2.resource.jwk.refreshes");
+
+    private final Counter failureCounter = Metrics.counter("athena.oauth2.resource.jwk.refresh.failures");
+
+    private volatile JWKSet jwkSet = new JWKSet();
+
+    /**
+     * 上一次开始刷新的时间毫秒数
+     */
+    private volatile long lastRefreshAt;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造JWK集合缓存
+     *
+     * @param properties JWK集合缓存配置
+     * @throws IllegalArgumentException JWK集合地址无效
+     */
+    public CachingJwkSource(ResourceServerJwkProperties properties) {
+        this.properties = properties;
+        try {
+            this.jwkSetUrl = URI.create(properties.getJwkSetUri()).toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("无效的JWK集合地址: " + properties.getJwkSetUri(), e);
+        }
+    }
+
+    /**
+     * 加载JWK集合并启动后台刷新任务
+     * <p>
+     * 启动时授权服务器不可用不会导致启动失败，后台任务会继续重试。
+     * </p>
+     */
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("oauth2-jwk-refresh")
+                .daemon(true)
+                .factory());
+        refresh();
+        executor.scheduleWithFixedDelay(this::refresh, properties.getRefreshInterval(),
+                properties.getRefreshInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台刷新任务
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 从缓存中选择密钥，没有匹配的密钥时在后台触发刷新
+     *
+     * @param jwkSelector 密钥选择器
+     * @param context     安全上下文
+     * @return 匹配的密钥
+     */
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> keys = jwkSelector.select(jwkSet);
+        if (keys.isEmpty()) {
+            requestRefresh();
+        }
+        return keys;
+    }
+
+    /**
+     * 获取当前缓存的JWK集合
+     *
+     * @return JWK集合
+     */
+    public JWKSet getJwkSet() {
+        return jwkSet;
+    }
+
+    /**
+     * 在后台触发一次刷新，距上一次刷新不足最小刷新间隔或正在刷新时忽略
+     */
+    public void requestRefresh() {
+        if (System.currentTimeMillis() - lastRefreshAt < properties.getMinRefreshInterval()) {
+            return;
+        }
+        if (refreshing.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * 从授权服务器获取JWK集合并替换缓存，失败时保留原有缓存
+     */
+    private void refresh() {
+        lastRefreshAt = System.currentTimeMillis();
+        try {
+            JWKSet loaded = JWKSet.load(jwkSetUrl, properties.getConnectTimeout(),
+                    properties.getReadTimeout(), properties.getSizeLimit());
+            jwkSet = loaded;
+            refreshCounter.increment();
+            log.debug("JWK集合已刷新，密钥数量: {}", loaded.size());
+        } catch (IOException | ParseException e) {
+            failureCounter.increment();
+            log.warn("获取JWK集合失败: {}", jwkSetUrl, e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Set;
+
+/**
+ * 基于JDK的Ed25519验证器
+ * <p>
+ * Nimbus自带的Ed25519验证器依赖Tink，本类改用JDK内置的EdDSA实现。
+ * 每次验证创建新的{@link Signature}实例，因此可以被多个线程共享。
+ * </p>
+ *
+ * @author george
+ */
+public class JdkEd25519Verifier implements JWSVerifier {
+
+    private static final String ALGORITHM = "Ed25519";
+
+    private final JCAContext jcaContext = new JCAContext();
+
+    private final PublicKey publicKey;
+
+    /**
+     * 构造Ed25519验证器
+     *
+     * @param publicKey Ed25519公钥
+     */
+    public JdkEd25519Verifier(PublicKey publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * 验证签名
+     *
+     * @param header       JWS头
+     * @param signingInput 签名数据
+     * @param signature    签名
+     * @return 签名是否有效
+     * @throws JOSEException 签名算法不支持或验证失败
+     */
+    @Override
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("不支持的签名算法: " + header.getAlgorithm());
+        }
+        try {
+            Signature verifier = Signature.getInstance(ALGORITHM);
+            verifier.initVerify(publicKey);
+            verifier.update(signingInput);
+            return verifier.verify(signature.decode());
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Ed25519验证失败", e);
+        }
+    }
+
+    /**
+     * 获取支持的签名算法
+     *
+     * @return 仅包含EdDSA
+     */
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.EdDSA);
+    }
+
+    /**
+     * 获取JCA上下文
+     *
+     * @return JCA上下文
+     */
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+}
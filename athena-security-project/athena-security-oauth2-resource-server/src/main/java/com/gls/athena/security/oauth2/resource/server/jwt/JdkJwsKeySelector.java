@@ -0,0 +1,104 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JWS验证密钥选择器
+ * <p>
+ * 按JWS头选择验证公钥，行为与Nimbus的JWSVerificationKeySelector一致，
+ * 另外将Ed25519密钥转换为JDK公钥，配合{@link JdkJwsVerifierFactory}在不依赖Tink的情况下验证EdDSA签名。
+ * </p>
+ *
+ * @author george
+ */
+public class JdkJwsKeySelector implements JWSKeySelector<SecurityContext> {
+
+    /**
+     * X.509编码的Ed25519公钥前缀，后接32字节原始公钥
+     */
+    private static final byte[] ED25519_PUBLIC_KEY_PREFIX = {
+            0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00
+    };
+
+    private final Set<JWSAlgorithm> algorithms;
+
+    private final JWKSource<SecurityContext> jwkSource;
+
+    /**
+     * 构造验证密钥选择器
+     *
+     * @param algorithms 接受的签名算法
+     * @param jwkSource  JWK源
+     */
+    public JdkJwsKeySelector(Set<JWSAlgorithm> algorithms, JWKSource<SecurityContext> jwkSource) {
+        this.algorithms = algorithms;
+        this.jwkSource = jwkSource;
+    }
+
+    /**
+     * 选择验证公钥
+     *
+     * @param header  JWS头
+     * @param context 安全上下文
+     * @return 候选公钥，签名算法不被接受时返回空列表
+     * @throws KeySourceException 读取JWK源失败
+     */
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) throws KeySourceException {
+        if (!algorithms.contains(header.getAlgorithm())) {
+            return List.of();
+        }
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(header);
+        if (matcher == null) {
+            return List.of();
+        }
+        List<JWK> jwks = jwkSource.get(new JWKSelector(matcher), context);
+        List<Key> keys = new ArrayList<>(jwks.size());
+        for (JWK jwk : jwks) {
+            if (jwk instanceof OctetKeyPair octetKeyPair) {
+                if (Curve.Ed25519.equals(octetKeyPair.getCurve())) {
+                    keys.add(toPublicKey(octetKeyPair));
+                }
+            } else {
+                KeyConverter.toJavaKeys(List.of(jwk)).stream()
+                        .filter(PublicKey.class::isInstance)
+                        .forEach(keys::add);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 将Ed25519密钥转换为JDK公钥
+     *
+     * @param octetKeyPair Ed25519密钥
+     * @return JDK公钥
+     * @throws KeySourceException 公钥无法解析
+     */
+    private static PublicKey toPublicKey(OctetKeyPair octetKeyPair) throws KeySourceException {
+        byte[] x = octetKeyPair.getDecodedX();
+        byte[] encoded = new byte[ED25519_PUBLIC_KEY_PREFIX.length + x.length];
+        System.arraycopy(ED25519_PUBLIC_KEY_PREFIX, 0, encoded, 0, ED25519_PUBLIC_KEY_PREFIX.length);
+        System.arraycopy(x, 0, encoded, ED25519_PUBLIC_KEY_PREFIX.length, x.length);
+        try {
+            return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new KeySourceException("解析Ed25519公钥失败: " + octetKeyPair.getKeyID(), e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+
+import java.security.Key;
+import java.security.interfaces.EdECPublicKey;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JWS验证器工厂
+ * <p>
+ * EdDSA使用{@link JdkEd25519Verifier}，其余算法委托给Nimbus默认的验证器工厂。
+ * </p>
+ *
+ * @author george
+ */
+public class JdkJwsVerifierFactory implements JWSVerifierFactory {
+
+    private final DefaultJWSVerifierFactory delegate = new DefaultJWSVerifierFactory();
+
+    /**
+     * 创建验证器
+     *
+     * @param header JWS头
+     * @param key    验证公钥
+     * @return 验证器
+     * @throws JOSEException 算法与公钥不匹配
+     */
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+        if (JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            if (key instanceof EdECPublicKey publicKey) {
+                return new JdkEd25519Verifier(publicKey);
+            }
+            throw new JOSEException("EdDSA需要Ed25519公钥");
+        }
+        return delegate.createJWSVerifier(header, key);
+    }
+
+    /**
+     * 获取支持的签名算法
+     *
+     * @return 默认验证器工厂支持的算法以及EdDSA
+     */
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        Set<JWSAlgorithm> algorithms = new HashSet<>(delegate.supportedJWSAlgorithms());
+        algorithms.add(JWSAlgorithm.EdDSA);
+        return algorithms;
+    }
+
+    /**
+     * 获取JCA上下文
+     *
+     * @return JCA上下文
+     */
+    @Override
+    public JCAContext getJCAContext() {
+        return delegate.getJCAContext();
+    }
+}
@@ -0,0 +1,46 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.gls.athena.security.oauth2.resource.server.revocation.AccessTokenRevocationList;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * 已撤销JWT访问令牌校验器
+ * <p>
+ * 拒绝出现在{@link AccessTokenRevocationList}中的访问令牌，使本地验证的JWT访问令牌也能在过期前撤销。
+ * </p>
+ *
+ * @author george
+ */
+public class RevokedJwtValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN,
+            "The access token has been revoked", null);
+
+    private final AccessTokenRevocationList revocationList;
+
+    /**
+     * 构造校验器
+     *
+     * @param revocationList 已撤销访问令牌列表
+     */
+    public RevokedJwtValidator(AccessTokenRevocationList revocationList) {
+        this.revocationList = revocationList;
+    }
+
+    /**
+     * 校验访问令牌是否已撤销
+     *
+     * @param token JWT访问令牌
+     * @return 校验结果
+     */
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt token) {
+        return revocationList.isRevoked(token.getTokenValue())
+                ? OAuth2TokenValidatorResult.failure(REVOKED)
+                : OAuth2TokenValidatorResult.success();
+    }
+}
@@ -0,0 +1,202 @@
+package com.gls.athena.security.oauth2.resource.server.revocation;
+
+import com.gls.athena.security.oauth2.resource.server.config.ResourceServerRevocationProperties;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 已撤销访问令牌的本地列表
+ * <p>
+ * 授权服务器将过期前被撤销的访问令牌以SHA-256摘要写入Redis有序集合，分数为令牌过期时间，
+ * 并通过发布订阅推送"摘要 过期时间毫秒数"格式的通知，每行一个令牌。
+ * 本类在内存中保存尚未过期的摘要：启动时全量加载，之后实时接收通知，并按同步间隔全量同步以补偿丢失的通知、清理过期条目。
+ * 判断令牌是否已撤销只读取内存，不访问Redis。收到新的撤销通知时以令牌摘要通知撤销监听器，例如失效内省结果缓存。
+ * </p>
+ *
+ * @author george
+ */
+@Slf4j
+public class AccessTokenRevocationList implements MessageListener, InitializingBean, DisposableBean {
+
+    /**
+     * 消息中令牌之间的分隔符
+     */
+    private static final String ENTRY_SEPARATOR = "\n";
+
+    /**
+     * 消息中摘要与过期时间之间的分隔符
+     */
+    private static final String FIELD_SEPARATOR = " ";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ResourceServerRevocationProperties properties;
+
+    /**
+     * 已撤销访问令牌摘要到过期时间毫秒数
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> revocationListeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造已撤销访问令牌列表
+     *
+     * @param redisTemplate 字符串Redis模板
+     * @param properties    撤销列表配置
+     */
+    public AccessTokenRevocationList(StringRedisTemplate redisTemplate, ResourceServerRevocationProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        Metrics.gauge("athena.oauth2.resource.revoked-tokens", revoked, Map::size);
+    }
+
+    /**
+     * 全量加载并启动定时同步任务
+     */
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("oauth2-revocation-sync")
+                .daemon(true)
+                .factory());
+        sync();
+        executor.scheduleWithFixedDelay(this::sync, properties.getSyncInterval(),
+                properties.getSyncInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时同步任务
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取撤销通知频道
+     *
+     * @return 频道名称
+     */
+    public String getChannel() {
+        return properties.getChannel();
+    }
+
+    /**
+     * 添加撤销监听器，收到撤销通知后以令牌摘要调用
+     *
+     * @param listener 撤销监听器
+     */
+    public void addRevocationListener(Consumer<String> listener) {
+        revocationListeners.add(listener);
+    }
+
+    /**
+     * 判断访问令牌是否已撤销
+     *
+     * @param tokenValue 访问令牌值
+     * @return 已撤销且尚未过期时返回true
+     */
+    public boolean isRevoked(String tokenValue) {
+        if (revoked.isEmpty()) {
+            return false;
+        }
+        return isRevokedDigest(digest(tokenValue));
+    }
+
+    /**
+     * 根据令牌摘要判断访问令牌是否已撤销
+     *
+     * @param digest 访问令牌摘要
+     * @return 已撤销且尚未过期时返回true
+     */
+    public boolean isRevokedDigest(String digest) {
+        Long expiresAt = revoked.get(digest);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 接收撤销通知
+     *
+     * @param message 通知消息
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String entry : body.split(ENTRY_SEPARATOR)) {
+            int index = entry.indexOf(FIELD_SEPARATOR);
+            if (index <= 0) {
+                continue;
+            }
+            String digest = entry.substring(0, index);
+            try {
+                revoked.put(digest, Long.parseLong(entry.substring(index + 1)));
+            } catch (NumberFormatException e) {
+                log.warn("无法解析撤销通知: {}", entry);
+                continue;
+            }
+            revocationListeners.forEach(listener -> listener.accept(digest));
+        }
+    }
+
+    /**
+     * 计算访问令牌摘要，与授权服务器发布时的计算方式一致
+     *
+     * @param tokenValue 访问令牌值
+     * @return Base64 URL安全编码的SHA-256摘要
+     */
+    public static String digest(String tokenValue) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256算法", e);
+        }
+    }
+
+    /**
+     * 从Redis全量读取尚未过期的已撤销令牌并清理本地已过期的条目，异常只记录不抛出
+     */
+    private void sync() {
+        long now = System.currentTimeMillis();
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(properties.getKey(), now, Double.POSITIVE_INFINITY);
+            if (tuples != null) {
+                tuples.forEach(tuple -> {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        revoked.put(tuple.getValue(), tuple.getScore().longValue());
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("同步已撤销访问令牌失败", e);
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
@@ -0,0 +1,92 @@
+package com.gls.athena.security.oauth2.resource.server.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于JDK的Ed25519验证器测试，验证由JDK的EdDSA实现签名的JWS
+ *
+ * @author george
+ */
+@DisplayName("基于JDK的Ed25519验证器测试")
+class JdkEd25519VerifierTest {
+
+    private static final String PAYLOAD = "{\"sub\":\"user\"}";
+
+    @Test
+    @DisplayName("接受JDK签名的JWS，拒绝篡改后的JWS")
+    void verify() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        String jws = sign(keyPair, PAYLOAD);
+        JdkEd25519Verifier verifier = new JdkEd25519Verifier(keyPair.getPublic());
+
+        assertTrue(JWSObject.parse(jws).verify(verifier));
+
+        String[] parts = jws.split("\\.");
+        String tampered = parts[0] + "." + Base64URL.encode("{\"sub\":\"admin\"}") + "." + parts[2];
+        assertFalse(JWSObject.parse(tampered).verify(verifier));
+    }
+
+    @Test
+    @DisplayName("拒绝其他密钥签名的JWS")
+    void rejectOtherKey() throws Exception {
+        KeyPair signingKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair otherKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        assertFalse(JWSObject.parse(sign(signingKeyPair, PAYLOAD)).verify(new JdkEd25519Verifier(otherKeyPair.getPublic())));
+    }
+
+    @Test
+    @DisplayName("验证器工厂为EdDSA创建JDK验证器，公钥类型不匹配时抛出异常")
+    void factory() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        JdkJwsVerifierFactory factory = new JdkJwsVerifierFactory();
+        JWSHeader header = new JWSHeader(JWSAlgorithm.EdDSA);
+
+        JWSVerifier verifier = factory.createJWSVerifier(header, keyPair.getPublic());
+
+        assertInstanceOf(JdkEd25519Verifier.class, verifier);
+        assertTrue(JWSObject.parse(sign(keyPair, PAYLOAD)).verify(verifier));
+        assertTrue(factory.supportedJWSAlgorithms().contains(JWSAlgorithm.EdDSA));
+        KeyPair rsaKeyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        assertThrows(JOSEException.class, () -> factory.createJWSVerifier(header, rsaKeyPair.getPublic()));
+    }
+
+    @Test
+    @DisplayName("只支持EdDSA算法")
+    void rejectUnsupportedAlgorithm() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        JdkEd25519Verifier verifier = new JdkEd25519Verifier(keyPair.getPublic());
+
+        assertThrows(JOSEException.class, () -> verifier.verify(new JWSHeader(JWSAlgorithm.ES256), new byte[1], Base64URL.encode(new byte[64])));
+    }
+
+    /**
+     * 使用JDK的EdDSA实现签名JWS
+     *
+     * @param keyPair Ed25519密钥对
+     * @param payload 载荷
+     * @return 紧凑序列化的JWS
+     * @throws Exception 签名失败
+     */
+    private static String sign(KeyPair keyPair, String payload) throws Exception {
+        String signingInput = Base64URL.encode("{\"alg\":\"EdDSA\"}") + "." + Base64URL.encode(payload);
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64URL.encode(signature.sign());
+    }
+}
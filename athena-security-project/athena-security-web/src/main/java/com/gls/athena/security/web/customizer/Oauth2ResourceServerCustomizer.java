@@ -1,8 +1,11 @@
 package com.gls.athena.security.web.customizer;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.stereotype.Component;
 
 /**
@@ -12,17 +15,29 @@ import org.springframework.stereotype.Component;
  * @author george
  */
 @Component
+@RequiredArgsConstructor
 public class Oauth2ResourceServerCustomizer
         implements Customizer<OAuth2ResourceServerConfigurer<HttpSecurity>> {
 
+    /**
+     * JWT解码器，资源服务器验证模式为jwt时存在
+     */
+    private final ObjectProvider<JwtDecoder> jwtDecoder;
+
     /**
      * 自定义OAuth2资源服务器配置
-     * 配置不透明令牌的默认设置
+     * 容器中存在JWT解码器时在本地验证JWT访问令牌，否则通过内省端点验证不透明令牌
      *
      * @param configurer OAuth2资源服务器配置器，用于配置资源服务器相关参数
      */
     @Override
     public void customize(OAuth2ResourceServerConfigurer<HttpSecurity> configurer) {
+        JwtDecoder decoder = jwtDecoder.getIfAvailable();
+        if (decoder != null) {
+            // 使用缓存的JWK集合本地验证，不再逐个请求访问授权服务器
+            configurer.jwt(jwt -> jwt.decoder(decoder));
+            return;
+        }
         // 默认配置
         configurer.opaqueToken(Customizer.withDefaults());
     }